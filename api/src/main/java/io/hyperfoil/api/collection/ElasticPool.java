@@ -7,7 +7,9 @@ package io.hyperfoil.api.collection;
  */
 public interface ElasticPool<T> {
    /**
-    * This can be called by single thread only.
+    * Can be called by any thread; implementations may prefer elements local to the calling thread.
+    *
+    * @return Pooled object or <code>null</code> if the pool is depleted.
     */
    T acquire();
 
@@ -21,6 +21,7 @@ package io.hyperfoil.api.config;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
@@ -42,12 +43,14 @@ public class Benchmark implements Serializable {
    private final Agent[] agents;
    private final int defaultThreads;
    private final int totalThreads;
+   private final Transport transport;
    private final Ergonomics ergonomics;
    private final Map<String, Http> http;
    private final Http defaultHttp;
    private final Collection<Phase> phases;
    private final Map<String, Object> tags;
    private final long statisticsCollectionPeriod;
+   private final HistogramConfig histogram;
    private final List<RunHook> preHooks;
    private final List<RunHook> postHooks;
 
@@ -55,21 +58,24 @@ public class Benchmark implements Serializable {
       return BenchmarkBuilder.builder().http("http://localhost:8080").endHttp().build();
    }
 
-   public Benchmark(String name, String originalSource, Map<String, byte[]> files, Agent[] agents, int defaultThreads, Ergonomics ergonomics,
-                    Map<String, Http> http, Collection<Phase> phases,
-                    Map<String, Object> tags, long statisticsCollectionPeriod, List<RunHook> preHooks, List<RunHook> postHooks) {
+   public Benchmark(String name, String originalSource, Map<String, byte[]> files, Agent[] agents, int defaultThreads, Transport transport,
+                    Ergonomics ergonomics, Map<String, Http> http, Collection<Phase> phases,
+                    Map<String, Object> tags, long statisticsCollectionPeriod, HistogramConfig histogram,
+                    List<RunHook> preHooks, List<RunHook> postHooks) {
       this.name = name;
       this.originalSource = originalSource;
       this.files = files;
       this.agents = agents;
       this.defaultThreads = defaultThreads;
       this.totalThreads = agents.length == 0 ? defaultThreads : Stream.of(agents).mapToInt(Agent::threads).map(n -> n <= 0 ? defaultThreads : n).sum();
+      this.transport = transport;
       this.ergonomics = ergonomics;
       this.http = http;
       this.defaultHttp = http.values().stream().filter(Http::isDefault).findFirst().orElse(null);
       this.phases = phases;
       this.tags = tags;
       this.statisticsCollectionPeriod = statisticsCollectionPeriod;
+      this.histogram = histogram == null ? HistogramConfig.DEFAULT : histogram;
       this.preHooks = preHooks;
       this.postHooks = postHooks;
       this.version = Util.randomUUID().toString();
@@ -98,13 +104,17 @@ public class Benchmark implements Serializable {
    }
 
    public Map<String, byte[]> files() {
-      return files;
+      return files == null ? Collections.emptyMap() : files;
    }
 
    public int defaultThreads() {
       return defaultThreads;
    }
 
+   public Transport transport() {
+      return transport;
+   }
+
    public Collection<Phase> phases() {
       return phases;
    }
@@ -125,6 +135,13 @@ public class Benchmark implements Serializable {
       return statisticsCollectionPeriod;
    }
 
+   /**
+    * @return Default range and precision of response time histograms.
+    */
+   public HistogramConfig histogram() {
+      return histogram;
+   }
+
    public List<RunHook> preHooks() {
       return preHooks;
    }
@@ -143,10 +160,12 @@ public class Benchmark implements Serializable {
             ", originalSource='" + originalSource + '\'' +
             ", agents=" + Arrays.toString(agents) +
             ", threads=" + defaultThreads +
+            ", transport=" + transport +
             ", http=" + http +
             ", phases=" + phases +
             ", tags=" + tags +
             ", statisticsCollectionPeriod=" + statisticsCollectionPeriod +
+            ", histogram=" + histogram +
             '}';
    }
 
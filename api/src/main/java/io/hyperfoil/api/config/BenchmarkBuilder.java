@@ -48,8 +48,10 @@ public class BenchmarkBuilder {
    private HttpBuilder defaultHttp;
    private List<HttpBuilder> httpList = new ArrayList<>();
    private int threads = 1;
+   private Transport transport = Transport.NIO;
    private Map<String, PhaseBuilder<?>> phaseBuilders = new HashMap<>();
    private long statisticsCollectionPeriod = 1000;
+   private HistogramBuilder<BenchmarkBuilder> histogram = new HistogramBuilder<>(this);
    private List<RunHook> preHooks = new ArrayList<>();
    private List<RunHook> postHooks = new ArrayList<>();
 
@@ -84,6 +86,10 @@ public class BenchmarkBuilder {
       return ergonomics;
    }
 
+   public HistogramBuilder<BenchmarkBuilder> histogram() {
+      return histogram;
+   }
+
    public HttpBuilder http() {
       if (defaultHttp == null) {
          defaultHttp = new HttpBuilder(this);
@@ -102,6 +108,11 @@ public class BenchmarkBuilder {
       return this;
    }
 
+   public BenchmarkBuilder transport(Transport transport) {
+      this.transport = transport;
+      return this;
+   }
+
    public PhaseBuilder.Catalog addPhase(String name) {
       return new PhaseBuilder.Catalog(this, name);
    }
@@ -184,8 +195,8 @@ public class BenchmarkBuilder {
          properties.putAll(a.properties);
          return new Agent(a.name, a.inlineConfig, properties);
       }).toArray(Agent[]::new);
-      Benchmark benchmark = new Benchmark(name, originalSource, files, agents, threads, ergonomics.build(),
-            httpMap, new ArrayList<>(phases.values()), tags, statisticsCollectionPeriod, preHooks, postHooks);
+      Benchmark benchmark = new Benchmark(name, originalSource, files, agents, threads, transport,
+            ergonomics.build(), httpMap, new ArrayList<>(phases.values()), tags, statisticsCollectionPeriod, histogram.build(), preHooks, postHooks);
       bs.set(benchmark);
       return benchmark;
    }
@@ -0,0 +1,98 @@
+package io.hyperfoil.api.config;
+
+import io.hyperfoil.util.Util;
+
+/**
+ * Configures range and precision of response time histograms. Properties that are not set are taken from
+ * the defaults passed to {@link #build(HistogramConfig)}.
+ */
+public class HistogramBuilder<P> {
+   private final P parent;
+   private Long highestTrackableValue;
+   private Integer significantDigits;
+   private Boolean autoResize;
+   private Boolean correctCoordinatedOmission;
+
+   public HistogramBuilder(P parent) {
+      this.parent = parent;
+   }
+
+   /**
+    * Highest response time that can be recorded. Longer response times are clamped to this value (and counted
+    * in the <code>clamped</code> custom statistic) unless <code>autoResize</code> is set. Default is 1 minute.
+    *
+    * @param maxValue Duration, e.g. <code>2m</code>.
+    * @return Self.
+    */
+   public HistogramBuilder<P> maxValue(String maxValue) {
+      return maxValueNanos(Util.parseToNanos(maxValue));
+   }
+
+   public HistogramBuilder<P> maxValueNanos(long nanos) {
+      this.highestTrackableValue = nanos;
+      return this;
+   }
+
+   /**
+    * Number of significant decimal digits kept in the histogram (0 - 5). Default is 2.
+    *
+    * @param significantDigits Number of digits.
+    * @return Self.
+    */
+   public HistogramBuilder<P> significantDigits(int significantDigits) {
+      this.significantDigits = significantDigits;
+      return this;
+   }
+
+   /**
+    * Let the histogram grow when recording values above the maximum value instead of clamping these. Default is false.
+    *
+    * @param autoResize Auto-resize?
+    * @return Self.
+    */
+   public HistogramBuilder<P> autoResize(boolean autoResize) {
+      this.autoResize = autoResize;
+      return this;
+   }
+
+   /**
+    * Record response times also from the intended start of the request (scheduled arrival of the user in open-model
+    * phases or target of <code>scheduleDelay</code> step) into a second histogram. This reveals latency hidden
+    * by coordinated omission when the driver or server falls behind the schedule. Default is false.
+    *
+    * @param correct Record corrected response times?
+    * @return Self.
+    */
+   public HistogramBuilder<P> correctCoordinatedOmission(boolean correct) {
+      this.correctCoordinatedOmission = correct;
+      return this;
+   }
+
+   public HistogramBuilder<P> readFrom(HistogramBuilder<?> other) {
+      this.highestTrackableValue = other.highestTrackableValue;
+      this.significantDigits = other.significantDigits;
+      this.autoResize = other.autoResize;
+      this.correctCoordinatedOmission = other.correctCoordinatedOmission;
+      return this;
+   }
+
+   public P end() {
+      return parent;
+   }
+
+   public HistogramConfig build() {
+      return build(HistogramConfig.DEFAULT);
+   }
+
+   /**
+    * @param defaults Settings used for properties that have not been set explicitly.
+    * @return Histogram settings.
+    */
+   public HistogramConfig build(HistogramConfig defaults) {
+      return new HistogramConfig(
+            highestTrackableValue != null ? highestTrackableValue : defaults.highestTrackableValue(),
+            significantDigits != null ? significantDigits : defaults.significantDigits(),
+            autoResize != null ? autoResize : defaults.autoResize(),
+            correctCoordinatedOmission != null ? correctCoordinatedOmission : defaults.correctCoordinatedOmission());
+   }
+}
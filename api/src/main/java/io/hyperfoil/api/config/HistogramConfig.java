@@ -0,0 +1,73 @@
+package io.hyperfoil.api.config;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Range and precision of response time histograms.
+ */
+public class HistogramConfig implements Serializable {
+   public static final HistogramConfig DEFAULT = new HistogramConfig(TimeUnit.MINUTES.toNanos(1), 2, false, false);
+
+   private final long highestTrackableValue;
+   private final int significantDigits;
+   private final boolean autoResize;
+   private final boolean correctCoordinatedOmission;
+
+   public HistogramConfig(long highestTrackableValue, int significantDigits, boolean autoResize) {
+      this(highestTrackableValue, significantDigits, autoResize, false);
+   }
+
+   public HistogramConfig(long highestTrackableValue, int significantDigits, boolean autoResize, boolean correctCoordinatedOmission) {
+      if (highestTrackableValue < 2) {
+         throw new BenchmarkDefinitionException("Highest trackable value must be at least 2 ns: " + highestTrackableValue);
+      } else if (significantDigits < 0 || significantDigits > 5) {
+         throw new BenchmarkDefinitionException("Number of significant digits must be between 0 and 5: " + significantDigits);
+      }
+      this.highestTrackableValue = highestTrackableValue;
+      this.significantDigits = significantDigits;
+      this.autoResize = autoResize;
+      this.correctCoordinatedOmission = correctCoordinatedOmission;
+   }
+
+   /**
+    * @return Highest value (in nanoseconds) recorded without clamping, unless the histogram is auto-resizing.
+    */
+   public long highestTrackableValue() {
+      return highestTrackableValue;
+   }
+
+   public int significantDigits() {
+      return significantDigits;
+   }
+
+   public boolean autoResize() {
+      return autoResize;
+   }
+
+   /**
+    * @return True if response times should be also recorded from the intended start of the request
+    * (e.g. scheduled arrival of the user) into a separate histogram.
+    */
+   public boolean correctCoordinatedOmission() {
+      return correctCoordinatedOmission;
+   }
+
+   public Histogram newHistogram() {
+      Histogram histogram = new Histogram(highestTrackableValue, significantDigits);
+      histogram.setAutoResize(autoResize);
+      return histogram;
+   }
+
+   @Override
+   public String toString() {
+      return "HistogramConfig{" +
+            "highestTrackableValue=" + highestTrackableValue +
+            ", significantDigits=" + significantDigits +
+            ", autoResize=" + autoResize +
+            ", correctCoordinatedOmission=" + correctCoordinatedOmission +
+            '}';
+   }
+}
@@ -41,12 +41,19 @@ public class Http implements Serializable {
    private final boolean directHttp2;
    private final long requestTimeout;
    private final boolean rawBytesHandlers;
+   private final boolean tcpNoDelay;
+   private final boolean tcpQuickAck;
+   private final int busyPoll;
+   private final boolean flushConsolidation;
+   private final int flushConsolidationLimit;
    private final KeyManager keyManager;
    private final TrustManager trustManager;
 
    public Http(boolean isDefault, Protocol protocol, String host, int port, String[] addresses,
                HttpVersion[] versions, int maxHttp2Streams, int pipeliningLimit, int sharedConnections,
                boolean directHttp2, long requestTimeout, boolean rawBytesHandlers,
+               boolean tcpNoDelay, boolean tcpQuickAck, int busyPoll,
+               boolean flushConsolidation, int flushConsolidationLimit,
                KeyManager keyManager, TrustManager trustManager) {
       this.isDefault = isDefault;
       this.protocol = protocol;
@@ -60,6 +67,11 @@ public class Http implements Serializable {
       this.directHttp2 = directHttp2;
       this.requestTimeout = requestTimeout;
       this.rawBytesHandlers = rawBytesHandlers;
+      this.tcpNoDelay = tcpNoDelay;
+      this.tcpQuickAck = tcpQuickAck;
+      this.busyPoll = busyPoll;
+      this.flushConsolidation = flushConsolidation;
+      this.flushConsolidationLimit = flushConsolidationLimit;
       this.keyManager = keyManager;
       this.trustManager = trustManager;
    }
@@ -112,6 +124,38 @@ public class Http implements Serializable {
       return rawBytesHandlers;
    }
 
+   public boolean tcpNoDelay() {
+      return tcpNoDelay;
+   }
+
+   /**
+    * @return Whether TCP_QUICKACK should be set; applied only with the epoll transport.
+    */
+   public boolean tcpQuickAck() {
+      return tcpQuickAck;
+   }
+
+   /**
+    * @return Microseconds to busy-poll the socket (SO_BUSY_POLL), 0 to disable; applied only with the epoll transport.
+    */
+   public int busyPoll() {
+      return busyPoll;
+   }
+
+   /**
+    * @return Whether flushes of requests written on the same event loop should be deferred and issued in one batch.
+    */
+   public boolean flushConsolidation() {
+      return flushConsolidation;
+   }
+
+   /**
+    * @return Maximum number of requests written to one connection before the flush is forced even with consolidation.
+    */
+   public int flushConsolidationLimit() {
+      return flushConsolidationLimit;
+   }
+
    public TrustManager trustManager() {
       return trustManager;
    }
@@ -50,6 +50,11 @@ public class HttpBuilder {
    private boolean directHttp2 = false;
    private long requestTimeout = 30000;
    private boolean rawBytesHandlers = true;
+   private boolean tcpNoDelay = true;
+   private boolean tcpQuickAck = false;
+   private int busyPoll = 0;
+   private boolean flushConsolidation = false;
+   private int flushConsolidationLimit = 32;
    private KeyManagerBuilder keyManager = new KeyManagerBuilder();
    private TrustManagerBuilder trustManager = new TrustManagerBuilder();
 
@@ -164,6 +169,37 @@ public class HttpBuilder {
       return this;
    }
 
+   public HttpBuilder tcpNoDelay(boolean tcpNoDelay) {
+      this.tcpNoDelay = tcpNoDelay;
+      return this;
+   }
+
+   public HttpBuilder tcpQuickAck(boolean tcpQuickAck) {
+      this.tcpQuickAck = tcpQuickAck;
+      return this;
+   }
+
+   public HttpBuilder busyPoll(int busyPoll) {
+      if (busyPoll < 0) {
+         throw new BenchmarkDefinitionException("Busy-poll timeout must not be negative: " + busyPoll);
+      }
+      this.busyPoll = busyPoll;
+      return this;
+   }
+
+   public HttpBuilder flushConsolidation(boolean flushConsolidation) {
+      this.flushConsolidation = flushConsolidation;
+      return this;
+   }
+
+   public HttpBuilder flushConsolidationLimit(int flushConsolidationLimit) {
+      if (flushConsolidationLimit <= 0) {
+         throw new BenchmarkDefinitionException("Flush consolidation limit must be positive: " + flushConsolidationLimit);
+      }
+      this.flushConsolidationLimit = flushConsolidationLimit;
+      return this;
+   }
+
    public KeyManagerBuilder keyManager() {
       return keyManager;
    }
@@ -197,7 +233,8 @@ public class HttpBuilder {
       Protocol protocol = this.protocol != null ? this.protocol : Protocol.fromPort(port);
       return http = new Http(isDefault, protocol, host, protocol.portOrDefault(port), addresses.toArray(new String[0]),
             httpVersions.toArray(new HttpVersion[0]), maxHttp2Streams, pipeliningLimit,
-            sharedConnections, directHttp2, requestTimeout, rawBytesHandlers, keyManager.build(), trustManager.build());
+            sharedConnections, directHttp2, requestTimeout, rawBytesHandlers, tcpNoDelay, tcpQuickAck, busyPoll,
+            flushConsolidation, flushConsolidationLimit, keyManager.build(), trustManager.build());
    }
 
    public class KeyManagerBuilder {
@@ -212,6 +212,55 @@ public abstract class Phase implements Serializable {
       }
    }
 
+   /**
+    * Open-model phase that looks for the highest arrival rate that satisfies all SLAs. The rate is held for
+    * {@link #stepDuration} and the controller evaluates SLAs over the statistics from that step (excluding
+    * {@link #warmup}), then picks next rate. The phase finishes when the search converges; {@link #duration} limits
+    * the whole search.
+    */
+   public static class Search extends OpenModelPhase {
+      public final double initialUsersPerSec;
+      public final double maxUsersPerSec;
+      public final double precision;
+      public final double increment;
+      public final long stepDuration;
+      public final long warmup;
+      public final SearchStrategy strategy;
+
+      public Search(SerializableSupplier<Benchmark> benchmark, int id, int iteration, String name, Scenario scenario, long startTime,
+                    Collection<String> startAfter, Collection<String> startAfterStrict,
+                    Collection<String> terminateAfterStrict,
+                    long duration, long maxDuration, String sharedResources,
+                    double initialUsersPerSec, double maxUsersPerSec, double precision, double increment,
+                    long stepDuration, long warmup, SearchStrategy strategy,
+                    boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
+         super(benchmark, id, iteration, name, scenario, startTime, startAfter, startAfterStrict, terminateAfterStrict, duration, maxDuration, sharedResources, variance, maxSessions, sessionLimitPolicy);
+         this.initialUsersPerSec = initialUsersPerSec;
+         this.maxUsersPerSec = maxUsersPerSec;
+         this.precision = precision;
+         this.increment = increment;
+         this.stepDuration = stepDuration;
+         this.warmup = warmup;
+         this.strategy = strategy;
+      }
+
+      @Override
+      public String description() {
+         return String.format("%s search for max users per second in %.2f - %.2f", strategy, initialUsersPerSec, maxUsersPerSec);
+      }
+   }
+
+   public enum SearchStrategy {
+      /**
+       * Halve the interval between the highest passing and lowest failing rate until it is narrower than precision.
+       */
+      BINARY,
+      /**
+       * Increase the rate by fixed increment until a step fails.
+       */
+      STEP
+   }
+
    public static class Sequentially extends Phase {
       public final int repeats;
 
@@ -469,6 +469,103 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
       }
    }
 
+   public static class Search extends OpenModel<Search> {
+      private double initialUsersPerSec = -1;
+      private double maxUsersPerSec;
+      private double precision = -1;
+      private double increment = -1;
+      private long stepDuration = -1;
+      private long warmup = 0;
+      private Phase.SearchStrategy strategy = Phase.SearchStrategy.BINARY;
+
+      Search(BenchmarkBuilder parent, String name, double maxUsersPerSec) {
+         super(parent, name);
+         this.maxUsersPerSec = maxUsersPerSec;
+      }
+
+      @Override
+      public Phase.Search buildPhase(SerializableSupplier<Benchmark> benchmark, SerializableSupplier<Phase> phase, int id, int i, PhaseForkBuilder f) {
+         if (maxIterations > 1 || forks.size() > 1) {
+            throw new BenchmarkDefinitionException("Phase " + name + " cannot use iterations or forks: the search would not be shared.");
+         }
+         if (maxUsersPerSec <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".maxUsersPerSec must be positive.");
+         }
+         if (stepDuration <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".stepDuration must be positive.");
+         }
+         if (warmup < 0 || warmup >= stepDuration) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".warmup must be non-negative and shorter than stepDuration.");
+         }
+         double initialUsersPerSec = this.initialUsersPerSec;
+         double precision = this.precision > 0 ? this.precision : maxUsersPerSec / 100;
+         double increment = this.increment > 0 ? this.increment : maxUsersPerSec / 10;
+         if (initialUsersPerSec <= 0) {
+            initialUsersPerSec = strategy == Phase.SearchStrategy.BINARY ? maxUsersPerSec / 2 : increment;
+         }
+         if (initialUsersPerSec > maxUsersPerSec) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".initialUsersPerSec must not be higher than maxUsersPerSec.");
+         }
+         long duration = this.duration;
+         if (duration < 0) {
+            // Upper bound on the number of steps, each one needs some time on top for collecting statistics
+            int steps = strategy == Phase.SearchStrategy.BINARY ?
+                  (int) Math.ceil(Math.log(maxUsersPerSec / precision) / Math.log(2)) + 2 :
+                  (int) Math.ceil((maxUsersPerSec - initialUsersPerSec) / increment) + 1;
+            duration = 2 * steps * stepDuration;
+         }
+         int maxSessions = this.maxSessions > 0 ? this.maxSessions : (int) Math.ceil(maxUsersPerSec);
+         return new Phase.Search(benchmark, id, i, iterationName(i, f.name), f.scenario.build(phase),
+               iterationStartTime(i), iterationReferences(startAfter, i, false),
+               iterationReferences(startAfterStrict, i, true), iterationReferences(terminateAfterStrict, i, false), duration,
+               maxDuration, sharedResources(f), initialUsersPerSec, maxUsersPerSec, precision, increment,
+               stepDuration, warmup, strategy, variance, maxSessions, sessionLimitPolicy);
+      }
+
+      public Search initialUsersPerSec(double initialUsersPerSec) {
+         this.initialUsersPerSec = initialUsersPerSec;
+         return this;
+      }
+
+      public Search maxUsersPerSec(double maxUsersPerSec) {
+         this.maxUsersPerSec = maxUsersPerSec;
+         return this;
+      }
+
+      public Search precision(double precision) {
+         this.precision = precision;
+         return this;
+      }
+
+      public Search increment(double increment) {
+         this.increment = increment;
+         return this;
+      }
+
+      public Search stepDuration(long stepDuration) {
+         this.stepDuration = stepDuration;
+         return this;
+      }
+
+      public Search stepDuration(String stepDuration) {
+         return stepDuration(Util.parseToMillis(stepDuration));
+      }
+
+      public Search warmup(long warmup) {
+         this.warmup = warmup;
+         return this;
+      }
+
+      public Search warmup(String warmup) {
+         return warmup(Util.parseToMillis(warmup));
+      }
+
+      public Search strategy(Phase.SearchStrategy strategy) {
+         this.strategy = strategy;
+         return this;
+      }
+   }
+
    public static class Sequentially extends PhaseBuilder<Sequentially> {
       private int repeats;
 
@@ -514,6 +611,10 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          return new ConstantRate(parent, name, usersPerSec);
       }
 
+      public Search search(double maxUsersPerSec) {
+         return new Search(parent, name, maxUsersPerSec);
+      }
+
       public Sequentially sequentially(int repeats) {
          return new Sequentially(parent, name, repeats);
       }
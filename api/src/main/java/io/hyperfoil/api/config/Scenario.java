@@ -32,14 +32,20 @@ public class Scenario implements Serializable {
    private final Map<String, Sequence> sequenceMap;
    private int maxRequests;
    private int maxSequences;
+   private final int varSlots;
 
    public Scenario(Sequence[] initialSequences, Sequence[] sequences, String[] objectVars, String[] intVars, int maxRequests, int maxSequences) {
+      this(initialSequences, sequences, objectVars, intVars, maxRequests, maxSequences, 0);
+   }
+
+   public Scenario(Sequence[] initialSequences, Sequence[] sequences, String[] objectVars, String[] intVars, int maxRequests, int maxSequences, int varSlots) {
       this.initialSequences = initialSequences;
       this.sequences = sequences;
       this.objectVars = objectVars;
       this.intVars = intVars;
       this.maxRequests = maxRequests;
       this.maxSequences = maxSequences;
+      this.varSlots = varSlots;
       sequenceMap = Stream.of(sequences).collect(Collectors.toMap(s -> s.name(), Function.identity()));
    }
 
@@ -67,6 +73,13 @@ public class Scenario implements Serializable {
       return maxSequences;
    }
 
+   /**
+    * @return Number of variable slots assigned through {@link ScenarioBuilder#varSlot(Object)}.
+    */
+   public int varSlots() {
+      return varSlots;
+   }
+
    public Sequence sequence(String name) {
       Sequence sequence = sequenceMap.get(name);
       if (sequence == null) {
@@ -24,18 +24,23 @@ import io.hyperfoil.function.SerializableSupplier;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * @author <a href="mailto:stalep@gmail.com">Ståle Pedersen</a>
  */
 public class ScenarioBuilder implements Rewritable<ScenarioBuilder> {
+   private static final ThreadLocal<ScenarioBuilder> BUILDING = new ThreadLocal<>();
 
    private final PhaseBuilder<?> phaseBuilder;
    private Collection<SequenceBuilder> initialSequences = new ArrayList<>();
    private Collection<SequenceBuilder> sequences = new ArrayList<>();
    private Collection<String> objectVars = new ArrayList<>();
    private Collection<String> intVars = new ArrayList<>();
+   private final Map<Object, Integer> varSlots = new HashMap<>();
+   private int statisticsSlots;
    private Scenario scenario;
    private int maxRequests = 16;
    private int maxSequences = 16;
@@ -112,13 +117,49 @@ public class ScenarioBuilder implements Rewritable<ScenarioBuilder> {
       if (initialSequences.isEmpty()) {
          throw new BenchmarkDefinitionException("No initial sequences in phase " + endScenario().name());
       }
-      return scenario = new Scenario(
-            initialSequences.stream().map(sequenceBuilder -> sequenceBuilder.build(phase)).toArray(Sequence[]::new),
-            sequences.stream().map(sequenceBuilder1 -> sequenceBuilder1.build(phase)).toArray(Sequence[]::new),
-            objectVars.toArray(new String[0]),
-            intVars.toArray(new String[0]),
-            maxRequests,
-            maxSequences);
+      ScenarioBuilder previous = BUILDING.get();
+      BUILDING.set(this);
+      try {
+         Sequence[] initialSequences = this.initialSequences.stream().map(sequenceBuilder -> sequenceBuilder.build(phase)).toArray(Sequence[]::new);
+         Sequence[] sequences = this.sequences.stream().map(sequenceBuilder1 -> sequenceBuilder1.build(phase)).toArray(Sequence[]::new);
+         return scenario = new Scenario(initialSequences, sequences,
+               objectVars.toArray(new String[0]),
+               intVars.toArray(new String[0]),
+               maxRequests,
+               maxSequences,
+               varSlots.size());
+      } finally {
+         BUILDING.set(previous);
+      }
+   }
+
+   /**
+    * Assigns the variable an index into session's array of variables. Indices are dense and unique within
+    * the scenario that is being built in this thread.
+    *
+    * @param key Variable name or other identifier.
+    * @return Slot index, or -1 if no scenario is being built.
+    */
+   public static int varSlot(Object key) {
+      ScenarioBuilder builder = BUILDING.get();
+      if (builder == null) {
+         return -1;
+      }
+      return builder.varSlots.computeIfAbsent(key, k -> builder.varSlots.size());
+   }
+
+   /**
+    * Assigns a step recording statistics an index into session's cache of {@link io.hyperfoil.api.statistics.Statistics}.
+    * Indices are dense and unique within the scenario that is being built in this thread.
+    *
+    * @return Slot index, or -1 if no scenario is being built.
+    */
+   public static int statisticsSlot() {
+      ScenarioBuilder builder = BUILDING.get();
+      if (builder == null) {
+         return -1;
+      }
+      return builder.statisticsSlots++;
    }
 
    @Override
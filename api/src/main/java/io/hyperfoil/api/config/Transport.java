@@ -0,0 +1,25 @@
+package io.hyperfoil.api.config;
+
+/**
+ * Network transport used by the agent event loops. Native transports are used only when available
+ * on the agent; otherwise the agent falls back to the next one in order <code>IO_URING &gt; EPOLL &gt; NIO</code>.
+ */
+public enum Transport {
+   NIO,
+   EPOLL,
+   IO_URING;
+
+   public static Transport fromString(String value) {
+      switch (value.toLowerCase()) {
+         case "nio":
+            return NIO;
+         case "epoll":
+            return EPOLL;
+         case "io_uring":
+         case "iouring":
+            return IO_URING;
+         default:
+            throw new BenchmarkDefinitionException("Unknown transport '" + value + "', expected one of: nio, epoll, io_uring");
+      }
+   }
+}
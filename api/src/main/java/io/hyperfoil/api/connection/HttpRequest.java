@@ -17,6 +17,8 @@ public class HttpRequest extends Request {
    public HttpMethod method;
    public String authority;
    public String path;
+   // Recorded in statistics together with the response
+   public int statusCode;
    public CacheControl cacheControl = new CacheControl();
 
    public HttpRequest(Session session) {
@@ -40,6 +42,7 @@ public class HttpRequest extends Request {
       this.method = null;
       this.authority = null;
       this.path = null;
+      this.statusCode = 0;
       cacheControl.reset();
    }
 
@@ -47,6 +50,14 @@ public class HttpRequest extends Request {
       return handlers;
    }
 
+   @Override
+   protected void recordTimeout() {
+      // The response may have started before the timeout; its status is recorded here
+      // so that the response handlers won't record it again
+      statistics().incrementTimeouts(startTimestampMillis(), statusCode);
+      statusCode = 0;
+   }
+
    @Override
    protected void handleThrowable(Throwable throwable) {
       enter();
@@ -1,35 +1,29 @@
 package io.hyperfoil.api.connection;
 
-import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
+import io.hyperfoil.api.session.TimerWheel;
 import io.hyperfoil.api.statistics.Statistics;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
-import io.netty.util.concurrent.ScheduledFuture;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
-public abstract class Request implements Callable<Void>, GenericFutureListener<Future<Void>> {
+public abstract class Request extends TimerWheel.Timeout implements GenericFutureListener<Future<Void>> {
    private static final Logger log = LoggerFactory.getLogger(Request.class);
    private static final TimeoutException TIMEOUT_EXCEPTION = new TimeoutException();
-   private static final GenericFutureListener<Future<Object>> FAILURE_LISTENER = future -> {
-      if (!future.isSuccess() && !future.isCancelled()) {
-         log.error("Timeout task failed", future.cause());
-      }
-   };
 
    public final Session session;
    private long startTimestampMillis;
    private long startTimestampNanos;
+   private long intendedStartNanos;
    private long sendTimestampNanos;
    private SequenceInstance sequence;
    private Statistics statistics;
-   private ScheduledFuture<?> timeoutFuture;
    private Connection connection;
    private Status status = Status.IDLE;
    private Result result = Result.VALID;
@@ -42,13 +36,12 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
     * This method works as timeout handler
     */
    @Override
-   public Void call() {
+   protected void expire() {
       int uniqueId = session == null ? -1 : session.uniqueId();
       log.warn("#{} Request timeout on connection {}", uniqueId, connection);
-      timeoutFuture = null;
       if (status != Status.COMPLETED) {
          result = Result.TIMED_OUT;
-         statistics.incrementTimeouts(startTimestampMillis);
+         recordTimeout();
          try {
             handleThrowable(TIMEOUT_EXCEPTION);
          } catch (SessionStopException e) {
@@ -59,7 +52,10 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
       } else {
          log.trace("#{} Request {} is already completed.", uniqueId, this);
       }
-      return null;
+   }
+
+   protected void recordTimeout() {
+      statistics.incrementTimeouts(startTimestampMillis);
    }
 
    protected abstract void handleThrowable(Throwable throwable);
@@ -67,6 +63,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    public void start(SequenceInstance sequence, Statistics statistics) {
       this.startTimestampMillis = System.currentTimeMillis();
       this.startTimestampNanos = System.nanoTime();
+      this.intendedStartNanos = startTimestampNanos;
       this.sequence = sequence;
       this.statistics = statistics;
       this.status = Status.RUNNING;
@@ -102,10 +99,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setCompleted() {
-      if (timeoutFuture != null) {
-         timeoutFuture.cancel(false);
-         timeoutFuture = null;
-      }
+      disarm();
       connection = null;
       // handleEnd may indirectly call handleThrowable which calls setCompleted first
       if (status != Status.IDLE) {
@@ -133,13 +127,24 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
       return startTimestampNanos;
    }
 
+   /**
+    * @return Time (in {@link System#nanoTime()} base) when this request should have been started if the load driver
+    * kept the schedule; never later than {@link #startTimestampNanos()}.
+    */
+   public long intendedStartNanos() {
+      return intendedStartNanos;
+   }
+
+   public void setIntendedStartNanos(long intendedStartNanos) {
+      this.intendedStartNanos = Math.min(this.intendedStartNanos, intendedStartNanos);
+   }
+
    public long sendTimestampNanos() {
       return sendTimestampNanos;
    }
 
    public void setTimeout(long timeout, TimeUnit timeUnit) {
-      timeoutFuture = session.executor().schedule(this, timeout, timeUnit);
-      timeoutFuture.addListener(FAILURE_LISTENER);
+      session.timerWheel().schedule(this, timeout, timeUnit);
    }
 
    @Override
@@ -14,4 +14,18 @@ public interface HttpResponseHandlers extends ResponseHandlers<HttpRequest> {
    void handleRawRequest(HttpRequest request, ByteBuf data, int offset, int length);
 
    void handleRawResponse(HttpRequest request, ByteBuf data, int offset, int length, boolean isLastPart);
+
+   /**
+    * Connections parsing the response themselves can skip decoding headers nobody is interested in.
+    *
+    * @param request Request the response belongs to.
+    * @return False if only headers used by cookies and cache need to be passed to {@link #handleHeader(HttpRequest, CharSequence, CharSequence)}.
+    */
+   boolean requiresHandlingHeaders(HttpRequest request);
+
+   /**
+    * @param request Request the response belongs to.
+    * @return False if {@link #handleBodyPart(HttpRequest, ByteBuf, int, int, boolean)} does not need to be invoked.
+    */
+   boolean requiresHandlingBody(HttpRequest request);
 }
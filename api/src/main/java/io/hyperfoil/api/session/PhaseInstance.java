@@ -15,7 +15,12 @@ public interface PhaseInstance {
 
    long absoluteStartTime();
 
-   void start(EventExecutorGroup executorGroup);
+   /**
+    * @param executorGroup Executors running the sessions.
+    * @param absoluteStartTime Wall-clock time (in local clock) when the phase starts; this is shared by all agents
+    *                          so it may be slightly in the past.
+    */
+   void start(EventExecutorGroup executorGroup, long absoluteStartTime);
 
    void finish();
 
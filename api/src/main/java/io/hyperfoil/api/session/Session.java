@@ -10,6 +10,7 @@ import io.netty.util.concurrent.EventExecutor;
 import io.hyperfoil.api.collection.LimitedPool;
 import io.hyperfoil.api.connection.HttpConnectionPool;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.config.HistogramConfig;
 import io.hyperfoil.api.config.Phase;
 
 public interface Session {
@@ -38,12 +39,41 @@ public interface Session {
 
    EventExecutor executor();
 
+   /**
+    * @return Timer wheel shared by all sessions running in this session's executor.
+    */
+   TimerWheel timerWheel();
+
+   /**
+    * @return Data shared with sessions running in the same executor.
+    */
    SharedData sharedData();
 
+   /**
+    * @param scope Visibility of the data.
+    * @return Data shared with other sessions within given scope.
+    */
+   SharedData sharedData(SharedData.Scope scope);
+
    Phase phase();
 
    Statistics statistics(int stepId, String name);
 
+   Statistics statistics(int stepId, String name, HistogramConfig histogramConfig);
+
+   /**
+    * Variant of {@link #statistics(int, String, HistogramConfig)} that avoids looking up the statistics by name
+    * after the first invocation.
+    *
+    * @param stepId Step identifier.
+    * @param slot Step's statistics slot assigned when the scenario was built, or -1.
+    * @param metricId Identifier of the metric, unique within the step.
+    * @param name Name of the metric.
+    * @param histogramConfig Histogram configuration or <code>null</code> to use benchmark default.
+    * @return Statistics.
+    */
+   Statistics statistics(int stepId, int slot, int metricId, String name, HistogramConfig histogramConfig);
+
    void pruneStats(Phase phase);
 
    // Resources
@@ -56,7 +86,14 @@ public interface Session {
 
    SequenceInstance currentSequence();
 
-   void attach(EventExecutor executor, SharedData sharedData, HttpDestinationTable httpDestinations, SessionStatistics statistics);
+   /**
+    * @param executor Executor running this session.
+    * @param timerWheel Timer wheel of the executor.
+    * @param sharedData Shared data for each {@link SharedData.Scope}, indexed by scope ordinal.
+    * @param httpDestinations HTTP connection pools.
+    * @param statistics Session pool statistics.
+    */
+   void attach(EventExecutor executor, TimerWheel timerWheel, SharedData[] sharedData, HttpDestinationTable httpDestinations, SessionStatistics statistics);
 
    void start(PhaseInstance phase);
 
@@ -73,6 +110,11 @@ public interface Session {
 
    void fail(Throwable t);
 
+   /**
+    * Releases the resources held by this session; the session must not be used after this call.
+    */
+   void destroy();
+
    boolean isActive();
 
    LimitedPool<HttpRequest> httpRequestPool();
@@ -90,6 +132,20 @@ public interface Session {
 
    void currentRequest(Request request);
 
+   /**
+    * Sets the time when the next request should start according to the schedule (user arrival, scheduled delay...).
+    * This is used to record response times corrected for coordinated omission.
+    *
+    * @param nanos Timestamp in {@link System#nanoTime()} base.
+    */
+   void intendedStart(long nanos);
+
+   /**
+    * @return Intended start of the request set by {@link #intendedStart(long)} or {@link Long#MAX_VALUE} if not set.
+    * The value is cleared.
+    */
+   long takeIntendedStart();
+
    enum VarType {
       OBJECT,
       INTEGER
@@ -114,9 +170,14 @@ public interface Session {
    }
 
    /**
-    * Just a marker interface.
+    * Object stored in the session, e.g. state of a step.
     */
    interface Resource {
+      /**
+       * Releases anything allocated off-heap; invoked when the session is destroyed at the end of the simulation.
+       */
+      default void destroy() {
+      }
    }
 
    interface ResourceKey<R extends Resource> {}
@@ -1,7 +1,8 @@
 package io.hyperfoil.api.session;
 
 /**
- * Data shared among sessions bound to the same {@link Session#executor() executor thread}.
+ * Data shared among sessions; by default among those bound to the same {@link Session#executor() executor thread},
+ * see {@link Scope} for other options.
  */
 public interface SharedData {
    SharedMap newMap(String key);
@@ -16,6 +17,22 @@ public interface SharedData {
 
    void reserveMap(String key, Access match, int entries);
 
+   enum Scope {
+      /**
+       * Maps are visible only to sessions running on the same executor thread. No synchronization is needed.
+       */
+      EXECUTOR,
+      /**
+       * Maps are visible to all sessions in the agent, regardless of the executor or phase.
+       */
+      AGENT,
+      /**
+       * Pushed maps are distributed among all agents in batches; each map is pulled on the agent it has been
+       * delivered to. Maps that can be pulled by matching a variable are delivered to every agent.
+       */
+      CLUSTER
+   }
+
    interface SharedMap {
       void put(Access key, Object value);
 
@@ -0,0 +1,179 @@
+package io.hyperfoil.api.session;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Hashed timer wheel confined to single executor. Timeouts are intrusive nodes (the {@link Timeout} is extended
+ * by the object that can time out) so arming and cancelling the timeout is O(1) and does not allocate.
+ * The wheel is driven by a single periodic task that runs only while there are some timeouts armed: it is started
+ * by the first {@link #schedule(Timeout, long, TimeUnit)} and cancelled on the first tick that finds no armed timeout.
+ * <p>
+ * All methods must be invoked from the executor's thread.
+ */
+public class TimerWheel {
+   private static final Logger log = LoggerFactory.getLogger(TimerWheel.class);
+   private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+   private static final int DEFAULT_WHEEL_SIZE = 1024;
+
+   private final EventExecutor executor;
+   private final long tickNanos;
+   private final Timeout[] buckets;
+   private final int mask;
+   private final long startNanos = System.nanoTime();
+   private final Timeout expiring = new Sentinel();
+   private final Runnable tickTask = this::tick;
+   private long currentTick;
+   private int armed;
+   private ScheduledFuture<?> tickFuture;
+
+   public TimerWheel(EventExecutor executor) {
+      this(executor, DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+   }
+
+   public TimerWheel(EventExecutor executor, long tickNanos, int wheelSize) {
+      if (Integer.bitCount(wheelSize) != 1) {
+         throw new IllegalArgumentException("Wheel size must be a power of 2: " + wheelSize);
+      }
+      this.executor = executor;
+      this.tickNanos = tickNanos;
+      this.buckets = new Timeout[wheelSize];
+      this.mask = wheelSize - 1;
+      for (int i = 0; i < buckets.length; ++i) {
+         buckets[i] = new Sentinel();
+      }
+   }
+
+   /**
+    * Arms the timeout; if it is already armed it is rescheduled.
+    *
+    * @param timeout Timeout to arm.
+    * @param delay Delay after which {@link Timeout#expire()} is invoked.
+    * @param unit Unit of the delay.
+    */
+   public void schedule(Timeout timeout, long delay, TimeUnit unit) {
+      timeout.disarm();
+      long now = System.nanoTime();
+      if (tickFuture == null) {
+         // After a period of inactivity we don't want to iterate through all the buckets
+         currentTick = Math.max(currentTick, (now - startNanos) / tickNanos);
+         tickFuture = executor.scheduleAtFixedRate(tickTask, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+      }
+      long deadline = now - startNanos + unit.toNanos(delay);
+      long tick = Math.max((deadline + tickNanos - 1) / tickNanos, currentTick + 1);
+      timeout.deadlineTick = tick;
+      timeout.wheel = this;
+      timeout.linkBefore(buckets[(int) (tick & mask)]);
+      ++armed;
+   }
+
+   /**
+    * @return Number of armed timeouts.
+    */
+   public int armed() {
+      return armed;
+   }
+
+   private void tick() {
+      long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+      // When we fall behind we don't have to process any bucket twice
+      long fromTick = Math.max(currentTick + 1, nowTick - mask);
+      for (long tick = fromTick; tick <= nowTick; ++tick) {
+         Timeout sentinel = buckets[(int) (tick & mask)];
+         Timeout node = sentinel.next;
+         while (node != sentinel) {
+            Timeout next = node.next;
+            if (node.deadlineTick <= nowTick) {
+               // Other timeouts can be cancelled or scheduled in expire(); moving the expired ones aside
+               // first keeps the iteration over the bucket consistent.
+               node.unlink();
+               node.linkBefore(expiring);
+            }
+            node = next;
+         }
+      }
+      currentTick = nowTick;
+      Timeout node;
+      while ((node = expiring.next) != expiring) {
+         node.disarm();
+         try {
+            node.expire();
+         } catch (Throwable t) {
+            // Exception would cancel the periodic task
+            log.error("Timeout {} failed", t, node);
+         }
+      }
+      if (armed == 0 && tickFuture != null) {
+         tickFuture.cancel(false);
+         tickFuture = null;
+      }
+   }
+
+   boolean isTicking() {
+      return tickFuture != null;
+   }
+
+   /**
+    * Node in the timer wheel.
+    */
+   public abstract static class Timeout {
+      private Timeout prev;
+      private Timeout next;
+      private long deadlineTick;
+      private TimerWheel wheel;
+
+      /**
+       * Invoked when the timeout expires; the timeout is not armed anymore when this is called.
+       */
+      protected abstract void expire();
+
+      public boolean isArmed() {
+         return wheel != null;
+      }
+
+      /**
+       * @return True if the timeout was armed.
+       */
+      public boolean disarm() {
+         if (wheel == null) {
+            return false;
+         }
+         unlink();
+         --wheel.armed;
+         wheel = null;
+         return true;
+      }
+
+      private void linkBefore(Timeout sentinel) {
+         prev = sentinel.prev;
+         next = sentinel;
+         prev.next = this;
+         sentinel.prev = this;
+      }
+
+      private void unlink() {
+         prev.next = next;
+         next.prev = prev;
+         prev = null;
+         next = null;
+      }
+   }
+
+   private static class Sentinel extends Timeout {
+      Sentinel() {
+         // Private fields are not inherited, we need to access them through the superclass
+         Timeout self = this;
+         self.prev = this;
+         self.next = this;
+      }
+
+      @Override
+      protected void expire() {
+         throw new IllegalStateException();
+      }
+   }
+}
@@ -3,7 +3,7 @@ package io.hyperfoil.api.statistics;
 public class LongValue implements CustomValue {
    private long value;
 
-   public void add(int increment) {
+   public void add(long increment) {
       value += increment;
    }
 
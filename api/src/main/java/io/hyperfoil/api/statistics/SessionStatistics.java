@@ -6,6 +6,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import io.hyperfoil.api.config.HistogramConfig;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.Session;
 
@@ -26,11 +27,18 @@ public class SessionStatistics {
    }
 
    public Statistics getOrCreate(Phase phase, int stepId, String name, long startTime) {
+      return getOrCreate(phase, stepId, name, startTime, HistogramConfig.DEFAULT);
+   }
+
+   /**
+    * Histogram configuration is used only when the statistics don't exist yet.
+    */
+   public Statistics getOrCreate(Phase phase, int stepId, String name, long startTime, HistogramConfig histogramConfig) {
       for (int i = 0; i < size; ++i) {
          if (stepIds[i] == stepId && phases[i] == phase) {
             Statistics s = maps[i].get(name);
             if (s == null) {
-               s = new Statistics(startTime);
+               s = new Statistics(startTime, histogramConfig);
                maps[i].put(name, s);
             }
             return s;
@@ -44,7 +52,7 @@ public class SessionStatistics {
 
       phases[size] = phase;
       stepIds[size] = stepId;
-      Statistics s = new Statistics(startTime);
+      Statistics s = new Statistics(startTime, histogramConfig);
       HashMap<String, Statistics> map = new HashMap<>();
       map.put(name, s);
       maps[size] = map;
@@ -2,30 +2,47 @@ package io.hyperfoil.api.statistics;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.HdrHistogram.SingleWriterRecorder;
 import org.HdrHistogram.WriterReaderPhaser;
 
+import io.hyperfoil.api.config.HistogramConfig;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
 /**
  * This is a copy/subset of {@link SingleWriterRecorder} but uses {@link StatisticsSnapshot} instead of only
  * the histogram.
+ * <p>
+ * Each instance is recorded only from the single executor thread owning the {@link SessionStatistics}; this lets
+ * us replace {@link WriterReaderPhaser} with a single-writer epoch: entering and leaving the critical section is
+ * a plain write of a volatile field rather than an atomic increment, and tracking of the lowest active sample
+ * does not need CAS either.
  */
 public class Statistics {
    private static final Logger log = LoggerFactory.getLogger(Statistics.class);
    private static final long SAMPLING_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(1);
+   /**
+    * Key of the custom statistic counting responses with response time (or corrected response time)
+    * above histogram's highest trackable value.
+    */
+   public static final String CLAMPED = "clamped";
 
    private static final AtomicIntegerFieldUpdater<Statistics> LU1 =
          AtomicIntegerFieldUpdater.newUpdater(Statistics.class, "lowestActive1");
    private static final AtomicIntegerFieldUpdater<Statistics> LU2 =
          AtomicIntegerFieldUpdater.newUpdater(Statistics.class, "lowestActive2");
+   private static final AtomicLongFieldUpdater<Statistics> WRITER_EPOCH =
+         AtomicLongFieldUpdater.newUpdater(Statistics.class, "writerEpoch");
 
-   private final WriterReaderPhaser recordingPhaser = new WriterReaderPhaser();
+   private final ReentrantLock readerLock = new ReentrantLock();
+   private final HistogramConfig histogramConfig;
    private final long highestTrackableValue;
    // We'll start making space 4 samples (seconds) ahead; in case the readers fall behind the schedule
    // this will help to keep the active array always big enough.
@@ -36,6 +53,8 @@ public class Statistics {
    @SuppressWarnings("unused")
    private volatile int lowestActive2;
    private volatile int highestActive;
+   // Odd when the writer is inside critical section
+   private volatile long writerEpoch;
    private volatile AtomicIntegerFieldUpdater<Statistics> lowestActiveUpdater = LU1;
    private volatile AtomicReferenceArray<StatisticsSnapshot> active;
    private AtomicReferenceArray<StatisticsSnapshot> inactive;
@@ -45,110 +64,209 @@ public class Statistics {
    private int lastLowestIndex;
 
    public Statistics(long startTimestamp) {
+      this(startTimestamp, HistogramConfig.DEFAULT);
+   }
+
+   public Statistics(long startTimestamp, HistogramConfig histogramConfig) {
       this.startTimestamp = startTimestamp;
+      this.histogramConfig = histogramConfig;
       active = new AtomicReferenceArray<>(16);
       inactive = new AtomicReferenceArray<>(16);
-      StatisticsSnapshot first = new StatisticsSnapshot();
+      StatisticsSnapshot first = new StatisticsSnapshot(histogramConfig);
       first.sequenceId = 0;
       active.set(0, first);
-      highestTrackableValue = first.histogram.getHighestTrackableValue();
+      highestTrackableValue = histogramConfig.autoResize() ? Long.MAX_VALUE : first.histogram.getHighestTrackableValue();
    }
 
    public void recordResponse(long startTimestamp, long sendTime, long responseTime) {
-      if (responseTime > highestTrackableValue) {
-         // we don't use auto-resize histograms
-         log.warn("Response time {} exceeded maximum trackable response time {}", responseTime, highestTrackableValue);
-         responseTime = highestTrackableValue;
+      recordResponse(startTimestamp, sendTime, responseTime, responseTime);
+   }
+
+   /**
+    * @param startTimestamp Wall-clock time of the request start in milliseconds.
+    * @param sendTime Time spent sending the request in nanoseconds.
+    * @param responseTime Service time: nanoseconds between the request start and its completion.
+    * @param correctedResponseTime Nanoseconds between the intended start of the request and its completion.
+    * Recorded only when the histogram config corrects coordinated omission.
+    */
+   public void recordResponse(long startTimestamp, long sendTime, long responseTime, long correctedResponseTime) {
+      long epoch = writerEnter();
+      try {
+         recordResponse(active(startTimestamp), sendTime, responseTime, correctedResponseTime);
+      } finally {
+         writerExit(epoch);
       }
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+   }
+
+   /**
+    * Records all outcomes of a completed request in single critical section.
+    *
+    * @param startTimestamp Wall-clock time of the request start in milliseconds.
+    * @param status Response status, or 0 if the status should not be recorded.
+    * @param sendTime Time spent sending the request in nanoseconds.
+    * @param responseTime Service time: nanoseconds between the request start and its completion.
+    * @param correctedResponseTime Nanoseconds between the intended start of the request and its completion.
+    * @param invalid Count the response as invalid.
+    */
+   public void recordResponse(long startTimestamp, int status, long sendTime, long responseTime, long correctedResponseTime, boolean invalid) {
+      long epoch = writerEnter();
       try {
          StatisticsSnapshot active = active(startTimestamp);
-         active.histogram.recordValue(responseTime);
-         active.totalSendTime += sendTime;
-         active.responseCount++;
+         if (status > 0) {
+            addStatus(active, status);
+         }
+         recordResponse(active, sendTime, responseTime, correctedResponseTime);
+         if (invalid) {
+            active.invalid++;
+         }
+      } finally {
+         writerExit(epoch);
+      }
+   }
+
+   private void recordResponse(StatisticsSnapshot active, long sendTime, long responseTime, long correctedResponseTime) {
+      boolean clamped = responseTime > highestTrackableValue;
+      if (clamped) {
+         countClamped(active);
+         responseTime = highestTrackableValue;
+      }
+      active.histogram.recordValue(responseTime);
+      if (active.correctedHistogram != null) {
+         if (correctedResponseTime > highestTrackableValue) {
+            // Each response is counted only once, even if both response times are clamped
+            if (!clamped) {
+               countClamped(active);
+            }
+            correctedResponseTime = highestTrackableValue;
+         }
+         active.correctedHistogram.recordValue(Math.max(correctedResponseTime, responseTime));
+      }
+      active.totalSendTime += sendTime;
+      active.responseCount++;
+   }
+
+   private static void countClamped(StatisticsSnapshot active) {
+      // Logging here would only make things worse when the system is overloaded
+      IntValue clamped = (IntValue) active.custom.get(CLAMPED);
+      if (clamped == null) {
+         clamped = new IntValue();
+         active.custom.put(CLAMPED, clamped);
+      }
+      clamped.add(1);
+   }
+
+   /**
+    * Records sent request and the time it was blocked waiting for a connection in single critical section.
+    *
+    * @param timestamp Wall-clock time of the request start in milliseconds.
+    * @param blockedTime Nanoseconds the request was blocked.
+    */
+   public void incrementRequests(long timestamp, long blockedTime) {
+      long epoch = writerEnter();
+      try {
+         StatisticsSnapshot active = active(timestamp);
+         active.requestCount++;
+         active.blockedTime += blockedTime;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
       }
    }
 
    public void incrementRequests(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long epoch = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.requestCount++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
       }
    }
 
    public void incrementTimeouts(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      incrementTimeouts(timestamp, 0);
+   }
+
+   /**
+    * Records timed out request and the status of its response (if it has been received before the timeout)
+    * in single critical section.
+    *
+    * @param timestamp Wall-clock time of the request start in milliseconds.
+    * @param status Response status, or 0 if the status should not be recorded.
+    */
+   public void incrementTimeouts(long timestamp, int status) {
+      long epoch = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
+         if (status > 0) {
+            addStatus(active, status);
+         }
          active.timeouts++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
       }
    }
 
    public void incrementResets(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long epoch = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.resetCount++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
       }
    }
 
    public void incrementBlockedCount(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long epoch = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.blockedCount++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
       }
    }
 
    public void incrementBlockedTime(long timestamp, long blockedTime) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long epoch = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.blockedTime += blockedTime;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
       }
    }
 
    public void addStatus(long timestamp, int code) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long epoch = writerEnter();
       try {
-         StatisticsSnapshot active = active(timestamp);
-         switch (code / 100) {
-            case 2:
-               active.status_2xx++;
-               break;
-            case 3:
-               active.status_3xx++;
-               break;
-            case 4:
-               active.status_4xx++;
-               break;
-            case 5:
-               active.status_5xx++;
-               break;
-            default:
-               active.status_other++;
-         }
+         addStatus(active(timestamp), code);
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
+      }
+   }
+
+   private static void addStatus(StatisticsSnapshot active, int code) {
+      switch (code / 100) {
+         case 2:
+            active.status_2xx++;
+            break;
+         case 3:
+            active.status_3xx++;
+            break;
+         case 4:
+            active.status_4xx++;
+            break;
+         case 5:
+            active.status_5xx++;
+            break;
+         default:
+            active.status_other++;
       }
    }
 
    @SuppressWarnings("unchecked")
    public <T extends CustomValue> T getCustom(long timestamp, Object key, Supplier<T> identitySupplier) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long epoch = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          CustomValue custom = active.custom.get(key);
@@ -158,33 +276,58 @@ public class Statistics {
          }
          return (T) custom;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
       }
    }
 
    public void addInvalid(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long epoch = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.invalid++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
       }
    }
 
    public void addCacheHit(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long epoch = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.cacheHits++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(epoch);
+      }
+   }
+
+   private long writerEnter() {
+      // There's only one writer thread so we don't need atomic increment. The volatile write must precede
+      // reading the active array; it pairs with the array swap in awaitWriter().
+      long epoch = writerEpoch + 1;
+      writerEpoch = epoch;
+      return epoch;
+   }
+
+   private void writerExit(long epoch) {
+      // Release semantics are sufficient when leaving the critical section
+      WRITER_EPOCH.lazySet(this, epoch + 1);
+   }
+
+   /**
+    * Waits until the writer leaves critical section it might have entered before the active array was swapped.
+    */
+   private void awaitWriter() {
+      long epoch = writerEpoch;
+      if ((epoch & 1) != 0) {
+         while (writerEpoch == epoch) {
+            LockSupport.parkNanos(500000L /* yield in 0.5 msec units if needed */);
+         }
       }
    }
 
    public void visitSnapshots(Consumer<StatisticsSnapshot> consumer) {
+      readerLock.lock();
       try {
-         recordingPhaser.readerLock();
 
          if (++numSamples >= inactive.length()) {
             AtomicReferenceArray<StatisticsSnapshot> temp = new AtomicReferenceArray<>(inactive.length() * 2);
@@ -203,9 +346,7 @@ public class Statistics {
          lowestActiveUpdater = inactiveUpdater == LU1 ? LU2 : LU1;
 
          // Make sure we are not in the middle of recording a value on the previously active histogram:
-
-         // Flip phase to make sure no recordings that were in flight pre-flip are still active:
-         recordingPhaser.flipPhase(500000L /* yield in 0.5 msec units if needed */);
+         awaitWriter();
 
          lastLowestIndex = Math.min(LU1.get(this), LU2.get(this));
 
@@ -225,7 +366,7 @@ public class Statistics {
             publish(active, maxSamples, consumer);
          }
       } finally {
-         recordingPhaser.readerUnlock();
+         readerLock.unlock();
       }
    }
 
@@ -239,6 +380,10 @@ public class Statistics {
          } else {
             snapshot.histogram.setStartTimeStamp(startTimestamp + i * SAMPLING_PERIOD_MILLIS);
             snapshot.histogram.setEndTimeStamp(Math.min(endTimestamp, startTimestamp + (i + 1) * SAMPLING_PERIOD_MILLIS));
+            if (snapshot.correctedHistogram != null) {
+               snapshot.correctedHistogram.setStartTimeStamp(snapshot.histogram.getStartTimeStamp());
+               snapshot.correctedHistogram.setEndTimeStamp(snapshot.histogram.getEndTimeStamp());
+            }
             consumer.accept(snapshot);
             snapshot.reset();
          }
@@ -246,21 +391,21 @@ public class Statistics {
    }
 
    public void start(long now) {
-      recordingPhaser.readerLock();
+      readerLock.lock();
       try {
          startTimestamp = now;
          endTimestamp = Long.MAX_VALUE;
       } finally {
-         recordingPhaser.readerUnlock();
+         readerLock.unlock();
       }
    }
 
    public void end(long now) {
-      recordingPhaser.readerLock();
+      readerLock.lock();
       try {
          endTimestamp = now;
       } finally {
-         recordingPhaser.readerUnlock();
+         readerLock.unlock();
       }
    }
 
@@ -275,11 +420,16 @@ public class Statistics {
       }
       StatisticsSnapshot snapshot = active.get(index);
       if (snapshot == null) {
-         snapshot = new StatisticsSnapshot();
+         snapshot = new StatisticsSnapshot(histogramConfig);
          snapshot.sequenceId = index;
          active.set(index, snapshot);
       }
-      lowestActiveUpdater.accumulateAndGet(this, index, Math::min);
+      // Lowest active is modified either by the writer or by the reader when it is not used by the writer
+      // (see visitSnapshots()); therefore we don't have to use CAS operation
+      AtomicIntegerFieldUpdater<Statistics> lowestActiveUpdater = this.lowestActiveUpdater;
+      if (index < lowestActiveUpdater.get(this)) {
+         lowestActiveUpdater.set(this, index);
+      }
       // Highest active is increasing monotonically and it is updated only by the event-loop thread;
       // therefore we don't have to use CAS operation
       if (index > highestActive) {
@@ -4,17 +4,21 @@ import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.DoubleStream;
 
 import org.HdrHistogram.Histogram;
 
+import io.hyperfoil.api.config.HistogramConfig;
+
 /**
  * Non-thread safe mutable set of values.
  */
 public class StatisticsSnapshot implements Serializable {
    public int sequenceId = -1;
-   public final Histogram histogram = new Histogram(TimeUnit.MINUTES.toNanos(1), 2);
+   // The histogram can be replaced by a more precise/wider one when aggregating snapshots
+   public Histogram histogram;
+   // Response times measured from the intended start of the request; null unless correcting coordinated omission
+   public Histogram correctedHistogram;
    public long totalSendTime;
    public int connectFailureCount;
    public int requestCount;
@@ -32,6 +36,17 @@ public class StatisticsSnapshot implements Serializable {
    public long blockedTime;
    public final Map<Object, CustomValue> custom = new HashMap<>();
 
+   public StatisticsSnapshot() {
+      this(HistogramConfig.DEFAULT);
+   }
+
+   public StatisticsSnapshot(HistogramConfig histogramConfig) {
+      histogram = histogramConfig.newHistogram();
+      if (histogramConfig.correctCoordinatedOmission()) {
+         correctedHistogram = histogramConfig.newHistogram();
+      }
+   }
+
    public int[] statuses() {
       return new int[]{ status_2xx, status_3xx, status_4xx, status_5xx, status_other };
    }
@@ -45,6 +60,9 @@ public class StatisticsSnapshot implements Serializable {
 
    public void reset() {
       histogram.reset();
+      if (correctedHistogram != null) {
+         correctedHistogram.reset();
+      }
       totalSendTime = 0;
       connectFailureCount = 0;
       requestCount = 0;
@@ -68,14 +86,22 @@ public class StatisticsSnapshot implements Serializable {
    }
 
    public StatisticsSnapshot clone() {
-      StatisticsSnapshot copy = new StatisticsSnapshot();
+      StatisticsSnapshot copy = new StatisticsSnapshot(new HistogramConfig(histogram.getHighestTrackableValue(),
+            histogram.getNumberOfSignificantValueDigits(), histogram.isAutoResize(), correctedHistogram != null));
       copyInto(copy);
       return copy;
    }
 
    public void copyInto(StatisticsSnapshot target) {
       copySequenceId(target);
+      target.histogram = compatible(target.histogram, histogram);
       histogram.copyInto(target.histogram);
+      if (correctedHistogram != null) {
+         target.correctedHistogram = compatible(target.correctedHistogram, correctedHistogram);
+         correctedHistogram.copyInto(target.correctedHistogram);
+      } else {
+         target.correctedHistogram = null;
+      }
       target.totalSendTime = totalSendTime;
       target.connectFailureCount = connectFailureCount;
       target.requestCount = requestCount;
@@ -110,7 +136,12 @@ public class StatisticsSnapshot implements Serializable {
    }
 
    public void addInto(StatisticsSnapshot target) {
+      target.histogram = compatible(target.histogram, histogram);
       target.histogram.add(histogram);
+      if (correctedHistogram != null) {
+         target.correctedHistogram = compatible(target.correctedHistogram, correctedHistogram);
+         target.correctedHistogram.add(correctedHistogram);
+      }
       target.totalSendTime += totalSendTime;
       target.connectFailureCount += connectFailureCount;
       target.requestCount += requestCount;
@@ -141,6 +172,29 @@ public class StatisticsSnapshot implements Serializable {
       }
    }
 
+   /**
+    * Snapshots from different steps can use different histogram settings; when merging these we need a histogram
+    * that can hold values from both with the higher precision.
+    */
+   private static Histogram compatible(Histogram target, Histogram source) {
+      if (target == null) {
+         Histogram created = new Histogram(source.getHighestTrackableValue(), source.getNumberOfSignificantValueDigits());
+         created.setAutoResize(source.isAutoResize());
+         return created;
+      }
+      int digits = target.getNumberOfSignificantValueDigits();
+      if (digits >= source.getNumberOfSignificantValueDigits() &&
+            (target.isAutoResize() || target.getHighestTrackableValue() >= source.getMaxValue())) {
+         return target;
+      }
+      // This constructor creates auto-resizing histogram
+      Histogram replacement = new Histogram(Math.max(digits, source.getNumberOfSignificantValueDigits()));
+      replacement.add(target);
+      replacement.setStartTimeStamp(target.getStartTimeStamp());
+      replacement.setEndTimeStamp(target.getEndTimeStamp());
+      return replacement;
+   }
+
    private void copySequenceId(StatisticsSnapshot target) {
       if (sequenceId >= 0) {
          if (target.sequenceId >= 0 && sequenceId != target.sequenceId) {
@@ -152,6 +206,9 @@ public class StatisticsSnapshot implements Serializable {
 
    public void subtractFrom(StatisticsSnapshot target) {
       target.histogram.subtract(histogram);
+      if (correctedHistogram != null && target.correctedHistogram != null) {
+         target.correctedHistogram.subtract(correctedHistogram);
+      }
       target.totalSendTime -= totalSendTime;
       target.connectFailureCount -= connectFailureCount;
       target.requestCount -= requestCount;
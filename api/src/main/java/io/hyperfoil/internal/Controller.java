@@ -11,9 +11,13 @@ public interface Controller {
    Path DEFAULT_ROOT_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "hyperfoil");
    String DEPLOYER = Properties.get(Properties.DEPLOYER, "ssh");
    long DEPLOY_TIMEOUT = Properties.getLong(Properties.DEPLOY_TIMEOUT, 15000);
+   // Minimum delay between sending the first phase start to multiple agents and the (synchronized) start itself
+   long PHASE_START_DELAY = Properties.getLong(Properties.PHASE_START_DELAY, 100);
    Path ROOT_DIR = Properties.get(Properties.ROOT_DIR, Paths::get, DEFAULT_ROOT_DIR);
    Path BENCHMARK_DIR = Properties.get(Properties.BENCHMARK_DIR, Paths::get, ROOT_DIR.resolve("benchmark"));
    Path HOOKS_DIR = ROOT_DIR.resolve("hooks");
+   // Benchmark data files cached by their hash, on both controller and agents
+   Path DATA_DIR = Properties.get(Properties.DATA_DIR, Paths::get, ROOT_DIR.resolve("data"));
    Path RUN_DIR = Properties.get(Properties.RUN_DIR, Paths::get, ROOT_DIR.resolve("run"));
 
    String host();
@@ -14,14 +14,17 @@ public interface Properties {
    String CONTROLLER_LOG = "io.hyperfoil.controller.log.file";
    String CONTROLLER_LOG_LEVEL = "io.hyperfoil.controller.log.level";
    String CONTROLLER_PORT = "io.hyperfoil.controller.port";
+   String DATA_DIR = "io.hyperfoil.datadir";
    String DEPLOYER = "io.hyperfoil.deployer";
    String DEPLOY_TIMEOUT = "io.hyperfoil.deploy.timeout";
    String JITTER_WATCHDOG_PERIOD = "io.hyperfoil.jitter.watchdog.period";
    String JITTER_WATCHDOG_THRESHOLD = "io.hyperfoil.jitter.watchdog.threshold";
    String LOG4J2_CONFIGURATION_FILE = "log4j.configurationFile";
+   String PHASE_START_DELAY = "io.hyperfoil.phase.start.delay";
    String ROOT_DIR = "io.hyperfoil.rootdir";
    String RUN_DIR = "io.hyperfoil.rundir";
    String RUN_ID = "io.hyperfoil.runid";
+   String SHARED_DATA_EXCHANGE_PERIOD = "io.hyperfoil.shareddata.exchange.period";
    String TRIGGER_URL = "io.hyperfoil.trigger.url";
 
    static String get(String property, String def) {
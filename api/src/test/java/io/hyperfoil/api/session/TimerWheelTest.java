@@ -0,0 +1,100 @@
+package io.hyperfoil.api.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+
+public class TimerWheelTest {
+   private final DefaultEventExecutor executor = new DefaultEventExecutor();
+   // Small wheel to test timeouts spanning multiple rotations
+   private final TimerWheel wheel = new TimerWheel(executor, TimeUnit.MILLISECONDS.toNanos(1), 16);
+
+   @After
+   public void shutdown() {
+      executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+   }
+
+   @Test
+   public void testExpireInOrder() throws InterruptedException {
+      List<Integer> expired = new ArrayList<>();
+      CountDownLatch latch = new CountDownLatch(3);
+      executor.execute(() -> {
+         wheel.schedule(new TestTimeout(() -> expired.add(40), latch), 40, TimeUnit.MILLISECONDS);
+         wheel.schedule(new TestTimeout(() -> expired.add(5), latch), 5, TimeUnit.MILLISECONDS);
+         wheel.schedule(new TestTimeout(() -> expired.add(20), latch), 20, TimeUnit.MILLISECONDS);
+      });
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertEquals(3, expired.size());
+      assertEquals(5, (int) expired.get(0));
+      assertEquals(20, (int) expired.get(1));
+      assertEquals(40, (int) expired.get(2));
+   }
+
+   @Test
+   public void testDisarmAndReschedule() throws InterruptedException {
+      CountDownLatch latch = new CountDownLatch(1);
+      long[] expiredAt = new long[1];
+      TestTimeout cancelled = new TestTimeout(() -> expiredAt[0] = -1, latch);
+      TestTimeout rescheduled = new TestTimeout(() -> expiredAt[0] = System.nanoTime(), latch);
+      long[] start = new long[1];
+      int[] armed = new int[1];
+      executor.submit(() -> {
+         start[0] = System.nanoTime();
+         wheel.schedule(cancelled, 5, TimeUnit.MILLISECONDS);
+         wheel.schedule(rescheduled, 5, TimeUnit.MILLISECONDS);
+         wheel.schedule(rescheduled, 30, TimeUnit.MILLISECONDS);
+         assertTrue(cancelled.disarm());
+         assertFalse(cancelled.disarm());
+         armed[0] = wheel.armed();
+      }).sync();
+      assertEquals(1, armed[0]);
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertTrue(expiredAt[0] - start[0] >= TimeUnit.MILLISECONDS.toNanos(30));
+      assertFalse(rescheduled.isArmed());
+      executor.submit(() -> armed[0] = wheel.armed()).sync();
+      assertEquals(0, armed[0]);
+   }
+
+   @Test
+   public void testTickOnlyWhenArmed() throws InterruptedException {
+      CountDownLatch latch = new CountDownLatch(1);
+      boolean[] ticking = new boolean[2];
+      executor.submit(() -> {
+         ticking[0] = wheel.isTicking();
+         wheel.schedule(new TestTimeout(() -> { }, latch), 5, TimeUnit.MILLISECONDS);
+         ticking[1] = wheel.isTicking();
+      }).sync();
+      assertFalse(ticking[0]);
+      assertTrue(ticking[1]);
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      // The tick that expired the last timeout has also stopped the task
+      executor.submit(() -> ticking[0] = wheel.isTicking()).sync();
+      assertFalse(ticking[0]);
+   }
+
+   private static class TestTimeout extends TimerWheel.Timeout {
+      private final Runnable action;
+      private final CountDownLatch latch;
+
+      private TestTimeout(Runnable action, CountDownLatch latch) {
+         this.action = action;
+         this.latch = latch;
+      }
+
+      @Override
+      protected void expire() {
+         action.run();
+         latch.countDown();
+      }
+   }
+}
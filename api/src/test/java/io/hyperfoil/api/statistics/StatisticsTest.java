@@ -0,0 +1,123 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.HistogramConfig;
+
+public class StatisticsTest {
+   private static final long MAX = TimeUnit.MILLISECONDS.toNanos(100);
+
+   @Test
+   public void testClamping() {
+      Statistics statistics = new Statistics(0, new HistogramConfig(MAX, 3, false));
+      statistics.recordResponse(0, 0, TimeUnit.MILLISECONDS.toNanos(10));
+      statistics.recordResponse(0, 0, TimeUnit.SECONDS.toNanos(10));
+      statistics.recordResponse(0, 0, TimeUnit.SECONDS.toNanos(20));
+      StatisticsSnapshot snapshot = collect(statistics);
+      assertEquals(3, snapshot.responseCount);
+      assertEquals(3, snapshot.histogram.getNumberOfSignificantValueDigits());
+      assertEquals(2, ((IntValue) snapshot.custom.get(Statistics.CLAMPED)).value());
+      assertTrue(snapshot.histogram.getMaxValue() <= snapshot.histogram.highestEquivalentValue(MAX));
+   }
+
+   @Test
+   public void testAutoResize() {
+      Statistics statistics = new Statistics(0, new HistogramConfig(MAX, 2, true));
+      statistics.recordResponse(0, 0, TimeUnit.SECONDS.toNanos(10));
+      StatisticsSnapshot snapshot = collect(statistics);
+      assertNull(snapshot.custom.get(Statistics.CLAMPED));
+      assertTrue(snapshot.histogram.getMaxValue() >= TimeUnit.SECONDS.toNanos(10));
+   }
+
+   @Test
+   public void testAddDifferentPrecision() {
+      StatisticsSnapshot precise = new StatisticsSnapshot(new HistogramConfig(TimeUnit.MINUTES.toNanos(5), 3, false));
+      precise.histogram.recordValue(TimeUnit.MINUTES.toNanos(2));
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      sum.histogram.recordValue(1000);
+      precise.addInto(sum);
+      assertEquals(3, sum.histogram.getNumberOfSignificantValueDigits());
+      assertEquals(2, sum.histogram.getTotalCount());
+      assertTrue(sum.histogram.getMaxValue() >= TimeUnit.MINUTES.toNanos(2));
+   }
+
+   @Test
+   public void testCorrectedHistogram() {
+      Statistics statistics = new Statistics(0, new HistogramConfig(MAX, 2, false, true));
+      statistics.recordResponse(0, 0, TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.MILLISECONDS.toNanos(50));
+      statistics.recordResponse(0, 0, TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.SECONDS.toNanos(10));
+      StatisticsSnapshot snapshot = collect(statistics);
+      assertEquals(2, snapshot.histogram.getTotalCount());
+      assertTrue(snapshot.histogram.getMaxValue() < TimeUnit.MILLISECONDS.toNanos(6));
+      assertEquals(2, snapshot.correctedHistogram.getTotalCount());
+      assertTrue(snapshot.correctedHistogram.getMinValue() >= TimeUnit.MILLISECONDS.toNanos(49));
+      assertEquals(0, snapshot.correctedHistogram.getStartTimeStamp());
+      // the second corrected response time is above the maximum
+      assertEquals(1, ((IntValue) snapshot.custom.get(Statistics.CLAMPED)).value());
+
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      assertNull(sum.correctedHistogram);
+      snapshot.addInto(sum);
+      snapshot.addInto(sum);
+      assertEquals(4, sum.correctedHistogram.getTotalCount());
+   }
+
+   @Test
+   public void testRecordRequestAtOnce() {
+      Statistics statistics = new Statistics(0);
+      statistics.incrementRequests(0, 1000);
+      statistics.recordResponse(0, 404, 10, 2000, 3000, true);
+      statistics.incrementRequests(0, 0);
+      statistics.recordResponse(0, 0, 10, 2000, 3000, false);
+      StatisticsSnapshot snapshot = collect(statistics);
+      assertEquals(2, snapshot.requestCount);
+      assertEquals(2, snapshot.responseCount);
+      assertEquals(1000, snapshot.blockedTime);
+      assertEquals(1, snapshot.status_4xx);
+      assertEquals(0, snapshot.status_other);
+      assertEquals(1, snapshot.invalid);
+      assertEquals(20, snapshot.totalSendTime);
+   }
+
+   @Test
+   public void testConcurrentReader() throws InterruptedException {
+      Statistics statistics = new Statistics(0);
+      int requests = 1_000_000;
+      Thread writer = new Thread(() -> {
+         for (int i = 0; i < requests; ++i) {
+            // spread the records over several samples
+            long timestamp = i / (requests / 8) * 1000;
+            statistics.incrementRequests(timestamp, 0);
+            statistics.recordResponse(timestamp, 200, 0, 1000, 1000, false);
+         }
+      });
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      writer.start();
+      while (writer.isAlive()) {
+         statistics.visitSnapshots(s -> s.addInto(sum));
+      }
+      writer.join();
+      statistics.end(10_000);
+      statistics.visitSnapshots(s -> s.addInto(sum));
+      assertEquals(requests, sum.requestCount);
+      assertEquals(requests, sum.responseCount);
+      assertEquals(requests, sum.status_2xx);
+      assertEquals(requests, sum.histogram.getTotalCount());
+   }
+
+   private StatisticsSnapshot collect(Statistics statistics) {
+      statistics.end(1000);
+      List<StatisticsSnapshot> snapshots = new ArrayList<>();
+      statistics.visitSnapshots(s -> snapshots.add(s.clone()));
+      assertEquals(1, snapshots.size());
+      return snapshots.get(0);
+   }
+}
@@ -2,6 +2,7 @@ package io.hyperfoil.clustering;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import io.hyperfoil.api.deployment.DeployedAgent;
 import io.hyperfoil.api.session.PhaseInstance;
@@ -14,12 +15,31 @@ class AgentInfo {
    Status status = Status.STARTING;
    Map<String, PhaseInstance.Status> phases = new HashMap<>();
    DeployedAgent deployedAgent;
+   // agent's wall-clock minus controller's wall-clock, in milliseconds
+   long clockOffset;
+   // round-trip time of the most precise clock sample, in nanoseconds
+   long clockRoundTrip = Long.MAX_VALUE;
 
    public AgentInfo(String name, int id) {
       this.name = name;
       this.id = id;
    }
 
+   /**
+    * Updates the estimate of clock offset NTP-style: the sample with the shortest round-trip is used, assuming
+    * that the agent read its clock in the middle of the round-trip.
+    *
+    * @param sendTime  Controller's wall-clock time when the ping was sent, in milliseconds.
+    * @param roundTrip Nanoseconds between sending the ping and receiving the reply.
+    * @param agentTime Agent's wall-clock time in the reply, in milliseconds.
+    */
+   void clockSample(long sendTime, long roundTrip, long agentTime) {
+      if (roundTrip < clockRoundTrip) {
+         clockRoundTrip = roundTrip;
+         clockOffset = agentTime - (sendTime + TimeUnit.NANOSECONDS.toMillis(roundTrip / 2));
+      }
+   }
+
    @Override
    public String toString() {
       return name + " (" + nodeId + "/" + deploymentId + ")";
@@ -2,14 +2,26 @@ package io.hyperfoil.clustering;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.List;
 
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.session.PhaseInstance;
 import io.hyperfoil.clustering.messages.AgentControlMessage;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
+import io.hyperfoil.clustering.messages.DataFileChunk;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.core.data.DataFiles;
+import io.hyperfoil.core.session.ClusterSharedData;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.impl.SimulationRunnerImpl;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
@@ -39,9 +51,13 @@ public class AgentVerticle extends AbstractVerticle {
    private SimulationRunnerImpl runner;
    private MessageConsumer<Object> controlFeedConsumer;
    private long statsTimerId = -1;
+   private long sharedDataTimerId = -1;
+   private MessageConsumer<Object> sharedDataConsumer;
    private RequestStatsSender requestStatsSender;
    private CountDown statisticsCountDown;
    private SessionStatsSender sessionStatsSender;
+   // this agent's wall-clock minus controller's wall-clock
+   private long clockOffset;
 
    @Override
    public void start() {
@@ -124,6 +140,14 @@ public class AgentVerticle extends AbstractVerticle {
             if (statsTimerId >= 0) {
                vertx.cancelTimer(statsTimerId);
             }
+            if (sharedDataTimerId >= 0) {
+               vertx.cancelTimer(sharedDataTimerId);
+               sharedDataTimerId = -1;
+            }
+            if (sharedDataConsumer != null) {
+               sharedDataConsumer.unregister();
+               sharedDataConsumer = null;
+            }
             CountDown completion = new CountDown(result -> {
                message.reply(result.succeeded() ? "OK" : result.cause());
                if (vertx.isClustered()) {
@@ -168,15 +192,127 @@ public class AgentVerticle extends AbstractVerticle {
             log.debug("Listing connections...");
             message.reply(runner.listConnections());
             break;
+         case CLOCK_PING:
+            message.reply(System.currentTimeMillis());
+            break;
+         case CLOCK_OFFSET:
+            clockOffset = controlMessage.clockOffset();
+            log.info("Clock offset to controller is {} ms", clockOffset);
+            if (requestStatsSender != null) {
+               requestStatsSender.setClockOffset(clockOffset);
+            }
+            if (sessionStatsSender != null) {
+               sessionStatsSender.setClockOffset(clockOffset);
+            }
+            message.reply("OK");
+            break;
+         case DATA_FILES_MISSING:
+            ArrayList<String> missing = new ArrayList<>();
+            for (String hash : controlMessage.dataFileHashes()) {
+               if (!DataFiles.isCached(hash)) {
+                  missing.add(hash);
+               }
+            }
+            log.info("Missing {} of {} data files", missing.size(), controlMessage.dataFileHashes().size());
+            message.reply(missing);
+            break;
+         case DATA_FILE_CHUNK:
+            DataFileChunk chunk = controlMessage.dataFileChunk();
+            // Chunks of a file are sent one after another so ordered execution is not necessary
+            vertx.executeBlocking(future -> {
+               writeDataFileChunk(chunk);
+               future.complete();
+            }, false, result -> {
+               if (result.succeeded()) {
+                  message.reply("OK");
+               } else {
+                  log.error("Failed to write data file {}", result.cause(), chunk.hash());
+                  message.fail(1, result.cause().getMessage());
+               }
+            });
+            break;
+      }
+   }
+
+   static void writeDataFileChunk(DataFileChunk chunk) {
+      if (!chunk.isValid()) {
+         throw new IllegalStateException("Chunk of data file " + chunk.hash() + " at offset " + chunk.offset() + " is corrupted.");
+      }
+      Path path = DataFiles.path(chunk.hash());
+      Path part = path.resolveSibling(chunk.hash() + ".part");
+      try {
+         Files.createDirectories(path.getParent());
+         try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (chunk.offset() == 0) {
+               channel.truncate(0);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(chunk.data());
+            long position = chunk.offset();
+            while (buffer.hasRemaining()) {
+               position += channel.write(buffer, position);
+            }
+         }
+         if (chunk.isLast()) {
+            String hash = DataFiles.hash(part);
+            if (!hash.equals(chunk.hash())) {
+               Files.deleteIfExists(part);
+               throw new IllegalStateException("Data file " + chunk.hash() + " has been received with hash " + hash);
+            }
+            Files.move(part, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
       }
    }
 
+   /**
+    * Cluster-wide shared maps pushed on this agent are sent to their target agents in periodic batches.
+    */
+   private void exchangeSharedData(ClusterSharedData sharedData, int agentId) {
+      if (sharedData.agents() <= 1) {
+         return;
+      }
+      sharedDataConsumer = eb.consumer(sharedDataAddress(agentId), message -> {
+         @SuppressWarnings("unchecked")
+         List<ClusterSharedData.Entry> batch = (List<ClusterSharedData.Entry>) message.body();
+         sharedData.receive(batch);
+      });
+      long period = Properties.getLong(Properties.SHARED_DATA_EXCHANGE_PERIOD, 100);
+      sharedDataTimerId = vertx.setPeriodic(period, timerId -> {
+         for (int target = 0; target < sharedData.agents(); ++target) {
+            ArrayList<ClusterSharedData.Entry> batch = sharedData.drain(target);
+            if (batch != null) {
+               eb.send(sharedDataAddress(target), batch);
+            }
+         }
+      });
+   }
+
+   private String sharedDataAddress(int agentId) {
+      return Feeds.SHARED_DATA + "/" + runId + "/" + agentId;
+   }
+
    private MessageConsumer<Object> listenOnControl() {
       return eb.consumer(Feeds.CONTROL, message -> {
          PhaseControlMessage controlMessage = (PhaseControlMessage) message.body();
          switch (controlMessage.command()) {
             case RUN:
-               runner.startPhase(controlMessage.phase());
+               if (controlMessage.timestamp() < 0) {
+                  runner.startPhase(controlMessage.phase());
+               } else {
+                  // All agents start the phase at the same instant; statistics buckets are aligned to that
+                  long startTime = controlMessage.timestamp() + clockOffset;
+                  long delay = startTime - System.currentTimeMillis();
+                  if (delay > 0) {
+                     vertx.setTimer(delay, timerId -> runner.startPhase(controlMessage.phase(), startTime));
+                  } else {
+                     log.warn("Phase {} start arrived {} ms late", controlMessage.phase(), -delay);
+                     runner.startPhase(controlMessage.phase(), startTime);
+                  }
+               }
+               break;
+            case SET_RATE:
+               runner.setPhaseRate(controlMessage.phase(), controlMessage.usersPerSec(), controlMessage.timestamp() + clockOffset);
                break;
             case FINISH:
                runner.finishPhase(controlMessage.phase());
@@ -208,8 +344,10 @@ public class AgentVerticle extends AbstractVerticle {
       runner = new SimulationRunnerImpl(benchmark, agentId);
       controlFeedConsumer = listenOnControl();
       requestStatsSender = new RequestStatsSender(benchmark, eb, deploymentId, runId);
+      requestStatsSender.setClockOffset(clockOffset);
       statisticsCountDown = new CountDown(1);
       sessionStatsSender = new SessionStatsSender(eb, deploymentId, runId);
+      sessionStatsSender.setClockOffset(clockOffset);
 
       runner.setPhaseChangeHandler((phase, status, sessionLimitExceeded, error) -> {
          log.debug("{} changed phase {} to {}", deploymentId, phase, status);
@@ -227,6 +365,7 @@ public class AgentVerticle extends AbstractVerticle {
          eb.send(Feeds.RESPONSE, new ErrorMessage(deploymentId, runId, error, false));
       });
       runner.init();
+      exchangeSharedData(runner.clusterSharedData(), agentId);
 
       assert context.isEventLoopContext();
       statsTimerId = vertx.setPeriodic(benchmark.statisticsCollectionPeriod(), timerId -> {
@@ -9,6 +9,7 @@ import io.hyperfoil.clustering.messages.ErrorMessage;
 import io.hyperfoil.clustering.messages.ObjectCodec;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
+import io.hyperfoil.clustering.messages.RequestStatsBatch;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
 import io.hyperfoil.clustering.messages.SessionStatsMessage;
 import io.vertx.core.Vertx;
@@ -27,6 +28,7 @@ public final class Codecs {
       eb.registerDefaultCodec(PhaseChangeMessage.class, new PhaseChangeMessage.Codec());
       eb.registerDefaultCodec(PhaseControlMessage.class, new PhaseControlMessage.Codec());
       eb.registerDefaultCodec(RequestStatsMessage.class, new RequestStatsMessage.Codec());
+      eb.registerDefaultCodec(RequestStatsBatch.class, new RequestStatsBatch.Codec());
       eb.registerDefaultCodec(ArrayList.class, new ObjectCodec.ArrayList());
       eb.registerDefaultCodec(SessionStatsMessage.class, new SessionStatsMessage.Codec());
    }
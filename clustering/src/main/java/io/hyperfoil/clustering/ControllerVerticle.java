@@ -18,16 +18,20 @@ import io.hyperfoil.clustering.messages.AgentControlMessage;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
 import io.hyperfoil.clustering.messages.AgentStatusMessage;
+import io.hyperfoil.clustering.messages.DataFileChunk;
 import io.hyperfoil.clustering.messages.ErrorMessage;
 import io.hyperfoil.clustering.messages.SessionStatsMessage;
 import io.hyperfoil.clustering.messages.StatsMessage;
+import io.hyperfoil.core.data.DataFiles;
 import io.hyperfoil.core.hooks.ExecRunHook;
 import io.hyperfoil.core.impl.statistics.CsvWriter;
 import io.hyperfoil.core.impl.statistics.JsonWriter;
 import io.hyperfoil.core.impl.statistics.StatisticsStore;
+import io.hyperfoil.core.impl.statistics.ThroughputSearch;
 import io.hyperfoil.clustering.util.PersistenceUtil;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
+import io.hyperfoil.clustering.messages.RequestStatsBatch;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.internal.Controller;
@@ -54,15 +58,19 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
@@ -71,6 +79,10 @@ import org.infinispan.commons.api.BasicCacheContainer;
 
 public class ControllerVerticle extends AbstractVerticle implements NodeListener {
    private static final Logger log = LoggerFactory.getLogger(ControllerVerticle.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final int CLOCK_SAMPLES = 8;
+   private static final int DATA_FILE_CHUNK_SIZE = 1024 * 1024;
+   private static final long STATISTICS_FLUSH_PERIOD = 1000;
    private static final String RUN_SCHEMA = "http://hyperfoil.io/run-schema/" + Version.VERSION;
 
    private EventBus eb;
@@ -160,7 +172,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          } else if (msg instanceof AgentReadyMessage) {
             agent.status = AgentInfo.Status.READY;
             if (run.agents.stream().allMatch(a -> a.status == AgentInfo.Status.READY)) {
-               startSimulation(run);
+               synchronizeClocks(run, () -> startSimulation(run));
             }
          } else {
             log.error("Unexpected type of message: {}", msg);
@@ -207,6 +219,17 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                         }
                      }
                   }
+               } else if (statsMessage instanceof RequestStatsBatch) {
+                  RequestStatsBatch batch = (RequestStatsBatch) statsMessage;
+                  log.debug("Run {}: Received {} stats from {}", batch.runId, batch.size(), batch.address);
+                  batch.forEach((phaseId, stepId, metric, statistics) -> {
+                     if (trace) {
+                        log.trace("Run {}: Received stats from {}: {}/{}/{}:{} ({} requests)",
+                              batch.runId, batch.address, run.phase(phaseId), stepId, metric,
+                              statistics.sequenceId, statistics.requestCount);
+                     }
+                     run.statisticsStore.record(batch.address, phaseId, stepId, metric, statistics);
+                  });
                } else if (statsMessage instanceof SessionStatsMessage) {
                   SessionStatsMessage sessionStatsMessage = (SessionStatsMessage) statsMessage;
                   log.trace("Run {}: Received session pool stats from {}", sessionStatsMessage.runId, sessionStatsMessage.address);
@@ -214,6 +237,11 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                      run.statisticsStore.recordSessionStats(sessionStatsMessage.address,
                            sessionStatsMessage.timestamp, entry.getKey(), entry.getValue().min, entry.getValue().max);
                   }
+                  for (Map.Entry<String, SessionStatsMessage.Arrivals> entry : sessionStatsMessage.arrivals.entrySet()) {
+                     SessionStatsMessage.Arrivals arrivals = entry.getValue();
+                     run.statisticsStore.recordArrivalStats(sessionStatsMessage.address, sessionStatsMessage.timestamp,
+                           entry.getKey(), arrivals.arrivals, arrivals.throttled, arrivals.lagNanos);
+                  }
                }
             }
          } else {
@@ -316,8 +344,8 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             return;
          }
       }
-      Run run = new Run(runId, runDir, new Benchmark(info.getString("benchmark", "<unknown>"), null, Collections.emptyMap(), new Agent[0], 0, null,
-            Collections.emptyMap(), Collections.emptyList(), Collections.emptyMap(), 0, Collections.emptyList(), Collections.emptyList()));
+      Run run = new Run(runId, runDir, new Benchmark(info.getString("benchmark", "<unknown>"), null, Collections.emptyMap(), new Agent[0], 0, null, null,
+            Collections.emptyMap(), Collections.emptyList(), Collections.emptyMap(), 0, null, Collections.emptyList(), Collections.emptyList()));
       run.startTime = info.getLong("startTime", 0L);
       run.terminateTime.complete(info.getLong("terminateTime", 0L));
       run.description = info.getString("description");
@@ -390,7 +418,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       run.description = description;
       run.statisticsStore = new StatisticsStore(run.benchmark, failure -> {
          log.warn("Failed verify SLA(s) for {}/{}: {}", failure.phase(), failure.metric(), failure.message());
-      });
+      }, runDir.resolve("series"));
       runs.put(run.id, run);
       PersistenceUtil.store(run.benchmark, run.dir);
       return run;
@@ -457,20 +485,135 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
 
       log.info("Starting benchmark {} - run {}", run.benchmark.name(), run.id);
 
+      vertx.<Map<String, byte[]>>executeBlocking(future -> {
+         Map<String, byte[]> dataFiles = new HashMap<>();
+         for (byte[] content : run.benchmark.files().values()) {
+            dataFiles.put(DataFiles.hash(content), content);
+         }
+         future.complete(dataFiles);
+      }, result -> {
+         if (result.failed()) {
+            log.error("{} Failed to hash data files", result.cause(), run.id);
+            run.errors.add(new Run.Error(null, result.cause()));
+            stopSimulation(run);
+            return;
+         }
+         for (AgentInfo agent : run.agents) {
+            if (agent.status != AgentInfo.Status.REGISTERED) {
+               log.error("{} Already initializing {}, status is {}!", run.id, agent.deploymentId, agent.status);
+            } else {
+               transferDataFiles(agent, result.result(), transfer -> {
+                  if (transfer.failed()) {
+                     agent.status = AgentInfo.Status.FAILED;
+                     log.error("{} Failed to transfer data files to agent {}({})", transfer.cause(), run.id, agent.name, agent.deploymentId);
+                     run.errors.add(new Run.Error(agent, transfer.cause()));
+                     stopSimulation(run);
+                     return;
+                  }
+                  eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, agent.id, run.benchmark), reply -> {
+                     if (!reply.succeeded()) {
+                        agent.status = AgentInfo.Status.FAILED;
+                        log.error("{} Agent {}({}) failed to initialize", reply.cause(), run.id, agent.name, agent.deploymentId);
+                        run.errors.add(new Run.Error(agent, reply.cause()));
+                        stopSimulation(run);
+                     }
+                  });
+               });
+            }
+         }
+      });
+   }
+
+   /**
+    * Sends the agent those data files it does not have cached yet. Files are sent in chunks, one chunk in flight
+    * at a time, so that large files do not hit the event bus in a single message.
+    */
+   private void transferDataFiles(AgentInfo agent, Map<String, byte[]> dataFiles, Handler<AsyncResult<Void>> handler) {
+      if (dataFiles.isEmpty()) {
+         handler.handle(Future.succeededFuture());
+         return;
+      }
+      ArrayList<String> hashes = new ArrayList<>(dataFiles.keySet());
+      eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.DATA_FILES_MISSING, agent.id, hashes), reply -> {
+         if (reply.failed()) {
+            handler.handle(Future.failedFuture(reply.cause()));
+            return;
+         }
+         @SuppressWarnings("unchecked")
+         List<String> missing = (List<String>) reply.result().body();
+         log.info("Sending {} data files to agent {}", missing.size(), agent.name);
+         sendDataFiles(agent, dataFiles, missing.iterator(), handler);
+      });
+   }
+
+   private void sendDataFiles(AgentInfo agent, Map<String, byte[]> dataFiles, Iterator<String> hashes, Handler<AsyncResult<Void>> handler) {
+      if (!hashes.hasNext()) {
+         handler.handle(Future.succeededFuture());
+         return;
+      }
+      String hash = hashes.next();
+      sendDataFileChunk(agent, hash, dataFiles.get(hash), 0, result -> {
+         if (result.failed()) {
+            handler.handle(result);
+         } else {
+            sendDataFiles(agent, dataFiles, hashes, handler);
+         }
+      });
+   }
+
+   private void sendDataFileChunk(AgentInfo agent, String hash, byte[] content, int offset, Handler<AsyncResult<Void>> handler) {
+      int end = Math.min(content.length, offset + DATA_FILE_CHUNK_SIZE);
+      boolean last = end == content.length;
+      DataFileChunk chunk = new DataFileChunk(hash, offset, Arrays.copyOfRange(content, offset, end), last);
+      eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.DATA_FILE_CHUNK, agent.id, chunk), reply -> {
+         if (reply.failed()) {
+            handler.handle(Future.failedFuture(reply.cause()));
+         } else if (last) {
+            handler.handle(Future.succeededFuture());
+         } else {
+            sendDataFileChunk(agent, hash, content, end, handler);
+         }
+      });
+   }
+
+   /**
+    * Estimates offset of each agent's clock, see {@link AgentInfo#clockSample(long, long, long)}.
+    */
+   private void synchronizeClocks(Run run, Runnable completion) {
+      CountDown countDown = new CountDown(result -> completion.run(), run.agents.size());
       for (AgentInfo agent : run.agents) {
-         if (agent.status != AgentInfo.Status.REGISTERED) {
-            log.error("{} Already initializing {}, status is {}!", run.id, agent.deploymentId, agent.status);
+         sampleClock(run, agent, CLOCK_SAMPLES, countDown);
+      }
+   }
+
+   private void sampleClock(Run run, AgentInfo agent, int remaining, CountDown countDown) {
+      if (remaining == 0) {
+         if (agent.clockRoundTrip == Long.MAX_VALUE) {
+            log.warn("{} Could not estimate clock offset of agent {}, assuming 0", run.id, agent.name);
+            agent.clockOffset = 0;
          } else {
-            eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, agent.id, run.benchmark), reply -> {
-               if (!reply.succeeded()) {
-                  agent.status = AgentInfo.Status.FAILED;
-                  log.error("{} Agent {}({}) failed to initialize", reply.cause(), run.id, agent.name, agent.deploymentId);
-                  run.errors.add(new Run.Error(agent, reply.cause()));
-                  stopSimulation(run);
-               }
-            });
+            log.info("{} Agent {} clock offset is {} ms (round-trip {} us)", run.id, agent.name,
+                  agent.clockOffset, TimeUnit.NANOSECONDS.toMicros(agent.clockRoundTrip));
          }
+         eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.CLOCK_OFFSET, agent.id, agent.clockOffset), reply -> {
+            if (reply.failed()) {
+               log.error("{} Failed to set clock offset on agent {}", reply.cause(), run.id, agent.name);
+            }
+            countDown.countDown();
+         });
+         return;
       }
+      long sendTime = System.currentTimeMillis();
+      long sendNanos = System.nanoTime();
+      eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.CLOCK_PING, agent.id, null), reply -> {
+         long roundTrip = System.nanoTime() - sendNanos;
+         if (reply.succeeded()) {
+            agent.clockSample(sendTime, roundTrip, (Long) reply.result().body());
+         } else {
+            log.warn("{} Clock sample from agent {} failed", reply.cause(), run.id, agent.name);
+         }
+         sampleClock(run, agent, remaining - 1, countDown);
+      });
    }
 
    private void startSimulation(Run run) {
@@ -499,6 +642,16 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                for (Phase phase : run.benchmark.phases()) {
                   run.phases.put(phase.name(), new ControllerPhase(phase));
                }
+               // Writing the series to disk blocks so we don't do that on the event loop for each stats message
+               run.flushTimerId = vertx.setPeriodic(STATISTICS_FLUSH_PERIOD,
+                     timerId -> vertx.executeBlocking(future -> {
+                        run.statisticsStore.flush();
+                        future.complete();
+                     }, false, flushResult -> {
+                        if (flushResult.failed()) {
+                           log.error("{} Failed to flush statistics", flushResult.cause(), run.id);
+                        }
+                     }));
                runSimulation(run);
             });
          } else {
@@ -515,6 +668,9 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
       long now = System.currentTimeMillis();
       for (ControllerPhase phase : run.phases.values()) {
+         if (phase.status() == ControllerPhase.Status.RUNNING && phase.definition() instanceof Phase.Search) {
+            continueSearch(run, phase, now);
+         }
          if (phase.status() == ControllerPhase.Status.RUNNING && phase.absoluteStartTime() + phase.definition().duration() <= now) {
             eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.FINISH, phase.definition().name));
             phase.status(run.id, ControllerPhase.Status.FINISHING);
@@ -529,10 +685,19 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          }
       }
       ControllerPhase[] availablePhases = run.getAvailablePhases();
-      for (ControllerPhase phase : availablePhases) {
-         eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.RUN, phase.definition().name));
-         phase.absoluteStartTime(now);
-         phase.status(run.id, ControllerPhase.Status.STARTING);
+      if (availablePhases.length > 0) {
+         boolean first = run.phases.values().stream().allMatch(phase -> phase.status() == ControllerPhase.Status.NOT_STARTED);
+         // Agents start the phase at the same (future) instant so that ramps and statistics buckets line up
+         long startTime = now + startMargin(run, first);
+         for (ControllerPhase phase : availablePhases) {
+            eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.RUN, phase.definition().name, startTime));
+            phase.absoluteStartTime(startTime);
+            phase.status(run.id, ControllerPhase.Status.STARTING);
+            if (phase.definition() instanceof Phase.Search && run.statisticsStore != null) {
+               run.statisticsStore.startSearch((Phase.Search) phase.definition());
+               run.statisticsStore.startSearchStep(phase.definition().name, startTime);
+            }
+         }
       }
 
       if (run.phases.values().stream().allMatch(phase -> phase.status().isTerminated())) {
@@ -556,6 +721,39 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
    }
 
+   private void continueSearch(Run run, ControllerPhase phase, long now) {
+      String name = phase.definition().name;
+      ThroughputSearch search = run.statisticsStore == null ? null : run.statisticsStore.search(name);
+      if (search == null || search.isDone() || search.evaluationTime() > now) {
+         return;
+      }
+      if (run.statisticsStore.completeSearchStep(name)) {
+         long changeTime = now + startMargin(run, false);
+         log.info("{} Phase {} continues search with {} users per second", run.id, name, search.usersPerSec());
+         eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.SET_RATE, name, changeTime, search.usersPerSec()));
+         run.statisticsStore.startSearchStep(name, changeTime);
+      } else {
+         log.info("{} Phase {} found maximum sustainable rate {} users per second", run.id, name, search.result());
+         eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.FINISH, name));
+         phase.status(run.id, ControllerPhase.Status.FINISHING);
+      }
+   }
+
+   /**
+    * @param first True if this is the first phase of the run.
+    * @return Milliseconds until all agents should have received a message published now.
+    */
+   private static long startMargin(Run run, boolean first) {
+      if (run.agents.size() <= 1) {
+         // Single agent can start right away, there's nothing to line up with
+         return 0;
+      }
+      long maxRoundTrip = run.agents.stream().mapToLong(a -> a.clockRoundTrip == Long.MAX_VALUE ? 0 : a.clockRoundTrip).max().orElse(0);
+      long margin = 2 * TimeUnit.NANOSECONDS.toMillis(maxRoundTrip);
+      // Agents could be still busy after the initialization, later phases need to cover just the round-trip
+      return first ? Math.max(Controller.PHASE_START_DELAY, margin) : margin;
+   }
+
    private void stopSimulation(Run run) {
       if (run.terminateTime.future().isComplete()) {
          log.warn("Run {} already completed.", run.id);
@@ -594,6 +792,10 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
    }
 
    private void persistRun(Run run) {
+      if (run.flushTimerId >= 0) {
+         vertx.cancelTimer(run.flushTimerId);
+         run.flushTimerId = -1;
+      }
       vertx.executeBlocking(future -> {
          try {
             CsvWriter.writeCsv(run.dir.resolve("stats"), run.statisticsStore);
@@ -645,6 +847,8 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             log.error("Cannot write all.json file", e);
             future.fail(e);
          }
+         // Totals stay available for the REST API, only the series segments are released
+         run.statisticsStore.close();
 
          // combine shared and benchmark-private hooks
          List<RunHook> hooks = loadHooks("post");
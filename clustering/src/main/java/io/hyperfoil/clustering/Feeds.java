@@ -5,4 +5,6 @@ public final class Feeds {
    public static final String CONTROL = "control-feed";
    public static final String RESPONSE = "response-feed";
    public static final String STATS = "stats-feed";
+   // Suffixed with run ID and agent ID
+   public static final String SHARED_DATA = "shared-data-feed";
 }
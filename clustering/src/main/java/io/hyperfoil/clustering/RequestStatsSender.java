@@ -5,6 +5,7 @@ import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.impl.statistics.StatisticsCollector;
+import io.hyperfoil.clustering.messages.RequestStatsBatch;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.logging.Logger;
@@ -17,6 +18,8 @@ public class RequestStatsSender extends StatisticsCollector {
    private final String runId;
    private final EventBus eb;
    private final StatisticsConsumer sendStats = this::sendStats;
+   private final RequestStatsBatch.Writer batchWriter = new RequestStatsBatch.Writer();
+   private long clockOffset;
 
    public RequestStatsSender(Benchmark benchmark, EventBus eb, String address, String runId) {
       super(benchmark);
@@ -25,21 +28,47 @@ public class RequestStatsSender extends StatisticsCollector {
       this.runId = runId;
    }
 
+   /**
+    * @param clockOffset Agent's wall-clock minus controller's wall-clock; timestamps are sent in controller's time.
+    */
+   public void setClockOffset(long clockOffset) {
+      this.clockOffset = clockOffset;
+   }
+
    public void send(CountDown completion) {
       visitStatistics(sendStats, completion);
+      if (!batchWriter.isEmpty()) {
+         RequestStatsBatch batch = batchWriter.build(address, runId);
+         log.debug("Sending batch of {} stats", batch.size());
+         completion.increment();
+         eb.request(Feeds.STATS, batch, reply -> completion.countDown());
+      }
    }
 
    private void sendStats(Phase phase, int stepId, String metric, StatisticsSnapshot statistics, CountDown countDown) {
       if (statistics.histogram.getEndTimeStamp() >= statistics.histogram.getStartTimeStamp()) {
-         log.debug("Sending stats for {} {}/{}, id {}: {} requests, {} responses", phase.name(), stepId, metric,
+         log.debug("Adding stats for {} {}/{}, id {}: {} requests, {} responses", phase.name(), stepId, metric,
                statistics.sequenceId, statistics.requestCount, statistics.responseCount);
-         // On clustered eventbus, ObjectCodec is not called synchronously so we *must* do a copy here.
-         // (on a local eventbus we'd have to do a copy in transform() anyway)
-         StatisticsSnapshot copy = new StatisticsSnapshot();
-         statistics.copyInto(copy);
-         countDown.increment();
-         eb.request(Feeds.STATS, new RequestStatsMessage(address, runId, phase.id(), false, stepId, metric, copy),
-               reply -> countDown.countDown());
+         // The snapshot is encoded right away so we don't need to copy it even though it's reset after this call.
+         if (clockOffset == 0) {
+            batchWriter.add(phase.id(), stepId, metric, statistics);
+         } else {
+            // Send timestamps in controller's time but keep the aggregated snapshot intact
+            long startTimestamp = statistics.histogram.getStartTimeStamp();
+            long endTimestamp = statistics.histogram.getEndTimeStamp();
+            shiftTimestamps(statistics, startTimestamp - clockOffset, endTimestamp - clockOffset);
+            batchWriter.add(phase.id(), stepId, metric, statistics);
+            shiftTimestamps(statistics, startTimestamp, endTimestamp);
+         }
+      }
+   }
+
+   private static void shiftTimestamps(StatisticsSnapshot statistics, long startTimestamp, long endTimestamp) {
+      statistics.histogram.setStartTimeStamp(startTimestamp);
+      statistics.histogram.setEndTimeStamp(endTimestamp);
+      if (statistics.correctedHistogram != null) {
+         statistics.correctedHistogram.setStartTimeStamp(startTimestamp);
+         statistics.correctedHistogram.setEndTimeStamp(endTimestamp);
       }
    }
 
@@ -9,6 +9,7 @@ import java.util.Map;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.core.impl.statistics.StatisticsStore;
+import io.hyperfoil.core.impl.statistics.ThroughputSearch;
 import io.hyperfoil.core.util.Util;
 import io.vertx.core.Promise;
 
@@ -22,6 +23,7 @@ class Run {
    final List<Error> errors = new ArrayList<>();
    final List<RunHookOutput> hookResults = new ArrayList<>();
    long deployTimerId;
+   long flushTimerId = -1;
    String description;
 
    long startTime = Long.MIN_VALUE;
@@ -46,7 +48,11 @@ class Run {
       long nextPhaseTerminate = phases.values().stream()
             .filter(phase -> (phase.status() == ControllerPhase.Status.RUNNING || phase.status() == ControllerPhase.Status.FINISHED) && phase.definition().maxDuration() >= 0)
             .mapToLong(phase -> phase.absoluteStartTime() + phase.definition().maxDuration()).min().orElse(Long.MAX_VALUE);
-      return Math.min(Math.min(nextPhaseStart, nextPhaseFinish), nextPhaseTerminate);
+      long nextSearchStep = statisticsStore == null ? Long.MAX_VALUE : phases.values().stream()
+            .filter(phase -> phase.status() == ControllerPhase.Status.RUNNING && phase.definition() instanceof Phase.Search)
+            .map(phase -> statisticsStore.search(phase.definition().name)).filter(search -> search != null)
+            .mapToLong(ThroughputSearch::evaluationTime).min().orElse(Long.MAX_VALUE);
+      return Math.min(Math.min(nextPhaseStart, nextPhaseFinish), Math.min(nextPhaseTerminate, nextSearchStep));
    }
 
    ControllerPhase[] getAvailablePhases() {
@@ -1,5 +1,6 @@
 package io.hyperfoil.clustering;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -12,6 +13,8 @@ public class SessionStatsSender implements SessionStatsConsumer {
    private final String runId;
    private final EventBus eb;
    private Map<String, SessionStatsMessage.MinMax> sessionStats;
+   private Map<String, SessionStatsMessage.Arrivals> arrivals;
+   private long clockOffset;
 
    public SessionStatsSender(EventBus eb, String address, String runId) {
       this.address = address;
@@ -19,10 +22,17 @@ public class SessionStatsSender implements SessionStatsConsumer {
       this.eb = eb;
    }
 
+   public void setClockOffset(long clockOffset) {
+      this.clockOffset = clockOffset;
+   }
+
    public void send() {
-      if (sessionStats != null) {
-         eb.send(Feeds.STATS, new SessionStatsMessage(address, runId, System.currentTimeMillis(), sessionStats));
+      if (sessionStats != null || arrivals != null) {
+         eb.send(Feeds.STATS, new SessionStatsMessage(address, runId, System.currentTimeMillis() - clockOffset,
+               sessionStats == null ? Collections.emptyMap() : sessionStats,
+               arrivals == null ? Collections.emptyMap() : arrivals));
          sessionStats = null;
+         arrivals = null;
       }
    }
 
@@ -33,4 +43,12 @@ public class SessionStatsSender implements SessionStatsConsumer {
       }
       sessionStats.put(phase, new SessionStatsMessage.MinMax(minSessions, maxSessions));
    }
+
+   @Override
+   public void acceptArrivals(String phase, long arrivals, long throttled, long lagNanos) {
+      if (this.arrivals == null) {
+         this.arrivals = new HashMap<>();
+      }
+      this.arrivals.put(phase, new SessionStatsMessage.Arrivals(arrivals, throttled, lagNanos));
+   }
 }
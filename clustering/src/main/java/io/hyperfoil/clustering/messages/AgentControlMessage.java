@@ -1,6 +1,13 @@
 package io.hyperfoil.clustering.messages;
 
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
 
 import io.hyperfoil.api.config.Benchmark;
 
@@ -27,6 +34,19 @@ public class AgentControlMessage implements Serializable {
       return (Boolean) param;
    }
 
+   @SuppressWarnings("unchecked")
+   public ArrayList<String> dataFileHashes() {
+      return (ArrayList<String>) param;
+   }
+
+   public DataFileChunk dataFileChunk() {
+      return (DataFileChunk) param;
+   }
+
+   public long clockOffset() {
+      return (Long) param;
+   }
+
    public int agentId() {
       return agentId;
    }
@@ -35,8 +55,34 @@ public class AgentControlMessage implements Serializable {
       INITIALIZE,
       STOP,
       LIST_SESSIONS,
-      LIST_CONNECTIONS
+      LIST_CONNECTIONS,
+      // Agent replies with hashes of data files it does not have cached
+      DATA_FILES_MISSING,
+      DATA_FILE_CHUNK,
+      // Agent replies with its wall-clock time
+      CLOCK_PING,
+      // Controller sends the measured offset of agent's clock
+      CLOCK_OFFSET
    }
 
-   public static class Codec extends ObjectCodec<AgentControlMessage> {}
+   public static class Codec extends ObjectCodec<AgentControlMessage> {
+      @Override
+      protected ObjectOutput createOutput(OutputStream stream, AgentControlMessage msg) throws IOException {
+         if (msg.command != Command.INITIALIZE) {
+            return super.createOutput(stream, msg);
+         }
+         // Data files are transferred to agents separately (see DATA_FILE_CHUNK), don't send them again
+         Map<String, byte[]> files = msg.benchmark().files();
+         return new ObjectOutputStream(stream) {
+            {
+               enableReplaceObject(true);
+            }
+
+            @Override
+            protected Object replaceObject(Object obj) {
+               return obj == files ? Collections.emptyMap() : obj;
+            }
+         };
+      }
+   }
 }
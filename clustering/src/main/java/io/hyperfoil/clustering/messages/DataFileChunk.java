@@ -0,0 +1,49 @@
+package io.hyperfoil.clustering.messages;
+
+import java.io.Serializable;
+import java.util.zip.CRC32;
+
+/**
+ * Part of a benchmark data file transferred to an agent; the file is identified by hash of its whole content.
+ */
+public class DataFileChunk implements Serializable {
+   private final String hash;
+   private final long offset;
+   private final byte[] data;
+   private final long checksum;
+   private final boolean last;
+
+   public DataFileChunk(String hash, long offset, byte[] data, boolean last) {
+      this.hash = hash;
+      this.offset = offset;
+      this.data = data;
+      this.checksum = checksum(data);
+      this.last = last;
+   }
+
+   public String hash() {
+      return hash;
+   }
+
+   public long offset() {
+      return offset;
+   }
+
+   public byte[] data() {
+      return data;
+   }
+
+   public boolean isLast() {
+      return last;
+   }
+
+   public boolean isValid() {
+      return checksum == checksum(data);
+   }
+
+   private static long checksum(byte[] data) {
+      CRC32 crc = new CRC32();
+      crc.update(data, 0, data.length);
+      return crc.getValue();
+   }
+}
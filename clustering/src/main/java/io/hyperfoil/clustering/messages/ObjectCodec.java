@@ -31,6 +31,7 @@ import java.io.ObjectInput;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 
 public class ObjectCodec<T> implements MessageCodec<T, T> {
 
@@ -42,7 +43,7 @@ public class ObjectCodec<T> implements MessageCodec<T, T> {
       ByteArrayMessageCodec byteArrayMessageCodec = new ByteArrayMessageCodec();
 
       try {
-         ObjectOutput out = new ObjectOutputStream(bos);
+         ObjectOutput out = createOutput(bos, object);
          out.writeObject(object);
          out.flush();
 
@@ -59,6 +60,10 @@ public class ObjectCodec<T> implements MessageCodec<T, T> {
       }
    }
 
+   protected ObjectOutput createOutput(OutputStream stream, T object) throws IOException {
+      return new ObjectOutputStream(stream);
+   }
+
    @Override
    public T decodeFromWire(int position, Buffer buffer) {
 
@@ -5,10 +5,26 @@ import java.io.Serializable;
 public class PhaseControlMessage implements Serializable {
    private final Command command;
    private final String phase;
+   private final long timestamp;
+   private final double usersPerSec;
 
    public PhaseControlMessage(Command command, String phase) {
+      this(command, phase, -1);
+   }
+
+   public PhaseControlMessage(Command command, String phase, long timestamp) {
+      this(command, phase, timestamp, 0);
+   }
+
+   /**
+    * @param timestamp Wall-clock time in controller's clock when the command should take effect, or -1 for immediately.
+    * @param usersPerSec New total rate for {@link Command#SET_RATE}.
+    */
+   public PhaseControlMessage(Command command, String phase, long timestamp, double usersPerSec) {
       this.command = command;
       this.phase = phase;
+      this.timestamp = timestamp;
+      this.usersPerSec = usersPerSec;
    }
 
    public Command command() {
@@ -19,8 +35,18 @@ public class PhaseControlMessage implements Serializable {
       return phase;
    }
 
+   public long timestamp() {
+      return timestamp;
+   }
+
+   public double usersPerSec() {
+      return usersPerSec;
+   }
+
    public enum Command {
       RUN,
+      // Change arrival rate of a search phase
+      SET_RATE,
       FINISH,
       TRY_TERMINATE,
       TERMINATE
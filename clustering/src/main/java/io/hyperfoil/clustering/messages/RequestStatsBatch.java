@@ -0,0 +1,358 @@
+package io.hyperfoil.clustering.messages;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import org.HdrHistogram.Histogram;
+
+import io.hyperfoil.api.statistics.CustomValue;
+import io.hyperfoil.api.statistics.IntValue;
+import io.hyperfoil.api.statistics.LongValue;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * All request statistics collected by an agent in one period. The snapshots are encoded when the batch is created
+ * (therefore the sender does not need to copy them) into a compact binary form: counters are written as varints,
+ * histograms use HdrHistogram's compressed encoding and each metric name is written only once per batch.
+ */
+public class RequestStatsBatch extends StatsMessage {
+   private static final byte CUSTOM_INT = 0;
+   private static final byte CUSTOM_LONG = 1;
+   private static final byte CUSTOM_SERIALIZED = 2;
+
+   private final transient ByteBuf data;
+   private final int size;
+
+   private RequestStatsBatch(String address, String runId, ByteBuf data, int size) {
+      super(address, runId);
+      this.data = data;
+      this.size = size;
+   }
+
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Decodes the statistics, allocating new snapshot for each entry.
+    */
+   public void forEach(EntryConsumer consumer) {
+      ByteBuf buf = data.duplicate();
+      List<String> metrics = new ArrayList<>();
+      for (int i = 0; i < size; ++i) {
+         int phaseId = readVarInt(buf);
+         int stepId = readVarInt(buf);
+         int metricIndex = readVarInt(buf);
+         if (metricIndex == metrics.size()) {
+            metrics.add(readString(buf));
+         }
+         String metric = metrics.get(metricIndex);
+         StatisticsSnapshot snapshot = new StatisticsSnapshot();
+         readSnapshot(buf, snapshot);
+         consumer.accept(phaseId, stepId, metric, snapshot);
+      }
+   }
+
+   public interface EntryConsumer {
+      void accept(int phaseId, int stepId, String metric, StatisticsSnapshot snapshot);
+   }
+
+   /**
+    * Not thread-safe; the writer can be reused for subsequent batches.
+    */
+   public static class Writer {
+      private final Map<String, Integer> metrics = new HashMap<>();
+      private ByteBuffer histogramBuffer = ByteBuffer.allocate(1024);
+      private ByteBuf buf;
+      private int size;
+
+      public Writer add(int phaseId, int stepId, String metric, StatisticsSnapshot snapshot) {
+         if (buf == null) {
+            buf = Unpooled.buffer(4096);
+         }
+         writeVarInt(buf, phaseId);
+         writeVarInt(buf, stepId);
+         Integer metricIndex = metrics.get(metric);
+         if (metricIndex == null) {
+            metricIndex = metrics.size();
+            metrics.put(metric, metricIndex);
+            writeVarInt(buf, metricIndex);
+            writeString(buf, metric);
+         } else {
+            writeVarInt(buf, metricIndex);
+         }
+         writeSnapshot(snapshot);
+         ++size;
+         return this;
+      }
+
+      public boolean isEmpty() {
+         return size == 0;
+      }
+
+      public RequestStatsBatch build(String address, String runId) {
+         RequestStatsBatch batch = new RequestStatsBatch(address, runId, buf == null ? Unpooled.EMPTY_BUFFER : buf, size);
+         buf = null;
+         size = 0;
+         metrics.clear();
+         return batch;
+      }
+
+      private void writeSnapshot(StatisticsSnapshot snapshot) {
+         writeVarInt(buf, snapshot.sequenceId + 1);
+         writeVarLong(buf, snapshot.totalSendTime);
+         writeVarInt(buf, snapshot.connectFailureCount);
+         writeVarInt(buf, snapshot.requestCount);
+         writeVarInt(buf, snapshot.responseCount);
+         writeVarInt(buf, snapshot.status_2xx);
+         writeVarInt(buf, snapshot.status_3xx);
+         writeVarInt(buf, snapshot.status_4xx);
+         writeVarInt(buf, snapshot.status_5xx);
+         writeVarInt(buf, snapshot.status_other);
+         writeVarInt(buf, snapshot.invalid);
+         writeVarInt(buf, snapshot.cacheHits);
+         writeVarInt(buf, snapshot.resetCount);
+         writeVarInt(buf, snapshot.timeouts);
+         writeVarInt(buf, snapshot.blockedCount);
+         writeVarLong(buf, snapshot.blockedTime);
+
+         writeHistogram(snapshot.histogram);
+         if (snapshot.correctedHistogram == null) {
+            buf.writeByte(0);
+         } else {
+            buf.writeByte(1);
+            writeHistogram(snapshot.correctedHistogram);
+         }
+
+         int customCount = 0;
+         for (CustomValue value : snapshot.custom.values()) {
+            if (value != null) {
+               ++customCount;
+            }
+         }
+         writeVarInt(buf, customCount);
+         for (Map.Entry<Object, CustomValue> entry : snapshot.custom.entrySet()) {
+            CustomValue value = entry.getValue();
+            if (value == null) {
+               continue;
+            }
+            writeString(buf, entry.getKey().toString());
+            if (value instanceof IntValue) {
+               buf.writeByte(CUSTOM_INT);
+               writeVarLong(buf, ((IntValue) value).value());
+            } else if (value instanceof LongValue) {
+               buf.writeByte(CUSTOM_LONG);
+               writeVarLong(buf, ((LongValue) value).value());
+            } else {
+               buf.writeByte(CUSTOM_SERIALIZED);
+               byte[] bytes = serialize(value);
+               writeVarInt(buf, bytes.length);
+               buf.writeBytes(bytes);
+            }
+         }
+      }
+
+      private void writeHistogram(Histogram histogram) {
+         writeVarLong(buf, histogram.getStartTimeStamp());
+         writeVarLong(buf, histogram.getEndTimeStamp());
+         int capacity = histogram.getNeededByteBufferCapacity();
+         if (histogramBuffer.capacity() < capacity) {
+            histogramBuffer = ByteBuffer.allocate(capacity);
+         }
+         histogramBuffer.clear();
+         int length = histogram.encodeIntoCompressedByteBuffer(histogramBuffer, Deflater.BEST_SPEED);
+         writeVarInt(buf, length);
+         buf.writeBytes(histogramBuffer.array(), 0, length);
+      }
+   }
+
+   private static void readSnapshot(ByteBuf buf, StatisticsSnapshot snapshot) {
+      snapshot.sequenceId = readVarInt(buf) - 1;
+      snapshot.totalSendTime = readVarLong(buf);
+      snapshot.connectFailureCount = readVarInt(buf);
+      snapshot.requestCount = readVarInt(buf);
+      snapshot.responseCount = readVarInt(buf);
+      snapshot.status_2xx = readVarInt(buf);
+      snapshot.status_3xx = readVarInt(buf);
+      snapshot.status_4xx = readVarInt(buf);
+      snapshot.status_5xx = readVarInt(buf);
+      snapshot.status_other = readVarInt(buf);
+      snapshot.invalid = readVarInt(buf);
+      snapshot.cacheHits = readVarInt(buf);
+      snapshot.resetCount = readVarInt(buf);
+      snapshot.timeouts = readVarInt(buf);
+      snapshot.blockedCount = readVarInt(buf);
+      snapshot.blockedTime = readVarLong(buf);
+
+      snapshot.histogram = readHistogram(buf);
+      snapshot.correctedHistogram = buf.readByte() == 0 ? null : readHistogram(buf);
+
+      int customCount = readVarInt(buf);
+      for (int i = 0; i < customCount; ++i) {
+         String key = readString(buf);
+         byte type = buf.readByte();
+         switch (type) {
+            case CUSTOM_INT:
+               IntValue intValue = new IntValue();
+               intValue.add((int) readVarLong(buf));
+               snapshot.custom.put(key, intValue);
+               break;
+            case CUSTOM_LONG:
+               LongValue longValue = new LongValue();
+               longValue.add(readVarLong(buf));
+               snapshot.custom.put(key, longValue);
+               break;
+            case CUSTOM_SERIALIZED:
+               byte[] bytes = new byte[readVarInt(buf)];
+               buf.readBytes(bytes);
+               snapshot.custom.put(key, deserialize(bytes));
+               break;
+            default:
+               throw new IllegalStateException("Unknown custom value type " + type);
+         }
+      }
+   }
+
+   private static Histogram readHistogram(ByteBuf buf) {
+      long startTimestamp = readVarLong(buf);
+      long endTimestamp = readVarLong(buf);
+      int length = readVarInt(buf);
+      // HdrHistogram decoder reads the backing array from its start so we can't just wrap a slice
+      byte[] histogramBytes = new byte[length];
+      buf.readBytes(histogramBytes);
+      Histogram histogram;
+      try {
+         // The histogram keeps range and precision configured on the agent
+         histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(histogramBytes), 2);
+      } catch (DataFormatException e) {
+         throw new IllegalStateException("Cannot decode histogram", e);
+      }
+      histogram.setStartTimeStamp(startTimestamp);
+      histogram.setEndTimeStamp(endTimestamp);
+      return histogram;
+   }
+
+   // Values are zig-zag encoded to keep possibly negative numbers short
+   static void writeVarInt(ByteBuf buf, int value) {
+      writeVarLong(buf, value);
+   }
+
+   static void writeVarLong(ByteBuf buf, long value) {
+      long zigzag = (value << 1) ^ (value >> 63);
+      while ((zigzag & ~0x7FL) != 0) {
+         buf.writeByte((int) ((zigzag & 0x7F) | 0x80));
+         zigzag >>>= 7;
+      }
+      buf.writeByte((int) zigzag);
+   }
+
+   static int readVarInt(ByteBuf buf) {
+      return (int) readVarLong(buf);
+   }
+
+   static long readVarLong(ByteBuf buf) {
+      long zigzag = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+         byte b = buf.readByte();
+         zigzag |= (long) (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+         }
+      }
+      throw new IllegalStateException("Malformed varint");
+   }
+
+   private static void writeString(ByteBuf buf, String string) {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(buf, bytes.length);
+      buf.writeBytes(bytes);
+   }
+
+   private static String readString(ByteBuf buf) {
+      int length = readVarInt(buf);
+      String string = buf.toString(buf.readerIndex(), length, StandardCharsets.UTF_8);
+      buf.skipBytes(length);
+      return string;
+   }
+
+   private static byte[] serialize(CustomValue value) {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+         out.writeObject(value);
+      } catch (IOException e) {
+         throw new IllegalStateException("Cannot serialize " + value, e);
+      }
+      return bos.toByteArray();
+   }
+
+   private static CustomValue deserialize(byte[] bytes) {
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+         return (CustomValue) in.readObject();
+      } catch (IOException | ClassNotFoundException e) {
+         throw new IllegalStateException("Cannot deserialize custom value", e);
+      }
+   }
+
+   public static class Codec implements MessageCodec<RequestStatsBatch, RequestStatsBatch> {
+      @Override
+      public void encodeToWire(Buffer buffer, RequestStatsBatch batch) {
+         writeString(buffer, batch.address);
+         writeString(buffer, batch.runId);
+         buffer.appendInt(batch.size);
+         buffer.appendInt(batch.data.readableBytes());
+         buffer.appendBuffer(Buffer.buffer(batch.data.duplicate()));
+      }
+
+      private static void writeString(Buffer buffer, String string) {
+         byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+         buffer.appendInt(bytes.length);
+         buffer.appendBytes(bytes);
+      }
+
+      @Override
+      public RequestStatsBatch decodeFromWire(int pos, Buffer buffer) {
+         int addressLength = buffer.getInt(pos);
+         String address = buffer.getString(pos + 4, pos + 4 + addressLength, StandardCharsets.UTF_8.name());
+         pos += 4 + addressLength;
+         int runIdLength = buffer.getInt(pos);
+         String runId = buffer.getString(pos + 4, pos + 4 + runIdLength, StandardCharsets.UTF_8.name());
+         pos += 4 + runIdLength;
+         int size = buffer.getInt(pos);
+         int length = buffer.getInt(pos + 4);
+         pos += 8;
+         ByteBuf data = Unpooled.wrappedBuffer(buffer.getBytes(pos, pos + length));
+         return new RequestStatsBatch(address, runId, data, size);
+      }
+
+      @Override
+      public RequestStatsBatch transform(RequestStatsBatch batch) {
+         // The data are immutable after the batch is built
+         return batch;
+      }
+
+      @Override
+      public String name() {
+         return getClass().getName();
+      }
+
+      @Override
+      public byte systemCodecID() {
+         return -1;
+      }
+   }
+}
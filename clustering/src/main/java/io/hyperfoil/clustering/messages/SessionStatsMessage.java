@@ -6,11 +6,13 @@ import java.util.Map;
 public class SessionStatsMessage extends StatsMessage {
    public final long timestamp;
    public final Map<String, MinMax> sessionStats;
+   public final Map<String, Arrivals> arrivals;
 
-   public SessionStatsMessage(String address, String runId, long timestamp, Map<String, MinMax> sessionStats) {
+   public SessionStatsMessage(String address, String runId, long timestamp, Map<String, MinMax> sessionStats, Map<String, Arrivals> arrivals) {
       super(address, runId);
       this.timestamp = timestamp;
       this.sessionStats = sessionStats;
+      this.arrivals = arrivals;
    }
 
    public static class MinMax implements Serializable {
@@ -23,5 +25,17 @@ public class SessionStatsMessage extends StatsMessage {
       }
    }
 
+   public static class Arrivals implements Serializable {
+      public long arrivals;
+      public long throttled;
+      public long lagNanos;
+
+      public Arrivals(long arrivals, long throttled, long lagNanos) {
+         this.arrivals = arrivals;
+         this.throttled = throttled;
+         this.lagNanos = lagNanos;
+      }
+   }
+
    public static class Codec extends ObjectCodec<SessionStatsMessage> {}
 }
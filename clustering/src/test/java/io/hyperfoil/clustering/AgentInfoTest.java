@@ -0,0 +1,23 @@
+package io.hyperfoil.clustering;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AgentInfoTest {
+   @Test
+   public void testClockOffsetFromShortestRoundTrip() {
+      AgentInfo agent = new AgentInfo("agent", 0);
+      // Agent's clock is 500 ms ahead; the reply is delayed asymmetrically in the first sample
+      agent.clockSample(10_000, TimeUnit.MILLISECONDS.toNanos(40), 10_535);
+      assertEquals(515, agent.clockOffset);
+      agent.clockSample(20_000, TimeUnit.MILLISECONDS.toNanos(2), 20_501);
+      assertEquals(500, agent.clockOffset);
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(2), agent.clockRoundTrip);
+      // Samples with longer round-trip are ignored
+      agent.clockSample(30_000, TimeUnit.MILLISECONDS.toNanos(10), 30_600);
+      assertEquals(500, agent.clockOffset);
+   }
+}
@@ -0,0 +1,91 @@
+package io.hyperfoil.clustering;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.clustering.messages.AgentControlMessage;
+import io.hyperfoil.clustering.messages.DataFileChunk;
+import io.hyperfoil.core.data.DataFiles;
+import io.hyperfoil.core.parser.BenchmarkParser;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.util.Util;
+import io.vertx.core.buffer.Buffer;
+
+public class DataFilesTransferTest {
+   private static final String BENCHMARK = "name: data-files\n" +
+         "http:\n" +
+         "  host: http://localhost:8080\n" +
+         "phases:\n" +
+         "- test:\n" +
+         "    atOnce:\n" +
+         "      users: 1\n" +
+         "      scenario:\n" +
+         "      - test:\n" +
+         "        - randomCsvRow:\n" +
+         "            file: hosts.csv\n" +
+         "            skipComments: true\n" +
+         "            columns:\n" +
+         "              0: host\n" +
+         "              1: uri\n";
+
+   @Test
+   public void testFilesSentToControllerButNotToAgent() throws Exception {
+      // Unique content so that the file is not cached from a previous run
+      byte[] content = ("# " + System.nanoTime() + "\nexample.com,/foo\n").getBytes(StandardCharsets.UTF_8);
+      String hash = DataFiles.hash(content);
+      RequestBenchmarkData data = new RequestBenchmarkData();
+      data.addFile("hosts.csv", content);
+      Benchmark benchmark = BenchmarkParser.instance().buildBenchmark(BENCHMARK, data);
+      assertFalse("Parsing must not store the file", DataFiles.isCached(hash));
+
+      // CLI -> controller
+      Benchmark controllerBenchmark = Util.deserialize(Util.serialize(benchmark));
+      assertNotNull(controllerBenchmark);
+      assertArrayEquals(content, controllerBenchmark.files().get("hosts.csv"));
+
+      // controller -> agent: the file is transferred in chunks, the benchmark comes without it
+      AgentControlMessage.Codec codec = new AgentControlMessage.Codec();
+      AgentControlMessage chunkMessage = roundTrip(codec, new AgentControlMessage(AgentControlMessage.Command.DATA_FILE_CHUNK, 0,
+            new DataFileChunk(hash, 0, content, true)));
+      AgentVerticle.writeDataFileChunk(chunkMessage.dataFileChunk());
+      try {
+         AgentControlMessage initMessage = roundTrip(codec, new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, 0, controllerBenchmark));
+         Benchmark agentBenchmark = initMessage.benchmark();
+         assertTrue(agentBenchmark.files().isEmpty());
+         // The controller's benchmark must stay intact
+         assertArrayEquals(content, controllerBenchmark.files().get("hosts.csv"));
+
+         Phase phase = agentBenchmark.phases().iterator().next();
+         Step step = phase.scenario().initialSequences()[0].steps()[0];
+         Session session = SessionFactory.forTesting();
+         Access host = SessionFactory.access("host");
+         Access uri = SessionFactory.access("uri");
+         host.declareObject(session);
+         uri.declareObject(session);
+         assertTrue(step.invoke(session));
+         assertEquals("example.com", host.getObject(session));
+         assertEquals("/foo", uri.getObject(session));
+      } finally {
+         Files.deleteIfExists(DataFiles.path(hash));
+      }
+   }
+
+   private static AgentControlMessage roundTrip(AgentControlMessage.Codec codec, AgentControlMessage message) {
+      Buffer buffer = Buffer.buffer();
+      codec.encodeToWire(buffer, message);
+      return codec.decodeFromWire(0, buffer);
+   }
+}
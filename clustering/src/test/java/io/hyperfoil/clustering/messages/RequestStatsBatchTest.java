@@ -0,0 +1,89 @@
+package io.hyperfoil.clustering.messages;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.statistics.IntValue;
+import io.hyperfoil.api.statistics.LongValue;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.vertx.core.buffer.Buffer;
+
+public class RequestStatsBatchTest {
+   @Test
+   public void testRoundTrip() {
+      StatisticsSnapshot first = snapshot(0, 1000);
+      StatisticsSnapshot second = snapshot(3, 5_000_000);
+      IntValue intValue = new IntValue();
+      intValue.add(42);
+      second.custom.put("foo", intValue);
+      LongValue longValue = new LongValue();
+      longValue.add(-1L << 40);
+      second.custom.put("bar", longValue);
+      second.correctedHistogram = second.histogram.copy();
+      second.correctedHistogram.recordValue(100_000_000);
+
+      RequestStatsBatch.Writer writer = new RequestStatsBatch.Writer();
+      writer.add(1, 2, "my-metric", first);
+      writer.add(1, 3, "my-metric", second);
+      writer.add(2, 0, "other", first);
+      RequestStatsBatch batch = writer.build("agent", "0001");
+      assertEquals(true, writer.isEmpty());
+
+      RequestStatsBatch.Codec codec = new RequestStatsBatch.Codec();
+      Buffer buffer = Buffer.buffer().appendString("prefix");
+      codec.encodeToWire(buffer, batch);
+      RequestStatsBatch decoded = codec.decodeFromWire(6, buffer);
+      assertEquals("agent", decoded.address);
+      assertEquals("0001", decoded.runId);
+      assertEquals(3, decoded.size());
+
+      List<Object[]> entries = new ArrayList<>();
+      decoded.forEach((phaseId, stepId, metric, snapshot) -> entries.add(new Object[]{ phaseId, stepId, metric, snapshot }));
+      assertEquals(3, entries.size());
+      assertEntry(entries.get(0), 1, 2, "my-metric", first);
+      assertEntry(entries.get(1), 1, 3, "my-metric", second);
+      assertEntry(entries.get(2), 2, 0, "other", first);
+      StatisticsSnapshot decodedSecond = (StatisticsSnapshot) entries.get(1)[3];
+      assertEquals(42, ((IntValue) decodedSecond.custom.get("foo")).value());
+      assertEquals(-1L << 40, ((LongValue) decodedSecond.custom.get("bar")).value());
+   }
+
+   private static StatisticsSnapshot snapshot(int sequenceId, long baseValue) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = sequenceId;
+      for (int i = 0; i < 100; ++i) {
+         snapshot.histogram.recordValue(baseValue + i * 1000);
+      }
+      snapshot.histogram.setStartTimeStamp(1_500_000_000_000L);
+      snapshot.histogram.setEndTimeStamp(1_500_000_001_000L);
+      snapshot.requestCount = 100;
+      snapshot.responseCount = 99;
+      snapshot.status_2xx = 98;
+      snapshot.status_5xx = 1;
+      snapshot.totalSendTime = 123_456_789L;
+      snapshot.blockedTime = 17;
+      return snapshot;
+   }
+
+   private static void assertEntry(Object[] entry, int phaseId, int stepId, String metric, StatisticsSnapshot expected) {
+      assertEquals(phaseId, entry[0]);
+      assertEquals(stepId, entry[1]);
+      assertEquals(metric, entry[2]);
+      StatisticsSnapshot actual = (StatisticsSnapshot) entry[3];
+      assertEquals(expected.sequenceId, actual.sequenceId);
+      assertEquals(expected.histogram, actual.histogram);
+      assertEquals(expected.histogram.getStartTimeStamp(), actual.histogram.getStartTimeStamp());
+      assertEquals(expected.histogram.getEndTimeStamp(), actual.histogram.getEndTimeStamp());
+      assertEquals(expected.correctedHistogram, actual.correctedHistogram);
+      assertEquals(expected.requestCount, actual.requestCount);
+      assertEquals(expected.responseCount, actual.responseCount);
+      assertEquals(expected.status_2xx, actual.status_2xx);
+      assertEquals(expected.status_5xx, actual.status_5xx);
+      assertEquals(expected.totalSendTime, actual.totalSendTime);
+      assertEquals(expected.blockedTime, actual.blockedTime);
+   }
+}
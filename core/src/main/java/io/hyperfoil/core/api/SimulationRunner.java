@@ -16,6 +16,21 @@ public interface SimulationRunner {
 
    void startPhase(String phase);
 
+   /**
+    * @param phase Phase name.
+    * @param absoluteStartTime Wall-clock time (in local clock) that should be used as the phase start.
+    */
+   void startPhase(String phase, long absoluteStartTime);
+
+   /**
+    * Changes arrival rate of a {@link io.hyperfoil.api.config.Phase.Search search phase}.
+    *
+    * @param phase Phase name.
+    * @param usersPerSec Total rate for all agents.
+    * @param absoluteTimestamp Wall-clock time (in local clock) since when the rate applies.
+    */
+   void setPhaseRate(String phase, double usersPerSec, long absoluteTimestamp);
+
    void finishPhase(String phase);
 
    void tryTerminatePhase(String phase);
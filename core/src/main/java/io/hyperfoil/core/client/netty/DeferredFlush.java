@@ -0,0 +1,98 @@
+package io.hyperfoil.core.client.netty;
+
+import java.util.Arrays;
+
+import io.hyperfoil.api.config.Http;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Flushes the writes of one connection, possibly deferring the flush until the end of current event-loop batch.
+ * <p>
+ * With {@link Http#flushConsolidation()} enabled the connection is registered in a per-executor queue and all
+ * connections written to while processing one batch of tasks and I/O events are flushed by a single task executed
+ * afterwards. This way requests fired by many sessions in the same tick do not cost a syscall each and pipelined
+ * HTTP/1.1 requests leave in one gathering write. The delay is bounded: the flush task runs in the same event-loop
+ * iteration, and the connection is flushed right away once {@link Http#flushConsolidationLimit()} writes are pending.
+ * The send timestamp of a request is recorded when its write completes, so the deferral is not hidden from the
+ * latency accounting.
+ */
+final class DeferredFlush {
+   private static final FastThreadLocal<Queue> QUEUE = new FastThreadLocal<Queue>() {
+      @Override
+      protected Queue initialValue() {
+         return new Queue();
+      }
+   };
+
+   private final ChannelHandlerContext ctx;
+   private final boolean consolidate;
+   private final int limit;
+   private int pendingWrites;
+   private boolean queued;
+
+   DeferredFlush(ChannelHandlerContext ctx, Http http) {
+      this.ctx = ctx;
+      this.consolidate = http.flushConsolidation();
+      this.limit = http.flushConsolidationLimit();
+   }
+
+   /**
+    * Must be invoked from the event loop after the request has been written into the context.
+    */
+   void flush() {
+      if (!consolidate) {
+         ctx.flush();
+         return;
+      }
+      if (++pendingWrites >= limit) {
+         // The connection stays queued; the deferred flush will find nothing to do
+         flushNow();
+      } else if (!queued) {
+         queued = true;
+         QUEUE.get().add(this, ctx.executor());
+      }
+   }
+
+   private void flushNow() {
+      pendingWrites = 0;
+      ctx.flush();
+   }
+
+   private void runDeferred() {
+      queued = false;
+      if (pendingWrites > 0) {
+         flushNow();
+      }
+   }
+
+   private static final class Queue implements Runnable {
+      private DeferredFlush[] connections = new DeferredFlush[16];
+      private int size;
+      private boolean scheduled;
+
+      void add(DeferredFlush flush, EventExecutor executor) {
+         if (size == connections.length) {
+            connections = Arrays.copyOf(connections, size * 2);
+         }
+         connections[size++] = flush;
+         if (!scheduled) {
+            scheduled = true;
+            executor.execute(this);
+         }
+      }
+
+      @Override
+      public void run() {
+         // Connections queued while flushing (e.g. from a failed write's listener) are flushed in this run, too
+         for (int i = 0; i < size; ++i) {
+            DeferredFlush flush = connections[i];
+            connections[i] = null;
+            flush.runDeferred();
+         }
+         size = 0;
+         scheduled = false;
+      }
+   }
+}
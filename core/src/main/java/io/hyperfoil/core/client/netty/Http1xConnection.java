@@ -1,13 +1,10 @@
 package io.hyperfoil.core.client.netty;
 
+import io.hyperfoil.api.config.Http;
 import io.hyperfoil.api.connection.HttpRequest;
 import io.hyperfoil.api.session.SessionStopException;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelPromise;
-import io.netty.handler.codec.http.HttpContent;
-import io.netty.handler.codec.http.HttpHeaderNames;
-import io.netty.handler.codec.http.HttpResponseStatus;
-import io.netty.handler.codec.http.HttpVersion;
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.connection.HttpConnection;
 import io.hyperfoil.api.connection.HttpConnectionPool;
@@ -15,18 +12,15 @@ import io.hyperfoil.api.connection.HttpRequestWriter;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.http.DefaultFullHttpRequest;
-import io.netty.handler.codec.http.HttpResponse;
-import io.netty.handler.codec.http.LastHttpContent;
-import io.hyperfoil.api.http.HttpResponseHandlers;
 import io.hyperfoil.api.session.Session;
-import io.netty.util.ReferenceCounted;
+import io.hyperfoil.core.http.ConstantHeadersAppender;
+import io.hyperfoil.core.http.PatternHeaderAppender;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
@@ -36,13 +30,22 @@ import java.util.function.BiFunction;
 class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    private static final Logger log = LoggerFactory.getLogger(Http1xConnection.class);
    private static final boolean trace = log.isTraceEnabled();
+   private static final int INITIAL_REQUEST_CAPACITY = 256;
+   private static final byte[] HTTP_1_1_CRLF = " HTTP/1.1\r\n".getBytes(StandardCharsets.US_ASCII);
+   private static final byte[] CONTENT_LENGTH_PREFIX = "content-length: ".getBytes(StandardCharsets.US_ASCII);
+   private static final short CRLF = ('\r' << 8) | '\n';
+   private static final short COLON_SP = (':' << 8) | ' ';
 
    private final Deque<HttpRequest> inflights;
    private final BiConsumer<HttpConnection, Throwable> activationHandler;
    private final boolean secure;
+   private final byte[] hostHeader;
+   private final HttpRequestWriterImpl writer = new HttpRequestWriterImpl();
+   private final Http http;
 
    private HttpConnectionPool pool;
    private ChannelHandlerContext ctx;
+   private DeferredFlush flush;
    // we can safely use non-atomic variables since the connection should be always accessed by single thread
    private int size;
    private boolean activated;
@@ -50,13 +53,16 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
 
    Http1xConnection(HttpClientPoolImpl client, BiConsumer<HttpConnection, Throwable> handler) {
       this.activationHandler = handler;
+      this.http = client.http;
       this.inflights = new ArrayDeque<>(client.http.pipeliningLimit());
       this.secure = client.isSecure();
+      this.hostHeader = ("host: " + client.authority + "\r\n").getBytes(StandardCharsets.US_ASCII);
    }
 
    @Override
    public void handlerAdded(ChannelHandlerContext ctx) {
       this.ctx = ctx;
+      this.flush = new DeferredFlush(ctx, http);
       if (ctx.channel().isActive()) {
          checkActivated(ctx);
       }
@@ -75,98 +81,39 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       }
    }
 
-   @Override
-   public void channelRead(ChannelHandlerContext ctx, Object msg) {
-      try {
-         if (msg instanceof HttpResponse) {
-            HttpResponse response = (HttpResponse) msg;
-            HttpRequest request = inflights.peek();
-            if (request == null) {
-               if (HttpResponseStatus.REQUEST_TIMEOUT.equals(response.status())) {
-                  // HAProxy sends 408 when we allocate the connection but do not use it within 10 seconds.
-                  log.debug("Closing connection {} as server timed out waiting for our first request.", this);
-               } else {
-                  log.error("Received unsolicited response (status {}) on {}, discarding: {}", response.status(), this, msg);
-               }
-               return;
-            }
-            if (request.isCompleted()) {
-               log.trace("Request on connection {} has been already completed (error in handlers?), ignoring", this);
-            } else {
-               HttpResponseHandlers handlers = request.handlers();
-               request.enter();
-               try {
-                  handlers.handleStatus(request, response.status().code(), response.status().reasonPhrase());
-                  for (Map.Entry<String, String> header : response.headers()) {
-                     handlers.handleHeader(request, header.getKey(), header.getValue());
-                  }
-               } catch (SessionStopException e) {
-                  log.trace("Stopped processing as the session was stopped.");
-               } catch (Throwable t) {
-                  log.error("Response processing failed on {}", t, this);
-                  handlers.handleThrowable(request, t);
-               } finally {
-                  request.exit();
-               }
-               request.session.proceed();
-            }
-         }
-         if (msg instanceof HttpContent) {
-            HttpRequest request = inflights.peek();
-            // When previous handlers throw an error the request is already completed
-            if (request != null && !request.isCompleted()) {
-               HttpResponseHandlers handlers = request.handlers();
-               request.enter();
-               try {
-                  ByteBuf data = ((HttpContent) msg).content();
-                  handlers.handleBodyPart(request, data, data.readerIndex(), data.readableBytes(), msg instanceof LastHttpContent);
-               } catch (SessionStopException e) {
-                  log.trace("Stopped processing as the session was stopped.");
-               } catch (Throwable t) {
-                  log.error("Response processing failed on {}", t, this);
-                  handlers.handleThrowable(request, t);
-               } finally {
-                  request.exit();
-               }
-               request.session.proceed();
-            }
-         }
-         if (msg instanceof LastHttpContent) {
-            HttpRequest request = inflights.poll();
-            if (request == null) {
-               // We've already logged debug message above
-               assert size == 0;
-               return;
-            }
-            size--;
-            // When previous handlers throw an error the request is already completed
-            if (!request.isCompleted()) {
-               request.enter();
-               try {
-                  request.handlers().handleEnd(request, true);
-                  if (trace) {
-                     log.trace("Completed response on {}", this);
-                  }
-               } catch (SessionStopException e) {
-                  log.trace("Stopped processing as the session was stopped.");
-               } catch (Throwable t) {
-                  log.error("Response processing failed on {}", t, this);
-                  request.handlers().handleThrowable(request, t);
-               } finally {
-                  request.exit();
-               }
-               request.session.proceed();
+   /**
+    * Invoked by {@link Http1xResponseHandler} when the response for the oldest inflight request has been fully received.
+    */
+   void completeResponse(HttpRequest expected) {
+      HttpRequest request = inflights.poll();
+      if (request == null) {
+         assert size == 0;
+         return;
+      }
+      assert request == expected;
+      size--;
+      // When previous handlers throw an error the request is already completed
+      if (!request.isCompleted()) {
+         request.enter();
+         try {
+            request.handlers().handleEnd(request, true);
+            if (trace) {
+               log.trace("Completed response on {}", this);
             }
-            assert request.isCompleted();
-            request.release();
-
-            releasePoolAndPulse();
-         }
-      } finally {
-         if (msg instanceof ReferenceCounted) {
-            ((ReferenceCounted) msg).release();
+         } catch (SessionStopException e) {
+            log.trace("Stopped processing as the session was stopped.");
+         } catch (Throwable t) {
+            log.error("Response processing failed on {}", t, this);
+            request.handlers().handleThrowable(request, t);
+         } finally {
+            request.exit();
          }
+         request.session.proceed();
       }
+      assert request.isCompleted();
+      request.release();
+
+      releasePoolAndPulse();
    }
 
    @Override
@@ -198,40 +145,77 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
                        BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                        boolean injectHostHeader,
                        BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      assert ctx.executor().inEventLoop();
       size++;
-      ByteBuf buf = bodyGenerator != null ? bodyGenerator.apply(request.session, request.connection()) : null;
-      if (buf == null) {
-         buf = Unpooled.EMPTY_BUFFER;
-      }
-      DefaultFullHttpRequest msg = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, request.method.netty, request.path, buf, false);
+      ByteBuf body = bodyGenerator != null ? bodyGenerator.apply(request.session, request.connection()) : null;
+      int bodyLength = body == null ? 0 : body.readableBytes();
+      // The request is encoded directly, we don't use HttpRequestEncoder
+      ByteBuf buf = ctx.alloc().buffer(INITIAL_REQUEST_CAPACITY + request.path.length() + bodyLength);
+      ByteBufUtil.copy(request.method.netty.asciiName(), buf);
+      buf.writeByte(' ');
+      ByteBufUtil.writeUtf8(buf, request.path);
+      buf.writeBytes(HTTP_1_1_CRLF);
       if (injectHostHeader) {
-         msg.headers().add(HttpHeaderNames.HOST, pool.clientPool().authority());
+         buf.writeBytes(hostHeader);
       }
-      if (buf.readableBytes() > 0) {
-         msg.headers().add(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
+      if (bodyLength > 0) {
+         buf.writeBytes(CONTENT_LENGTH_PREFIX);
+         writeDecimal(buf, bodyLength);
+         buf.writeShort(CRLF);
       }
       request.session.httpCache().beforeRequestHeaders(request);
-      HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, msg);
-      if (headerAppenders != null) {
-         // TODO: allocation, if it's not eliminated we could store a reusable object
-         for (BiConsumer<Session, HttpRequestWriter> headerAppender : headerAppenders) {
-            headerAppender.accept(request.session, writer);
+      writer.request = request;
+      writer.buf = buf;
+      try {
+         if (headerAppenders != null) {
+            for (BiConsumer<Session, HttpRequestWriter> headerAppender : headerAppenders) {
+               if (headerAppender instanceof ConstantHeadersAppender) {
+                  ((ConstantHeadersAppender) headerAppender).writeHttp1x(request, buf);
+               } else if (headerAppender instanceof PatternHeaderAppender) {
+                  ((PatternHeaderAppender) headerAppender).writeHttp1x(request, buf);
+               } else {
+                  headerAppender.accept(request.session, writer);
+               }
+            }
          }
-      }
-      assert ctx.executor().inEventLoop();
-      if (request.session.httpCache().isCached(request, writer)) {
-         if (trace) {
-            log.trace("#{} Request is completed from cache", request.session.uniqueId());
+         if (request.session.httpCache().isCached(request, writer)) {
+            if (trace) {
+               log.trace("#{} Request is completed from cache", request.session.uniqueId());
+            }
+            --size;
+            buf.release();
+            if (body != null) {
+               body.release();
+            }
+            request.handleCached();
+            releasePoolAndPulse();
+            return;
          }
-         --size;
-         request.handleCached();
-         releasePoolAndPulse();
-         return;
+      } finally {
+         writer.request = null;
+         writer.buf = null;
+      }
+      buf.writeShort(CRLF);
+      if (body != null) {
+         buf.writeBytes(body, body.readerIndex(), bodyLength);
+         body.release();
       }
       inflights.add(request);
       ChannelPromise writePromise = ctx.newPromise();
       writePromise.addListener(request);
-      ctx.writeAndFlush(msg, writePromise);
+      ctx.write(buf, writePromise);
+      flush.flush();
+   }
+
+   private static void writeDecimal(ByteBuf buf, int value) {
+      assert value >= 0;
+      int divisor = 1;
+      while (divisor <= value / 10) {
+         divisor *= 10;
+      }
+      for (; divisor > 0; divisor /= 10) {
+         buf.writeByte('0' + (value / divisor) % 10);
+      }
    }
 
    private void releasePoolAndPulse() {
@@ -317,13 +301,8 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    }
 
    private class HttpRequestWriterImpl implements HttpRequestWriter {
-      private final HttpRequest request;
-      private final DefaultFullHttpRequest msg;
-
-      HttpRequestWriterImpl(HttpRequest request, DefaultFullHttpRequest msg) {
-         this.request = request;
-         this.msg = msg;
-      }
+      private HttpRequest request;
+      private ByteBuf buf;
 
       @Override
       public HttpConnection connection() {
@@ -337,7 +316,10 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
 
       @Override
       public void putHeader(CharSequence header, CharSequence value) {
-         msg.headers().add(header, value);
+         buf.writeCharSequence(header, StandardCharsets.US_ASCII);
+         buf.writeShort(COLON_SP);
+         buf.writeCharSequence(value, StandardCharsets.US_ASCII);
+         buf.writeShort(CRLF);
          request.session.httpCache().requestHeader(request, header, value);
       }
    }
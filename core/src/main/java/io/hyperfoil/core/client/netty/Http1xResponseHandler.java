@@ -0,0 +1,512 @@
+package io.hyperfoil.core.client.netty;
+
+import io.hyperfoil.api.connection.HttpRequest;
+import io.hyperfoil.api.http.HttpResponseHandlers;
+import io.hyperfoil.api.session.SessionStopException;
+import io.hyperfoil.core.util.ByteSearch;
+import io.hyperfoil.core.util.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.AsciiString;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Parses HTTP 1.x responses straight from the incoming buffers, without Netty's HTTP codec.
+ * <p>
+ * Header names and values are passed to handlers as {@link AsciiString AsciiStrings}; these are materialized only
+ * when the request has header handlers, otherwise we pass just the few headers that are consumed by cookie recording
+ * and HTTP cache. Names of common headers are constants and values hold a copy of the bytes without inflating them
+ * to chars; handlers that need a {@link String} convert the value themselves.
+ * Body parts are passed as retained slices of the incoming buffer.
+ */
+class Http1xResponseHandler extends ChannelInboundHandlerAdapter {
+   private static final Logger log = LoggerFactory.getLogger(Http1xResponseHandler.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final byte CR = 13;
+   private static final byte LF = 10;
+   private static final int MAX_LINE_LENGTH = 4096;
+   // These headers are passed to the request even if there are no header handlers
+   private static final AsciiString[] INTERNAL_HEADERS = {
+         HttpHeaderNames.SET_COOKIE, HttpHeaderNames.CACHE_CONTROL, HttpHeaderNames.EXPIRES, HttpHeaderNames.AGE,
+         HttpHeaderNames.DATE, HttpHeaderNames.LAST_MODIFIED, HttpHeaderNames.ETAG, HttpHeaderNames.PRAGMA,
+         HttpHeaderNames.LOCATION, HttpHeaderNames.CONTENT_LOCATION
+   };
+   // Common headers that don't need to allocate the name
+   private static final AsciiString[] KNOWN_HEADERS = {
+         HttpHeaderNames.SET_COOKIE, HttpHeaderNames.CACHE_CONTROL, HttpHeaderNames.EXPIRES, HttpHeaderNames.AGE,
+         HttpHeaderNames.DATE, HttpHeaderNames.LAST_MODIFIED, HttpHeaderNames.ETAG, HttpHeaderNames.PRAGMA,
+         HttpHeaderNames.LOCATION, HttpHeaderNames.CONTENT_LOCATION, HttpHeaderNames.CONTENT_LENGTH,
+         HttpHeaderNames.CONTENT_TYPE, HttpHeaderNames.CONTENT_ENCODING, HttpHeaderNames.TRANSFER_ENCODING,
+         HttpHeaderNames.CONNECTION, AsciiString.cached("keep-alive"), HttpHeaderNames.SERVER, HttpHeaderNames.VARY,
+         HttpHeaderNames.ACCEPT_RANGES
+   };
+
+   private final Http1xConnection connection;
+   private final boolean rawBytesHandlers;
+   private ByteBuf lastLine;
+   private State state = State.STATUS;
+   private HttpRequest request;
+   private boolean interim;
+   private long contentLength = -1;
+   private boolean chunked;
+   private long remaining;
+   private boolean lastPartHandled;
+
+   private enum State {
+      STATUS,
+      HEADERS,
+      BODY,
+      CHUNK_SIZE,
+      CHUNK_DATA,
+      CHUNK_END,
+      TRAILERS,
+      UNTIL_CLOSE
+   }
+
+   Http1xResponseHandler(Http1xConnection connection, boolean rawBytesHandlers) {
+      this.connection = connection;
+      this.rawBytesHandlers = rawBytesHandlers;
+   }
+
+   @Override
+   public void handlerAdded(ChannelHandlerContext ctx) {
+      if (lastLine == null) {
+         lastLine = ctx.alloc().buffer(MAX_LINE_LENGTH);
+      }
+   }
+
+   @Override
+   public void handlerRemoved(ChannelHandlerContext ctx) {
+      if (lastLine != null) {
+         lastLine.release();
+         lastLine = null;
+      }
+   }
+
+   @Override
+   public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      if (state == State.UNTIL_CLOSE) {
+         // Body without length and chunking is delimited by closing the connection
+         if (rawBytesHandlers) {
+            invokeRawHandlers(Unpooled.EMPTY_BUFFER, 0, 0, true);
+         }
+         endOfBody();
+         completeResponse();
+      }
+      if (lastLine != null) {
+         lastLine.release();
+         lastLine = null;
+      }
+      super.channelInactive(ctx);
+   }
+
+   @Override
+   public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+      if (!(msg instanceof ByteBuf)) {
+         log.error("Unexpected message type: {}", msg);
+         super.channelRead(ctx, msg);
+         return;
+      }
+      ByteBuf buf = (ByteBuf) msg;
+      try {
+         int index = buf.readerIndex();
+         int responseStart = index;
+         while (index < buf.writerIndex()) {
+            switch (state) {
+               case STATUS:
+               case HEADERS:
+               case CHUNK_SIZE:
+               case CHUNK_END:
+               case TRAILERS:
+                  index = readLine(buf, index);
+                  break;
+               case BODY:
+               case CHUNK_DATA:
+                  index = readBody(buf, index);
+                  break;
+               case UNTIL_CLOSE:
+                  handleBodyPart(buf, index, buf.writerIndex() - index, false);
+                  index = buf.writerIndex();
+                  break;
+            }
+            if (state == State.STATUS && index > responseStart && lastLine.writerIndex() == 0 && request != null) {
+               if (interim) {
+                  // Interim response (e.g. 100 Continue) is followed by the final one; raw bytes are passed together
+                  interim = false;
+                  continue;
+               }
+               if (rawBytesHandlers) {
+                  invokeRawHandlers(buf, responseStart, index - responseStart, true);
+               }
+               completeResponse();
+               responseStart = index;
+            }
+         }
+         if (rawBytesHandlers && responseStart < buf.writerIndex()) {
+            request = request == null ? connection.peekRequest(0) : request;
+            invokeRawHandlers(buf, responseStart, buf.writerIndex() - responseStart, false);
+         }
+      } finally {
+         buf.release();
+      }
+   }
+
+   private int readLine(ByteBuf buf, int index) {
+      int lf = ByteSearch.indexOf(buf, index, buf.writerIndex(), LF);
+      if (lf < 0) {
+         copyToLastLine(buf, index, buf.writerIndex());
+         if (request == null && state == State.STATUS) {
+            // we need the request to invoke raw handlers
+            request = connection.peekRequest(0);
+         }
+         return buf.writerIndex();
+      }
+      ByteBuf lineBuf = buf;
+      int start = index, end = lf;
+      if (lastLine.isReadable()) {
+         copyToLastLine(buf, index, lf);
+         lineBuf = lastLine;
+         start = 0;
+         end = lastLine.writerIndex();
+      }
+      if (end > start && lineBuf.getByte(end - 1) == CR) {
+         --end;
+      }
+      switch (state) {
+         case STATUS:
+            handleStatusLine(lineBuf, start, end);
+            break;
+         case HEADERS:
+            handleHeaderLine(lineBuf, start, end);
+            break;
+         case CHUNK_SIZE:
+            handleChunkSize(lineBuf, start, end);
+            break;
+         case CHUNK_END:
+            if (end != start) {
+               throw new IllegalStateException("Chunk must end with CRLF!");
+            }
+            state = State.CHUNK_SIZE;
+            break;
+         case TRAILERS:
+            if (end == start) {
+               lastPartHandled = false;
+               endOfBody();
+            }
+            break;
+         default:
+            throw new IllegalStateException();
+      }
+      lastLine.writerIndex(0);
+      return lf + 1;
+   }
+
+   private void handleStatusLine(ByteBuf lineBuf, int start, int end) {
+      if (end == start) {
+         // Tolerate empty lines between responses
+         return;
+      }
+      int versionEnd = ByteSearch.indexOf(lineBuf, start, end, (byte) ' ');
+      if (versionEnd < 0) {
+         throw new IllegalStateException("Invalid status line");
+      }
+      int status = (int) readDecNumber(lineBuf, versionEnd + 1, end);
+      request = connection.peekRequest(0);
+      interim = status >= 100 && status < 200 && status != 101;
+      contentLength = -1;
+      chunked = false;
+      lastPartHandled = false;
+      state = State.HEADERS;
+      if (status >= 100 && status < 200 || status == 204 || status == 304) {
+         contentLength = 0;
+      }
+      if (request == null) {
+         if (status == HttpResponseStatus.REQUEST_TIMEOUT.code()) {
+            // HAProxy sends 408 when we allocate the connection but do not use it within 10 seconds.
+            log.debug("Closing connection {} as server timed out waiting for our first request.", connection);
+         } else {
+            log.error("Received unsolicited response (status {}) on {}, discarding.", status, connection);
+         }
+         return;
+      }
+      if (interim) {
+         return;
+      }
+      if (request.isCompleted()) {
+         log.trace("Request on connection {} has been already completed (error in handlers?), ignoring", connection);
+         return;
+      }
+      HttpResponseHandlers handlers = request.handlers();
+      request.enter();
+      try {
+         handlers.handleStatus(request, status, HttpResponseStatus.valueOf(status).reasonPhrase());
+      } catch (SessionStopException e) {
+         log.trace("Stopped processing as the session was stopped.");
+      } catch (Throwable t) {
+         log.error("Response processing failed on {}", t, connection);
+         handlers.handleThrowable(request, t);
+      } finally {
+         request.exit();
+      }
+   }
+
+   private void handleHeaderLine(ByteBuf lineBuf, int start, int end) {
+      if (end == start) {
+         endOfHeaders();
+         return;
+      }
+      int colon = ByteSearch.indexOf(lineBuf, start, end, (byte) ':');
+      if (colon < 0) {
+         throw new IllegalStateException("Invalid header line");
+      }
+      int nameEnd = colon;
+      while (nameEnd > start && isWhitespace(lineBuf.getByte(nameEnd - 1))) --nameEnd;
+      int valueStart = colon + 1;
+      while (valueStart < end && isWhitespace(lineBuf.getByte(valueStart))) ++valueStart;
+      int valueEnd = end;
+      while (valueEnd > valueStart && isWhitespace(lineBuf.getByte(valueEnd - 1))) --valueEnd;
+
+      int known = knownHeader(lineBuf, start, nameEnd);
+      AsciiString knownName = known < 0 ? null : KNOWN_HEADERS[known];
+      if (knownName == HttpHeaderNames.CONTENT_LENGTH) {
+         if (contentLength != 0) {
+            contentLength = readDecNumber(lineBuf, valueStart, valueEnd);
+         }
+      } else if (knownName == HttpHeaderNames.TRANSFER_ENCODING) {
+         AsciiString chunked = HttpHeaderValues.CHUNKED;
+         this.chunked = valueEnd - valueStart >= chunked.length() && matches(lineBuf, valueEnd - chunked.length(), chunked);
+      }
+      if (request == null || interim || request.isCompleted()) {
+         return;
+      }
+      HttpResponseHandlers handlers = request.handlers();
+      if (!handlers.requiresHandlingHeaders(request) && !isInternalHeader(knownName)) {
+         return;
+      }
+      AsciiString name = knownName != null ? knownName : copy(lineBuf, start, nameEnd);
+      AsciiString value = copy(lineBuf, valueStart, valueEnd);
+      request.enter();
+      try {
+         handlers.handleHeader(request, name, value);
+      } catch (SessionStopException e) {
+         log.trace("Stopped processing as the session was stopped.");
+      } catch (Throwable t) {
+         log.error("Response processing failed on {}", t, connection);
+         handlers.handleThrowable(request, t);
+      } finally {
+         request.exit();
+      }
+   }
+
+   private void endOfHeaders() {
+      if (request != null) {
+         switch (request.method) {
+            case HEAD:
+            case CONNECT:
+               contentLength = 0;
+               chunked = false;
+         }
+         if (!interim && !request.isCompleted()) {
+            request.session.proceed();
+         }
+      }
+      if (contentLength == 0) {
+         endOfBody();
+      } else if (chunked) {
+         state = State.CHUNK_SIZE;
+      } else if (contentLength > 0) {
+         remaining = contentLength;
+         state = State.BODY;
+      } else {
+         state = State.UNTIL_CLOSE;
+      }
+   }
+
+   private void handleChunkSize(ByteBuf lineBuf, int start, int end) {
+      long size = readHexNumber(lineBuf, start, end);
+      if (size == 0) {
+         state = State.TRAILERS;
+      } else {
+         remaining = size;
+         state = State.CHUNK_DATA;
+      }
+   }
+
+   private int readBody(ByteBuf buf, int index) {
+      int length = (int) Math.min(remaining, buf.writerIndex() - index);
+      remaining -= length;
+      if (state == State.BODY) {
+         handleBodyPart(buf, index, length, remaining == 0);
+         if (remaining == 0) {
+            endOfBody();
+         }
+      } else {
+         handleBodyPart(buf, index, length, false);
+         if (remaining == 0) {
+            state = State.CHUNK_END;
+         }
+      }
+      return index + length;
+   }
+
+   private void endOfBody() {
+      if (!lastPartHandled) {
+         handleBodyPart(Unpooled.EMPTY_BUFFER, 0, 0, true);
+      }
+      state = State.STATUS;
+   }
+
+   private void handleBodyPart(ByteBuf buf, int offset, int length, boolean isLastPart) {
+      lastPartHandled = isLastPart;
+      if (request == null || interim || request.isCompleted()) {
+         return;
+      }
+      HttpResponseHandlers handlers = request.handlers();
+      if (!handlers.requiresHandlingBody(request)) {
+         return;
+      }
+      ByteBuf slice = buf.retainedSlice(offset, length);
+      request.enter();
+      try {
+         handlers.handleBodyPart(request, slice, slice.readerIndex(), length, isLastPart);
+      } catch (SessionStopException e) {
+         log.trace("Stopped processing as the session was stopped.");
+      } catch (Throwable t) {
+         log.error("Response processing failed on {}", t, connection);
+         handlers.handleThrowable(request, t);
+      } finally {
+         request.exit();
+         slice.release();
+      }
+      request.session.proceed();
+   }
+
+   private void completeResponse() {
+      HttpRequest request = this.request;
+      this.request = null;
+      state = State.STATUS;
+      if (request == null) {
+         // We've already logged debug message above
+         return;
+      }
+      connection.completeResponse(request);
+   }
+
+   private void invokeRawHandlers(ByteBuf buf, int offset, int length, boolean isLastPart) {
+      // When the request times out it is marked as completed and handlers are removed
+      // but the connection is not closed automatically.
+      if (request != null && !request.isCompleted()) {
+         HttpResponseHandlers handlers = request.handlers();
+         // The buffer can contain multiple responses (pipelining) so we pass only the part related to this request
+         ByteBuf slice = buf.retainedSlice(offset, length);
+         request.enter();
+         try {
+            handlers.handleRawResponse(request, slice, slice.readerIndex(), length, isLastPart);
+         } catch (Throwable t) {
+            handlers.handleThrowable(request, t);
+         } finally {
+            request.exit();
+            slice.release();
+         }
+         request.session.proceed();
+      }
+   }
+
+   private void copyToLastLine(ByteBuf buf, int from, int to) {
+      int length = to - from;
+      if (lastLine.writerIndex() + length > lastLine.capacity()) {
+         throw new IllegalStateException("Too long header line.");
+      } else if (length > 0) {
+         lastLine.writeBytes(buf, from, length);
+      }
+   }
+
+   private static int knownHeader(ByteBuf buf, int start, int end) {
+      int length = end - start;
+      for (int i = 0; i < KNOWN_HEADERS.length; ++i) {
+         AsciiString name = KNOWN_HEADERS[i];
+         if (name.length() == length && matches(buf, start, name)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   private static boolean isInternalHeader(AsciiString knownName) {
+      if (knownName == null) {
+         return false;
+      }
+      for (AsciiString name : INTERNAL_HEADERS) {
+         if (name == knownName) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static AsciiString copy(ByteBuf buf, int start, int end) {
+      if (end == start) {
+         return AsciiString.EMPTY_STRING;
+      }
+      // Handlers can keep the value (e.g. cookies) so we cannot pass a view of the buffer
+      byte[] bytes = new byte[end - start];
+      buf.getBytes(start, bytes);
+      return new AsciiString(bytes, false);
+   }
+
+   private static boolean matches(ByteBuf buf, int offset, AsciiString string) {
+      for (int i = 0; i < string.length(); ++i) {
+         if (!Util.compareIgnoreCase(buf.getByte(offset + i), string.byteAt(i))) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean isWhitespace(byte b) {
+      return b == ' ' || b == '\t';
+   }
+
+   private static long readDecNumber(ByteBuf buf, int index, int end) {
+      while (index < end && isWhitespace(buf.getByte(index))) ++index;
+      long value = 0;
+      for (; index < end; ++index) {
+         byte b = buf.getByte(index);
+         if (b < '0' || b > '9') {
+            break;
+         }
+         value = value * 10 + (b - '0');
+      }
+      return value;
+   }
+
+   private static long readHexNumber(ByteBuf buf, int index, int end) {
+      while (index < end && isWhitespace(buf.getByte(index))) ++index;
+      long value = 0;
+      for (; index < end; ++index) {
+         int v = Character.digit(buf.getByte(index), 16);
+         if (v < 0) {
+            // chunk extensions or trailing whitespace
+            break;
+         }
+         value = value * 16 + v;
+      }
+      return value;
+   }
+
+   @Override
+   public String toString() {
+      return "Http1xResponseHandler{" +
+            "state=" + state +
+            ", contentLength=" + contentLength +
+            ", chunked=" + chunked +
+            ", remaining=" + remaining +
+            '}';
+   }
+}
@@ -44,6 +44,7 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    private final IntObjectMap<HttpRequest> streams = new IntObjectHashMap<>();
    private final long clientMaxStreams;
    private final boolean secure;
+   private final DeferredFlush flush;
 
    private HttpConnectionPool pool;
    private int numStreams;
@@ -61,6 +62,7 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       this.encoder = encoder;
       this.clientMaxStreams = this.maxStreams = clientPool.config().maxHttp2Streams();
       this.secure = clientPool.isSecure();
+      this.flush = new DeferredFlush(context, clientPool.config());
 
       Http2EventAdapter listener = new EventAdapter();
 
@@ -151,6 +153,9 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
             log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
          --numStreams;
+         if (buf != null) {
+            buf.release();
+         }
          request.handleCached();
          tryReleaseToPool();
          return;
@@ -167,7 +172,7 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          encoder.writeData(context, id, buf, 0, true, writePromise);
       }
       writePromise.addListener(request);
-      context.flush();
+      flush.flush();
       dispatchedRequest = null;
    }
 
@@ -86,11 +86,11 @@ class HttpChannelInitializer extends ChannelInitializer<Channel> {
 
    private void initHttp1xConnection(ChannelPipeline pipeline) {
       Http1xConnection connection = new Http1xConnection(clientPool, handler);
+      // Requests are encoded by the connection itself and responses are parsed directly from the buffers
+      pipeline.addLast(new Http1xResponseHandler(connection, clientPool.http.rawBytesHandlers()));
       if (clientPool.http.rawBytesHandlers()) {
-         pipeline.addLast(new Http1XRawResponseHandler(connection));
          pipeline.addLast(new RawRequestHandler(connection));
       }
-      pipeline.addLast("codec", new HttpClientCodec(4096, 8192, 8192, false, false));
       pipeline.addLast("handler", connection);
    }
 }
@@ -7,8 +7,7 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoop;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.EventLoopGroup;
 import io.netty.handler.ssl.ApplicationProtocolConfig;
 import io.netty.handler.ssl.OpenSsl;
 import io.netty.handler.ssl.SslContext;
@@ -73,10 +72,11 @@ public class HttpClientPoolImpl implements HttpClientPool {
    private final Supplier<HttpConnectionPool> nextSupplier;
 
    public static HttpClientPoolImpl forTesting(Http http, int threads) throws SSLException {
-      NioEventLoopGroup eventLoopGroup = new NioEventLoopGroup(threads);
+      Benchmark benchmark = Benchmark.forTesting();
+      EventLoopGroup eventLoopGroup = NettyTransport.createEventLoopGroup(benchmark.transport(), threads);
       EventLoop[] executors = StreamSupport.stream(eventLoopGroup.spliterator(), false)
             .map(EventLoop.class::cast).toArray(EventLoop[]::new);
-      return new HttpClientPoolImpl(http, executors, Benchmark.forTesting(), 0) {
+      return new HttpClientPoolImpl(http, executors, benchmark, 0) {
          @Override
          public void shutdown() {
             super.shutdown();
@@ -263,8 +263,7 @@ public class HttpClientPoolImpl implements HttpClientPool {
 
    void connect(final HttpConnectionPool pool, BiConsumer<HttpConnection, Throwable> handler) {
       Bootstrap bootstrap = new Bootstrap();
-      bootstrap.channel(NioSocketChannel.class);
-      bootstrap.group(pool.executor());
+      NettyTransport.configure(bootstrap, pool.executor(), http);
       bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
       bootstrap.option(ChannelOption.SO_REUSEADDR, true);
 
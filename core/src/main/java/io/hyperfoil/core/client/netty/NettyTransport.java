@@ -0,0 +1,73 @@
+package io.hyperfoil.core.client.netty;
+
+import io.hyperfoil.api.config.Http;
+import io.hyperfoil.api.config.Transport;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Selects event loop group and channel implementation according to the requested {@link Transport},
+ * falling back to a less specialized transport when the native one is not available on this machine.
+ */
+public final class NettyTransport {
+   private static final Logger log = LoggerFactory.getLogger(NettyTransport.class);
+
+   private NettyTransport() {}
+
+   public static Transport resolve(Transport requested) {
+      if (requested == null) {
+         return Transport.NIO;
+      }
+      switch (requested) {
+         case IO_URING:
+            // io_uring transport is not available in the Netty version we're bundled with (through Vert.x)
+            log.warn("Transport io_uring is not supported by this version of Netty, trying epoll.");
+            // fall through
+         case EPOLL:
+            if (Epoll.isAvailable()) {
+               return Transport.EPOLL;
+            }
+            log.warn("Transport epoll is not available, falling back to nio.", Epoll.unavailabilityCause());
+            // fall through
+         default:
+            return Transport.NIO;
+      }
+   }
+
+   public static EventLoopGroup createEventLoopGroup(Transport requested, int threads) {
+      Transport transport = resolve(requested);
+      log.info("Using {} transport with {} threads.", transport.name().toLowerCase(), threads);
+      switch (transport) {
+         case EPOLL:
+            return new EpollEventLoopGroup(threads);
+         case NIO:
+            return new NioEventLoopGroup(threads);
+         default:
+            throw new IllegalStateException("Unexpected transport " + transport);
+      }
+   }
+
+   public static void configure(Bootstrap bootstrap, EventLoop executor, Http http) {
+      bootstrap.group(executor);
+      bootstrap.option(ChannelOption.TCP_NODELAY, http.tcpNoDelay());
+      if (executor.parent() instanceof EpollEventLoopGroup) {
+         bootstrap.channel(EpollSocketChannel.class);
+         bootstrap.option(EpollChannelOption.TCP_QUICKACK, http.tcpQuickAck());
+         if (http.busyPoll() > 0) {
+            bootstrap.option(EpollChannelOption.SO_BUSY_POLL, http.busyPoll());
+         }
+      } else {
+         bootstrap.channel(NioSocketChannel.class);
+      }
+   }
+}
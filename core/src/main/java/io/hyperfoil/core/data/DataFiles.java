@@ -0,0 +1,90 @@
+package io.hyperfoil.core.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.internal.Controller;
+
+/**
+ * Node-wide cache of benchmark data files, keyed by SHA-256 of their content.
+ * <p>
+ * Steps refer to the data by hash instead of embedding it. The files travel with the benchmark from the client
+ * to the controller; the controller transfers them to agents that don't have them cached before the benchmark
+ * is initialized, and the benchmark sent to the agents does not carry them.
+ */
+public final class DataFiles {
+   private static final char[] HEX = "0123456789abcdef".toCharArray();
+   private static final Map<String, RowIndexedFile> rowFiles = new ConcurrentHashMap<>();
+
+   private DataFiles() {}
+
+   public static Path path(String hash) {
+      return Controller.DATA_DIR.resolve(hash);
+   }
+
+   public static boolean isCached(String hash) {
+      return Files.isRegularFile(path(hash));
+   }
+
+   /**
+    * @param hash         Hash of the content.
+    * @param skipComments Skip lines starting with <code>#</code>.
+    * @param content      Content of the file if it is available in this JVM (e.g. when the benchmark is run locally),
+    *                     <code>null</code> to read the file transferred to this node.
+    * @return File shared by all users on this node.
+    */
+   public static RowIndexedFile rows(String hash, boolean skipComments, byte[] content) {
+      return rowFiles.computeIfAbsent(hash + (skipComments ? ":skipComments" : ""), key -> {
+         if (content != null) {
+            return new RowIndexedFile(content, skipComments);
+         }
+         try {
+            return new RowIndexedFile(path(hash), skipComments);
+         } catch (IOException e) {
+            throw new BenchmarkDefinitionException("Cannot open data file " + hash + " in " + Controller.DATA_DIR, e);
+         }
+      });
+   }
+
+   public static String hash(byte[] content) {
+      MessageDigest digest = sha256();
+      digest.update(content);
+      return toHex(digest.digest());
+   }
+
+   public static String hash(Path path) throws IOException {
+      MessageDigest digest = sha256();
+      byte[] buffer = new byte[64 * 1024];
+      try (InputStream stream = Files.newInputStream(path)) {
+         int n;
+         while ((n = stream.read(buffer)) >= 0) {
+            digest.update(buffer, 0, n);
+         }
+      }
+      return toHex(digest.digest());
+   }
+
+   private static MessageDigest sha256() {
+      try {
+         return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   private static String toHex(byte[] bytes) {
+      char[] chars = new char[bytes.length * 2];
+      for (int i = 0; i < bytes.length; ++i) {
+         chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+         chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+      }
+      return new String(chars);
+   }
+}
@@ -0,0 +1,178 @@
+package io.hyperfoil.core.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only text file with lines (rows) accessible by their index. Files on disk are memory-mapped.
+ * <p>
+ * Only every {@value #INDEX_STRIDE}-th row start is indexed; reading a row scans at most that many lines.
+ * Files larger than 2 GB are mapped in several overlapping chunks; rows must not be longer than
+ * {@value #MAX_ROW_LENGTH} bytes.
+ */
+public final class RowIndexedFile {
+   static final int INDEX_STRIDE = 16;
+   static final int MAX_ROW_LENGTH = 1 << 20;
+   private static final int CHUNK_SIZE = 1 << 30;
+
+   private final ByteBuffer[] chunks;
+   private final long size;
+   private final boolean skipComments;
+   private final long[] index;
+   private final int rows;
+
+   RowIndexedFile(Path path, boolean skipComments) throws IOException {
+      this(map(path), skipComments);
+   }
+
+   /**
+    * Reads the rows straight from the content, e.g. when the benchmark (with its files) is run in this JVM.
+    */
+   public RowIndexedFile(byte[] content, boolean skipComments) {
+      this(wrap(content), skipComments);
+   }
+
+   private RowIndexedFile(ByteBuffer[] chunks, boolean skipComments) {
+      this.chunks = chunks;
+      // Only the last chunk can be shorter than CHUNK_SIZE and it does not overlap with anything
+      this.size = chunks.length == 0 ? 0 : (long) (chunks.length - 1) * CHUNK_SIZE + chunks[chunks.length - 1].limit();
+      this.skipComments = skipComments;
+      long[] index = new long[64];
+      int rows = 0;
+      for (long position = nextRow(0); position < size; position = nextRow(lineEnd(position) + 1)) {
+         if (rows % INDEX_STRIDE == 0) {
+            int slot = rows / INDEX_STRIDE;
+            if (slot == index.length) {
+               index = Arrays.copyOf(index, index.length * 2);
+            }
+            index[slot] = position;
+         }
+         ++rows;
+      }
+      this.index = index;
+      this.rows = rows;
+   }
+
+   private static ByteBuffer[] map(Path path) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+         long size = channel.size();
+         ByteBuffer[] chunks = new ByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+         for (int i = 0; i < chunks.length; ++i) {
+            long start = (long) i * CHUNK_SIZE;
+            // The mapping channel can be closed, mapping stays valid
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, CHUNK_SIZE + MAX_ROW_LENGTH));
+         }
+         return chunks;
+      }
+   }
+
+   private static ByteBuffer[] wrap(byte[] content) {
+      ByteBuffer[] chunks = new ByteBuffer[(int) ((content.length + (long) CHUNK_SIZE - 1) / CHUNK_SIZE)];
+      for (int i = 0; i < chunks.length; ++i) {
+         int start = i * CHUNK_SIZE;
+         chunks[i] = ByteBuffer.wrap(content, start, Math.min(content.length - start, CHUNK_SIZE + MAX_ROW_LENGTH)).slice();
+      }
+      return chunks;
+   }
+
+   public int rows() {
+      return rows;
+   }
+
+   /**
+    * Splits the row by commas and decodes selected columns.
+    *
+    * @param row          Row index.
+    * @param positions    0-based column positions to read.
+    * @param removeQuotes Drop all <code>"</code> characters.
+    * @param values       Receives the column at <code>positions[i]</code> in <code>values[i]</code> or
+    *                     <code>null</code> if the row does not have that column.
+    */
+   public void read(int row, int[] positions, boolean removeQuotes, String[] values) {
+      if (row < 0 || row >= rows) {
+         throw new IndexOutOfBoundsException("Row " + row + " out of " + rows);
+      }
+      long position = index[row / INDEX_STRIDE];
+      for (int i = row % INDEX_STRIDE; i > 0; --i) {
+         position = nextRow(lineEnd(position) + 1);
+      }
+      ByteBuffer chunk = chunks[(int) (position / CHUNK_SIZE)];
+      int offset = (int) (position % CHUNK_SIZE);
+      long lineEnd = lineEnd(position);
+      if (lineEnd > position && get(lineEnd - 1) == '\r') {
+         --lineEnd;
+      }
+      int end = offset + (int) (lineEnd - position);
+      Arrays.fill(values, null);
+      int column = 0;
+      int columnStart = offset;
+      for (int i = offset; i <= end; ++i) {
+         if (i == end || chunk.get(i) == ',') {
+            for (int j = 0; j < positions.length; ++j) {
+               if (positions[j] == column) {
+                  values[j] = decode(chunk, columnStart, i, removeQuotes);
+               }
+            }
+            ++column;
+            columnStart = i + 1;
+         }
+      }
+   }
+
+   private static String decode(ByteBuffer chunk, int start, int end, boolean removeQuotes) {
+      byte[] bytes = new byte[end - start];
+      int length = 0;
+      for (int i = start; i < end; ++i) {
+         byte b = chunk.get(i);
+         if (!removeQuotes || b != '"') {
+            bytes[length++] = b;
+         }
+      }
+      return new String(bytes, 0, length, StandardCharsets.UTF_8);
+   }
+
+   private byte get(long position) {
+      return chunks[(int) (position / CHUNK_SIZE)].get((int) (position % CHUNK_SIZE));
+   }
+
+   /**
+    * @return Position of the first row starting at or after given line start, skipping comments if needed.
+    */
+   private long nextRow(long position) {
+      while (skipComments && position < size && isComment(position)) {
+         position = lineEnd(position) + 1;
+      }
+      return position;
+   }
+
+   private boolean isComment(long position) {
+      for (; position < size; ++position) {
+         byte b = get(position);
+         if (b == '#') {
+            return true;
+         } else if (b == '\n' || !Character.isWhitespace(b)) {
+            return false;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * @return Position of the <code>\n</code> ending the line, or file size.
+    */
+   private long lineEnd(long position) {
+      long end = position;
+      while (end < size && get(end) != '\n') {
+         ++end;
+      }
+      if (end - position > MAX_ROW_LENGTH) {
+         throw new IllegalStateException("Row at position " + position + " is longer than " + MAX_ROW_LENGTH + " bytes");
+      }
+      return end;
+   }
+}
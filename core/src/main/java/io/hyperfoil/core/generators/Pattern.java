@@ -1,8 +1,6 @@
 package io.hyperfoil.core.generators;
 
 import java.io.Serializable;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,6 +14,7 @@ import io.hyperfoil.core.util.Util;
 import io.hyperfoil.function.SerializableBiConsumer;
 import io.hyperfoil.function.SerializableFunction;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 
 public class Pattern implements SerializableFunction<Session, String>, SerializableBiConsumer<Session, ByteBuf>, Transformer {
    private static final int VAR_LENGTH_ESTIMATE = 32;
@@ -68,11 +67,9 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
    }
 
    private static String urlEncode(String string) {
-      try {
-         return URLEncoder.encode(string, StandardCharsets.UTF_8.name());
-      } catch (UnsupportedEncodingException e) {
-         throw new IllegalArgumentException(e);
-      }
+      StringBuilder sb = new StringBuilder(string.length());
+      Util.urlEncode(string, sb);
+      return sb.toString();
    }
 
    @Override
@@ -133,10 +130,40 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
    private class FormatIntComponent implements Component {
       private final String format;
       private final Access key;
+      // Formats in form %[0][width](d|o|x|X) are rendered directly, anything else goes through String.format
+      private final boolean direct;
+      private final boolean zeroPadding;
+      private final int width;
+      private final int radix;
+      private final boolean upperCase;
 
       FormatIntComponent(String format, Access key) {
          this.format = format;
          this.key = key;
+         int i = format.startsWith("%") ? 1 : 0;
+         boolean zeroPadding = i < format.length() && format.charAt(i) == '0';
+         if (zeroPadding) {
+            ++i;
+         }
+         int width = 0;
+         while (i < format.length() && format.charAt(i) >= '0' && format.charAt(i) <= '9') {
+            width = width * 10 + format.charAt(i++) - '0';
+         }
+         this.direct = i == format.length() - 1 && format.charAt(0) == '%';
+         this.zeroPadding = zeroPadding;
+         this.width = width;
+         switch (format.charAt(format.length() - 1)) {
+            case 'o':
+               radix = 8;
+               break;
+            case 'x':
+            case 'X':
+               radix = 16;
+               break;
+            default:
+               radix = 10;
+         }
+         this.upperCase = format.endsWith("X");
       }
 
       private String string(Session session) {
@@ -145,17 +172,64 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
 
       @Override
       public void accept(Session s, StringBuilder sb) {
-         String str = string(s);
-         sb.append(urlEncode ? urlEncode(str) : str);
+         if (direct) {
+            // Digits never need URL-encoding, padding is handled in format()
+            format(key.getInt(s), sb, null);
+         } else {
+            String str = string(s);
+            sb.append(urlEncode ? urlEncode(str) : str);
+         }
       }
 
       @Override
       public void accept(Session session, ByteBuf buf) {
+         if (direct) {
+            format(key.getInt(session), null, buf);
+            return;
+         }
          String str = string(session);
          if (urlEncode) {
             Util.urlEncode(str, buf);
          } else {
-            Util.string2byteBuf(str, buf);
+            ByteBufUtil.writeUtf8(buf, str);
+         }
+      }
+
+      private void format(int value, StringBuilder sb, ByteBuf buf) {
+         boolean negative = radix == 10 && value < 0;
+         // Non-decimal formats print two's complement representation like String.format does
+         long abs = radix == 10 ? Math.abs((long) value) : Integer.toUnsignedLong(value);
+         long divisor = 1;
+         int digits = 1;
+         while (divisor <= abs / radix) {
+            divisor *= radix;
+            ++digits;
+         }
+         int padding = width - digits - (negative ? 1 : 0);
+         if (!zeroPadding) {
+            // URL-encoded space
+            char space = urlEncode ? '+' : ' ';
+            for (; padding > 0; --padding) {
+               put(space, sb, buf);
+            }
+         }
+         if (negative) {
+            put('-', sb, buf);
+         }
+         for (; padding > 0; --padding) {
+            put('0', sb, buf);
+         }
+         for (; divisor > 0; divisor /= radix) {
+            int digit = (int) (abs / divisor % radix);
+            put(digit < 10 ? (char) ('0' + digit) : (char) ((upperCase ? 'A' : 'a') + digit - 10), sb, buf);
+         }
+      }
+
+      private void put(char c, StringBuilder sb, ByteBuf buf) {
+         if (sb != null) {
+            sb.append(c);
+         } else {
+            buf.writeByte(c);
          }
       }
    }
@@ -177,11 +251,12 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
          } else {
             switch (var.type()) {
                case OBJECT:
-                  String str = String.valueOf(var.objectValue(session));
+                  Object o = var.objectValue(session);
                   if (urlEncode) {
-                     str = urlEncode(str);
+                     Util.urlEncode(o instanceof CharSequence ? (CharSequence) o : String.valueOf(o), sb);
+                  } else {
+                     sb.append(o);
                   }
-                  sb.append(str);
                   break;
                case INTEGER:
                   sb.append(var.intValue(session));
@@ -202,10 +277,11 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
                case OBJECT:
                   Object o = var.objectValue(session);
                   if (o != null) {
+                     CharSequence str = o instanceof CharSequence ? (CharSequence) o : o.toString();
                      if (urlEncode) {
-                        Util.urlEncode(o.toString(), buf);
+                        Util.urlEncode(str, buf);
                      } else {
-                        Util.string2byteBuf(o.toString(), buf);
+                        ByteBufUtil.writeUtf8(buf, str);
                      }
                   }
                   break;
@@ -1,9 +1,7 @@
 package io.hyperfoil.core.generators;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -11,8 +9,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.kohsuke.MetaInfServices;
 
@@ -26,33 +22,52 @@ import io.hyperfoil.api.session.Access;
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.builders.BaseStepBuilder;
+import io.hyperfoil.core.data.DataFiles;
+import io.hyperfoil.core.data.RowIndexedFile;
 import io.hyperfoil.core.session.SessionFactory;
-import io.vertx.core.logging.Logger;
-import io.vertx.core.logging.LoggerFactory;
+import io.hyperfoil.core.util.Util;
 
 /**
  * A class that will initialise, build and randomly select a single row of data.
  * The row is exposed as columns.
+ * <p>
+ * The file is not part of the step: it is referenced by name and hash. When the benchmark runs in the same JVM
+ * the content is taken from {@link io.hyperfoil.api.config.Benchmark#files()}, on agents it is read from the file
+ * transferred by the controller, memory-mapped through {@link RowIndexedFile}.
  */
 public class RandomCsvRowStep implements Step, ResourceUtilizer {
-   private static final Logger log = LoggerFactory.getLogger(RandomCsvRowStep.class);
-   private String[][] rows;
+   private final String file;
+   private final String hash;
+   private final boolean skipComments;
+   private final boolean removeQuotes;
+   private final int[] positions;
    private final Access[] columnVars;
-
-   public RandomCsvRowStep(String[][] rows, List<String> vars) {
-      this.rows = rows;
+   private transient RowIndexedFile rows;
+
+   public RandomCsvRowStep(String file, String hash, boolean skipComments, boolean removeQuotes, int[] positions, List<String> vars) {
+      this.file = file;
+      this.hash = hash;
+      this.skipComments = skipComments;
+      this.removeQuotes = removeQuotes;
+      this.positions = positions;
       this.columnVars = vars.stream().map(SessionFactory::access).toArray(Access[]::new);
    }
 
    @Override
    public boolean invoke(Session session) {
+      RowIndexedFile rows = this.rows;
+      if (rows == null) {
+         // The phase is not set yet in reserve()
+         byte[] content = session.phase() == null ? null : session.phase().benchmark().files().get(file);
+         this.rows = rows = DataFiles.rows(hash, skipComments, content);
+      }
       // columns provided by csv
       ThreadLocalRandom random = ThreadLocalRandom.current();
-      int next = random.nextInt(rows.length);
-      int last = columnVars.length;
-      for (int i = 0, j = 0; i < last; i += 1) {
-         if (rows[next][i] != null) {
-            columnVars[j++].setObject(session, rows[next][i]);
+      String[] values = new String[positions.length];
+      rows.read(random.nextInt(rows.rows()), positions, removeQuotes, values);
+      for (int i = 0; i < columnVars.length; i += 1) {
+         if (values[i] != null) {
+            columnVars[i].setObject(session, values[i]);
          }
       }
       return true;
@@ -92,35 +107,21 @@ public class RandomCsvRowStep implements Step, ResourceUtilizer {
 
       @Override
       public List<Step> build() {
-         Predicate<String> comments = s -> (!skipComments || !(s.trim().startsWith("#")));
-         List<String[]> rows;
+         byte[] content;
          try (InputStream inputStream = locator.benchmark().data().readFile(file)) {
             if (inputStream == null) {
                throw new BenchmarkDefinitionException("Cannot load file " + file);
             }
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            rows = reader.lines()
-                  .filter(comments)
-                  .map(s -> removeQuotes ? s.replaceAll("\"", "") : s)
-                  .map(line -> line.split(","))
-                  .collect(Collectors.toList());
+            content = Util.toByteArray(inputStream);
          } catch (IOException ioe) {
             throw new BenchmarkDefinitionException(ioe.getMessage());
          }
-         if (rows.isEmpty()) {
+         if (new RowIndexedFile(content, skipComments).rows() == 0) {
             throw new BenchmarkDefinitionException("Missing CSV row data. Rows were not detected after initial processing of file.");
          }
-         rows.forEach(arr -> {
-            for (int i = 0; i < arr.length; i += 1) {
-               if (!builderColumns.containsValue(i)) {
-                  arr[i] = null;
-               }
-            }
-         });
-         List<String> cols = new ArrayList<>();
-         cols.addAll(builderColumns.keySet());
-
-         return Collections.singletonList(new RandomCsvRowStep(rows.toArray(new String[][]{}), cols));
+         List<String> cols = new ArrayList<>(builderColumns.keySet());
+         int[] positions = cols.stream().mapToInt(builderColumns::get).toArray();
+         return Collections.singletonList(new RandomCsvRowStep(file, DataFiles.hash(content), skipComments, removeQuotes, positions, cols));
       }
 
       /**
@@ -47,6 +47,11 @@ class BaseSearchContext implements Session.Resource {
       return index;
    }
 
+   void resetHash() {
+      hashedBytes = 0;
+      currentHash = 0;
+   }
+
    void shiftParts() {
       parts[0].release();
       System.arraycopy(parts, 1, parts, 0, parts.length - 1);
@@ -10,7 +10,8 @@ import io.hyperfoil.api.statistics.IntValue;
 public class CountHeadersHandler implements HeaderHandler {
    @Override
    public void handleHeader(HttpRequest request, CharSequence header, CharSequence value) {
-      IntValue custom = request.statistics().getCustom(request.startTimestampMillis(), header, IntValue::new);
+      // The header can be an AsciiString; custom statistics keys must be serializable and compare to other keys
+      IntValue custom = request.statistics().getCustom(request.startTimestampMillis(), header.toString(), IntValue::new);
       custom.add(1);
    }
 
@@ -15,6 +15,7 @@ import io.hyperfoil.core.util.Util;
 import io.hyperfoil.function.SerializableBiPredicate;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
 
 import org.kohsuke.MetaInfServices;
 
@@ -42,6 +43,11 @@ public class FilterHeaderHandler implements HeaderHandler, ResourceUtilizer {
       if (this.header.test(request.session, header)) {
          if (value == null || value.length() == 0) {
             processor.process(request.session, Unpooled.EMPTY_BUFFER, 0, 0, true);
+         } else if (value instanceof AsciiString) {
+            // HTTP/1.x and HTTP/2 headers are already encoded; no need to allocate a string and encode it again
+            AsciiString ascii = (AsciiString) value;
+            ByteBuf byteBuf = Unpooled.wrappedBuffer(ascii.array(), ascii.arrayOffset(), ascii.length());
+            processor.process(request.session, byteBuf, byteBuf.readerIndex(), byteBuf.readableBytes(), true);
          } else {
             ByteBuf byteBuf = Util.string2byteBuf(value.toString(), request.connection().context().alloc().buffer());
             try {
@@ -1,6 +1,10 @@
 package io.hyperfoil.core.handlers;
 
+import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Stream;
 
@@ -13,6 +17,8 @@ import io.hyperfoil.api.config.Name;
 import io.hyperfoil.api.config.SequenceBuilder;
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.StepBuilder;
+import io.hyperfoil.api.connection.HttpConnectionPool;
+import io.hyperfoil.api.connection.HttpDestinationTable;
 import io.hyperfoil.api.connection.HttpRequest;
 import io.hyperfoil.api.processor.HttpRequestProcessorBuilder;
 import io.hyperfoil.api.http.HttpMethod;
@@ -23,6 +29,7 @@ import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.core.data.DataFormat;
 import io.hyperfoil.core.generators.StringGeneratorImplBuilder;
+import io.hyperfoil.core.session.ObjectVar;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.steps.AddToIntAction;
 import io.hyperfoil.core.steps.AwaitIntStep;
@@ -31,10 +38,13 @@ import io.hyperfoil.core.steps.PathMetricSelector;
 import io.hyperfoil.core.builders.ServiceLoadedBuilderProvider;
 import io.hyperfoil.core.steps.UnsetAction;
 import io.hyperfoil.core.util.Trie;
+import io.hyperfoil.core.util.ByteSearch;
 import io.hyperfoil.core.util.Util;
 import io.hyperfoil.function.SerializableBiFunction;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
@@ -43,9 +53,12 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
    private static final boolean trace = log.isTraceEnabled();
 
    private final TagHandler[] handlers;
+   // Shared by all sessions in this agent; keyed by request path
+   private final ParseCache parseCache;
 
-   private HtmlHandler(TagHandler... handlers) {
+   private HtmlHandler(int parseCacheSize, TagHandler... handlers) {
       this.handlers = handlers;
+      this.parseCache = parseCacheSize > 0 ? new ParseCache(parseCacheSize) : null;
    }
 
    @Override
@@ -53,10 +66,15 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       for (TagHandler h : handlers) {
          h.processor().before(session);
       }
+      session.getResource(this).resetCache();
    }
 
    @Override
    public void after(Session session) {
+      Context ctx = session.getResource(this);
+      if (ctx.recording && ctx.complete) {
+         storeParsedPage(session, ctx);
+      }
       for (TagHandler h : handlers) {
          h.processor().after(session);
       }
@@ -65,6 +83,14 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
    @Override
    public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
       Context ctx = session.getResource(this);
+      if (parseCache != null) {
+         if (!ctx.cacheChecked && lookupParsedPage(session, ctx)) {
+            return;
+         } else if (ctx.replayed) {
+            return;
+         }
+         ctx.complete = isLastPart;
+      }
       switch (ctx.tagStatus) {
          case PARSING_TAG:
             ctx.tagStart = offset;
@@ -77,6 +103,13 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
             break;
       }
       while (length > 0) {
+         int skipTo = ctx.skipTo(data, offset, offset + length);
+         if (skipTo < 0) {
+            offset += length;
+            break;
+         }
+         length -= skipTo - offset;
+         offset = skipTo;
          byte c = data.getByte(offset++);
          --length;
          switch (ctx.tagStatus) {
@@ -203,6 +236,56 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       }
    }
 
+   /**
+    * Replays values extracted from identical page (same path, authority and ETag) parsed before
+    * by any session in this agent.
+    *
+    * @return True if the page was replayed and the body should not be parsed.
+    */
+   private boolean lookupParsedPage(Session session, Context ctx) {
+      ctx.cacheChecked = true;
+      HttpRequest request = (HttpRequest) session.currentRequest();
+      CharSequence etag = request.cacheControl.responseEtag;
+      if (etag == null || request.statusCode != 200) {
+         return false;
+      }
+      ParsedPage page;
+      synchronized (parseCache) {
+         page = parseCache.get(parseCacheKey(request));
+      }
+      if (page != null && page.matches(etag)) {
+         if (trace) {
+            log.trace("#{} Replaying {} values parsed from {} (ETag {})", session.uniqueId(), page.tags.length,
+                  request.path, etag);
+         }
+         ctx.replayed = true;
+         ByteBuf data = Unpooled.wrappedBuffer(page.data);
+         for (int i = 0; i < page.tags.length; ++i) {
+            handlers[page.handlers[i]].replay(session, page.tags[i], data, page.offsets[i], page.lengths[i]);
+         }
+         return true;
+      }
+      ctx.recording = true;
+      return false;
+   }
+
+   private void storeParsedPage(Session session, Context ctx) {
+      HttpRequest request = (HttpRequest) session.currentRequest();
+      ParsedPage page = new ParsedPage(request.cacheControl.responseEtag.toString(), ctx);
+      synchronized (parseCache) {
+         parseCache.put(parseCacheKey(request), page);
+      }
+      if (trace) {
+         log.trace("#{} Cached {} values parsed from {} (ETag {})", session.uniqueId(), page.tags.length,
+               request.path, page.etag);
+      }
+   }
+
+   private static String parseCacheKey(HttpRequest request) {
+      // Pages with the same path on different authorities are unrelated
+      return request.authority + request.path;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, new Context());
@@ -212,7 +295,61 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
    interface TagHandler {
       Processor processor();
 
-      HandlerContext newContext();
+      /**
+       * @param owner Context that should {@link Context#record(int, int, ByteBuf, int, int) record} values
+       *              passed to the processor.
+       * @param index Index of this handler.
+       * @return New context.
+       */
+      HandlerContext newContext(Context owner, int index);
+
+      /**
+       * Passes a value recorded through {@link Context#record(int, int, ByteBuf, int, int)} to the processor.
+       */
+      void replay(Session session, int tag, ByteBuf data, int offset, int length);
+   }
+
+   /**
+    * Parsed pages, evicting the least recently used one when full. Access must be synchronized on the cache.
+    */
+   private static class ParseCache extends LinkedHashMap<String, ParsedPage> {
+      private final int maxSize;
+
+      ParseCache(int maxSize) {
+         super(16, 0.75f, true);
+         this.maxSize = maxSize;
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ParsedPage> eldest) {
+         return size() > maxSize;
+      }
+   }
+
+   /**
+    * Values extracted by the tag handlers from a page, stored in a single byte array.
+    */
+   private static class ParsedPage implements Serializable {
+      private final String etag;
+      private final byte[] data;
+      private final int[] handlers;
+      private final int[] tags;
+      private final int[] offsets;
+      private final int[] lengths;
+
+      ParsedPage(String etag, Context ctx) {
+         this.etag = etag;
+         this.data = new byte[ctx.recordedData.readableBytes()];
+         ctx.recordedData.getBytes(ctx.recordedData.readerIndex(), data);
+         this.handlers = Arrays.copyOf(ctx.recordedHandlers, ctx.recordedCount);
+         this.tags = Arrays.copyOf(ctx.recordedTags, ctx.recordedCount);
+         this.offsets = Arrays.copyOf(ctx.recordedOffsets, ctx.recordedCount);
+         this.lengths = Arrays.copyOf(ctx.recordedLengths, ctx.recordedCount);
+      }
+
+      boolean matches(CharSequence etag) {
+         return AsciiString.contentEquals(this.etag, etag);
+      }
    }
 
    enum TagStatus {
@@ -237,9 +374,92 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       int valueStart = -1;
       int comment;
       HandlerContext[] handlerCtx;
+      // Parse cache
+      boolean cacheChecked;
+      boolean replayed;
+      boolean recording;
+      boolean complete;
+      ByteBuf recordedData;
+      int recordedCount;
+      int[] recordedHandlers;
+      int[] recordedTags;
+      int[] recordedOffsets;
+      int[] recordedLengths;
 
       Context() {
-         handlerCtx = Stream.of(handlers).map(TagHandler::newContext).toArray(HandlerContext[]::new);
+         handlerCtx = new HandlerContext[handlers.length];
+         for (int i = 0; i < handlers.length; ++i) {
+            handlerCtx[i] = handlers[i].newContext(this, i);
+         }
+      }
+
+      @Override
+      public void destroy() {
+         if (recordedData != null) {
+            recordedData.release();
+            recordedData = null;
+         }
+      }
+
+      void resetCache() {
+         cacheChecked = false;
+         replayed = false;
+         recording = false;
+         complete = false;
+         recordedCount = 0;
+         if (recordedData != null) {
+            recordedData.clear();
+         }
+      }
+
+      /**
+       * Records value passed to the processor of a tag handler, in order to cache values parsed from this page.
+       */
+      void record(int handler, int tag, ByteBuf data, int offset, int length) {
+         if (!recording) {
+            return;
+         }
+         if (recordedData == null) {
+            recordedData = ByteBufAllocator.DEFAULT.buffer();
+            recordedHandlers = new int[16];
+            recordedTags = new int[16];
+            recordedOffsets = new int[16];
+            recordedLengths = new int[16];
+         } else if (recordedCount == recordedTags.length) {
+            recordedHandlers = Arrays.copyOf(recordedHandlers, 2 * recordedCount);
+            recordedTags = Arrays.copyOf(recordedTags, 2 * recordedCount);
+            recordedOffsets = Arrays.copyOf(recordedOffsets, 2 * recordedCount);
+            recordedLengths = Arrays.copyOf(recordedLengths, 2 * recordedCount);
+         }
+         recordedHandlers[recordedCount] = handler;
+         recordedTags[recordedCount] = tag;
+         recordedOffsets[recordedCount] = recordedData.writerIndex();
+         recordedLengths[recordedCount] = length;
+         ++recordedCount;
+         recordedData.ensureWritable(length);
+         recordedData.writeBytes(data, offset, length);
+      }
+
+      /**
+       * Text between tags, doctype and quoted attribute values are not interesting byte by byte;
+       * we can jump to the next byte that changes the state.
+       *
+       * @return Index of the next byte to be processed or -1 if the rest of the range can be skipped.
+       */
+      int skipTo(ByteBuf data, int offset, int end) {
+         switch (tagStatus) {
+            case NO_TAG:
+               return ByteSearch.indexOf(data, offset, end, (byte) '<');
+            case DOCTYPE:
+               return ByteSearch.indexOf(data, offset, end, (byte) '>');
+            case PARSING_VALUE:
+               if (valueQuoted && !charEscaped) {
+                  return ByteSearch.indexOfAny(data, offset, end, (byte) '"', (byte) '\\');
+               }
+               return offset;
+            default:
+               return offset;
+         }
       }
 
       void onTag(Session session, boolean close, ByteBuf data, int tagEnd, boolean isLast) {
@@ -295,6 +515,7 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
    public static class Builder implements HttpRequestProcessorBuilder {
       private Locator locator;
       private EmbeddedResourceHandlerBuilder embeddedResourceHandler;
+      private int parseCache;
 
       @Override
       public Builder setLocator(Locator locator) {
@@ -302,6 +523,20 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
          return this;
       }
 
+      /**
+       * Maximum number of pages whose parsed values are shared by all sessions in the agent (default is 0 = no cache);
+       * when the cache is full the least recently used page is evicted.
+       * The response must carry an <code>ETag</code>; when another session receives a page with the same authority,
+       * path and ETag the body is not parsed again and the handlers get the values extracted from the first response.
+       *
+       * @param parseCache Number of cached pages.
+       * @return Self.
+       */
+      public Builder parseCache(int parseCache) {
+         this.parseCache = parseCache;
+         return this;
+      }
+
       /**
        * Handler firing upon reference to other resource, e.g. image, stylesheet...
        *
@@ -321,14 +556,17 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
 
       @Override
       public Builder copy(Locator locator) {
-         Builder newBuilder = new Builder().setLocator(locator);
+         Builder newBuilder = new Builder().setLocator(locator).parseCache(parseCache);
          newBuilder.embeddedResourceHandler = embeddedResourceHandler.copy(locator);
          return newBuilder;
       }
 
       @Override
       public HtmlHandler build(boolean fragmented) {
-         return new HtmlHandler(embeddedResourceHandler.build());
+         if (parseCache < 0) {
+            throw new BenchmarkDefinitionException("parseCache must not be negative.");
+         }
+         return new HtmlHandler(parseCache, embeddedResourceHandler.build());
       }
    }
 
@@ -343,6 +581,8 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
    public static class EmbeddedResourceHandlerBuilder implements BuilderBase<EmbeddedResourceHandlerBuilder> {
       private static final String[] TAGS = { "img", "link", "embed", "frame", "iframe", "object", "script" };
       private static final String[] ATTRS = { "src", "href", "src", "src", "src", "data", "src" };
+      // Stylesheets and scripts block rendering, frames are documents, the rest are images and media
+      private static final int[] PRIORITIES = { 2, 0, 2, 1, 1, 2, 0 };
 
       private Locator locator;
       private boolean ignoreExternal = true;
@@ -424,15 +664,18 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
          if (processor != null && fetchResource != null) {
             throw new BenchmarkDefinitionException("Only one of processor/fetchResource allowed!");
          }
-         Processor p;
          if (fetchResource != null) {
-            p = fetchResource.build();
+            FetchResourcesAdapter adapter = fetchResource.build();
+            Processor[] tagProcessors = new Processor[TAGS.length];
+            for (int i = 0; i < TAGS.length; ++i) {
+               tagProcessors[i] = new EmbeddedResourceProcessor(ignoreExternal, adapter.withPriority(PRIORITIES[i]));
+            }
+            return new BaseTagAttributeHandler(TAGS, ATTRS, new EmbeddedResourceProcessor(ignoreExternal, adapter), tagProcessors);
          } else if (processor != null) {
-            p = processor.build(false);
+            return new BaseTagAttributeHandler(TAGS, ATTRS, new EmbeddedResourceProcessor(ignoreExternal, processor.build(false)));
          } else {
             throw new BenchmarkDefinitionException("Embedded resource handler is missing the processor");
          }
-         return new BaseTagAttributeHandler(TAGS, ATTRS, new EmbeddedResourceProcessor(ignoreExternal, p));
       }
    }
 
@@ -444,6 +687,7 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       private final String generatedSeqName;
 
       private int maxResources;
+      private int concurrency;
       private SerializableBiFunction<String, String, String> metricSelector;
       private Action.Builder onCompletion;
 
@@ -461,6 +705,10 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
          return generatedSeqName + "_url";
       }
 
+      private String queueVar() {
+         return generatedSeqName + "_queue";
+      }
+
       /**
        * Maximum number of resources that can be fetched.
        *
@@ -472,6 +720,19 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
          return this;
       }
 
+      /**
+       * Maximum number of resources fetched concurrently from one authority, like the per-origin connection limit
+       * in browsers (default is 0 = no limit). Resources exceeding the limit wait in a queue: stylesheets
+       * and scripts are fetched first, then frames, images and other objects.
+       *
+       * @param concurrency Max concurrent fetches per authority.
+       * @return Self.
+       */
+      public FetchResourceBuilder concurrency(int concurrency) {
+         this.concurrency = concurrency;
+         return this;
+      }
+
       /**
        * Metrics selector for downloaded resources.
        *
@@ -511,6 +772,8 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       public void prepareBuild() {
          if (maxResources <= 0) {
             throw new BenchmarkDefinitionException("maxResources is missing or invalid.");
+         } else if (concurrency < 0) {
+            throw new BenchmarkDefinitionException("concurrency must not be negative.");
          }
 
          SequenceBuilder sequence = locator.scenario().sequence(generatedSeqName);
@@ -525,6 +788,11 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
             requestBuilder.metric((authority, path) -> authority != null ? authority + path : path);
          }
          requestBuilder.handler().onCompletion(new AddToIntAction.Builder().var(completionLatch()).value(-1));
+         if (concurrency > 0) {
+            Access queueVar = SessionFactory.access(queueVar());
+            requestBuilder.handler().onCompletion(
+                  s -> ((FetchQueue) queueVar.getObject(s)).completed(s, s.currentSequence().index()));
+         }
          requestBuilder.setLocator(sequence.createLocator());
          sequence.stepBuilder(requestBuilder);
          requestBuilder.prepareBuild();
@@ -541,12 +809,17 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       public FetchResourceBuilder copy(Locator locator) {
          return new FetchResourceBuilder(locator)
                .maxResources(maxResources)
+               .concurrency(concurrency)
                .metric(metricSelector)
                .onCompletion(onCompletion);
       }
 
       @SuppressWarnings("unchecked")
       public FetchResourcesAdapter build() {
+         if (concurrency > 0) {
+            return new FetchResourcesAdapter(completionLatch(), new FetchQueueProcessor(
+                  downloadUrlVar(), queueVar(), completionLatch(), maxResources, concurrency, generatedSeqName));
+         }
          return new FetchResourcesAdapter(completionLatch(), new MultiProcessor(
                new ArrayRecorder(downloadUrlVar(), DataFormat.STRING, maxResources),
                new NewSequenceProcessor(maxResources, generatedSeqName + "_cnt", generatedSeqName)));
@@ -577,7 +850,11 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       private final Processor delegate;
 
       private FetchResourcesAdapter(String completionCounter, Processor delegate) {
-         this.completionCounter = SessionFactory.access(completionCounter);
+         this(SessionFactory.access(completionCounter), delegate);
+      }
+
+      private FetchResourcesAdapter(Access completionCounter, Processor delegate) {
+         this.completionCounter = completionCounter;
          this.delegate = delegate;
       }
 
@@ -604,18 +881,229 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
          completionCounter.declareInt(session);
          ResourceUtilizer.reserve(session, delegate);
       }
+
+      /**
+       * @return Processor for values of tags with given priority; only {@link #process(Session, ByteBuf, int, int, boolean)}
+       * should be invoked on it as the lifecycle is managed by this adapter.
+       */
+      Processor withPriority(int priority) {
+         if (delegate instanceof FetchQueueProcessor) {
+            return new FetchResourcesAdapter(completionCounter, ((FetchQueueProcessor) delegate).withPriority(priority));
+         }
+         return this;
+      }
+   }
+
+   /**
+    * Stores URLs of resources in an array and starts fetch sequences, limiting the number of concurrent fetches
+    * per authority.
+    */
+   private static class FetchQueueProcessor implements Processor, ResourceUtilizer {
+      private static final int LOWEST_PRIORITY = 2;
+
+      private final Access urlVar;
+      private final Access queueVar;
+      private final Access completionCounter;
+      private final int maxResources;
+      private final int concurrency;
+      private final String sequence;
+
+      FetchQueueProcessor(String urlVar, String queueVar, String completionCounter, int maxResources, int concurrency, String sequence) {
+         this(SessionFactory.access(urlVar), SessionFactory.access(queueVar), SessionFactory.access(completionCounter),
+               maxResources, concurrency, sequence);
+      }
+
+      private FetchQueueProcessor(Access urlVar, Access queueVar, Access completionCounter, int maxResources, int concurrency, String sequence) {
+         this.urlVar = urlVar;
+         this.queueVar = queueVar;
+         this.completionCounter = completionCounter;
+         this.maxResources = maxResources;
+         this.concurrency = concurrency;
+         this.sequence = sequence;
+      }
+
+      @Override
+      public void before(Session session) {
+         // the sequences read the URL from this variable
+         urlVar.activate(session);
+         ((FetchQueue) queueVar.getObject(session)).reset();
+      }
+
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         enqueue(session, data, offset, length, LOWEST_PRIORITY);
+      }
+
+      void enqueue(Session session, ByteBuf data, int offset, int length, int priority) {
+         FetchQueue queue = (FetchQueue) queueVar.getObject(session);
+         if (!queue.add(session, DataFormat.STRING.convert(data, offset, length), authorityIndex(session, data, offset, length), priority)) {
+            log.warn("#{} Exceeded maximum number of resources ({}), dropping {}", session.uniqueId(), maxResources,
+                  Util.toString(data, offset, length));
+            // the adapter has already counted this resource
+            completionCounter.addToInt(session, -1);
+         }
+      }
+
+      /**
+       * @return Index of authority in {@link Session#httpDestinations()} or -1 for the default authority.
+       */
+      private static int authorityIndex(Session session, ByteBuf data, int offset, int length) {
+         if (!EmbeddedResourceProcessor.hasPrefix(data, offset, length, EmbeddedResourceProcessor.HTTP_PREFIX)) {
+            return -1;
+         }
+         int authorityStart = EmbeddedResourceProcessor.indexOf(data, offset, length, ':') + 3;
+         byte[][] authorities = session.httpDestinations().authorityBytes();
+         for (int i = 0; i < authorities.length; ++i) {
+            if (EmbeddedResourceProcessor.hasPrefix(data, offset + authorityStart, length - authorityStart, authorities[i])) {
+               return i;
+            }
+         }
+         return -1;
+      }
+
+      @Override
+      public void reserve(Session session) {
+         FetchQueue queue = new FetchQueue(session, sequence, maxResources, concurrency);
+         urlVar.declareObject(session);
+         urlVar.setObject(session, queue.urls);
+         urlVar.unset(session);
+         queueVar.declareObject(session);
+         queueVar.setObject(session, queue);
+      }
+
+      Processor withPriority(int priority) {
+         return new Prioritized(priority);
+      }
+
+      private class Prioritized implements Processor {
+         private final int priority;
+
+         Prioritized(int priority) {
+            this.priority = priority;
+         }
+
+         @Override
+         public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+            enqueue(session, data, offset, length, priority);
+         }
+      }
+   }
+
+   /**
+    * Resources found on a page, fetched by sequences with index matching the position in {@link #urls}.
+    */
+   private static class FetchQueue {
+      private final String sequence;
+      private final int concurrency;
+      private final ObjectVar[] urls;
+      private final int[] priorities;
+      private final int[] authorities;
+      private final boolean[] pending;
+      private int size;
+      // The last slot is used for the default authority
+      private int[] active;
+      private int defaultAuthority;
+
+      FetchQueue(Session session, String sequence, int maxResources, int concurrency) {
+         this.sequence = sequence;
+         this.concurrency = concurrency;
+         this.urls = ObjectVar.newArray(session, maxResources);
+         this.priorities = new int[maxResources];
+         this.authorities = new int[maxResources];
+         this.pending = new boolean[maxResources];
+      }
+
+      void reset() {
+         for (int i = 0; i < size; ++i) {
+            urls[i].unset();
+            pending[i] = false;
+         }
+         size = 0;
+         if (active != null) {
+            Arrays.fill(active, 0);
+         }
+      }
+
+      boolean add(Session session, Object url, int authority, int priority) {
+         if (size >= urls.length) {
+            return false;
+         }
+         if (active == null) {
+            init(session);
+         }
+         urls[size].set(url);
+         authorities[size] = authority < 0 ? defaultAuthority : authority;
+         priorities[size] = priority;
+         pending[size] = true;
+         ++size;
+         dispatch(session);
+         return true;
+      }
+
+      private void init(Session session) {
+         HttpDestinationTable destinations = session.httpDestinations();
+         String[] names = destinations.authorities();
+         active = new int[names.length + 1];
+         defaultAuthority = names.length;
+         HttpConnectionPool defaultPool = destinations.getConnectionPool(null);
+         for (int i = 0; i < names.length; ++i) {
+            if (destinations.getConnectionPool(names[i]) == defaultPool) {
+               defaultAuthority = i;
+               break;
+            }
+         }
+      }
+
+      void completed(Session session, int index) {
+         --active[authorities[index]];
+         dispatch(session);
+      }
+
+      /**
+       * Starts pending fetches in order of priority and discovery while the authority has spare capacity.
+       */
+      private void dispatch(Session session) {
+         for (;;) {
+            int next = -1;
+            for (int i = 0; i < size; ++i) {
+               if (pending[i] && active[authorities[i]] < concurrency && (next < 0 || priorities[i] < priorities[next])) {
+                  next = i;
+               }
+            }
+            if (next < 0) {
+               return;
+            }
+            pending[next] = false;
+            ++active[authorities[next]];
+            if (trace) {
+               log.trace("#{} Fetching {} (priority {})", session.uniqueId(), urls[next].get(), priorities[next]);
+            }
+            session.phase().scenario().sequence(sequence).instantiate(session, next);
+         }
+      }
    }
 
    private static class BaseTagAttributeHandler implements TagHandler, ResourceUtilizer {
       private final Trie trie;
       private final byte[][] attributes;
       private final Processor processor;
+      private final Processor[] tagProcessors;
 
       BaseTagAttributeHandler(String[] tags, String[] attributes, Processor processor) {
+         this(tags, attributes, processor, null);
+      }
+
+      /**
+       * @param processor     Processor handling the values; its lifecycle methods are invoked for each response.
+       * @param tagProcessors Processors handling values of the corresponding tag, sharing state with
+       *                      <code>processor</code>. If <code>null</code> all values are passed to <code>processor</code>.
+       */
+      BaseTagAttributeHandler(String[] tags, String[] attributes, Processor processor, Processor[] tagProcessors) {
          this.processor = processor;
-         if (tags.length != attributes.length) {
+         if (tags.length != attributes.length || (tagProcessors != null && tagProcessors.length != tags.length)) {
             throw new IllegalArgumentException();
          }
+         this.tagProcessors = tagProcessors;
          this.trie = new Trie(tags);
          this.attributes = Stream.of(attributes)
                .map(s -> s.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
@@ -627,8 +1115,17 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       }
 
       @Override
-      public HandlerContext newContext() {
-         return new Ctx();
+      public HandlerContext newContext(Context owner, int index) {
+         return new Ctx(owner, index);
+      }
+
+      @Override
+      public void replay(Session session, int tag, ByteBuf data, int offset, int length) {
+         tagProcessor(tag).process(session, data, offset, length, true);
+      }
+
+      private Processor tagProcessor(int tag) {
+         return tagProcessors == null ? processor : tagProcessors[tag];
       }
 
       @Override
@@ -637,11 +1134,18 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       }
 
       protected class Ctx implements HandlerContext {
+         private final Context owner;
+         private final int index;
          private final Trie.State trieState = trie.newState();
          private int tagMatched = -1;
          private int attrMatchedIndex = -1;
          private ByteBuf valueBuffer = ByteBufAllocator.DEFAULT.buffer();
 
+         Ctx(Context owner, int index) {
+            this.owner = owner;
+            this.index = index;
+         }
+
          @Override
          public void onTag(Session session, boolean close, ByteBuf data, int offset, int length, boolean isLast) {
             for (int i = 0; i < length; ++i) {
@@ -686,7 +1190,8 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
             valueBuffer.ensureWritable(length);
             valueBuffer.writeBytes(data, offset, length);
             if (isLast) {
-               processor().process(session, valueBuffer, valueBuffer.readerIndex(), valueBuffer.readableBytes(), true);
+               owner.record(index, tagMatched, valueBuffer, valueBuffer.readerIndex(), valueBuffer.readableBytes());
+               tagProcessor(tagMatched).process(session, valueBuffer, valueBuffer.readerIndex(), valueBuffer.readableBytes(), true);
                valueBuffer.clear();
                attrMatchedIndex = 0;
             }
@@ -764,7 +1269,7 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
          }
       }
 
-      private int indexOf(ByteBuf data, int offset, int length, char c) {
+      private static int indexOf(ByteBuf data, int offset, int length, char c) {
          for (int i = 0; i <= length; ++i) {
             if (data.getByte(offset + i) == c) {
                return i;
@@ -773,7 +1278,7 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
          return -1;
       }
 
-      private boolean hasPrefix(ByteBuf data, int offset, int length, byte[] authority) {
+      private static boolean hasPrefix(ByteBuf data, int offset, int length, byte[] authority) {
          int i = 0;
          for (; i < authority.length && i < length; i++) {
             if (data.getByte(offset + i) != authority[i]) {
@@ -71,10 +71,12 @@ public class JsonHandler extends JsonParser implements Processor, Session.Resour
          actualStream = new ByteBufByteStream(this::retain, null);
       }
 
+      Context(Scanner scanner) {
+         super(scanner);
+      }
+
       public ByteStream wrap(ByteBuf data, int offset, int length) {
-         actualStream.buffer = data;
-         actualStream.readerIndex = offset;
-         return actualStream;
+         return actualStream.wrap(data, offset);
       }
 
       @Override
@@ -128,6 +130,12 @@ public class JsonHandler extends JsonParser implements Processor, Session.Resour
          this.release = release;
       }
 
+      ByteStream wrap(ByteBuf buffer, int readerIndex) {
+         this.buffer = buffer;
+         this.readerIndex = readerIndex;
+         return this;
+      }
+
       @Override
       public boolean isReadable() {
          return readerIndex < buffer.writerIndex();
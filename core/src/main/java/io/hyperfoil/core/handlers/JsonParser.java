@@ -160,58 +160,32 @@ public abstract class JsonParser implements Serializable, ResourceUtilizer {
       }
    }
 
-   protected abstract class Context implements Session.Resource {
-      Selector.Context[] selectorContext = new Selector.Context[selectors.length];
+   /**
+    * Tokenizes the JSON and notifies the {@link Context contexts} about structural characters. When several queries
+    * share one scanner (see {@link MultiJsonHandler}) the input is buffered and scanned only once for all of them.
+    */
+   static final class Scanner {
+      final StreamQueue stream = new StreamQueue(MAX_PARTS);
+      final ByteStream[] pool = new ByteStream[MAX_PARTS];
+      Context[] contexts;
       int level;
-      int selectorLevel;
-      int selector;
       boolean inQuote;
       boolean inKey;
       boolean escaped;
-      StreamQueue stream = new StreamQueue(MAX_PARTS);
       int keyStartIndex;
       int lastCharIndex; // end of key name
-      int valueStartIndex;
-      int lastOutputIndex; // last byte we have written out
-      int safeOutputIndex; // last byte we could definitely write out
-      ByteStream[] pool = new ByteStream[MAX_PARTS];
-      protected ByteBuf replaceBuffer = PooledByteBufAllocator.DEFAULT.buffer();
-      final StreamQueue.Consumer<Void, Session> replaceConsumer = this::replaceConsumer;
-
-      protected Context(Function<Context, ByteStream> byteStreamSupplier) {
-         for (int i = 0; i < pool.length; ++i) {
-            pool[i] = byteStreamSupplier.apply(this);
-         }
-         for (int i = 0; i < selectors.length; ++i) {
-            selectorContext[i] = selectors[i].newContext();
-         }
-         reset();
-      }
 
-      public void reset() {
-         for (Selector.Context ctx : selectorContext) {
-            if (ctx != null) ctx.reset();
-         }
+      void reset() {
          level = -1;
-         selectorLevel = 0;
-         selector = 0;
          inQuote = false;
          inKey = false;
          escaped = false;
          keyStartIndex = -1;
          lastCharIndex = -1;
-         valueStartIndex = -1;
-         lastOutputIndex = 0;
-         safeOutputIndex = 0;
          stream.reset();
-         replaceBuffer.clear();
       }
 
-      private Selector.Context current() {
-         return selectorContext[selector];
-      }
-
-      public void parse(ByteStream data, Session session, boolean isLast) {
+      void parse(ByteStream data, Session session, boolean isLast) {
          int readerIndex = stream.append(data);
          PARSING:
          while (true) {
@@ -233,21 +207,15 @@ public abstract class JsonParser implements Serializable, ResourceUtilizer {
                   if (!inQuote) {
                      ++level;
                      inKey = true;
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
+                     for (Context ctx : contexts) {
+                        ctx.objectStart(readerIndex);
                      }
-                     // TODO assert we have active attrib selector
                   }
                   break;
                case '}':
                   if (!inQuote) {
-                     tryRecord(session, readerIndex);
-                     if (level == selectorLevel) {
-                        --selectorLevel;
-                        --selector;
-                     }
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
+                     for (Context ctx : contexts) {
+                        ctx.objectEnd(session, readerIndex);
                      }
                      --level;
                   }
@@ -259,36 +227,10 @@ public abstract class JsonParser implements Serializable, ResourceUtilizer {
                   break;
                case ':':
                   if (!inQuote) {
-                     if (selectorLevel == level && keyStartIndex >= 0 && selector < selectors.length && selectors[selector] instanceof AttribSelector) {
-                        AttribSelector selector = (AttribSelector) selectors[this.selector];
-                        if (selector.match(stream, keyStartIndex, lastCharIndex)) {
-                           if (onMatch(readerIndex) && (delete || replace != null)) {
-                              // omit key's starting quote
-                              int outputEnd = keyStartIndex - 1;
-                              // remove possible comma before the key
-                              LOOP:
-                              while (true) {
-                                 switch (stream.getByte(outputEnd - 1)) {
-                                    case ' ':
-                                    case '\n':
-                                    case '\t':
-                                    case '\r':
-                                    case ',':
-                                       --outputEnd;
-                                       break;
-                                    default:
-                                       break LOOP;
-                                 }
-                              }
-                              stream.consume(lastOutputIndex, outputEnd, record, this, session, false);
-                              lastOutputIndex = outputEnd;
-                           }
-                        }
+                     for (Context ctx : contexts) {
+                        ctx.keyEnd(session, readerIndex);
                      }
                      keyStartIndex = -1;
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
-                     }
                      inKey = false;
                   }
                   break;
@@ -296,50 +238,23 @@ public abstract class JsonParser implements Serializable, ResourceUtilizer {
                   if (!inQuote) {
                      inKey = true;
                      keyStartIndex = -1;
-                     tryRecord(session, readerIndex);
-                     if (selectorLevel == level && selector < selectors.length && current() instanceof ArraySelectorContext) {
-                        ArraySelectorContext asc = (ArraySelectorContext) current();
-                        if (asc.active) {
-                           asc.currentItem++;
-                        }
-                        if (((ArraySelector) selectors[selector]).matches(asc)) {
-                           if (onMatch(readerIndex) && (delete || replace != null)) {
-                              // omit the ','
-                              stream.consume(lastOutputIndex, readerIndex - 1, record, this, session, false);
-                              lastOutputIndex = readerIndex - 1;
-                           }
-                        }
+                     for (Context ctx : contexts) {
+                        ctx.nextItem(session, readerIndex);
                      }
                   }
                   break;
                case '[':
                   if (!inQuote) {
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
-                     }
                      ++level;
-                     if (selectorLevel == level && selector < selectors.length && selectors[selector] instanceof ArraySelector) {
-                        ArraySelectorContext asc = (ArraySelectorContext) current();
-                        asc.active = true;
-                        if (((ArraySelector) selectors[selector]).matches(asc)) {
-                           if (onMatch(readerIndex) && (delete || replace != null)) {
-                              stream.consume(lastOutputIndex, readerIndex, record, this, session, false);
-                              lastOutputIndex = readerIndex;
-                           }
-                        }
+                     for (Context ctx : contexts) {
+                        ctx.arrayStart(session, readerIndex);
                      }
                   }
                   break;
                case ']':
                   if (!inQuote) {
-                     tryRecord(session, readerIndex);
-                     if (selectorLevel == level && selector < selectors.length && current() instanceof ArraySelectorContext) {
-                        ArraySelectorContext asc = (ArraySelectorContext) current();
-                        asc.active = false;
-                        --selectorLevel;
-                     }
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
+                     for (Context ctx : contexts) {
+                        ctx.arrayEnd(session, readerIndex);
                      }
                      --level;
                   }
@@ -354,17 +269,213 @@ public abstract class JsonParser implements Serializable, ResourceUtilizer {
                escaped = false;
             }
          }
-         if (keyStartIndex >= 0 || valueStartIndex >= 0) {
-            stream.release(Math.min(Math.min(keyStartIndex, valueStartIndex), safeOutputIndex));
-            if (isLast) {
-               throw new IllegalStateException("End of input while the JSON is not complete.");
+         int releaseIndex = readerIndex;
+         boolean incomplete = keyStartIndex >= 0;
+         for (Context ctx : contexts) {
+            incomplete |= ctx.valueStartIndex >= 0;
+            releaseIndex = Math.min(releaseIndex, ctx.endOfInput(session, readerIndex, isLast));
+         }
+         stream.release(releaseIndex);
+         if (incomplete && isLast) {
+            throw new IllegalStateException("End of input while the JSON is not complete.");
+         }
+      }
+
+      ByteStream retain(ByteStream stream) {
+         for (int i = 0; i < pool.length; ++i) {
+            ByteStream pooled = pool[i];
+            if (pooled != null) {
+               pool[i] = null;
+               stream.moveTo(pooled);
+               return pooled;
+            }
+         }
+         throw new IllegalStateException();
+      }
+
+      void release(ByteStream stream) {
+         for (int i = 0; i < pool.length; ++i) {
+            if (pool[i] == null) {
+               pool[i] = stream;
+               return;
+            }
+         }
+         throw new IllegalStateException();
+      }
+   }
+
+   protected abstract class Context implements Session.Resource {
+      final Scanner scanner;
+      final StreamQueue stream;
+      private final boolean ownScanner;
+      Selector.Context[] selectorContext = new Selector.Context[selectors.length];
+      int selectorLevel;
+      int selector;
+      int valueStartIndex;
+      int lastOutputIndex; // last byte we have written out
+      int safeOutputIndex; // last byte we could definitely write out
+      protected ByteBuf replaceBuffer = PooledByteBufAllocator.DEFAULT.buffer();
+      final StreamQueue.Consumer<Void, Session> replaceConsumer = this::replaceConsumer;
+
+      protected Context(Function<Context, ByteStream> byteStreamSupplier) {
+         this(new Scanner(), true);
+         for (int i = 0; i < scanner.pool.length; ++i) {
+            scanner.pool[i] = byteStreamSupplier.apply(this);
+         }
+         scanner.contexts = new Context[]{ this };
+         reset();
+      }
+
+      /**
+       * Creates context driven by a scanner shared with other queries; the owner of the scanner is responsible
+       * for parsing the input and resetting the scanner.
+       */
+      Context(Scanner scanner) {
+         this(scanner, false);
+         reset();
+      }
+
+      private Context(Scanner scanner, boolean ownScanner) {
+         this.scanner = scanner;
+         this.stream = scanner.stream;
+         this.ownScanner = ownScanner;
+         for (int i = 0; i < selectors.length; ++i) {
+            selectorContext[i] = selectors[i].newContext();
+         }
+      }
+
+      public void reset() {
+         for (Selector.Context ctx : selectorContext) {
+            if (ctx != null) ctx.reset();
+         }
+         selectorLevel = 0;
+         selector = 0;
+         valueStartIndex = -1;
+         lastOutputIndex = 0;
+         safeOutputIndex = 0;
+         replaceBuffer.clear();
+         if (ownScanner) {
+            scanner.reset();
+         }
+      }
+
+      private Selector.Context current() {
+         return selectorContext[selector];
+      }
+
+      public void parse(ByteStream data, Session session, boolean isLast) {
+         assert ownScanner;
+         scanner.parse(data, session, isLast);
+      }
+
+      void objectStart(int readerIndex) {
+         if (valueStartIndex < 0) {
+            safeOutputIndex = readerIndex;
+         }
+         // TODO assert we have active attrib selector
+      }
+
+      void objectEnd(Session session, int readerIndex) {
+         tryRecord(session, readerIndex);
+         if (scanner.level == selectorLevel) {
+            --selectorLevel;
+            --selector;
+         }
+         if (valueStartIndex < 0) {
+            safeOutputIndex = readerIndex;
+         }
+      }
+
+      void keyEnd(Session session, int readerIndex) {
+         int keyStartIndex = scanner.keyStartIndex;
+         if (selectorLevel == scanner.level && keyStartIndex >= 0 && selector < selectors.length && selectors[selector] instanceof AttribSelector) {
+            AttribSelector selector = (AttribSelector) selectors[this.selector];
+            if (selector.match(stream, keyStartIndex, scanner.lastCharIndex)) {
+               if (onMatch(readerIndex) && (delete || replace != null)) {
+                  // omit key's starting quote
+                  int outputEnd = keyStartIndex - 1;
+                  // remove possible comma before the key
+                  LOOP:
+                  while (true) {
+                     switch (stream.getByte(outputEnd - 1)) {
+                        case ' ':
+                        case '\n':
+                        case '\t':
+                        case '\r':
+                        case ',':
+                           --outputEnd;
+                           break;
+                        default:
+                           break LOOP;
+                     }
+                  }
+                  stream.consume(lastOutputIndex, outputEnd, record, this, session, false);
+                  lastOutputIndex = outputEnd;
+               }
+            }
+         }
+         if (valueStartIndex < 0) {
+            safeOutputIndex = readerIndex;
+         }
+      }
+
+      void nextItem(Session session, int readerIndex) {
+         tryRecord(session, readerIndex);
+         if (selectorLevel == scanner.level && selector < selectors.length && current() instanceof ArraySelectorContext) {
+            ArraySelectorContext asc = (ArraySelectorContext) current();
+            if (asc.active) {
+               asc.currentItem++;
+            }
+            if (((ArraySelector) selectors[selector]).matches(asc)) {
+               if (onMatch(readerIndex) && (delete || replace != null)) {
+                  // omit the ','
+                  stream.consume(lastOutputIndex, readerIndex - 1, record, this, session, false);
+                  lastOutputIndex = readerIndex - 1;
+               }
+            }
+         }
+      }
+
+      void arrayStart(Session session, int readerIndex) {
+         if (valueStartIndex < 0) {
+            safeOutputIndex = readerIndex;
+         }
+         if (selectorLevel == scanner.level && selector < selectors.length && selectors[selector] instanceof ArraySelector) {
+            ArraySelectorContext asc = (ArraySelectorContext) current();
+            asc.active = true;
+            if (((ArraySelector) selectors[selector]).matches(asc)) {
+               if (onMatch(readerIndex) && (delete || replace != null)) {
+                  stream.consume(lastOutputIndex, readerIndex, record, this, session, false);
+                  lastOutputIndex = readerIndex;
+               }
             }
+         }
+      }
+
+      void arrayEnd(Session session, int readerIndex) {
+         tryRecord(session, readerIndex);
+         if (selectorLevel == scanner.level && selector < selectors.length && current() instanceof ArraySelectorContext) {
+            ArraySelectorContext asc = (ArraySelectorContext) current();
+            asc.active = false;
+            --selectorLevel;
+         }
+         if (valueStartIndex < 0) {
+            safeOutputIndex = readerIndex;
+         }
+      }
+
+      /**
+       * @return Index before which this query won't need the data anymore.
+       */
+      int endOfInput(Session session, int readerIndex, boolean isLast) {
+         if (scanner.keyStartIndex >= 0 || valueStartIndex >= 0) {
+            return Math.min(Math.min(scanner.keyStartIndex, valueStartIndex), safeOutputIndex);
          } else {
             if ((delete || replace != null) && lastOutputIndex < safeOutputIndex) {
                stream.consume(lastOutputIndex, safeOutputIndex, record, this, session, isLast);
                lastOutputIndex = safeOutputIndex;
             }
-            stream.release(readerIndex);
+            return readerIndex;
          }
       }
 
@@ -380,7 +491,7 @@ public abstract class JsonParser implements Serializable, ResourceUtilizer {
       }
 
       private void tryRecord(Session session, int readerIndex) {
-         if (selectorLevel == level && valueStartIndex >= 0) {
+         if (selectorLevel == scanner.level && valueStartIndex >= 0) {
             // valueStartIndex is always before quotes here
             LOOP:
             while (true) {
@@ -437,25 +548,11 @@ public abstract class JsonParser implements Serializable, ResourceUtilizer {
       }
 
       public ByteStream retain(ByteStream stream) {
-         for (int i = 0; i < pool.length; ++i) {
-            ByteStream pooled = pool[i];
-            if (pooled != null) {
-               pool[i] = null;
-               stream.moveTo(pooled);
-               return pooled;
-            }
-         }
-         throw new IllegalStateException();
+         return scanner.retain(stream);
       }
 
       public void release(ByteStream stream) {
-         for (int i = 0; i < pool.length; ++i) {
-            if (pool[i] == null) {
-               pool[i] = stream;
-               return;
-            }
-         }
-         throw new IllegalStateException();
+         scanner.release(stream);
       }
 
       protected abstract void replaceConsumer(Void ignored, Session session, ByteStream data, int offset, int length, boolean lastFragment);
@@ -506,8 +603,8 @@ public abstract class JsonParser implements Serializable, ResourceUtilizer {
       public S copy(Locator locator) {
          S copy;
          try {
-            copy = (S) getClass().newInstance();
-         } catch (InstantiationException | IllegalAccessException e) {
+            copy = (S) getClass().getDeclaredConstructor().newInstance();
+         } catch (ReflectiveOperationException e) {
             throw new IllegalStateException(e);
          }
          return copy.setLocator(locator).query(query).unquote(unquote).processor(processor);
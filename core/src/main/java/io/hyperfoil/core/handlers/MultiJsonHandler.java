@@ -0,0 +1,129 @@
+package io.hyperfoil.core.handlers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Evaluates queries of several {@link JsonHandler JSON handlers} registered on the same response in a single pass.
+ * <p>
+ * The body is buffered and tokenized once; each structural character is then dispatched to the matching state
+ * of all queries, which record selected values (or the modified JSON when using <code>delete</code>/<code>replace</code>)
+ * to their own processors exactly as the individual handlers would.
+ */
+public class MultiJsonHandler implements Processor, ResourceUtilizer, Session.ResourceKey<MultiJsonHandler.Context> {
+   private final JsonHandler[] handlers;
+
+   public MultiJsonHandler(JsonHandler[] handlers) {
+      this.handlers = handlers;
+   }
+
+   /**
+    * Replaces each run of adjacent {@link JsonHandler JSON handlers} in the array with a single instance of this
+    * handler. JSON handlers separated by other processors are not merged, so that the order of processors is kept.
+    *
+    * @param processors Body processors.
+    * @return The same array if there are no adjacent JSON handlers, merged array otherwise.
+    */
+   public static Processor[] merge(Processor[] processors) {
+      if (processors == null) {
+         return null;
+      }
+      List<Processor> merged = new ArrayList<>();
+      List<JsonHandler> run = new ArrayList<>();
+      boolean changed = false;
+      for (Processor p : processors) {
+         if (p instanceof JsonHandler) {
+            run.add((JsonHandler) p);
+         } else {
+            changed |= flush(run, merged);
+            merged.add(p);
+         }
+      }
+      changed |= flush(run, merged);
+      return changed ? merged.toArray(new Processor[0]) : processors;
+   }
+
+   private static boolean flush(List<JsonHandler> run, List<Processor> merged) {
+      boolean multiple = run.size() > 1;
+      if (multiple) {
+         merged.add(new MultiJsonHandler(run.toArray(new JsonHandler[0])));
+      } else {
+         merged.addAll(run);
+      }
+      run.clear();
+      return multiple;
+   }
+
+   @Override
+   public void before(Session session) {
+      for (JsonHandler handler : handlers) {
+         handler.before(session);
+      }
+   }
+
+   @Override
+   public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+      Context ctx = session.getResource(this);
+      ctx.scanner.parse(ctx.actualStream.wrap(data, offset), session, isLastPart);
+   }
+
+   @Override
+   public void after(Session session) {
+      for (JsonHandler handler : handlers) {
+         if (handler.replace != null) {
+            handler.replace.after(session);
+         }
+         handler.processor.after(session);
+      }
+      session.getResource(this).reset();
+   }
+
+   @Override
+   public void reserve(Session session) {
+      for (JsonHandler handler : handlers) {
+         ResourceUtilizer.reserve(session, handler.processor, handler.replace);
+      }
+      session.declareResource(this, new Context());
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("MultiJsonHandler{");
+      for (int i = 0; i < handlers.length; ++i) {
+         if (i != 0) {
+            sb.append(", ");
+         }
+         sb.append(handlers[i]);
+      }
+      return sb.append('}').toString();
+   }
+
+   public class Context implements Session.Resource {
+      private final JsonParser.Scanner scanner = new JsonParser.Scanner();
+      private final JsonHandler.ByteBufByteStream actualStream;
+
+      Context() {
+         for (int i = 0; i < scanner.pool.length; ++i) {
+            scanner.pool[i] = new JsonHandler.ByteBufByteStream(null, scanner::release);
+         }
+         actualStream = new JsonHandler.ByteBufByteStream(scanner::retain, null);
+         scanner.contexts = new JsonParser.Context[handlers.length];
+         for (int i = 0; i < handlers.length; ++i) {
+            scanner.contexts[i] = handlers[i].new Context(scanner);
+         }
+         scanner.reset();
+      }
+
+      void reset() {
+         scanner.reset();
+         for (JsonParser.Context ctx : scanner.contexts) {
+            ctx.reset();
+         }
+      }
+   }
+}
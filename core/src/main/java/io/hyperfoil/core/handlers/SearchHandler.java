@@ -3,6 +3,7 @@ package io.hyperfoil.core.handlers;
 import java.nio.charset.StandardCharsets;
 
 import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.core.util.ByteSearch;
 import io.netty.buffer.ByteBuf;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ResourceUtilizer;
@@ -39,7 +40,39 @@ public class SearchHandler implements Processor, ResourceUtilizer, Session.Resou
       Context ctx = session.getResource(this);
       ctx.add(data, offset, length);
       int endIndex = offset + length;
-      int index = ctx.initHash(offset, ctx.lookupText.length);
+      int index = findMatches(ctx, session, ctx.initHash(offset, ctx.lookupText.length));
+      // The next index where the lookup text could start
+      int candidate = -1;
+      while (index < endIndex) {
+         int windowStart = index - ctx.lookupText.length + 1;
+         if (windowStart > candidate && windowStart >= offset) {
+            // Rolling the hash over bytes that cannot start a match is wasteful; jump to the first byte
+            // of the lookup text instead. We don't do that while the window reaches into previous part.
+            candidate = ByteSearch.indexOf(data, windowStart, endIndex, ctx.lookupText[0]);
+            if (candidate < 0) {
+               ctx.resetHash();
+               break;
+            } else if (candidate - windowStart >= ctx.lookupText.length) {
+               ctx.resetHash();
+               index = ctx.initHash(candidate, ctx.lookupText.length);
+               byte[] lookupText = ctx.lookupText;
+               index = findMatches(ctx, session, index);
+               if (ctx.lookupText != lookupText) {
+                  candidate = -1;
+               }
+               continue;
+            }
+         }
+         ctx.advance(data.getByte(index++), ctx.lookupCoef, index, ctx.lookupText.length + 1);
+         byte[] lookupText = ctx.lookupText;
+         index = findMatches(ctx, session, index);
+         if (ctx.lookupText != lookupText) {
+            candidate = -1;
+         }
+      }
+   }
+
+   private int findMatches(Context ctx, Session session, int index) {
       while (ctx.test(index)) {
          if (ctx.lookupText == end) {
             fireProcessor(ctx, session, index);
@@ -49,18 +82,7 @@ public class SearchHandler implements Processor, ResourceUtilizer, Session.Resou
          ctx.swap();
          index = ctx.initHash(index, ctx.lookupText.length);
       }
-      while (index < endIndex) {
-         ctx.advance(data.getByte(index++), ctx.lookupCoef, index, ctx.lookupText.length + 1);
-         while (ctx.test(index)) {
-            if (ctx.lookupText == end) {
-               fireProcessor(ctx, session, index);
-            } else {
-               ctx.mark(index);
-            }
-            ctx.swap();
-            index = ctx.initHash(index, ctx.lookupText.length);
-         }
-      }
+      return index;
    }
 
    private void fireProcessor(Context ctx, Session session, int index) {
@@ -109,8 +131,7 @@ public class SearchHandler implements Processor, ResourceUtilizer, Session.Resou
       int markPos = -1;
 
       void swap() {
-         currentHash = 0;
-         hashedBytes = 0;
+         resetHash();
          if (lookupText == end) {
             lookupText = begin;
             lookupHash = beginHash;
@@ -0,0 +1,55 @@
+package io.hyperfoil.core.http;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import io.hyperfoil.api.connection.HttpRequest;
+import io.hyperfoil.api.connection.HttpRequestWriter;
+import io.hyperfoil.api.http.HttpCache;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.function.SerializableBiConsumer;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Appends headers that do not depend on the session. HTTP 1.x connections don't invoke this as a regular appender
+ * but copy the headers pre-encoded in wire format using {@link #writeHttp1x(HttpRequest, ByteBuf)}.
+ */
+public class ConstantHeadersAppender implements SerializableBiConsumer<Session, HttpRequestWriter> {
+   private final String[] names;
+   private final String[] values;
+   private final byte[] http1xBlock;
+
+   public ConstantHeadersAppender(List<Map.Entry<String, String>> headers) {
+      this.names = headers.stream().map(Map.Entry::getKey).toArray(String[]::new);
+      this.values = headers.stream().map(Map.Entry::getValue).toArray(String[]::new);
+      ByteArrayOutputStream block = new ByteArrayOutputStream();
+      for (int i = 0; i < names.length; ++i) {
+         byte[] name = names[i].getBytes(StandardCharsets.US_ASCII);
+         byte[] value = values[i].getBytes(StandardCharsets.US_ASCII);
+         block.write(name, 0, name.length);
+         block.write(':');
+         block.write(' ');
+         block.write(value, 0, value.length);
+         block.write('\r');
+         block.write('\n');
+      }
+      this.http1xBlock = block.toByteArray();
+   }
+
+   @Override
+   public void accept(Session session, HttpRequestWriter writer) {
+      for (int i = 0; i < names.length; ++i) {
+         writer.putHeader(names[i], values[i]);
+      }
+   }
+
+   public void writeHttp1x(HttpRequest request, ByteBuf buf) {
+      buf.writeBytes(http1xBlock);
+      HttpCache httpCache = request.session.httpCache();
+      for (int i = 0; i < names.length; ++i) {
+         httpCache.requestHeader(request, names[i], values[i]);
+      }
+   }
+}
@@ -73,6 +73,17 @@ public class HttpCacheImpl implements HttpCache {
       }
    }
 
+   /**
+    * @param header Request header name.
+    * @return True if the value of this request header can change how the request is handled by the cache.
+    */
+   public static boolean isCacheRelevant(CharSequence header) {
+      return HttpHeaderNames.CACHE_CONTROL.contentEqualsIgnoreCase(header) ||
+            HttpHeaderNames.PRAGMA.contentEqualsIgnoreCase(header) ||
+            HttpHeaderNames.IF_MATCH.contentEqualsIgnoreCase(header) ||
+            HttpHeaderNames.IF_NONE_MATCH.contentEqualsIgnoreCase(header);
+   }
+
    @Override
    public void requestHeader(HttpRequest request, CharSequence header, CharSequence value) {
       if (request.method != HttpMethod.GET && request.method != HttpMethod.HEAD) {
@@ -0,0 +1,47 @@
+package io.hyperfoil.core.http;
+
+import java.nio.charset.StandardCharsets;
+
+import io.hyperfoil.api.connection.HttpRequest;
+import io.hyperfoil.api.connection.HttpRequestWriter;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.generators.Pattern;
+import io.hyperfoil.function.SerializableBiConsumer;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Appends header with value rendered from a {@link Pattern}. HTTP 1.x connections don't invoke this as a regular
+ * appender but use {@link #writeHttp1x(HttpRequest, ByteBuf)} that renders the value directly into the request buffer.
+ */
+public class PatternHeaderAppender implements SerializableBiConsumer<Session, HttpRequestWriter> {
+   private final String name;
+   private final Pattern pattern;
+   private final byte[] http1xPrefix;
+   private final boolean cacheRelevant;
+
+   public PatternHeaderAppender(String name, Pattern pattern) {
+      this.name = name;
+      this.pattern = pattern;
+      this.http1xPrefix = (name + ": ").getBytes(StandardCharsets.US_ASCII);
+      this.cacheRelevant = HttpCacheImpl.isCacheRelevant(name);
+   }
+
+   @Override
+   public void accept(Session session, HttpRequestWriter writer) {
+      writer.putHeader(name, pattern.apply(session));
+   }
+
+   public void writeHttp1x(HttpRequest request, ByteBuf buf) {
+      buf.writeBytes(http1xPrefix);
+      if (cacheRelevant) {
+         // The cache needs the value; this is not expected to be common
+         String value = pattern.apply(request.session);
+         buf.writeCharSequence(value, StandardCharsets.US_ASCII);
+         request.session.httpCache().requestHeader(request, name, value);
+      } else {
+         pattern.accept(request.session, buf);
+      }
+      buf.writeByte('\r');
+      buf.writeByte('\n');
+   }
+}
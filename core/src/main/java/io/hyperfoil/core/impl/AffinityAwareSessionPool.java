@@ -0,0 +1,163 @@
+package io.hyperfoil.core.impl;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import io.hyperfoil.api.collection.ElasticPool;
+import io.hyperfoil.api.session.Session;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Session pool with one stack per executor. Sessions are always returned to the stack of the executor they are bound
+ * to ({@link Session#agentThreadId()}); {@link #acquire()} pops from the stack of the calling executor and steals
+ * from other executors only when the local stack is empty. The locks are uncontended unless stealing happens.
+ * <p>
+ * Usage statistics are tracked per executor, too. Therefore {@link #minUsed()} and {@link #maxUsed()} are sums
+ * of the per-executor extremes: lower and upper bound of the actual value, respectively.
+ */
+public class AffinityAwareSessionPool implements ElasticPool<Session> {
+   private final Supplier<Session> initSupplier;
+   private final Supplier<Session> depletionSupplier;
+   private final Stack[] stacks;
+   private final FastThreadLocal<Stack> local = new FastThreadLocal<Stack>() {
+      @Override
+      protected Stack initialValue() {
+         for (Stack stack : stacks) {
+            if (stack.executor.inEventLoop()) {
+               return stack;
+            }
+         }
+         return null;
+      }
+   };
+   private int created;
+   // Accessed only from non-executor threads; races don't cause any harm
+   private int nextStack;
+
+   public AffinityAwareSessionPool(EventExecutor[] executors, Supplier<Session> initSupplier, Supplier<Session> depletionSupplier) {
+      this.initSupplier = initSupplier;
+      this.depletionSupplier = depletionSupplier;
+      this.stacks = new Stack[executors.length];
+      for (int i = 0; i < executors.length; ++i) {
+         stacks[i] = new Stack(executors[i], i);
+      }
+   }
+
+   @Override
+   public Session acquire() {
+      Stack stack = local.get();
+      Session session;
+      int start;
+      if (stack != null) {
+         session = stack.pop();
+         if (session != null) {
+            return session;
+         }
+         start = stack.index + 1;
+      } else {
+         // Caller is not an executor (e.g. starting all sessions at once); spread the sessions evenly
+         start = nextStack++;
+      }
+      // Steal from other executors
+      for (int i = 0; i < stacks.length; ++i) {
+         Stack victim = stacks[Math.floorMod(start + i, stacks.length)];
+         if (victim != stack && (session = victim.pop()) != null) {
+            return session;
+         }
+      }
+      session = depletionSupplier.get();
+      if (session != null) {
+         stacks[session.agentThreadId()].incrementUsed();
+      }
+      return session;
+   }
+
+   @Override
+   public void release(Session session) {
+      stacks[session.agentThreadId()].push(session);
+   }
+
+   @Override
+   public void reserve(int capacity) {
+      while (created < capacity) {
+         Session session = initSupplier.get();
+         stacks[session.agentThreadId()].add(session);
+         ++created;
+      }
+   }
+
+   @Override
+   public int minUsed() {
+      int sum = 0;
+      for (Stack stack : stacks) {
+         sum += stack.minUsed;
+      }
+      return sum;
+   }
+
+   @Override
+   public int maxUsed() {
+      int sum = 0;
+      for (Stack stack : stacks) {
+         sum += stack.maxUsed;
+      }
+      return sum;
+   }
+
+   @Override
+   public void resetStats() {
+      for (Stack stack : stacks) {
+         stack.resetStats();
+      }
+   }
+
+   private final class Stack {
+      private final EventExecutor executor;
+      private final int index;
+      private Session[] elements = new Session[16];
+      private int size;
+      private int used;
+      private volatile int minUsed, maxUsed;
+
+      Stack(EventExecutor executor, int index) {
+         this.executor = executor;
+         this.index = index;
+      }
+
+      synchronized Session pop() {
+         if (size == 0) {
+            return null;
+         }
+         Session session = elements[--size];
+         elements[size] = null;
+         incrementUsed();
+         return session;
+      }
+
+      synchronized void push(Session session) {
+         add(session);
+         if (--used < minUsed) {
+            minUsed = used;
+         }
+      }
+
+      synchronized void add(Session session) {
+         if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+         }
+         elements[size++] = session;
+      }
+
+      synchronized void incrementUsed() {
+         if (++used > maxUsed) {
+            maxUsed = used;
+         }
+      }
+
+      synchronized void resetStats() {
+         minUsed = used;
+         maxUsed = used;
+      }
+   }
+}
@@ -1,6 +1,7 @@
 package io.hyperfoil.core.impl;
 
 import io.hyperfoil.api.BenchmarkExecutionException;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorGroup;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.collection.ElasticPool;
@@ -11,13 +12,16 @@ import io.hyperfoil.api.session.PhaseInstance;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.stream.IntStream;
 
@@ -37,7 +41,10 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
    // Reads are done without locks
    protected volatile Status status = Status.NOT_STARTED;
    protected long absoluteStartTime;
-   protected AtomicInteger activeSessions = new AtomicInteger(0);
+   protected long absoluteStartTimeNanos;
+   // One counter per executor (indexed by session's agent thread id) so that the executors don't contend
+   // on a single cache line when sessions start and finish; Integer.MIN_VALUE in all of them marks terminated phase.
+   private final AtomicInteger[] activeSessions;
    private volatile Throwable error;
    private volatile boolean sessionLimitExceeded;
 
@@ -53,6 +60,7 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       constructors.put(Phase.Always.class, (BiFunction<Phase.Always, Integer, PhaseInstance>) Always::new);
       constructors.put(Phase.RampRate.class, (BiFunction<Phase.RampRate, Integer, PhaseInstance>) RampRate::new);
       constructors.put(Phase.ConstantRate.class, (BiFunction<Phase.ConstantRate, Integer, PhaseInstance>) ConstantRate::new);
+      constructors.put(Phase.Search.class, (BiFunction<Phase.Search, Integer, PhaseInstance>) Search::new);
       constructors.put(Phase.Sequentially.class, (BiFunction<Phase.Sequentially, Integer, PhaseInstance>) Sequentially::new);
       constructors.put(Phase.Noop.class, (BiFunction<Phase.Noop, Integer, PhaseInstance>) Noop::new);
    }
@@ -61,6 +69,10 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       this.def = def;
       this.agentThreads = def.benchmark().threads(agentId);
       this.agentFirstThreadId = IntStream.range(0, agentId).map(id -> def.benchmark().threads(id)).sum();
+      this.activeSessions = new AtomicInteger[agentThreads];
+      for (int i = 0; i < agentThreads; ++i) {
+         activeSessions[i] = new AtomicInteger();
+      }
    }
 
    @Override
@@ -79,10 +91,12 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
    }
 
    @Override
-   public void start(EventExecutorGroup executorGroup) {
+   public void start(EventExecutorGroup executorGroup, long absoluteStartTime) {
       assert status == Status.NOT_STARTED : "Status is " + status;
       status = Status.RUNNING;
-      absoluteStartTime = System.currentTimeMillis();
+      this.absoluteStartTime = absoluteStartTime;
+      // When the start message arrives late we catch up with the shared timeline rather than shift it
+      absoluteStartTimeNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - absoluteStartTime);
       log.debug("{} changing status to RUNNING", def.name);
       phaseChangeHandler.onChange(def, Status.RUNNING, false, error).thenRun(() -> proceed(executorGroup));
    }
@@ -99,7 +113,7 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
    @Override
    public void tryTerminate() {
       assert status.isFinished();
-      if (activeSessions.compareAndSet(0, Integer.MIN_VALUE)) {
+      if (seal()) {
          setTerminated();
       } else if (sessionList != null && status == Status.TERMINATING) {
          // We need to force blocked sessions to check the termination status
@@ -136,18 +150,53 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       if (session != null) {
          sessionPool.release(session);
       }
-      int numActive = activeSessions.decrementAndGet();
+      if (session == null) {
+         // The session was not acquired and therefore it has not been counted
+         return;
+      }
+      int numActive = activeSessions[session.agentThreadId()].decrementAndGet();
       if (trace) {
-         log.trace("#{} NotifyFinished, {} has {} active sessions", session == null ? -1 : session.uniqueId(), def.name, numActive);
+         log.trace("#{} NotifyFinished, {} has {} active sessions on executor {}", session.uniqueId(), def.name, numActive, session.agentThreadId());
       }
       if (numActive < 0) {
-         throw new IllegalStateException(def.name + " has " + numActive + " active sessions");
+         throw new IllegalStateException(def.name + " has " + numActive + " active sessions on executor " + session.agentThreadId());
       }
-      if (numActive == 0 && status.isFinished() && activeSessions.compareAndSet(0, Integer.MIN_VALUE)) {
+      if (numActive == 0 && status.isFinished() && seal()) {
          setTerminated();
       }
    }
 
+   /**
+    * @return Number of sessions currently running in this phase on all executors.
+    */
+   protected int activeSessions() {
+      int sum = 0;
+      for (AtomicInteger counter : activeSessions) {
+         sum += Math.max(counter.get(), 0);
+      }
+      return sum;
+   }
+
+   /**
+    * Atomically switches all counters from zero to {@link Integer#MIN_VALUE} to prevent any further session starts.
+    * If some counter is not zero the counters already sealed are restored, keeping the increments of any concurrent
+    * {@link #startNewSession(long)}. This is invoked rarely (only when the phase is finished) so we can serialize it.
+    *
+    * @return True if there are no active sessions and the phase can be terminated; false if some session is running
+    * or the phase has been already sealed.
+    */
+   private synchronized boolean seal() {
+      for (int i = 0; i < activeSessions.length; ++i) {
+         if (!activeSessions[i].compareAndSet(0, Integer.MIN_VALUE)) {
+            for (int j = 0; j < i; ++j) {
+               activeSessions[j].getAndAdd(Integer.MIN_VALUE);
+            }
+            return false;
+         }
+      }
+      return true;
+   }
+
    @Override
    public void setTerminated() {
       status = Status.TERMINATED;
@@ -182,14 +231,18 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
    }
 
    protected boolean startNewSession() {
-      int numActive = activeSessions.incrementAndGet();
-      if (numActive < 0) {
-         // finished
+      return startNewSession(Long.MAX_VALUE);
+   }
+
+   /**
+    * @param intendedStartNanos Scheduled start of the session ({@link System#nanoTime()} base)
+    *                           or {@link Long#MAX_VALUE} if not applicable.
+    * @return True if the session could not be started.
+    */
+   protected boolean startNewSession(long intendedStartNanos) {
+      if (status == Status.TERMINATED) {
          return true;
       }
-      if (trace) {
-         log.trace("{} has {} active sessions", def.name, numActive);
-      }
       Session session;
       try {
          session = sessionPool.acquire();
@@ -202,6 +255,19 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
          notifyFinished(null);
          return true;
       }
+      // The session pool prefers sessions bound to the current executor so the counter is usually uncontended
+      AtomicInteger counter = activeSessions[session.agentThreadId()];
+      int numActive = counter.incrementAndGet();
+      if (numActive < 0) {
+         // sealed: either terminated or another thread is just checking if the phase can be terminated
+         counter.decrementAndGet();
+         sessionPool.release(session);
+         return true;
+      }
+      if (trace) {
+         log.trace("{} has {} active sessions on executor {}", def.name, numActive, session.agentThreadId());
+      }
+      session.intendedStart(intendedStartNanos);
       session.start(this);
       return false;
    }
@@ -216,7 +282,7 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
 
       @Override
       public void proceed(EventExecutorGroup executorGroup) {
-         assert activeSessions.get() == 0;
+         assert activeSessions() == 0;
          for (int i = 0; i < users; ++i) {
             startNewSession();
          }
@@ -238,7 +304,7 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
 
       @Override
       public void proceed(EventExecutorGroup executorGroup) {
-         assert activeSessions.get() == 0;
+         assert activeSessions() == 0;
          for (int i = 0; i < users; ++i) {
             startNewSession();
          }
@@ -259,12 +325,28 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       }
    }
 
+   /**
+    * Open-model phases compute exact arrival instants with nanosecond resolution. The cumulative number of users
+    * that should have arrived at time <code>t</code> is given by the phase's rate function; we invert it to get the
+    * instant of n-th arrival. Metronome mode uses integer <code>n</code>, variance mode uses the sum of exponentially
+    * distributed increments (turning this into a non-homogeneous Poisson process). As the instant is always
+    * computed from the cumulative count rather than accumulated from previous delays there is no drift.
+    * <p>
+    * Each executor runs its own {@link ArrivalGenerator} driving <code>1/N</code> of the arrivals, so there is no
+    * cross-thread handoff on arrival. In metronome mode the generators interleave: generator <code>i</code> starts
+    * users <code>i, i + N, i + 2N...</code> (the first user arrives right at the phase start); in variance mode
+    * each generator runs an independent Poisson process with <code>1/N</code> of the rate.
+    * <p>
+    * Arrivals are not request statistics; these are reported through
+    * {@link SessionStatsConsumer#acceptArrivals(String, long, long, long)} instead.
+    */
    protected abstract static class OpenModelPhase<P extends Phase.OpenModelPhase> extends PhaseInstanceImpl<P> {
       protected final int maxSessions;
-      protected final Random random = new Random();
-      protected double nextScheduled;
-      protected AtomicLong throttledUsers = new AtomicLong(0);
-      protected long startedOrThrottledUsers = 0;
+      private volatile ArrivalGenerator[] generators;
+      private final LongAdder arrivalCount = new LongAdder();
+      private final LongAdder throttledCount = new LongAdder();
+      private final LongAdder arrivalLagNanos = new LongAdder();
+      private final ThrottledArrivals throttledArrivals = new ThrottledArrivals();
 
       protected OpenModelPhase(P def, int agentId) {
          super(def, agentId);
@@ -273,103 +355,212 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
 
       @Override
       public void proceed(EventExecutorGroup executorGroup) {
-         if (status.isFinished()) {
-            return;
+         List<EventExecutor> executors = new ArrayList<>();
+         executorGroup.forEach(executors::add);
+         @SuppressWarnings("unchecked")
+         ArrivalGenerator[] generators = new OpenModelPhase.ArrivalGenerator[executors.size()];
+         for (int i = 0; i < generators.length; ++i) {
+            generators[i] = new ArrivalGenerator(executors.get(i), i, generators.length);
          }
-         long now = System.currentTimeMillis();
-         long delta = now - absoluteStartTime;
-         long nextDelta;
-
-         if (def.variance) {
-            while (delta > nextScheduled) {
-               if (startNewSession()) {
-                  throttledUsers.incrementAndGet();
-               }
-               startedOrThrottledUsers++;
-               // TODO: after many iterations there will be some skew due to imprecise double calculations
-               // Maybe we could restart from the expected rate every 1000th session?
-               nextScheduled = nextSessionRandomized();
-            }
-         } else {
-            long required = nextSessionMetronome(delta);
-            for (long i = required - startedOrThrottledUsers; i > 0; --i) {
-               if (startNewSession()) {
-                  throttledUsers.addAndGet(i);
-                  break;
-               }
-            }
-            startedOrThrottledUsers = Math.max(required, startedOrThrottledUsers);
+         this.generators = generators;
+         for (ArrivalGenerator generator : generators) {
+            generator.executor.execute(generator);
          }
-         nextDelta = (long) Math.ceil(nextScheduled);
+      }
 
-         if (trace) {
-            log.trace("{}: {} after start, {} started ({} throttled), next user in {} ms", def.name, delta,
-                  startedOrThrottledUsers, throttledUsers.get(), nextDelta - delta);
+      /**
+       * Recomputes the next arrival of each generator after the rate function has changed.
+       */
+      protected void rescheduleArrivals() {
+         ArrivalGenerator[] generators = this.generators;
+         if (generators != null) {
+            for (ArrivalGenerator generator : generators) {
+               generator.executor.execute(generator::reschedule);
+            }
          }
-         executorGroup.schedule(() -> proceed(executorGroup), nextDelta - delta, TimeUnit.MILLISECONDS);
       }
 
-      protected abstract long nextSessionMetronome(long delta);
+      /**
+       * @param users Cumulative number of users (possibly fractional).
+       * @return Time in seconds after phase start when this many users should have arrived,
+       * or infinity if the rate function never reaches this value.
+       */
+      protected abstract double arrivalTime(double users);
 
-      protected abstract double nextSessionRandomized();
+      /**
+       * @param users Cumulative number of users.
+       * @return Nanoseconds after phase start when this many users should have arrived or {@link Long#MAX_VALUE}.
+       */
+      private long arrivalNanos(double users) {
+         double nanos = arrivalTime(users) * 1_000_000_000L;
+         return Double.isFinite(nanos) && nanos < Long.MAX_VALUE ? (long) Math.ceil(nanos) : Long.MAX_VALUE;
+      }
 
       @Override
       public void reserveSessions() {
          sessionPool.reserve(maxSessions);
       }
 
+      /**
+       * Reports arrivals since the previous invocation; can be invoked from any thread.
+       */
+      void visitArrivalStats(SessionStatsConsumer consumer) {
+         long arrivals = arrivalCount.sumThenReset();
+         long throttled = throttledCount.sumThenReset();
+         long lagNanos = arrivalLagNanos.sumThenReset();
+         if (arrivals > 0 || throttled > 0) {
+            consumer.acceptArrivals(def.name, arrivals, throttled, lagNanos);
+         }
+      }
+
       @Override
       public void notifyFinished(Session session) {
          if (session != null && !status.isFinished()) {
-            long throttled = throttledUsers.get();
-            while (throttled != 0) {
-               if (throttledUsers.compareAndSet(throttled, throttled - 1)) {
-                  // TODO: it would be nice to compensate response times
-                  // in these invocations for the fact that we're applying
-                  // SUT feedback, but that would be imprecise anyway.
-                  session.start(this);
-                  return;
-               } else {
-                  throttled = throttledUsers.get();
-               }
+            // Any session can take over, no matter which generator has throttled the user
+            long intendedStart = throttledArrivals.poll();
+            if (intendedStart != Long.MIN_VALUE) {
+               // The user should have arrived earlier; let the first request compensate for that
+               session.intendedStart(intendedStart);
+               session.start(this);
+               return;
             }
          }
          super.notifyFinished(session);
       }
+
+      /**
+       * Users that could not be started because the session pool was exhausted. These are shared by all generators
+       * as the session pool lends sessions across executors, too: a session finishing on any executor picks up
+       * the oldest throttled user.
+       * <p>
+       * While the pool is exhausted every arrival is throttled, so the backlog is a contiguous range of cumulative
+       * user counts. We keep just its start and size and compute the intended start of each user from the rate
+       * function; the memory does not grow no matter how far behind the schedule we are.
+       */
+      private class ThrottledArrivals {
+         // Lets us skip locking in the common case when nothing is throttled
+         private volatile long size;
+         private double firstUsers;
+
+         synchronized void add(double users) {
+            firstUsers = size == 0 ? users : Math.min(firstUsers, users);
+            ++size;
+         }
+
+         /**
+          * @return Intended start of the oldest throttled user or {@link Long#MIN_VALUE} if there is none.
+          */
+         long poll() {
+            if (size == 0) {
+               return Long.MIN_VALUE;
+            }
+            double users;
+            synchronized (this) {
+               if (size == 0) {
+                  return Long.MIN_VALUE;
+               }
+               users = firstUsers;
+               firstUsers += 1;
+               --size;
+            }
+            long nanos = arrivalNanos(users);
+            return nanos == Long.MAX_VALUE ? Long.MAX_VALUE : absoluteStartTimeNanos + nanos;
+         }
+      }
+
+      /**
+       * The state of this object is confined to its executor.
+       */
+      private class ArrivalGenerator implements Runnable {
+         private final EventExecutor executor;
+         private final int executorId;
+         private final int numGenerators;
+         private final Random random;
+         private double scheduledUsers;
+         private long nextArrivalNanos;
+         private ScheduledFuture<?> scheduled;
+
+         ArrivalGenerator(EventExecutor executor, int executorId, int numGenerators) {
+            this.executor = executor;
+            this.executorId = executorId;
+            this.numGenerators = numGenerators;
+            // Independent random stream for each generator
+            this.random = new Random(ThreadLocalRandom.current().nextLong());
+            this.scheduledUsers = def.variance ? nextUsers() : executorId;
+            this.nextArrivalNanos = arrivalNanos(scheduledUsers);
+         }
+
+         @Override
+         public void run() {
+            if (status.isFinished()) {
+               return;
+            }
+            long delta = System.nanoTime() - absoluteStartTimeNanos;
+            int arrivals = 0;
+            long throttled = 0;
+            long lag = 0;
+            while (nextArrivalNanos <= delta) {
+               if (startNewSession(absoluteStartTimeNanos + nextArrivalNanos)) {
+                  throttledArrivals.add(scheduledUsers);
+                  ++throttled;
+               }
+               lag += delta - nextArrivalNanos;
+               ++arrivals;
+               scheduledUsers += nextUsers();
+               nextArrivalNanos = arrivalNanos(scheduledUsers);
+            }
+            if (arrivals > 0) {
+               arrivalCount.add(arrivals);
+               arrivalLagNanos.add(lag);
+               if (throttled > 0) {
+                  throttledCount.add(throttled);
+               }
+            }
+            if (trace) {
+               log.trace("{}/{}: {} ns after start, {} started ({} throttled), next user in {} ns", def.name, executorId,
+                     delta, arrivals, throttled, nextArrivalNanos - delta);
+            }
+            if (nextArrivalNanos != Long.MAX_VALUE) {
+               scheduled = executor.schedule(this, nextArrivalNanos - delta, TimeUnit.NANOSECONDS);
+            } else {
+               scheduled = null;
+            }
+         }
+
+         void reschedule() {
+            if (scheduled != null) {
+               scheduled.cancel(false);
+            }
+            nextArrivalNanos = arrivalNanos(scheduledUsers);
+            run();
+         }
+
+         private double nextUsers() {
+            return def.variance ? -Math.log(Math.max(1e-20, random.nextDouble())) * numGenerators : numGenerators;
+         }
+      }
    }
 
    public static class RampRate extends OpenModelPhase<Phase.RampRate> {
       private final double initialUsersPerSec;
-      private final double targetUsersPerSec;
+      private final double halfAcceleration;
 
       public RampRate(Phase.RampRate def, int agentId) {
          super(def, agentId);
          initialUsersPerSec = def.benchmark().slice(def.initialUsersPerSec, agentId);
-         targetUsersPerSec = def.benchmark().slice(def.targetUsersPerSec, agentId);
-         nextScheduled = def.variance ? nextSessionRandomized() : 0;
+         double targetUsersPerSec = def.benchmark().slice(def.targetUsersPerSec, agentId);
+         halfAcceleration = def.duration <= 0 ? 0 : (targetUsersPerSec - initialUsersPerSec) / (2 * def.duration / 1000d);
       }
 
       @Override
-      protected long nextSessionMetronome(long delta) {
-         double progress = (targetUsersPerSec - initialUsersPerSec) / (def.duration * 1000);
-         long required = (long) (((progress * (delta + 1)) / 2 + initialUsersPerSec / 1000) * delta);
-         // Next time is the root of quadratic equation
-         double bCoef = progress + initialUsersPerSec / 500;
-         nextScheduled = Math.ceil((-bCoef + Math.sqrt(bCoef * bCoef + 8 * progress * (startedOrThrottledUsers + 1))) / (2 * progress));
-         return required;
-      }
-
-      @Override
-      protected double nextSessionRandomized() {
-         // we're solving quadratic equation coming from t = (duration * -log(rand))/(((t + now) * (target - initial)) + initial * duration)
-         double aCoef = (targetUsersPerSec - initialUsersPerSec);
-         if (aCoef < 0.000001) {
-            // prevent division 0f/0f
-            return 1000 * -Math.log(Math.max(1e-20, random.nextDouble())) / initialUsersPerSec;
+      protected double arrivalTime(double users) {
+         // users = a * t^2 + b * t; the root is written in a form that does not suffer from cancellation
+         // when the acceleration is close to zero.
+         double discriminant = initialUsersPerSec * initialUsersPerSec + 4 * halfAcceleration * users;
+         if (discriminant < 0) {
+            return Double.POSITIVE_INFINITY;
          }
-         double bCoef = nextScheduled * (targetUsersPerSec - initialUsersPerSec) + initialUsersPerSec * def.duration;
-         double cCoef = def.duration * 1000 * Math.log(random.nextDouble());
-         return nextScheduled + (-bCoef + Math.sqrt(bCoef * bCoef - 4 * aCoef * cCoef)) / (2 * aCoef);
+         return 2 * users / (initialUsersPerSec + Math.sqrt(discriminant));
       }
    }
 
@@ -379,19 +570,66 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       public ConstantRate(Phase.ConstantRate def, int agentId) {
          super(def, agentId);
          usersPerSec = def.benchmark().slice(def.usersPerSec, agentId);
-         nextScheduled = def.variance ? nextSessionRandomized() : 0;
       }
 
       @Override
-      protected long nextSessionMetronome(long delta) {
-         long required = (long) (delta * usersPerSec / 1000);
-         nextScheduled = (1000 * (startedOrThrottledUsers + 1) + usersPerSec) / usersPerSec;
-         return required;
+      protected double arrivalTime(double users) {
+         return users / usersPerSec;
+      }
+   }
+
+   /**
+    * The arrival rate is piecewise constant; the controller sets a new rate for each step of the search.
+    */
+   public static class Search extends OpenModelPhase<Phase.Search> {
+      private final int agentId;
+      private volatile RateSegment segment;
+
+      public Search(Phase.Search def, int agentId) {
+         super(def, agentId);
+         this.agentId = agentId;
+         this.segment = new RateSegment(0, 0, def.benchmark().slice(def.initialUsersPerSec, agentId), null);
+      }
+
+      /**
+       * @param usersPerSec       Total rate for all agents.
+       * @param absoluteTimestamp Wall-clock time (local clock) since when the rate applies.
+       */
+      public void setUsersPerSec(double usersPerSec, long absoluteTimestamp) {
+         RateSegment current = segment;
+         double time = Math.max(current.startTime, (absoluteTimestamp - absoluteStartTime) / 1000d);
+         double users = current.startUsers + (time - current.startTime) * current.usersPerSec;
+         segment = new RateSegment(time, users, def.benchmark().slice(usersPerSec, agentId), current);
+         log.info("{} changing rate to {} users per second", def.name, usersPerSec);
+         rescheduleArrivals();
       }
 
       @Override
-      protected double nextSessionRandomized() {
-         return nextScheduled + (1000 * -Math.log(Math.max(1e-20, random.nextDouble())) / usersPerSec);
+      protected double arrivalTime(double users) {
+         RateSegment segment = this.segment;
+         while (users < segment.startUsers && segment.previous != null) {
+            segment = segment.previous;
+         }
+         if (segment.usersPerSec <= 0) {
+            return Double.POSITIVE_INFINITY;
+         }
+         return segment.startTime + (users - segment.startUsers) / segment.usersPerSec;
+      }
+
+      private static final class RateSegment {
+         // seconds after phase start
+         final double startTime;
+         // cumulative number of users arrived at start time
+         final double startUsers;
+         final double usersPerSec;
+         final RateSegment previous;
+
+         RateSegment(double startTime, double startUsers, double usersPerSec, RateSegment previous) {
+            this.startTime = startTime;
+            this.startUsers = startUsers;
+            this.usersPerSec = usersPerSec;
+            this.previous = previous;
+         }
       }
    }
 
@@ -404,7 +642,7 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
 
       @Override
       public void proceed(EventExecutorGroup executorGroup) {
-         assert activeSessions.get() == 0;
+         assert activeSessions() == 0;
          startNewSession();
       }
 
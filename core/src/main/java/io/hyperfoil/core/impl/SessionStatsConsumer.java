@@ -2,4 +2,15 @@ package io.hyperfoil.core.impl;
 
 public interface SessionStatsConsumer {
    void accept(String phase, int minSessions, int maxSessions);
+
+   /**
+    * Arrivals of an open-model phase since the previous report. These are not recorded as request statistics.
+    *
+    * @param phase     Phase name.
+    * @param arrivals  Number of users that should have started (including throttled ones).
+    * @param throttled Number of users that could not be started as the session limit was reached.
+    * @param lagNanos  Sum of delays between the intended and actual arrival of all users.
+    */
+   default void acceptArrivals(String phase, long arrivals, long throttled, long lagNanos) {
+   }
 }
@@ -4,14 +4,18 @@ import io.hyperfoil.api.BenchmarkExecutionException;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.connection.HttpDestinationTable;
 import io.hyperfoil.api.session.SharedData;
+import io.hyperfoil.api.session.TimerWheel;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.core.client.netty.HttpDestinationTableImpl;
+import io.hyperfoil.core.client.netty.NettyTransport;
 import io.hyperfoil.core.client.netty.PrivateConnectionPool;
+import io.hyperfoil.core.session.ClusterSharedData;
+import io.hyperfoil.core.session.ConcurrentSharedData;
 import io.hyperfoil.core.session.SharedDataImpl;
 import io.hyperfoil.core.util.Util;
 import io.hyperfoil.internal.Properties;
 import io.netty.channel.EventLoop;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
 import io.hyperfoil.api.config.Http;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.connection.HttpClientPool;
@@ -45,6 +49,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import javax.net.ssl.SSLException;
@@ -61,10 +66,13 @@ public class SimulationRunnerImpl implements SimulationRunner {
    protected final Map<String, PhaseInstance> instances = new HashMap<>();
    protected final List<Session> sessions = new ArrayList<>();
    private final Map<String, SharedResources> sharedResources = new HashMap<>();
-   protected final NioEventLoopGroup eventLoopGroup;
+   private final SharedData agentData = new ConcurrentSharedData();
+   private final ClusterSharedData clusterData;
+   protected final EventLoopGroup eventLoopGroup;
    protected final EventLoop[] executors;
    protected final Map<String, HttpClientPool> httpClientPools = new HashMap<>();
    protected final HttpDestinationTableImpl[] httpDestinations;
+   protected final TimerWheel[] timerWheels;
    private final Queue<Phase> toPrune;
    private PhaseChangeHandler phaseChangeHandler;
    private Consumer<Throwable> errorHandler;
@@ -72,12 +80,14 @@ public class SimulationRunnerImpl implements SimulationRunner {
    private Thread jitterWatchdog;
 
    public SimulationRunnerImpl(Benchmark benchmark, int agentId) {
-      this.eventLoopGroup = new NioEventLoopGroup(benchmark.threads(agentId));
+      this.eventLoopGroup = NettyTransport.createEventLoopGroup(benchmark.transport(), benchmark.threads(agentId));
       this.executors = StreamSupport.stream(eventLoopGroup.spliterator(), false).map(EventLoop.class::cast).toArray(EventLoop[]::new);
       this.benchmark = benchmark;
       this.agentId = agentId;
       this.httpDestinations = new HttpDestinationTableImpl[executors.length];
+      this.timerWheels = Stream.of(executors).map(TimerWheel::new).toArray(TimerWheel[]::new);
       this.toPrune = new ArrayBlockingQueue<>(benchmark.phases().size());
+      this.clusterData = new ClusterSharedData(agentId, Math.max(1, benchmark.agents().length));
       @SuppressWarnings("unchecked")
       Map<String, HttpConnectionPool>[] httpConnectionPools = new Map[executors.length];
       for (Map.Entry<String, Http> http : benchmark.http().entrySet()) {
@@ -125,10 +135,10 @@ public class SimulationRunnerImpl implements SimulationRunner {
             // Noop phases don't use any resources
             sharedResources = SharedResources.NONE;
          } else if ((sharedResources = this.sharedResources.get(def.sharedResources)) == null) {
-            sharedResources = new SharedResources(executors.length);
+            sharedResources = new SharedResources(executors.length, agentData, clusterData);
             List<Session> phaseSessions = sharedResources.sessions = new ArrayList<>();
             SessionStatistics[] statistics = sharedResources.statistics;
-            SharedData[] data = sharedResources.data;
+            SharedData[][] data = sharedResources.data;
             Supplier<Session> sessionSupplier = () -> {
                Session session;
                int executorId;
@@ -145,12 +155,12 @@ public class SimulationRunnerImpl implements SimulationRunner {
                if (benchmark.ergonomics().privateHttpPools()) {
                   httpDestinations = new HttpDestinationTableImpl(httpDestinations, PrivateConnectionPool::new);
                }
-               session.attach(executors[executorId], data[executorId], httpDestinations, statistics[executorId]);
+               session.attach(executors[executorId], timerWheels[executorId], data[executorId], httpDestinations, statistics[executorId]);
                session.reserve(def.scenario);
                return session;
             };
             SharedResources finalSharedResources = sharedResources;
-            sharedResources.sessionPool = new ElasticPoolImpl<>(sessionSupplier, () -> {
+            sharedResources.sessionPool = new AffinityAwareSessionPool(executors, sessionSupplier, () -> {
                if (!isDepletedMessageQuietened) {
                   log.warn("Pool depleted, throttling execution! Enable trace logging to see subsequent pool depletion messages.");
                   isDepletedMessageQuietened = true;
@@ -269,6 +279,7 @@ public class SimulationRunnerImpl implements SimulationRunner {
    @Override
    public void shutdown() {
       jitterWatchdog.interrupt();
+      visitSessions(Session::destroy);
       for (HttpClientPool pool : httpClientPools.values()) {
          pool.shutdown();
       }
@@ -333,6 +344,9 @@ public class SimulationRunnerImpl implements SimulationRunner {
          if (minUsed <= maxUsed && maxUsed != 0) {
             consumer.accept(sharedResources.currentPhase.definition().name(), minUsed, maxUsed);
          }
+         if (sharedResources.currentPhase instanceof PhaseInstanceImpl.OpenModelPhase) {
+            ((PhaseInstanceImpl.OpenModelPhase<?>) sharedResources.currentPhase).visitArrivalStats(consumer);
+         }
       }
    }
 
@@ -346,24 +360,32 @@ public class SimulationRunnerImpl implements SimulationRunner {
             consumer.accept(phase.name(), minUsed, maxUsed);
          }
       }
+      PhaseInstance instance = instances.get(phase.name());
+      if (instance instanceof PhaseInstanceImpl.OpenModelPhase) {
+         ((PhaseInstanceImpl.OpenModelPhase<?>) instance).visitArrivalStats(consumer);
+      }
    }
 
    @Override
    public void startPhase(String phase) {
+      startPhase(phase, System.currentTimeMillis());
+   }
+
+   @Override
+   public void startPhase(String phase, long absoluteStartTime) {
       PhaseInstance phaseInstance = instances.get(phase);
       SharedResources sharedResources = this.sharedResources.get(phaseInstance.definition().sharedResources);
       if (sharedResources != null) {
          // Avoid NPE in noop phases
          sharedResources.currentPhase = phaseInstance;
          if (sharedResources.statistics != null) {
-            long now = System.currentTimeMillis();
             for (int i = 0; i < executors.length; ++i) {
                SessionStatistics statistics = sharedResources.statistics[i];
-               executors[i].execute(() -> applyToPhase(statistics, phaseInstance.definition(), now, Statistics::start));
+               executors[i].execute(() -> applyToPhase(statistics, phaseInstance.definition(), absoluteStartTime, Statistics::start));
             }
          }
       }
-      phaseInstance.start(eventLoopGroup);
+      phaseInstance.start(eventLoopGroup, absoluteStartTime);
    }
 
    private void applyToPhase(SessionStatistics statistics, Phase phase, long now, BiConsumer<Statistics, Long> f) {
@@ -376,6 +398,16 @@ public class SimulationRunnerImpl implements SimulationRunner {
       }
    }
 
+   @Override
+   public void setPhaseRate(String phase, double usersPerSec, long absoluteTimestamp) {
+      PhaseInstance phaseInstance = instances.get(phase);
+      if (phaseInstance instanceof PhaseInstanceImpl.Search) {
+         ((PhaseInstanceImpl.Search) phaseInstance).setUsersPerSec(usersPerSec, absoluteTimestamp);
+      } else {
+         log.error("Cannot change rate of phase {}: not a search phase", phase);
+      }
+   }
+
    @Override
    public void finishPhase(String phase) {
       instances.get(phase).finish();
@@ -391,6 +423,13 @@ public class SimulationRunnerImpl implements SimulationRunner {
       instances.get(phase).terminate();
    }
 
+   /**
+    * @return Data shared with other agents; maps destined for other agents must be exchanged by the caller.
+    */
+   public ClusterSharedData clusterSharedData() {
+      return clusterData;
+   }
+
    public List<String> listConnections() {
       ArrayList<String> list = new ArrayList<>();
       // Connection pools should be accessed only from the executor, but since we're only publishing stats...
@@ -419,20 +458,24 @@ public class SimulationRunnerImpl implements SimulationRunner {
    }
 
    private static class SharedResources {
-      static final SharedResources NONE = new SharedResources(0);
+      static final SharedResources NONE = new SharedResources(0, null, null);
 
       PhaseInstance currentPhase;
-      ElasticPoolImpl<Session> sessionPool;
+      AffinityAwareSessionPool sessionPool;
       List<Session> sessions;
       SessionStatistics[] statistics;
-      SharedData[] data;
+      // Shared data for each executor, indexed by SharedData.Scope ordinal
+      SharedData[][] data;
 
-      SharedResources(int executorCount) {
+      SharedResources(int executorCount, SharedData agentData, SharedData clusterData) {
          statistics = new SessionStatistics[executorCount];
-         data = new SharedData[executorCount];
+         data = new SharedData[executorCount][];
          for (int executorId = 0; executorId < executorCount; ++executorId) {
             this.statistics[executorId] = new SessionStatistics();
-            this.data[executorId] = new SharedDataImpl();
+            SharedData[] scopes = this.data[executorId] = new SharedData[SharedData.Scope.values().length];
+            scopes[SharedData.Scope.EXECUTOR.ordinal()] = new SharedDataImpl();
+            scopes[SharedData.Scope.AGENT.ordinal()] = agentData;
+            scopes[SharedData.Scope.CLUSTER.ordinal()] = clusterData;
          }
       }
    }
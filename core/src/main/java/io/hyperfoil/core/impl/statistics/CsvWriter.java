@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.api.statistics.CustomValue;
@@ -68,7 +69,7 @@ public class CsvWriter {
       }
       for (Data data : sorted) {
          String filePrefix = dir + File.separator + sanitize(data.phase) + "." + sanitize(data.metric) + "." + data.stepId;
-         writeHistogramAndSeries(filePrefix, data.total, data.series);
+         writeHistogramAndSeries(filePrefix, data.total, store.series(data, null));
       }
       writeCustomStats(sorted, data -> data.total, dir + File.separator + "custom.csv");
       String[] agents = store.data.values().stream()
@@ -112,7 +113,7 @@ public class CsvWriter {
          }
          for (Data data : sorted) {
             String filePrefix = dir + File.separator + sanitize(data.phase) + "." + sanitize(data.metric) + "." + data.stepId + ".agent." + agent;
-            writeHistogramAndSeries(filePrefix, data.perAgent.get(agent), data.agentSeries.get(agent));
+            writeHistogramAndSeries(filePrefix, data.perAgent.get(agent), store.series(data, agent));
          }
          writeCustomStats(sorted, data -> data.perAgent.get(agent), dir + File.separator + "agent." + sanitize(agent) + ".custom.csv");
       }
@@ -192,25 +193,30 @@ public class CsvWriter {
       return phase.replaceAll(File.separator, "_");
    }
 
-   private static void writeHistogramAndSeries(String filePrefix, StatisticsSnapshot total, List<StatisticsSummary> series) throws FileNotFoundException {
+   private static void writeHistogramAndSeries(String filePrefix, StatisticsSnapshot total, Stream<StatisticsSummary> series) throws FileNotFoundException {
       if (total != null) {
          try (PrintStream stream = new PrintStream(new FileOutputStream(filePrefix + ".histogram.csv"))) {
             total.histogram.outputPercentileDistribution(stream, 5, 1000_000.0, true);
          }
+         if (total.correctedHistogram != null) {
+            try (PrintStream stream = new PrintStream(new FileOutputStream(filePrefix + ".corrected.histogram.csv"))) {
+               total.correctedHistogram.outputPercentileDistribution(stream, 5, 1000_000.0, true);
+            }
+         }
       }
       if (series != null) {
          try (PrintWriter writer = new PrintWriter(filePrefix + ".series.csv")) {
             writer.print("Start,End,");
             StatisticsSummary.printHeader(writer, StatisticsStore.PERCENTILES);
             writer.println();
-            for (StatisticsSummary summary : series) {
+            series.forEachOrdered(summary -> {
                writer.print(summary.startTime);
                writer.print(',');
                writer.print(summary.endTime);
                writer.print(',');
                summary.printTo(writer);
                writer.println();
-            }
+            });
          }
       }
    }
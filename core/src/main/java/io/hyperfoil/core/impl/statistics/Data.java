@@ -1,13 +1,10 @@
 package io.hyperfoil.core.impl.statistics;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
-import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
 import io.vertx.core.logging.Logger;
@@ -28,8 +25,11 @@ final class Data {
    final StatisticsSnapshot total = new StatisticsSnapshot();
    final Map<String, StatisticsSnapshot> perAgent = new HashMap<>();
    final Map<String, IntObjectMap<StatisticsSnapshot>> lastStats = new HashMap<>();
-   final List<StatisticsSummary> series = new ArrayList<>();
-   final Map<String, List<StatisticsSummary>> agentSeries = new HashMap<>();
+   // per-period summaries are kept in the series store, these hold only the last record positions
+   final SeriesStore.Series series;
+   final Map<String, SeriesStore.Series> agentSeries = new HashMap<>();
+   private long seriesRequestCount;
+   private long agentSeriesRequestCount;
    // floating statistics for SLAs
    private final Map<SLA, StatisticsStore.Window> windowSlas;
    private final SLA[] totalSlas;
@@ -43,6 +43,7 @@ final class Data {
       this.metric = metric;
       this.windowSlas = periodSlas;
       this.totalSlas = totalSlas;
+      this.series = new SeriesStore.Series(phase, stepId, metric, null);
    }
 
    void record(String address, StatisticsSnapshot stats) {
@@ -71,11 +72,15 @@ final class Data {
          StatisticsSnapshot snapshot = entry.getValue().remove(sequenceId);
          if (snapshot != null) {
             snapshot.addInto(sum);
-            agentSeries.computeIfAbsent(entry.getKey(), a -> new ArrayList<>()).add(snapshot.summary(StatisticsStore.PERCENTILES));
+            SeriesStore.Series agentSeries = this.agentSeries.computeIfAbsent(entry.getKey(),
+                  agent -> new SeriesStore.Series(phase, stepId, metric, agent));
+            statisticsStore.seriesStore.append(agentSeries, snapshot.summary(StatisticsStore.PERCENTILES));
+            agentSeriesRequestCount += snapshot.requestCount;
          }
       }
       if (!sum.isEmpty()) {
-         series.add(sum.summary(StatisticsStore.PERCENTILES));
+         statisticsStore.seriesStore.append(series, sum.summary(StatisticsStore.PERCENTILES));
+         seriesRequestCount += sum.requestCount;
       }
       for (Map.Entry<SLA, StatisticsStore.Window> entry : windowSlas.entrySet()) {
          SLA sla = entry.getKey();
@@ -96,10 +101,10 @@ final class Data {
          mergeSnapshots(i);
       }
       // Just sanity checks
-      if (series.stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (seriesRequestCount != total.requestCount) {
          log.error("We lost some data (series) in phase {} metric {}", phase, metric);
       }
-      if (agentSeries.values().stream().flatMap(List::stream).mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (agentSeriesRequestCount != total.requestCount) {
          log.error("We lost some data (agent series) in phase {} metric {}", phase, metric);
       }
       if (perAgent.values().stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
@@ -7,6 +7,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramIterationValue;
@@ -48,6 +49,46 @@ public class JsonWriter {
       }
       jGenerator.writeEndArray(); //end failure array
 
+      if (!store.searches.isEmpty()) {
+         jGenerator.writeFieldName("search");
+         jGenerator.writeStartArray();
+         for (ThroughputSearch search : store.searches.values()) {
+            jGenerator.writeStartObject();
+            jGenerator.writeStringField("phase", search.definition().name());
+            jGenerator.writeStringField("strategy", search.definition().strategy.name());
+            jGenerator.writeNumberField("maxUsersPerSec", search.result());
+            jGenerator.writeFieldName("steps");
+            jGenerator.writeStartArray();
+            for (ThroughputSearch.Step step : search.steps()) {
+               jGenerator.writeStartObject();
+               jGenerator.writeNumberField("usersPerSec", step.usersPerSec);
+               jGenerator.writeNumberField("start", step.startTime);
+               jGenerator.writeNumberField("end", step.endTime);
+               jGenerator.writeBooleanField("passed", step.passed);
+               jGenerator.writeObjectField("failures", step.failures);
+               jGenerator.writeEndObject();
+            }
+            jGenerator.writeEndArray(); //end steps
+            jGenerator.writeEndObject();
+         }
+         jGenerator.writeEndArray(); //end search array
+      }
+
+      if (!store.arrivalStats.isEmpty()) {
+         jGenerator.writeFieldName("arrivals");
+         jGenerator.writeStartArray();
+         for (Map.Entry<String, StatisticsStore.ArrivalStats> entry : store.arrivalStats.entrySet()) {
+            StatisticsStore.ArrivalStats stats = entry.getValue();
+            jGenerator.writeStartObject();
+            jGenerator.writeStringField("phase", entry.getKey());
+            jGenerator.writeNumberField("arrivals", stats.arrivals);
+            jGenerator.writeNumberField("throttled", stats.throttled);
+            jGenerator.writeNumberField("meanLagNanos", stats.arrivals == 0 ? 0 : stats.lagNanos / stats.arrivals);
+            jGenerator.writeEndObject();
+         }
+         jGenerator.writeEndArray(); //end arrivals array
+      }
+
       if (sorted.length > 0) {
          //per phase.metric histogram and series
          jGenerator.writeFieldName("phase");
@@ -123,8 +164,16 @@ public class JsonWriter {
                         jGenerator.writeFieldName("linear");
                         histogramArray(jGenerator, data.total.histogram.linearBucketValues(1_000_000).iterator());
                         jGenerator.writeEndObject(); //histogram
+                        if (data.total.correctedHistogram != null) {
+                           // Response times measured from the intended start of the request
+                           jGenerator.writeFieldName("correctedHistogram");
+                           jGenerator.writeStartObject();
+                           jGenerator.writeFieldName("percentiles");
+                           histogramArray(jGenerator, data.total.correctedHistogram.percentiles(5).iterator());
+                           jGenerator.writeEndObject(); //correctedHistogram
+                        }
                         jGenerator.writeFieldName("series");
-                        seriesArray(jGenerator, data.series);
+                        seriesArray(jGenerator, store.series(data, null));
 
                         jGenerator.writeEndObject(); //end metric
                         jGenerator.flush();
@@ -209,7 +258,7 @@ public class JsonWriter {
                            histogramArray(jGenerator, histogram.linearBucketValues(1_000_000).iterator());
                            jGenerator.writeEndObject(); //histogram
                            jGenerator.writeFieldName("series");
-                           seriesArray(jGenerator, data.agentSeries.get(agent));
+                           seriesArray(jGenerator, store.series(data, agent));
 
                            jGenerator.writeEndObject();
                         } catch (IOException e) {
@@ -315,11 +364,11 @@ public class JsonWriter {
       jGenerator.writeEndObject();
    }
 
-   private static void seriesArray(JsonGenerator jGenerator, List<StatisticsSummary> series) throws IOException {
+   private static void seriesArray(JsonGenerator jGenerator, Stream<StatisticsSummary> series) throws IOException {
       jGenerator.writeStartArray(); //series
       if (series != null) {
-         for (StatisticsSummary summary : series) {
-            jGenerator.writeObject(summary);
+         for (Iterator<StatisticsSummary> it = series.iterator(); it.hasNext(); ) {
+            jGenerator.writeObject(it.next());
          }
       }
       jGenerator.writeEndArray(); //end series
@@ -0,0 +1,412 @@
+package io.hyperfoil.core.impl.statistics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Append-only store for the per-period summaries of each series (phase/step/metric, either total or per agent).
+ * <p>
+ * Records are delta- and varint-encoded and appended to segment files. Each record points to the previous record
+ * of the same series, so only the position of the last record of each series is kept on heap. Segments are
+ * memory-mapped for reading. When no directory is set the segments are kept in (compact) heap buffers.
+ */
+final class SeriesStore implements Closeable {
+   private static final Logger log = LoggerFactory.getLogger(SeriesStore.class);
+   static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+   static final long NO_RECORD = -1;
+   // prev record position + payload length
+   private static final int HEADER_SIZE = 12;
+   private static final byte DESCRIPTOR = 0;
+   private static final byte SUMMARY = 1;
+
+   private final Path dir;
+   private final int segmentSize;
+   private final double[] percentiles;
+   private final List<Segment> segments = new ArrayList<>();
+   private final Buffer pending = new Buffer();
+   private final Buffer payload = new Buffer();
+   private boolean failed;
+
+   SeriesStore(Path dir, int segmentSize, double[] percentiles) {
+      this.dir = dir;
+      this.segmentSize = segmentSize;
+      this.percentiles = percentiles;
+   }
+
+   synchronized void append(Series series, StatisticsSummary summary) {
+      if (failed) {
+         return;
+      }
+      if (series.last == NO_RECORD) {
+         payload.reset();
+         payload.write(DESCRIPTOR);
+         writeString(payload, series.phase);
+         writeVarLong(payload, series.stepId);
+         writeString(payload, series.metric);
+         writeString(payload, series.agent == null ? "" : series.agent);
+         writeVarLong(payload, percentiles.length);
+         for (double p : percentiles) {
+            writeLong(payload, Double.doubleToLongBits(p));
+         }
+         series.last = appendRecord(NO_RECORD);
+         if (failed) {
+            return;
+         }
+      }
+      payload.reset();
+      payload.write(SUMMARY);
+      writeVarLong(payload, zigZag(summary.startTime - series.lastStartTime));
+      writeVarLong(payload, zigZag(summary.endTime - summary.startTime));
+      writeVarLong(payload, zigZag(summary.minResponseTime));
+      writeVarLong(payload, zigZag(summary.meanResponseTime));
+      writeVarLong(payload, zigZag(summary.maxResponseTime));
+      writeVarLong(payload, zigZag(summary.meanSendTime));
+      writeVarLong(payload, summary.percentileResponseTime.size());
+      for (Long value : summary.percentileResponseTime.values()) {
+         writeVarLong(payload, zigZag(value));
+      }
+      writeVarLong(payload, zigZag(summary.connectFailureCount));
+      writeVarLong(payload, zigZag(summary.requestCount));
+      writeVarLong(payload, zigZag(summary.responseCount));
+      writeVarLong(payload, zigZag(summary.status_2xx));
+      writeVarLong(payload, zigZag(summary.status_3xx));
+      writeVarLong(payload, zigZag(summary.status_4xx));
+      writeVarLong(payload, zigZag(summary.status_5xx));
+      writeVarLong(payload, zigZag(summary.status_other));
+      writeVarLong(payload, zigZag(summary.invalid));
+      writeVarLong(payload, zigZag(summary.cacheHits));
+      writeVarLong(payload, zigZag(summary.resetCount));
+      writeVarLong(payload, zigZag(summary.timeouts));
+      writeVarLong(payload, zigZag(summary.blockedCount));
+      writeVarLong(payload, zigZag(summary.blockedTime));
+      series.last = appendRecord(series.last);
+      series.lastStartTime = summary.startTime;
+   }
+
+   private long appendRecord(long previous) {
+      int length = HEADER_SIZE + payload.size();
+      Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+      if (segment == null || segment.size + pending.size() + length > segmentSize) {
+         flush();
+         if (failed) {
+            return NO_RECORD;
+         }
+         segment = newSegment();
+         if (segment == null) {
+            return NO_RECORD;
+         }
+      }
+      long position = ((long) (segments.size() - 1) << 32) | (segment.size + pending.size());
+      writeLong(pending, previous);
+      writeInt(pending, payload.size());
+      pending.write(payload.array(), 0, payload.size());
+      return position;
+   }
+
+   private Segment newSegment() {
+      Segment segment;
+      if (dir == null) {
+         segment = new Segment(null);
+      } else {
+         Path file = dir.resolve(String.format("series.%04d.seg", segments.size()));
+         try {
+            Files.createDirectories(dir);
+            segment = new Segment(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                  StandardOpenOption.WRITE, StandardOpenOption.READ));
+         } catch (IOException e) {
+            log.error("Cannot create statistics segment {}, series won't be recorded.", e, file);
+            failed = true;
+            return null;
+         }
+      }
+      segments.add(segment);
+      return segment;
+   }
+
+   /**
+    * Writes out records appended so far; the controller calls this once per collection period.
+    */
+   synchronized void flush() {
+      if (pending.size() == 0 || segments.isEmpty()) {
+         return;
+      }
+      try {
+         segments.get(segments.size() - 1).write(pending.asByteBuffer());
+      } catch (IOException e) {
+         log.error("Failed to write statistics series, further series won't be recorded.", e);
+         failed = true;
+      }
+      pending.reset();
+   }
+
+   synchronized Stream<StatisticsSummary> read(Series series) throws IOException {
+      if (series == null) {
+         return null;
+      }
+      flush();
+      if (failed) {
+         throw new IOException("Statistics series could not be recorded");
+      }
+      ByteBuffer[] views = new ByteBuffer[segments.size()];
+      long[] positions = new long[16];
+      int count = 0;
+      for (long position = series.last; position != NO_RECORD; ) {
+         if (count == positions.length) {
+            positions = Arrays.copyOf(positions, positions.length * 2);
+         }
+         positions[count++] = position;
+         int segment = (int) (position >>> 32);
+         if (views[segment] == null) {
+            views[segment] = segments.get(segment).view();
+         }
+         position = views[segment].getLong((int) position);
+      }
+      if (count == 0) {
+         return Stream.empty();
+      }
+      Reader reader = new Reader(views, positions, count);
+      return StreamSupport.stream(Spliterators.spliterator(reader, count - 1, Spliterator.ORDERED | Spliterator.NONNULL), false);
+   }
+
+   @Override
+   public synchronized void close() {
+      flush();
+      for (Segment segment : segments) {
+         segment.close();
+      }
+   }
+
+   private static long zigZag(long value) {
+      return (value << 1) ^ (value >> 63);
+   }
+
+   private static long unZigZag(long value) {
+      return (value >>> 1) ^ -(value & 1);
+   }
+
+   private static void writeVarLong(ByteArrayOutputStream out, long value) {
+      while ((value & ~0x7FL) != 0) {
+         out.write((int) (value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      out.write((int) value);
+   }
+
+   private static long readVarLong(ByteBuffer in) {
+      long value = 0;
+      for (int shift = 0; ; shift += 7) {
+         byte b = in.get();
+         value |= (long) (b & 0x7F) << shift;
+         if (b >= 0) {
+            return value;
+         }
+      }
+   }
+
+   private static void writeLong(ByteArrayOutputStream out, long value) {
+      writeInt(out, (int) (value >>> 32));
+      writeInt(out, (int) value);
+   }
+
+   private static void writeInt(ByteArrayOutputStream out, int value) {
+      out.write(value >>> 24);
+      out.write(value >>> 16);
+      out.write(value >>> 8);
+      out.write(value);
+   }
+
+   private static void writeString(ByteArrayOutputStream out, String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(out, bytes.length);
+      out.write(bytes, 0, bytes.length);
+   }
+
+   private static String readString(ByteBuffer in) {
+      byte[] bytes = new byte[(int) readVarLong(in)];
+      in.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   static final class Series {
+      final String phase;
+      final int stepId;
+      final String metric;
+      // null for total
+      final String agent;
+      long last = NO_RECORD;
+      long lastStartTime;
+
+      Series(String phase, int stepId, String metric, String agent) {
+         this.phase = phase;
+         this.stepId = stepId;
+         this.metric = metric;
+         this.agent = agent;
+      }
+   }
+
+   private static final class Buffer extends ByteArrayOutputStream {
+      Buffer() {
+         super(4096);
+      }
+
+      byte[] array() {
+         return buf;
+      }
+
+      ByteBuffer asByteBuffer() {
+         return ByteBuffer.wrap(buf, 0, count);
+      }
+   }
+
+   private static final class Segment {
+      // null when the segment is kept on heap
+      private final FileChannel channel;
+      private ByteBuffer heap;
+      private MappedByteBuffer mapped;
+      private int size;
+
+      Segment(FileChannel channel) {
+         this.channel = channel;
+         if (channel == null) {
+            heap = ByteBuffer.allocate(4096);
+         }
+      }
+
+      void write(ByteBuffer buffer) throws IOException {
+         int length = buffer.remaining();
+         if (channel != null) {
+            while (buffer.hasRemaining()) {
+               channel.write(buffer, size + length - buffer.remaining());
+            }
+         } else {
+            if (heap.capacity() < size + length) {
+               ByteBuffer bigger = ByteBuffer.allocate(Math.max(heap.capacity() * 2, size + length));
+               heap.position(0);
+               heap.limit(size);
+               bigger.put(heap);
+               heap = bigger;
+            }
+            heap.limit(heap.capacity());
+            heap.position(size);
+            heap.put(buffer);
+         }
+         size += length;
+      }
+
+      ByteBuffer view() throws IOException {
+         if (channel == null) {
+            ByteBuffer view = heap.duplicate();
+            view.limit(size);
+            return view;
+         }
+         if (mapped == null || mapped.capacity() < size) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+         }
+         return mapped.duplicate();
+      }
+
+      void close() {
+         mapped = null;
+         heap = null;
+         if (channel != null) {
+            try {
+               channel.close();
+            } catch (IOException e) {
+               log.error("Failed to close statistics segment", e);
+            }
+         }
+      }
+   }
+
+   private static final class Reader implements Iterator<StatisticsSummary> {
+      private final ByteBuffer[] views;
+      private final long[] positions;
+      private final Double[] percentiles;
+      // positions are stored from the last record, the descriptor is at the end
+      private int index;
+      private long startTime;
+
+      Reader(ByteBuffer[] views, long[] positions, int count) {
+         this.views = views;
+         this.positions = positions;
+         ByteBuffer descriptor = record(positions[count - 1]);
+         if (descriptor.get() != DESCRIPTOR) {
+            throw new IllegalStateException("Series does not start with a descriptor");
+         }
+         readString(descriptor);
+         readVarLong(descriptor);
+         readString(descriptor);
+         readString(descriptor);
+         percentiles = new Double[(int) readVarLong(descriptor)];
+         for (int i = 0; i < percentiles.length; ++i) {
+            percentiles[i] = Double.longBitsToDouble(descriptor.getLong()) * 100;
+         }
+         index = count - 2;
+      }
+
+      private ByteBuffer record(long position) {
+         ByteBuffer view = views[(int) (position >>> 32)].duplicate();
+         int offset = (int) position;
+         int length = view.getInt(offset + 8);
+         view.limit(offset + HEADER_SIZE + length);
+         view.position(offset + HEADER_SIZE);
+         return view;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return index >= 0;
+      }
+
+      @Override
+      public StatisticsSummary next() {
+         if (index < 0) {
+            throw new NoSuchElementException();
+         }
+         ByteBuffer in = record(positions[index--]);
+         if (in.get() != SUMMARY) {
+            throw new IllegalStateException("Unexpected record type");
+         }
+         startTime += unZigZag(readVarLong(in));
+         long endTime = startTime + unZigZag(readVarLong(in));
+         long min = unZigZag(readVarLong(in));
+         long mean = unZigZag(readVarLong(in));
+         long max = unZigZag(readVarLong(in));
+         long meanSendTime = unZigZag(readVarLong(in));
+         int numPercentiles = (int) readVarLong(in);
+         TreeMap<Double, Long> percentileResponseTime = new TreeMap<>();
+         for (int i = 0; i < numPercentiles; ++i) {
+            percentileResponseTime.put(percentiles[i], unZigZag(readVarLong(in)));
+         }
+         return new StatisticsSummary(startTime, endTime, min, mean, max, meanSendTime, percentileResponseTime,
+               readInt(in), readInt(in), readInt(in), readInt(in), readInt(in), readInt(in), readInt(in), readInt(in),
+               readInt(in), readInt(in), readInt(in), readInt(in), readInt(in), unZigZag(readVarLong(in)));
+      }
+
+      private static int readInt(ByteBuffer in) {
+         return (int) unZigZag(readVarLong(in));
+      }
+   }
+}
@@ -1,6 +1,7 @@
 package io.hyperfoil.core.impl.statistics;
 
 import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.api.statistics.CustomValue;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
@@ -11,11 +12,14 @@ import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.core.util.LowHigh;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
@@ -37,10 +41,21 @@ public class StatisticsStore {
    private final int maxFailures = 100;
    private final Map<Integer, SLA.Provider> slaProviders;
    final Map<String, SessionPoolStats> sessionPoolStats = new HashMap<>();
+   final Map<String, ArrivalStats> arrivalStats = new HashMap<>();
+   final SeriesStore seriesStore;
+   final Map<String, ThroughputSearch> searches = new LinkedHashMap<>();
 
    public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler) {
+      this(benchmark, failureHandler, null);
+   }
+
+   /**
+    * @param seriesDir Directory for the segments with per-period statistics. When <code>null</code> these are kept on heap.
+    */
+   public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler, Path seriesDir) {
       this.benchmark = benchmark;
       this.failureHandler = failureHandler;
+      this.seriesStore = new SeriesStore(seriesDir, SeriesStore.DEFAULT_SEGMENT_SIZE, PERCENTILES);
       this.slaProviders = benchmark.steps()
             .filter(SLA.Provider.class::isInstance).map(SLA.Provider.class::cast)
             .collect(Collectors.toMap(SLA.Provider::id, Function.identity(), (s1, s2) -> {
@@ -56,17 +71,83 @@ public class StatisticsStore {
       Data data = map.get(metric);
       if (data == null) {
          long collectionPeriod = benchmark.statisticsCollectionPeriod();
-         SLA.Provider slaProvider = slaProviders.get(stepId);
+         Phase phase = benchmark.phases().stream().filter(p -> p.id() == phaseId).findFirst().get();
+         // SLAs in search phases are validated separately for each step
+         SLA.Provider slaProvider = phase instanceof Phase.Search ? null : slaProviders.get(stepId);
          Map<SLA, Window> rings = slaProvider == null || slaProvider.sla() == null ? Collections.emptyMap() :
                Stream.of(slaProvider.sla()).filter(sla -> sla.window() > 0).collect(
                      Collectors.toMap(Function.identity(),
                            sla -> new Window((int) (sla.window() / collectionPeriod))));
          SLA[] total = slaProvider == null || slaProvider.sla() == null ? new SLA[0] : Stream.of(slaProvider.sla())
                .filter(sla -> sla.window() <= 0).toArray(SLA[]::new);
-         String phase = benchmark.phases().stream().filter(p -> p.id() == phaseId).findFirst().get().name();
-         map.put(metric, data = new Data(this, phase, stepId, metric, rings, total));
+         map.put(metric, data = new Data(this, phase.name(), stepId, metric, rings, total));
       }
       data.record(address, stats);
+      if (!searches.isEmpty()) {
+         ThroughputSearch search = searches.get(data.phase);
+         if (search != null) {
+            search.record(data, stats);
+         }
+      }
+   }
+
+   /**
+    * Starts tracking the search for maximum throughput; the first step must be started explicitly.
+    *
+    * @param phase Search phase definition.
+    * @return Search state.
+    */
+   public ThroughputSearch startSearch(Phase.Search phase) {
+      ThroughputSearch search = new ThroughputSearch(phase, benchmark.statisticsCollectionPeriod());
+      searches.put(phase.name(), search);
+      return search;
+   }
+
+   public ThroughputSearch search(String phase) {
+      return searches.get(phase);
+   }
+
+   /**
+    * @param phase     Search phase name.
+    * @param startTime Wall-clock time when the agents switched to current rate.
+    */
+   public void startSearchStep(String phase, long startTime) {
+      searches.get(phase).startStep(startTime);
+   }
+
+   /**
+    * Validates SLAs against statistics recorded in current step and selects the next rate.
+    *
+    * @param phase Search phase name.
+    * @return <code>true</code> if the search should continue with another step.
+    */
+   public boolean completeSearchStep(String phase) {
+      ThroughputSearch search = searches.get(phase);
+      List<String> failures = new ArrayList<>();
+      long requests = 0;
+      for (Map.Entry<Data, StatisticsSnapshot> entry : search.stepStatistics().entrySet()) {
+         Data data = entry.getKey();
+         StatisticsSnapshot stats = entry.getValue();
+         requests += stats.requestCount;
+         SLA.Provider slaProvider = slaProviders.get(data.stepId);
+         if (slaProvider == null || slaProvider.sla() == null) {
+            continue;
+         }
+         for (SLA sla : slaProvider.sla()) {
+            SLA.Failure failure = sla.validate(phase, data.metric, stats);
+            if (failure != null) {
+               failures.add(failure.metric() + ": " + failure.message());
+            }
+         }
+      }
+      if (requests == 0) {
+         failures.add("No requests completed");
+      }
+      if (search.stepThrottled() > 0) {
+         failures.add("Could not start " + search.stepThrottled() + " sessions: the session pool is exhausted");
+      }
+      search.completeStep(failures);
+      return !search.isDone();
    }
 
    public void addFailure(String phase, String metric, long startTimestamp, long endTimestamp, String cause) {
@@ -77,6 +158,10 @@ public class StatisticsStore {
    }
 
    public void completePhase(String phase) {
+      ThroughputSearch search = searches.get(phase);
+      if (search != null) {
+         search.finish();
+      }
       for (Map<String, Data> m : this.data.values()) {
          for (Data data : m.values()) {
             if (data.phase.equals(phase)) {
@@ -86,6 +171,24 @@ public class StatisticsStore {
       }
    }
 
+   /**
+    * Writes out per-period statistics merged since last call.
+    */
+   public void flush() {
+      seriesStore.flush();
+   }
+
+   /**
+    * Releases the series segments; statistics cannot be recorded nor series read after this call.
+    */
+   public void close() {
+      seriesStore.close();
+   }
+
+   Stream<StatisticsSummary> series(Data data, String agent) throws IOException {
+      return seriesStore.read(agent == null ? data.series : data.agentSeries.get(agent));
+   }
+
    public boolean validateSlas() {
       return failures.isEmpty();
    }
@@ -166,6 +269,22 @@ public class StatisticsStore {
       sps.records.computeIfAbsent(address, a -> new ArrayList<>()).add(new SessionPoolRecord(timestamp, minSessions, maxSessions));
    }
 
+   /**
+    * Records arrivals in an open-model phase; these are kept apart from request statistics.
+    */
+   public void recordArrivalStats(String address, long timestamp, String phase, long arrivals, long throttled, long lagNanos) {
+      ArrivalStats stats = arrivalStats.computeIfAbsent(phase, p -> new ArrivalStats());
+      stats.arrivals += arrivals;
+      stats.throttled += throttled;
+      stats.lagNanos += lagNanos;
+      if (throttled > 0 && !searches.isEmpty()) {
+         ThroughputSearch search = searches.get(phase);
+         if (search != null) {
+            search.recordThrottled(timestamp, throttled);
+         }
+      }
+   }
+
    public Map<String, Map<String, LowHigh>> recentSessionPoolSummary(long minValidTimestamp) {
       return sessionPoolSummary(records -> {
          SessionPoolRecord record = records.get(records.size() - 1);
@@ -259,6 +378,12 @@ public class StatisticsStore {
       }
    }
 
+   static class ArrivalStats {
+      long arrivals;
+      long throttled;
+      long lagNanos;
+   }
+
    static class SessionPoolRecord extends LowHigh {
       final long timestamp;
 
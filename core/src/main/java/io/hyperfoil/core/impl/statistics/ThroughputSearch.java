@@ -0,0 +1,163 @@
+package io.hyperfoil.core.impl.statistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+
+/**
+ * State of the search for maximum sustainable throughput in a {@link Phase.Search search phase}.
+ * <p>
+ * Each step holds the rate for {@link Phase.Search#stepDuration}; statistics with timestamps in the step (excluding
+ * warmup) are accumulated and once these are delivered the SLAs are evaluated and next rate is chosen.
+ */
+public final class ThroughputSearch {
+   private final Phase.Search def;
+   // Statistics are sent by agents once per collection period; we wait for all periods in the step
+   private final long collectionDelay;
+   private final List<Step> steps = new ArrayList<>();
+   private final Map<Data, StatisticsSnapshot> stepStatistics = new HashMap<>();
+   private double highestPassing = 0;
+   private double lowestFailing;
+   private double usersPerSec;
+   private long stepStartTime = Long.MIN_VALUE;
+   private long stepThrottled;
+   private boolean done;
+
+   ThroughputSearch(Phase.Search def, long collectionPeriod) {
+      this.def = def;
+      this.collectionDelay = 2 * collectionPeriod;
+      this.lowestFailing = Double.POSITIVE_INFINITY;
+      this.usersPerSec = def.initialUsersPerSec;
+   }
+
+   public Phase.Search definition() {
+      return def;
+   }
+
+   /**
+    * @return Rate for current step.
+    */
+   public double usersPerSec() {
+      return usersPerSec;
+   }
+
+   public boolean isDone() {
+      return done;
+   }
+
+   /**
+    * @return Highest rate that has met all SLAs, or 0 if there was none.
+    */
+   public double result() {
+      return highestPassing;
+   }
+
+   public List<Step> steps() {
+      return Collections.unmodifiableList(steps);
+   }
+
+   /**
+    * @return Wall-clock time when statistics for current step should be complete.
+    */
+   public long evaluationTime() {
+      return stepStartTime == Long.MIN_VALUE ? Long.MAX_VALUE : stepStartTime + def.stepDuration + collectionDelay;
+   }
+
+   void startStep(long startTime) {
+      stepStartTime = startTime;
+      stepStatistics.clear();
+      stepThrottled = 0;
+   }
+
+   void record(Data data, StatisticsSnapshot stats) {
+      if (inStep(stats.histogram.getStartTimeStamp())) {
+         stats.addInto(stepStatistics.computeIfAbsent(data, d -> new StatisticsSnapshot()));
+      }
+   }
+
+   void recordThrottled(long timestamp, long throttled) {
+      if (inStep(timestamp)) {
+         stepThrottled += throttled;
+      }
+   }
+
+   private boolean inStep(long timestamp) {
+      return timestamp >= stepStartTime + def.warmup && timestamp < stepStartTime + def.stepDuration;
+   }
+
+   Map<Data, StatisticsSnapshot> stepStatistics() {
+      return stepStatistics;
+   }
+
+   /**
+    * @return Number of users that could not be started in current step as the session pool was exhausted.
+    */
+   long stepThrottled() {
+      return stepThrottled;
+   }
+
+   void completeStep(List<String> failures) {
+      boolean passed = failures.isEmpty();
+      steps.add(new Step(usersPerSec, stepStartTime, stepStartTime + def.stepDuration, passed, failures));
+      stepStartTime = Long.MIN_VALUE;
+      if (passed) {
+         highestPassing = Math.max(highestPassing, usersPerSec);
+      } else {
+         lowestFailing = Math.min(lowestFailing, usersPerSec);
+      }
+      if (passed && usersPerSec >= def.maxUsersPerSec) {
+         done = true;
+         return;
+      }
+      switch (def.strategy) {
+         case BINARY:
+            double upper = Math.min(lowestFailing, def.maxUsersPerSec);
+            if (upper - highestPassing > def.precision) {
+               usersPerSec = (highestPassing + upper) / 2;
+            } else if (lowestFailing > def.maxUsersPerSec) {
+               // The maximum has not been tried yet
+               usersPerSec = def.maxUsersPerSec;
+            } else {
+               done = true;
+            }
+            break;
+         case STEP:
+            if (passed) {
+               usersPerSec = Math.min(usersPerSec + def.increment, def.maxUsersPerSec);
+            } else {
+               done = true;
+            }
+            break;
+         default:
+            throw new IllegalStateException();
+      }
+   }
+
+   /**
+    * Terminates the search, e.g. when the phase duration has elapsed.
+    */
+   void finish() {
+      done = true;
+   }
+
+   public static final class Step {
+      public final double usersPerSec;
+      public final long startTime;
+      public final long endTime;
+      public final boolean passed;
+      public final List<String> failures;
+
+      Step(double usersPerSec, long startTime, long endTime, boolean passed, List<String> failures) {
+         this.usersPerSec = usersPerSec;
+         this.startTime = startTime;
+         this.endTime = endTime;
+         this.passed = passed;
+         this.failures = failures;
+      }
+   }
+}
@@ -21,6 +21,7 @@ package io.hyperfoil.core.parser;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkBuilder;
 import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.Transport;
 import io.hyperfoil.core.util.Util;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
@@ -58,7 +59,9 @@ public class BenchmarkParser extends AbstractMappingParser<BenchmarkBuilder> {
       register("http", new HttpParser());
       register("phases", new PhasesParser());
       register("threads", new PropertyParser.Int<>(BenchmarkBuilder::threads));
+      register("transport", new PropertyParser.String<>((bb, value) -> bb.transport(Transport.fromString(value))));
       register("statisticsCollectionPeriod", new PropertyParser.Int<>(BenchmarkBuilder::statisticsCollectionPeriod));
+      register("histogram", new HistogramParser());
       // simplified single-phase definition
       register("usersPerSec", new PropertyParser.Double<>((bb, value) -> bb.singleConstantRatePhase().usersPerSec(value)));
       register("duration", new PropertyParser.String<>((bb, value) -> bb.singleConstantRatePhase().duration(value)));
@@ -0,0 +1,18 @@
+package io.hyperfoil.core.parser;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.HistogramBuilder;
+
+class HistogramParser extends AbstractParser<BenchmarkBuilder, HistogramBuilder<BenchmarkBuilder>> {
+   HistogramParser() {
+      register("maxValue", new PropertyParser.String<>(HistogramBuilder::maxValue));
+      register("significantDigits", new PropertyParser.Int<>(HistogramBuilder::significantDigits));
+      register("autoResize", new PropertyParser.Boolean<>(HistogramBuilder::autoResize));
+      register("correctCoordinatedOmission", new PropertyParser.Boolean<>(HistogramBuilder::correctCoordinatedOmission));
+   }
+
+   @Override
+   public void parse(Context ctx, BenchmarkBuilder target) throws ParserException {
+      callSubBuilders(ctx, target.histogram());
+   }
+}
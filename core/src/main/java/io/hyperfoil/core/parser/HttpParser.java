@@ -23,6 +23,11 @@ class HttpParser extends AbstractParser<BenchmarkBuilder, HttpBuilder> {
       register("requestTimeout", new PropertyParser.String<>(HttpBuilder::requestTimeout));
       register("addresses", HttpParser::parseAddresses);
       register("rawBytesHandlers", new PropertyParser.Boolean<>(HttpBuilder::rawBytesHandlers));
+      register("tcpNoDelay", new PropertyParser.Boolean<>(HttpBuilder::tcpNoDelay));
+      register("tcpQuickAck", new PropertyParser.Boolean<>(HttpBuilder::tcpQuickAck));
+      register("busyPoll", new PropertyParser.Int<>(HttpBuilder::busyPoll));
+      register("flushConsolidation", new PropertyParser.Boolean<>(HttpBuilder::flushConsolidation));
+      register("flushConsolidationLimit", new PropertyParser.Int<>(HttpBuilder::flushConsolidationLimit));
       register("keyManager", new ReflectionParser<>(HttpBuilder::keyManager));
       register("trustManager", new ReflectionParser<>(HttpBuilder::trustManager));
    }
@@ -76,6 +76,23 @@ abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBui
       }
    }
 
+   static class Search extends OpenModel {
+      Search() {
+         register("initialUsersPerSec", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.Search) builder).initialUsersPerSec(rate)));
+         register("maxUsersPerSec", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.Search) builder).maxUsersPerSec(rate)));
+         register("precision", new PropertyParser.Double<>((builder, precision) -> ((PhaseBuilder.Search) builder).precision(precision)));
+         register("increment", new PropertyParser.Double<>((builder, increment) -> ((PhaseBuilder.Search) builder).increment(increment)));
+         register("stepDuration", new PropertyParser.String<>((builder, duration) -> ((PhaseBuilder.Search) builder).stepDuration(duration)));
+         register("warmup", new PropertyParser.String<>((builder, warmup) -> ((PhaseBuilder.Search) builder).warmup(warmup)));
+         register("strategy", new PropertyParser.Enum<>(Phase.SearchStrategy.values(), (builder, strategy) -> ((PhaseBuilder.Search) builder).strategy(strategy)));
+      }
+
+      @Override
+      protected PhaseBuilder.Search type(PhaseBuilder.Catalog catalog) {
+         return catalog.search(-1);
+      }
+   }
+
    static class ConstantRate extends OpenModel {
       ConstantRate() {
          register("usersPerSec", new IncrementPropertyParser.Double<>((builder, base, inc) -> ((PhaseBuilder.ConstantRate) builder).usersPerSec(base, inc)));
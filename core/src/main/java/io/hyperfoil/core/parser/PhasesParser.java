@@ -52,6 +52,7 @@ class PhasesParser extends AbstractParser<BenchmarkBuilder, PhaseBuilder.Catalog
          }
       });
       register("constantRate", new PhaseParser.ConstantRate());
+      register("throughputSearch", new PhaseParser.Search());
    }
 
    @Override
@@ -0,0 +1,149 @@
+package io.hyperfoil.core.session;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.SharedData;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Shared data sharded across all agents in the benchmark.
+ * <p>
+ * Maps that can be pulled only randomly are assigned to a random agent. Maps for keys with an index are sent
+ * to all agents, as the session that pulls a matching map may run on any of them; such a map can be pulled
+ * once on each agent. Maps for other agents are queued and handed over in batches by the agent's transport
+ * (see {@link #drain(int)} and {@link #receive(List)}). Pulls never leave the agent: these are served from
+ * the local shard without blocking.
+ */
+public class ClusterSharedData extends ConcurrentSharedData {
+   private static final Logger log = LoggerFactory.getLogger(ClusterSharedData.class);
+
+   private final int agentId;
+   private final Queue<Entry>[] outbox;
+   // Maps received for keys that have not been reserved on this agent yet
+   private final Map<String, List<Entry>> pending = new HashMap<>();
+
+   @SuppressWarnings("unchecked")
+   public ClusterSharedData(int agentId, int agents) {
+      this.agentId = agentId;
+      this.outbox = new Queue[agents];
+      for (int i = 0; i < agents; ++i) {
+         outbox[i] = new ConcurrentLinkedQueue<>();
+      }
+   }
+
+   @Override
+   public void pushMap(String key, SharedMap sharedMap) {
+      if (outbox.length <= 1 || !isSerializable(sharedMap)) {
+         super.pushMap(key, sharedMap);
+      } else if (isIndexed(key)) {
+         Entry entry = new Entry(key, sharedMap);
+         for (int i = 0; i < outbox.length; ++i) {
+            if (i != agentId) {
+               outbox[i].add(entry);
+            }
+         }
+         super.pushMap(key, sharedMap);
+      } else {
+         int target = ThreadLocalRandom.current().nextInt(outbox.length);
+         if (target == agentId) {
+            super.pushMap(key, sharedMap);
+         } else {
+            outbox[target].add(new Entry(key, sharedMap));
+         }
+      }
+   }
+
+   @Override
+   public synchronized void reserveMap(String key, Access match, int entries) {
+      super.reserveMap(key, match, entries);
+      List<Entry> received = pending.remove(key);
+      if (received != null) {
+         received.forEach(this::insert);
+      }
+   }
+
+   private static boolean isSerializable(SharedMap map) {
+      for (int i = 0; i < map.size(); ++i) {
+         Object value = map.value(i);
+         if (value != null && !(value instanceof Serializable)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   public int agents() {
+      return outbox.length;
+   }
+
+   /**
+    * @param agentId Target agent.
+    * @return Maps pushed since last invocation that should be delivered to given agent, or <code>null</code>.
+    */
+   public ArrayList<Entry> drain(int agentId) {
+      Queue<Entry> queue = outbox[agentId];
+      if (queue.isEmpty()) {
+         return null;
+      }
+      ArrayList<Entry> batch = new ArrayList<>();
+      Entry entry;
+      while ((entry = queue.poll()) != null) {
+         batch.add(entry);
+      }
+      return batch;
+   }
+
+   /**
+    * Inserts maps received from other agents into the local shard.
+    *
+    * @param batch Maps.
+    */
+   public void receive(List<Entry> batch) {
+      for (Entry entry : batch) {
+         if (!isReserved(entry.key)) {
+            synchronized (this) {
+               if (!isReserved(entry.key)) {
+                  log.debug("Received map for key {} that is not reserved on agent {} yet", entry.key, agentId);
+                  pending.computeIfAbsent(entry.key, k -> new ArrayList<>()).add(entry);
+                  continue;
+               }
+            }
+         }
+         insert(entry);
+      }
+   }
+
+   private void insert(Entry entry) {
+      // The key might be reserved only by pulls on this agent
+      SharedMap map = newMap(entry.key, entry.keys.length);
+      for (int i = 0; i < entry.keys.length; ++i) {
+         map.put(entry.keys[i], entry.values[i]);
+      }
+      super.pushMap(entry.key, map);
+   }
+
+   public static class Entry implements Serializable {
+      private final String key;
+      private final Access[] keys;
+      private final Object[] values;
+
+      Entry(String key, SharedData.SharedMap map) {
+         this.key = key;
+         this.keys = new Access[map.size()];
+         this.values = new Object[map.size()];
+         for (int i = 0; i < keys.length; ++i) {
+            keys[i] = map.key(i);
+            values[i] = map.value(i);
+         }
+      }
+   }
+}
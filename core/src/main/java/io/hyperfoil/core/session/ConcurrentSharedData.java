@@ -0,0 +1,277 @@
+package io.hyperfoil.core.session;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.SharedData;
+import io.hyperfoil.core.util.RandomConcurrentSet;
+
+/**
+ * Shared data accessed concurrently from all executors in the agent.
+ * <p>
+ * Random pulls fetch from a {@link RandomConcurrentSet}, indexed pulls poll a queue of maps with given value.
+ * A map can be reachable through several of these structures; the first thread that claims the map owns it
+ * and the other references are dropped lazily. Neither push nor pull blocks the calling thread, except for
+ * pushes running while a new index is added to maps that have been pushed already (this happens when a session
+ * of a later phase is reserved).
+ * <p>
+ * Unlike {@link SharedDataImpl} the maps are not recycled as a stale reference could expose a recycled map
+ * under an outdated index value.
+ */
+public class ConcurrentSharedData implements SharedData {
+   private final Map<String, MapSet> maps = new ConcurrentHashMap<>();
+
+   @Override
+   public synchronized void reserveMap(String key, Access match, int entries) {
+      MapSet set = maps.computeIfAbsent(key, k -> new MapSet());
+      set.ensureEntries(entries);
+      if (match != null) {
+         set.ensureIndex(match);
+      }
+   }
+
+   @Override
+   public SharedMap newMap(String key) {
+      return new MapImpl(maps.get(key).maxEntries);
+   }
+
+   @Override
+   public SharedMap pullMap(String key) {
+      return maps.get(key).acquireRandom();
+   }
+
+   @Override
+   public SharedMap pullMap(String key, Access match, Object value) {
+      return maps.get(key).acquire(match, value);
+   }
+
+   @Override
+   public void pushMap(String key, SharedMap sharedMap) {
+      maps.get(key).insert((MapImpl) sharedMap);
+   }
+
+   @Override
+   public void releaseMap(String key, SharedMap map) {
+      map.clear();
+   }
+
+   protected SharedMap newMap(String key, int capacity) {
+      return new MapImpl(Math.max(maps.get(key).maxEntries, capacity));
+   }
+
+   protected boolean isReserved(String key) {
+      return maps.containsKey(key);
+   }
+
+   protected boolean isIndexed(String key) {
+      return maps.get(key).indices.length > 0;
+   }
+
+   private static class MapSet {
+      final RandomConcurrentSet<MapImpl> all = new RandomConcurrentSet<>(16, 16, 16, MapImpl::isClaimed);
+      // Number of maps that have not been claimed yet; lets random pulls on an empty set return immediately
+      final AtomicInteger available = new AtomicInteger();
+      volatile int maxEntries;
+      volatile Access[] indices = new Access[0];
+      @SuppressWarnings("unchecked")
+      volatile Map<Object, Queue<MapImpl>>[] positions = new Map[0];
+      // Inserts hold the read lock, adding an index holds the write lock
+      final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+
+      void ensureEntries(int entries) {
+         if (entries > maxEntries) {
+            maxEntries = entries;
+         }
+      }
+
+      void ensureIndex(Access index) {
+         for (Access i : indices) {
+            if (i.equals(index)) return;
+         }
+         Lock writeLock = indexLock.writeLock();
+         writeLock.lock();
+         try {
+            Map<Object, Queue<MapImpl>>[] positions = Arrays.copyOf(this.positions, this.positions.length + 1);
+            Map<Object, Queue<MapImpl>> position = new ConcurrentHashMap<>();
+            positions[positions.length - 1] = position;
+            Access[] indices = Arrays.copyOf(this.indices, this.indices.length + 1);
+            indices[indices.length - 1] = index;
+            // Maps pushed by sessions of phases that have already been running
+            all.forEach(map -> {
+               if (!map.isClaimed()) {
+                  index(position, map, map.find(index));
+               }
+            });
+            this.positions = positions;
+            this.indices = indices;
+         } finally {
+            writeLock.unlock();
+         }
+      }
+
+      void insert(MapImpl map) {
+         Lock readLock = indexLock.readLock();
+         readLock.lock();
+         try {
+            Access[] indices = this.indices;
+            Map<Object, Queue<MapImpl>>[] positions = this.positions;
+            for (int i = 0; i < indices.length; ++i) {
+               index(positions[i], map, map.find(indices[i]));
+            }
+            all.put(map);
+         } finally {
+            readLock.unlock();
+         }
+         available.incrementAndGet();
+      }
+
+      private static void index(Map<Object, Queue<MapImpl>> position, MapImpl map, Object value) {
+         if (value != null) {
+            // Adding in compute() prevents a race with removal of an empty queue
+            position.compute(value, (v, queue) -> {
+               if (queue == null) {
+                  queue = new ConcurrentLinkedQueue<>();
+               }
+               queue.add(map);
+               return queue;
+            });
+         }
+      }
+
+      SharedMap acquireRandom() {
+         while (available.get() > 0) {
+            MapImpl map = all.fetchOrScan();
+            if (map == null) {
+               return null;
+            } else if (map.claim()) {
+               available.decrementAndGet();
+               unindex(map, -1);
+               return map;
+            }
+         }
+         return null;
+      }
+
+      SharedMap acquire(Access match, Object value) {
+         Access[] indices = this.indices;
+         for (int i = 0; i < indices.length; ++i) {
+            if (indices[i].equals(match)) {
+               Map<Object, Queue<MapImpl>> index = positions[i];
+               Queue<MapImpl> queue = index.get(value);
+               if (queue == null) {
+                  return null;
+               }
+               for (; ; ) {
+                  MapImpl map = queue.poll();
+                  if (map == null) {
+                     removeIfEmpty(index, value);
+                     return null;
+                  } else if (map.claim()) {
+                     available.decrementAndGet();
+                     removeIfEmpty(index, value);
+                     unindex(map, i);
+                     return map;
+                  }
+               }
+            }
+         }
+         throw new UnsupportedOperationException("Cannot match " + match + ": not indexed");
+      }
+
+      private void unindex(MapImpl map, int except) {
+         Access[] indices = this.indices;
+         for (int i = 0; i < indices.length; ++i) {
+            if (i == except) {
+               continue;
+            }
+            Object value = map.find(indices[i]);
+            Queue<MapImpl> queue;
+            if (value != null && (queue = positions[i].get(value)) != null) {
+               queue.remove(map);
+               removeIfEmpty(positions[i], value);
+            }
+         }
+      }
+
+      private static void removeIfEmpty(Map<Object, Queue<MapImpl>> index, Object value) {
+         index.computeIfPresent(value, (v, queue) -> queue.isEmpty() ? null : queue);
+      }
+   }
+
+   private static class MapImpl implements SharedMap {
+      private static final AtomicIntegerFieldUpdater<MapImpl> CLAIMED = AtomicIntegerFieldUpdater.newUpdater(MapImpl.class, "claimed");
+
+      final Access[] keys;
+      final Object[] values;
+      int size;
+      volatile int claimed;
+
+      MapImpl(int capacity) {
+         keys = new Access[capacity];
+         values = new Object[capacity];
+      }
+
+      boolean claim() {
+         return claimed == 0 && CLAIMED.compareAndSet(this, 0, 1);
+      }
+
+      boolean isClaimed() {
+         return claimed != 0;
+      }
+
+      @Override
+      public void put(Access key, Object value) {
+         int pos = size++;
+         keys[pos] = key;
+         values[pos] = value;
+      }
+
+      @Override
+      public int size() {
+         return size;
+      }
+
+      @Override
+      public Access key(int i) {
+         return keys[i];
+      }
+
+      @Override
+      public Object value(int i) {
+         return values[i];
+      }
+
+      @Override
+      public int capacity() {
+         return keys.length;
+      }
+
+      @Override
+      public void clear() {
+         for (int i = size - 1; i >= 0; --i) {
+            keys[i] = null;
+            values[i] = null;
+         }
+         size = 0;
+      }
+
+      @Override
+      public Object find(Access index) {
+         for (int i = 0; i < size; ++i) {
+            if (keys[i].equals(index)) {
+               return values[i];
+            }
+         }
+         return null;
+      }
+   }
+}
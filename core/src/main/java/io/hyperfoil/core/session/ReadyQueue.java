@@ -0,0 +1,85 @@
+package io.hyperfoil.core.session;
+
+import java.util.Arrays;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Sessions that should be run by the executor owning current thread.
+ * <p>
+ * Instead of submitting a task for each wakeup the sessions are appended to this queue (each at most once, see
+ * {@link SessionImpl#proceed()}) and a single drain task is executed; therefore all sessions woken up while
+ * processing one batch of I/O events run in a tight loop afterwards. Neither adding nor draining allocates
+ * once the ring buffer has grown to the number of sessions on this executor.
+ * <p>
+ * Only sessions queued before the drain started are run in that drain; sessions woken up during the drain
+ * are run in the next one so that a session that keeps waking itself up does not starve I/O.
+ */
+final class ReadyQueue implements Runnable {
+   private static final FastThreadLocal<ReadyQueue> CURRENT = new FastThreadLocal<ReadyQueue>() {
+      @Override
+      protected ReadyQueue initialValue() {
+         return new ReadyQueue();
+      }
+   };
+
+   private SessionImpl[] ring = new SessionImpl[64];
+   private int head;
+   private int size;
+   private EventExecutor executor;
+   private boolean drainScheduled;
+
+   private ReadyQueue() {
+   }
+
+   /**
+    * @return Queue for the executor running on current thread.
+    */
+   static ReadyQueue current() {
+      return CURRENT.get();
+   }
+
+   /**
+    * Must be invoked from the executor thread.
+    *
+    * @param session  Session that is not in the queue yet.
+    * @param executor Executor owning current thread.
+    */
+   void add(SessionImpl session, EventExecutor executor) {
+      if (size == ring.length) {
+         grow();
+      }
+      ring[(head + size) & (ring.length - 1)] = session;
+      ++size;
+      if (!drainScheduled) {
+         drainScheduled = true;
+         this.executor = executor;
+         executor.execute(this);
+      }
+   }
+
+   private void grow() {
+      SessionImpl[] newRing = Arrays.copyOf(ring, ring.length * 2);
+      // Unwrap the elements that were stored before head
+      System.arraycopy(ring, 0, newRing, ring.length, head);
+      Arrays.fill(newRing, 0, head, null);
+      ring = newRing;
+   }
+
+   @Override
+   public void run() {
+      for (int count = size; count > 0; --count) {
+         SessionImpl session = ring[head];
+         ring[head] = null;
+         head = (head + 1) & (ring.length - 1);
+         --size;
+         session.run();
+      }
+      if (size > 0) {
+         executor.execute(this);
+      } else {
+         drainScheduled = false;
+      }
+   }
+}
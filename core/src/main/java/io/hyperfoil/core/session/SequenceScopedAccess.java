@@ -3,15 +3,18 @@ package io.hyperfoil.core.session;
 import java.lang.reflect.Array;
 import java.util.List;
 
+import io.hyperfoil.api.config.ScenarioBuilder;
 import io.hyperfoil.api.session.Access;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.data.Queue;
 
 class SequenceScopedAccess implements Access {
    private final String key;
+   private final int slot;
 
    SequenceScopedAccess(String key) {
       this.key = key;
+      this.slot = ScenarioBuilder.varSlot(key);
    }
 
    @Override
@@ -28,7 +31,7 @@ class SequenceScopedAccess implements Access {
    public boolean isSet(Session session) {
       Object result;
       SessionImpl impl = (SessionImpl) session;
-      Session.Var var = impl.getVar(key);
+      Session.Var var = slot >= 0 ? impl.getVar(slot, key) : impl.getVar(key);
       if (!var.isSet()) {
          return false;
       }
@@ -157,6 +160,16 @@ class SequenceScopedAccess implements Access {
       }
    }
 
+   @Override
+   public boolean equals(Object o) {
+      return this == o || (o != null && o.getClass() == getClass() && key.equals(((SequenceScopedAccess) o).key));
+   }
+
+   @Override
+   public int hashCode() {
+      return key.hashCode();
+   }
+
    @Override
    public String toString() {
       return key + "[.]";
@@ -164,7 +177,7 @@ class SequenceScopedAccess implements Access {
 
    private Object getItem(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      Session.Var var = impl.getVar(key);
+      Session.Var var = slot >= 0 ? impl.getVar(slot, key) : impl.getVar(key);
       if (!var.isSet()) {
          throw new IllegalStateException("Variable " + key + " is not set!");
       }
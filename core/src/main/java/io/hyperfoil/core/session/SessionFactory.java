@@ -7,11 +7,14 @@ import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.session.Access;
 import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.GlobalEventExecutor;
 import io.netty.util.concurrent.ImmediateEventExecutor;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.Scenario;
 import io.hyperfoil.api.config.Sequence;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.SharedData;
+import io.hyperfoil.api.session.TimerWheel;
 import io.hyperfoil.core.impl.PhaseInstanceImpl;
 
 public final class SessionFactory {
@@ -47,7 +50,10 @@ public final class SessionFactory {
          public void reserveSessions() {
          }
       });
-      session.attach(ImmediateEventExecutor.INSTANCE, null, null, null);
+      // Immediate executor cannot schedule tasks; the session is not confined to any thread anyway so we let
+      // the global executor drive the timers.
+      TimerWheel timerWheel = new TimerWheel(GlobalEventExecutor.INSTANCE);
+      session.attach(ImmediateEventExecutor.INSTANCE, timerWheel, new SharedData[SharedData.Scope.values().length], null, null);
       session.reserve(dummyScenario);
       return session;
    }
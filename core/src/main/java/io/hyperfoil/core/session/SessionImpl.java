@@ -7,10 +7,12 @@ import io.hyperfoil.api.connection.Request;
 import io.hyperfoil.api.http.HttpCache;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.api.session.SharedData;
+import io.hyperfoil.api.session.TimerWheel;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.core.http.HttpCacheImpl;
 import io.netty.util.concurrent.EventExecutor;
 import io.hyperfoil.api.collection.LimitedPool;
+import io.hyperfoil.api.config.HistogramConfig;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.Scenario;
 import io.hyperfoil.api.config.Sequence;
@@ -24,12 +26,12 @@ import io.vertx.core.logging.LoggerFactory;
 
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
 
-class SessionImpl implements Session, Callable<Void> {
+class SessionImpl implements Session, Runnable {
    private static final Logger log = LoggerFactory.getLogger(SessionImpl.class);
    private static final boolean trace = log.isTraceEnabled();
 
@@ -38,6 +40,9 @@ class SessionImpl implements Session, Callable<Void> {
    private final Map<Object, Var> vars = new HashMap<>();
    private final Map<ResourceKey, Resource> resources = new HashMap<>();
    private final List<Var> allVars = new ArrayList<>();
+   // Vars accessed through slots assigned when the scenario was built; this is a cache for the map above.
+   private Var[] slots;
+   private Object[] slotKeys;
    private final LimitedPool<SequenceInstance> sequencePool;
    private final LimitedPool<HttpRequest> requestPool;
    private final HttpRequest[] requests;
@@ -47,11 +52,19 @@ class SessionImpl implements Session, Callable<Void> {
    private int lastRunningSequence = -1;
    private SequenceInstance currentSequence;
    private Request currentRequest;
+   private long intendedStart = Long.MAX_VALUE;
+   // Set while the session is in the executor's ready queue; accessed only from the executor thread.
+   private boolean scheduled;
+   private final Runnable proceedTask = this::proceed;
 
    private HttpDestinationTable httpDestinations;
    private EventExecutor executor;
-   private SharedData sharedData;
+   private TimerWheel timerWheel;
+   // Indexed by SharedData.Scope ordinal
+   private SharedData[] sharedData;
    private SessionStatistics statistics;
+   // Statistics indexed by step's statistics slot and metric id; valid only for current phase.
+   private Statistics[][] statisticsCache = new Statistics[0][];
 
    private final int agentId;
    private final int threadId;
@@ -69,6 +82,8 @@ class SessionImpl implements Session, Callable<Void> {
       this.runningSequences = new SequenceInstance[scenario.maxSequences()];
       this.uniqueId = uniqueId;
       this.httpCache = new HttpCacheImpl(clock);
+      this.slots = new Var[scenario.varSlots()];
+      this.slotKeys = new Object[scenario.varSlots()];
    }
 
    @Override
@@ -132,9 +147,19 @@ class SessionImpl implements Session, Callable<Void> {
       return executor;
    }
 
+   @Override
+   public TimerWheel timerWheel() {
+      return timerWheel;
+   }
+
    @Override
    public SharedData sharedData() {
-      return sharedData;
+      return sharedData[SharedData.Scope.EXECUTOR.ordinal()];
+   }
+
+   @Override
+   public SharedData sharedData(SharedData.Scope scope) {
+      return sharedData[scope.ordinal()];
    }
 
    @Override
@@ -152,10 +177,20 @@ class SessionImpl implements Session, Callable<Void> {
       return this;
    }
 
+   Session declareObject(Object key, int slot) {
+      declareObject(key);
+      bindSlot(slot, key);
+      return this;
+   }
+
    public Object getObject(Object key) {
       return ((ObjectVar) requireSet(key)).get();
    }
 
+   Object getObject(int slot, Object key) {
+      return ((ObjectVar) requireSet(getVar(slot, key), key)).get();
+   }
+
    public Session setObject(Object key, Object value) {
       if (trace) {
          log.trace("#{} {} <- {}", uniqueId, key, value);
@@ -166,9 +201,31 @@ class SessionImpl implements Session, Callable<Void> {
       return this;
    }
 
+   void setObject(int slot, Object key, Object value) {
+      if (trace) {
+         log.trace("#{} {} <- {}", uniqueId, key, value);
+      }
+      ObjectVar var = getVar(slot, key);
+      var.value = value;
+      var.set = true;
+   }
+
    public Session declareInt(Object key) {
       IntVar var = new IntVar(this);
-      vars.put(key, var);
+      if (vars.put(key, var) != null) {
+         // The var could be already cached in a slot
+         for (int i = 0; i < slotKeys.length; ++i) {
+            if (key.equals(slotKeys[i])) {
+               slots[i] = var;
+            }
+         }
+      }
+      return this;
+   }
+
+   Session declareInt(Object key, int slot) {
+      declareInt(key);
+      bindSlot(slot, key);
       return this;
    }
 
@@ -177,6 +234,11 @@ class SessionImpl implements Session, Callable<Void> {
       return var.get();
    }
 
+   int getInt(int slot, Object key) {
+      IntVar var = requireSet(getVar(slot, key), key);
+      return var.get();
+   }
+
    public void setInt(Object key, int value) {
       if (trace) {
          log.trace("#{} {} <- {}", uniqueId, key, value);
@@ -184,8 +246,22 @@ class SessionImpl implements Session, Callable<Void> {
       this.<IntVar>getVar(key).set(value);
    }
 
+   void setInt(int slot, Object key, int value) {
+      if (trace) {
+         log.trace("#{} {} <- {}", uniqueId, key, value);
+      }
+      this.<IntVar>getVar(slot, key).set(value);
+   }
+
    public int addToInt(Object key, int delta) {
-      IntVar var = requireSet(key);
+      return addToInt(requireSet(key), key, delta);
+   }
+
+   int addToInt(int slot, Object key, int delta) {
+      return addToInt(requireSet(getVar(slot, key), key), key, delta);
+   }
+
+   private int addToInt(IntVar var, Object key, int delta) {
       int prev = var.get();
       if (trace) {
          log.trace("#{} {} <- {}", uniqueId, key, prev + delta);
@@ -215,18 +291,49 @@ class SessionImpl implements Session, Callable<Void> {
    }
 
    @SuppressWarnings("unchecked")
+   <V extends Var> V getVar(int slot, Object key) {
+      if (slot < slots.length) {
+         Var var = slots[slot];
+         if (var != null) {
+            assert key.equals(slotKeys[slot]);
+            return (V) var;
+         }
+      }
+      return bindSlot(slot, key);
+   }
+
+   private <V extends Var> V bindSlot(int slot, Object key) {
+      V var = getVar(key);
+      if (slot >= slots.length) {
+         slots = Arrays.copyOf(slots, slot + 1);
+         slotKeys = Arrays.copyOf(slotKeys, slot + 1);
+      } else if (slotKeys[slot] != null && !slotKeys[slot].equals(key)) {
+         throw new IllegalStateException("Variable " + key + " uses slot " + slot + " already taken by variable " +
+               slotKeys[slot] + "; was the access created for another scenario?");
+      }
+      slots[slot] = var;
+      slotKeys[slot] = key;
+      return var;
+   }
+
    private <V extends Var> V requireSet(Object key) {
-      Var var = vars.get(key);
-      if (var == null) {
-         throw new IllegalStateException("Variable " + key + " was not defined!");
-      } else if (!var.isSet()) {
+      return requireSet(getVar(key), key);
+   }
+
+   @SuppressWarnings("unchecked")
+   private <V extends Var> V requireSet(Var var, Object key) {
+      if (!var.isSet()) {
          throw new IllegalStateException("Variable " + key + " was not set yet!");
       }
       return (V) var;
    }
 
+   /**
+    * Invoked by the {@link ReadyQueue}.
+    */
    @Override
-   public Void call() {
+   public void run() {
+      scheduled = false;
       try {
          runSession();
       } catch (SessionStopException e) {
@@ -238,7 +345,6 @@ class SessionImpl implements Session, Callable<Void> {
             phase.fail(t);
          }
       }
-      return null;
    }
 
    public void runSession() {
@@ -359,9 +465,10 @@ class SessionImpl implements Session, Callable<Void> {
    }
 
    @Override
-   public void attach(EventExecutor executor, SharedData sharedData, HttpDestinationTable httpDestinations, SessionStatistics statistics) {
+   public void attach(EventExecutor executor, TimerWheel timerWheel, SharedData[] sharedData, HttpDestinationTable httpDestinations, SessionStatistics statistics) {
       assert this.executor == null;
       this.executor = executor;
+      this.timerWheel = timerWheel;
       this.sharedData = sharedData;
       this.httpDestinations = httpDestinations;
       this.statistics = statistics;
@@ -381,12 +488,49 @@ class SessionImpl implements Session, Callable<Void> {
 
    @Override
    public void proceed() {
-      executor.submit(this);
+      if (!executor.inEventLoop()) {
+         executor.execute(proceedTask);
+      } else if (!scheduled) {
+         // Several wakeups before the session runs (e.g. status, body parts and end of a response) run it only once
+         scheduled = true;
+         ReadyQueue.current().add(this, executor);
+      }
    }
 
    @Override
    public Statistics statistics(int stepId, String name) {
-      return statistics.getOrCreate(phase.definition(), stepId, name, phase.absoluteStartTime());
+      return statistics(stepId, name, phase.definition().benchmark().histogram());
+   }
+
+   @Override
+   public Statistics statistics(int stepId, String name, HistogramConfig histogramConfig) {
+      return statistics.getOrCreate(phase.definition(), stepId, name, phase.absoluteStartTime(), histogramConfig);
+   }
+
+   @Override
+   public Statistics statistics(int stepId, int slot, int metricId, String name, HistogramConfig histogramConfig) {
+      if (slot < 0) {
+         return statistics(stepId, name, histogramConfig == null ? phase.definition().benchmark().histogram() : histogramConfig);
+      }
+      Statistics[] byMetric;
+      if (slot < statisticsCache.length && (byMetric = statisticsCache[slot]) != null && metricId < byMetric.length) {
+         Statistics s = byMetric[metricId];
+         if (s != null) {
+            return s;
+         }
+      }
+      Statistics s = statistics(stepId, name, histogramConfig == null ? phase.definition().benchmark().histogram() : histogramConfig);
+      if (slot >= statisticsCache.length) {
+         statisticsCache = Arrays.copyOf(statisticsCache, slot + 1);
+      }
+      byMetric = statisticsCache[slot];
+      if (byMetric == null) {
+         byMetric = statisticsCache[slot] = new Statistics[metricId + 1];
+      } else if (metricId >= byMetric.length) {
+         byMetric = statisticsCache[slot] = Arrays.copyOf(byMetric, Math.max(metricId + 1, 2 * byMetric.length));
+      }
+      byMetric[metricId] = s;
+      return s;
    }
 
    @Override
@@ -403,6 +547,7 @@ class SessionImpl implements Session, Callable<Void> {
       }
       httpCache.clear();
       httpDestinations.onSessionReset();
+      intendedStart = Long.MAX_VALUE;
    }
 
    public void resetPhase(PhaseInstance newPhase) {
@@ -414,6 +559,7 @@ class SessionImpl implements Session, Callable<Void> {
       assert phase == null || newPhase.definition().sharedResources.equals(phase.definition().sharedResources);
       assert phase == null || phase.status() == PhaseInstance.Status.TERMINATED;
       phase = newPhase;
+      Arrays.fill(statisticsCache, null);
    }
 
    @Override
@@ -444,6 +590,14 @@ class SessionImpl implements Session, Callable<Void> {
       phase.fail(t);
    }
 
+   @Override
+   public void destroy() {
+      for (Resource resource : resources.values()) {
+         resource.destroy();
+      }
+      resources.clear();
+   }
+
    @Override
    public boolean isActive() {
       return lastRunningSequence >= 0;
@@ -484,6 +638,18 @@ class SessionImpl implements Session, Callable<Void> {
       this.currentRequest = request;
    }
 
+   @Override
+   public void intendedStart(long nanos) {
+      this.intendedStart = nanos;
+   }
+
+   @Override
+   public long takeIntendedStart() {
+      long intendedStart = this.intendedStart;
+      this.intendedStart = Long.MAX_VALUE;
+      return intendedStart;
+   }
+
    @Override
    public String toString() {
       StringBuilder sb = new StringBuilder("#").append(uniqueId)
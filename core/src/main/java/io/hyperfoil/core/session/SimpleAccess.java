@@ -2,87 +2,114 @@ package io.hyperfoil.core.session;
 
 import java.util.Objects;
 
+import io.hyperfoil.api.config.ScenarioBuilder;
 import io.hyperfoil.api.session.Access;
 import io.hyperfoil.api.session.Session;
 
-// TODO: In the future it would be great if we could just hold an index into Session and do array access
-// instead of map lookup by name. However that would require us to know all Access instances ahead;
-// we cannot get them through .declareObject()/.declareInt() as this happens on a live session and Access
-// objects are not bound to any session. Steps (and other scenario objects) could implement an interface
-// to provide all Access objects but often we hold just functions and that would prohibit use of lambdas.
+/**
+ * Accesses created while the scenario is built get a slot in session's array of variables
+ * (see {@link ScenarioBuilder#varSlot(Object)}) and avoid the map lookup by key. Other instances
+ * (e.g. created in tests outside of the scenario build) fall back to the lookup.
+ */
 class SimpleAccess implements Access {
    private final Object key;
+   private final int slot;
 
    SimpleAccess(Object key) {
       this.key = Objects.requireNonNull(key);
+      this.slot = ScenarioBuilder.varSlot(key);
    }
 
    @Override
    public void declareObject(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      impl.declareObject(key);
+      if (slot >= 0) {
+         impl.declareObject(key, slot);
+      } else {
+         impl.declareObject(key);
+      }
    }
 
    @Override
    public void declareInt(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      impl.declareInt(key);
+      if (slot >= 0) {
+         impl.declareInt(key, slot);
+      } else {
+         impl.declareInt(key);
+      }
    }
 
    @Override
    public boolean isSet(Session session) {
-      SessionImpl impl = (SessionImpl) session;
-      return impl.getVar(key).isSet();
+      return getVar(session).isSet();
    }
 
    @Override
    public Object getObject(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      return impl.getObject(key);
+      return slot >= 0 ? impl.getObject(slot, key) : impl.getObject(key);
    }
 
    @Override
    public void setObject(Session session, Object value) {
       SessionImpl impl = (SessionImpl) session;
-      impl.setObject(key, value);
+      if (slot >= 0) {
+         impl.setObject(slot, key, value);
+      } else {
+         impl.setObject(key, value);
+      }
    }
 
    @Override
    public int getInt(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      return impl.getInt(key);
+      return slot >= 0 ? impl.getInt(slot, key) : impl.getInt(key);
    }
 
    @Override
    public void setInt(Session session, int value) {
       SessionImpl impl = (SessionImpl) session;
-      impl.setInt(key, value);
+      if (slot >= 0) {
+         impl.setInt(slot, key, value);
+      } else {
+         impl.setInt(key, value);
+      }
    }
 
    @Override
    public Session.Var getVar(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      return impl.getVar(key);
+      return slot >= 0 ? impl.getVar(slot, key) : impl.getVar(key);
    }
 
    @Override
    public int addToInt(Session session, int delta) {
       SessionImpl impl = (SessionImpl) session;
-      return impl.addToInt(key, delta);
+      return slot >= 0 ? impl.addToInt(slot, key, delta) : impl.addToInt(key, delta);
    }
 
    @Override
    public Object activate(Session session) {
-      SessionImpl impl = (SessionImpl) session;
-      ObjectVar var = impl.getVar(key);
+      ObjectVar var = (ObjectVar) getVar(session);
       var.set = true;
       return var.get();
    }
 
    @Override
    public void unset(Session session) {
-      SessionImpl impl = (SessionImpl) session;
-      impl.getVar(key).unset();
+      getVar(session).unset();
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      // Accesses to the same variable are interchangeable, even if deserialized on another node
+      return this == o || (o != null && o.getClass() == getClass() && key.equals(((SimpleAccess) o).key));
+   }
+
+   @Override
+   public int hashCode() {
+      return key.hashCode();
    }
 
    @Override
@@ -44,6 +44,9 @@
  * {@link io.hyperfoil.core.session.SessionFactory#access(java.lang.Object)}.
  * counterparts.
  * <p>
+ * Accessors created while the scenario is being built get a dense index (slot) into session's array of variables,
+ * therefore reading or writing a variable is a plain array access rather than a map lookup.
+ * <p>
  * Initially all variables are in undefined state; reading such variable is considered an error. The unset/set state
  * forms the basis of data-dependencies mentioned earlier: when a step requires the variable to be defined, you should
  * declare that through {@link io.hyperfoil.core.steps.DependencyStep}.
@@ -2,6 +2,7 @@ package io.hyperfoil.core.steps;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.kohsuke.MetaInfServices;
 
@@ -24,7 +25,15 @@ public class AwaitDelayStep implements Step {
    @Override
    public boolean invoke(Session session) {
       ScheduleDelayStep.Timestamp blockedUntil = (ScheduleDelayStep.Timestamp) key.getObject(session);
-      return System.currentTimeMillis() >= blockedUntil.timestamp;
+      long delay = blockedUntil.timestamp - System.currentTimeMillis();
+      if (delay <= 0) {
+         return true;
+      } else if (!blockedUntil.isArmed() && blockedUntil.timestamp != Long.MAX_VALUE) {
+         // The wakeup is usually armed in scheduleDelay but it could have fired before the clock
+         // (millisecond precision) reached the timestamp
+         session.timerWheel().schedule(blockedUntil, delay, TimeUnit.MILLISECONDS);
+      }
+      return false;
    }
 
    /**
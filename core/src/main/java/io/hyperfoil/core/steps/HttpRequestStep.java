@@ -5,12 +5,16 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.kohsuke.MetaInfServices;
 
@@ -18,6 +22,8 @@ import io.hyperfoil.api.BenchmarkExecutionException;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.ErgonomicsBuilder;
 import io.hyperfoil.api.config.Http;
+import io.hyperfoil.api.config.HistogramBuilder;
+import io.hyperfoil.api.config.HistogramConfig;
 import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.config.MappingListBuilder;
 import io.hyperfoil.api.config.Name;
@@ -32,8 +38,10 @@ import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.core.generators.Pattern;
 import io.hyperfoil.core.generators.StringGeneratorBuilder;
 import io.hyperfoil.core.generators.StringGeneratorImplBuilder;
+import io.hyperfoil.core.http.ConstantHeadersAppender;
 import io.hyperfoil.core.http.CookieAppender;
 import io.hyperfoil.core.http.HttpUtil;
+import io.hyperfoil.core.http.PatternHeaderAppender;
 import io.hyperfoil.core.http.UserAgentAppender;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.util.ConstantBytesGenerator;
@@ -69,9 +77,15 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
    final SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders;
    private final boolean injectHostHeader;
    final SerializableBiFunction<String, String, String> metricSelector;
+   // Set when the metric does not depend on the request
+   private final String providedMetric;
+   // Metric ids for dynamic selectors are assigned on first sight; id 0 is reserved for null metric
+   private final ConcurrentHashMap<String, Integer> metricIds = new ConcurrentHashMap<>();
+   private final AtomicInteger metricIdCounter = new AtomicInteger();
    final long timeout;
    final HttpResponseHandlersImpl handler;
    final SLA[] sla;
+   final HistogramConfig histogram;
 
    public HttpRequestStep(int stepId, HttpMethod method,
                           SerializableFunction<Session, String> authority,
@@ -80,7 +94,7 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
                           SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                           boolean injectHostHeader,
                           SerializableBiFunction<String, String, String> metricSelector,
-                          long timeout, HttpResponseHandlersImpl handler, SLA[] sla) {
+                          long timeout, HttpResponseHandlersImpl handler, SLA[] sla, HistogramConfig histogram) {
       super(stepId);
       this.method = method;
       this.authority = authority;
@@ -89,9 +103,22 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
       this.headerAppenders = headerAppenders;
       this.injectHostHeader = injectHostHeader;
       this.metricSelector = metricSelector;
+      this.providedMetric = metricSelector instanceof ProvidedMetricSelector ? ((ProvidedMetricSelector) metricSelector).name() : null;
       this.timeout = timeout;
       this.handler = handler;
       this.sla = sla;
+      this.histogram = histogram;
+   }
+
+   private int metricId(String metric) {
+      if (metric == null) {
+         return 0;
+      }
+      Integer id = metricIds.get(metric);
+      if (id == null) {
+         id = metricIds.computeIfAbsent(metric, m -> metricIdCounter.incrementAndGet());
+      }
+      return id;
    }
 
    @Override
@@ -118,8 +145,16 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
          }
          path = path.substring(prefixLength(isHttp) + authority.length());
       }
-      String metric = metricSelector.apply(authority, path);
-      Statistics statistics = session.statistics(id(), metric);
+      String metric;
+      int metricId;
+      if (providedMetric != null) {
+         metric = providedMetric;
+         metricId = 0;
+      } else {
+         metric = metricSelector.apply(authority, path);
+         metricId = metricId(metric);
+      }
+      Statistics statistics = session.statistics(id(), statisticsSlot(), metricId, metric, histogram);
       SequenceInstance sequence = session.currentSequence();
       request.method = method;
       request.path = path;
@@ -143,12 +178,10 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
          return false;
       }
       long blockedTime = sequence.getBlockedTime();
-      if (blockedTime > 0) {
-         request.statistics().incrementBlockedTime(request.startTimestampMillis(), blockedTime);
-      }
+      // The request should have started when it was blocked or when the user/delay was scheduled
+      request.setIntendedStartNanos(Math.min(session.takeIntendedStart(), request.startTimestampNanos() - blockedTime));
       // Set up timeout only after successful request
       if (timeout > 0) {
-         // TODO alloc!
          request.setTimeout(timeout, TimeUnit.MILLISECONDS);
       } else {
          Benchmark benchmark = session.phase().benchmark();
@@ -162,7 +195,7 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
       if (trace) {
          log.trace("#{} sent to {} request on {}", session.uniqueId(), path, request.connection());
       }
-      request.statistics().incrementRequests(request.startTimestampMillis());
+      request.statistics().incrementRequests(request.startTimestampMillis(), blockedTime);
       return true;
    }
 
@@ -195,12 +228,14 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
       private StringGeneratorBuilder path;
       private BodyGeneratorBuilder body;
       private List<SerializableBiConsumer<Session, HttpRequestWriter>> headerAppenders = new ArrayList<>();
+      private List<Map.Entry<String, String>> constantHeaders = new ArrayList<>();
       private boolean injectHostHeader = true;
       private SerializableBiFunction<String, String, String> metricSelector;
       private long timeout = Long.MIN_VALUE;
       private HttpResponseHandlersImpl.Builder handler = new HttpResponseHandlersImpl.Builder(this);
       private boolean sync = true;
       private SLABuilder.ListBuilder<Builder> sla = null;
+      private HistogramBuilder<Builder> histogram = null;
 
       @Override
       public Builder setLocator(Locator locator) {
@@ -484,6 +519,18 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
          return this;
       }
 
+      /**
+       * Header with value that does not change between requests. These are pre-encoded when the step is built.
+       *
+       * @param header Header name.
+       * @param value Header value.
+       * @return Self.
+       */
+      public Builder constantHeader(CharSequence header, CharSequence value) {
+         constantHeaders.add(new AbstractMap.SimpleImmutableEntry<>(header.toString(), value.toString()));
+         return this;
+      }
+
       /**
        * HTTP headers sent in the request.
        *
@@ -522,7 +569,7 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
        * @return Self.
        */
       public Builder metric(String name) {
-         return metric((authority, path) -> name);
+         return metric(new ProvidedMetricSelector(name));
       }
 
       public Builder metric(SerializableBiFunction<String, String, String> selector) {
@@ -577,6 +624,19 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
          return sla;
       }
 
+      /**
+       * Range and precision of the response time histogram for this request. Properties that are not set here
+       * are inherited from the benchmark-wide setting.
+       *
+       * @return Builder.
+       */
+      public HistogramBuilder<Builder> histogram() {
+         if (histogram == null) {
+            histogram = new HistogramBuilder<>(this);
+         }
+         return histogram;
+      }
+
       @Override
       public int id() {
          assert stepId >= 0;
@@ -627,9 +687,14 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
                throw new BenchmarkDefinitionException(String.format("%s to %s%s is invalid - no HTTP configuration defined.", method, guessedAuthority, guessedPath));
             }
          }
+         List<SerializableBiConsumer<Session, HttpRequestWriter>> appenders = new ArrayList<>();
+         if (!constantHeaders.isEmpty()) {
+            appenders.add(new ConstantHeadersAppender(constantHeaders));
+         }
+         appenders.addAll(this.headerAppenders);
          @SuppressWarnings("unchecked")
          SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders =
-               this.headerAppenders.isEmpty() ? null : this.headerAppenders.toArray(new SerializableBiConsumer[0]);
+               appenders.isEmpty() ? null : appenders.toArray(new SerializableBiConsumer[0]);
 
          SLA[] sla = this.sla != null ? this.sla.build() : SLA.DEFAULT;
          SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator = this.body != null ? this.body.build() : null;
@@ -637,9 +702,11 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
          SerializableBiFunction<String, String, String> metricSelector = this.metricSelector;
          if (metricSelector == null) {
             String sequenceName = locator.sequence().name();
-            metricSelector = (a, p) -> sequenceName;
+            metricSelector = new ProvidedMetricSelector(sequenceName);
          }
-         HttpRequestStep step = new HttpRequestStep(stepId, method, authority, pathGenerator, bodyGenerator, headerAppenders, injectHostHeader, metricSelector, timeout, handler.build(), sla);
+         HistogramConfig benchmarkHistogram = locator.benchmark().histogram().build();
+         HistogramConfig histogram = this.histogram != null ? this.histogram.build(benchmarkHistogram) : benchmarkHistogram;
+         HttpRequestStep step = new HttpRequestStep(stepId, method, authority, pathGenerator, bodyGenerator, headerAppenders, injectHostHeader, metricSelector, timeout, handler.build(), sla, histogram);
          return Collections.singletonList(step);
       }
 
@@ -655,9 +722,13 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
                .metric(metricSelector)
                .sync(sync);
          headerAppenders.forEach(newBuilder::headerAppender);
+         constantHeaders.forEach(h -> newBuilder.constantHeader(h.getKey(), h.getValue()));
          if (sla != null) {
             newBuilder.sla().readFrom(sla);
          }
+         if (histogram != null) {
+            newBuilder.histogram().readFrom(histogram);
+         }
          if (timeout > 0) {
             newBuilder.timeout(timeout, TimeUnit.MILLISECONDS);
          }
@@ -702,7 +773,7 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
 
       public HeadersBuilder header(CharSequence header, CharSequence value) {
          warnIfUsingHostHeader(header);
-         parent.headerAppenders.add((session, writer) -> writer.putHeader(header, value));
+         parent.constantHeader(header, value);
          return this;
       }
 
@@ -712,7 +783,7 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
       @Override
       public void accept(String header, String value) {
          warnIfUsingHostHeader(header);
-         parent.headerAppenders.add((session, writer) -> writer.putHeader(header, value));
+         parent.constantHeader(header, value);
       }
 
       public Builder endHeaders() {
@@ -777,12 +848,8 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
        * @return Builder.
        */
       public PartialHeadersBuilder pattern(String patternString) {
-         Pattern pattern = new Pattern(patternString, false);
-         String myHeader = header;
-         parent.parent.headerAppenders.add((session, writer) -> {
-            String value = pattern.apply(session);
-            writer.putHeader(myHeader, value);
-         });
+         ensureOnce();
+         parent.parent.headerAppenders.add(new PatternHeaderAppender(header, new Pattern(patternString, false)));
          return this;
       }
 
@@ -872,7 +939,7 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
        */
       public FormBuilder form() {
          FormBuilder builder = new FormBuilder();
-         parent.headerAppender((session, writer) -> writer.putHeader(HttpHeaderNames.CONTENT_TYPE, APPLICATION_X_WWW_FORM_URLENCODED));
+         parent.constantHeader(HttpHeaderNames.CONTENT_TYPE, APPLICATION_X_WWW_FORM_URLENCODED);
          parent.body(builder);
          return builder;
       }
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 import io.hyperfoil.api.config.BuilderBase;
 import io.hyperfoil.api.config.ErgonomicsBuilder;
@@ -15,6 +16,7 @@ import io.hyperfoil.api.processor.HttpRequestProcessorBuilder;
 import io.hyperfoil.api.processor.Processor;
 import io.hyperfoil.api.session.Action;
 import io.hyperfoil.core.builders.ServiceLoadedBuilderProvider;
+import io.hyperfoil.core.handlers.MultiJsonHandler;
 import io.hyperfoil.core.handlers.RangeStatusValidator;
 import io.hyperfoil.core.http.CookieRecorder;
 import io.netty.buffer.ByteBuf;
@@ -38,6 +40,8 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
    final Processor[] bodyHandlers;
    final Action[] completionHandlers;
    final RawBytesHandler[] rawBytesHandlers;
+   // Cookies are recorded in every benchmark by default; the connection passes Set-Cookie anyway
+   private final boolean requiresAllHeaders;
 
    private HttpResponseHandlersImpl(StatusHandler[] statusHandlers,
                                     HeaderHandler[] headerHandlers,
@@ -49,6 +53,7 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
       this.bodyHandlers = bodyHandlers;
       this.completionHandlers = completionHandlers;
       this.rawBytesHandlers = rawBytesHandlers;
+      this.requiresAllHeaders = headerHandlers != null && Stream.of(headerHandlers).anyMatch(h -> !(h instanceof CookieRecorder));
    }
 
    @Override
@@ -86,7 +91,7 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
             break;
       }
 
-      request.statistics().addStatus(request.startTimestampMillis(), status);
+      request.statusCode = status;
       if (statusHandlers != null) {
          for (StatusHandler handler : statusHandlers) {
             handler.handleStatus(request, status);
@@ -159,6 +164,9 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
             }
          }
       } finally {
+         if (request.statusCode > 0) {
+            request.statistics().addStatus(request.startTimestampMillis(), request.statusCode);
+         }
          request.statistics().incrementResets(request.startTimestampMillis());
          request.setCompleted();
       }
@@ -204,11 +212,9 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
          log.trace("#{} Completed request on {}", session.uniqueId(), request.connection());
       }
 
+      long endTime = executed ? System.nanoTime() : 0;
       try {
          if (executed) {
-            long endTime = System.nanoTime();
-            request.statistics().recordResponse(request.startTimestampMillis(), request.sendTimestampNanos() - request.startTimestampNanos(), endTime - request.startTimestampNanos());
-
             if (headerHandlers != null) {
                for (HeaderHandler handler : headerHandlers) {
                   handler.afterHeaders(request);
@@ -231,8 +237,11 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
             }
          }
       } finally {
-         if (executed && !request.isValid()) {
-            request.statistics().addInvalid(request.startTimestampMillis());
+         if (executed) {
+            // Status, response time and validity are recorded together
+            request.statistics().recordResponse(request.startTimestampMillis(), request.statusCode,
+                  request.sendTimestampNanos() - request.startTimestampNanos(), endTime - request.startTimestampNanos(),
+                  endTime - request.intendedStartNanos(), !request.isValid());
          }
          request.setCompleted();
       }
@@ -258,6 +267,16 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
       }
    }
 
+   @Override
+   public boolean requiresHandlingHeaders(HttpRequest request) {
+      return requiresAllHeaders;
+   }
+
+   @Override
+   public boolean requiresHandlingBody(HttpRequest request) {
+      return bodyHandlers != null;
+   }
+
    @Override
    public void reserve(Session session) {
       ResourceUtilizer.reserve(session, (Object[]) statusHandlers);
@@ -410,7 +429,8 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
          return new HttpResponseHandlersImpl(
                toArray(statusHandlers, StatusHandler.Builder::build, StatusHandler[]::new),
                toArray(headerHandlers, HeaderHandler.Builder::build, HeaderHandler[]::new),
-               toArray(bodyHandlers, b -> b.build(true), Processor[]::new),
+               // JSON queries on the same body are evaluated in a single pass
+               MultiJsonHandler.merge(toArray(bodyHandlers, b -> b.build(true), Processor[]::new)),
                toArray(completionHandlers, Action.Builder::build, Action[]::new),
                toArray(rawBytesHandlers, RawBytesHandler.Builder::build, RawBytesHandler[]::new));
       }
@@ -0,0 +1,24 @@
+package io.hyperfoil.core.steps;
+
+import io.hyperfoil.function.SerializableBiFunction;
+
+/**
+ * Selects the same metric for all requests. The name is known when the step is built so the statistics
+ * don't have to be resolved for each request.
+ */
+public class ProvidedMetricSelector implements SerializableBiFunction<String, String, String> {
+   private final String name;
+
+   public ProvidedMetricSelector(String name) {
+      this.name = name;
+   }
+
+   public String name() {
+      return name;
+   }
+
+   @Override
+   public String apply(String authority, String path) {
+      return name;
+   }
+}
@@ -23,17 +23,20 @@ public class PullSharedMapStep implements Step, ResourceUtilizer {
 
    private final String key;
    private final Access match;
+   private final SharedData.Scope scope;
 
-   public PullSharedMapStep(String key, String match) {
+   public PullSharedMapStep(String key, String match, SharedData.Scope scope) {
       this.key = key;
       this.match = SessionFactory.access(match);
+      this.scope = scope;
    }
 
    @Override
    public boolean invoke(Session session) {
+      SharedData sharedData = session.sharedData(scope);
       SharedData.SharedMap sharedMap;
       if (match == null) {
-         sharedMap = session.sharedData().pullMap(key);
+         sharedMap = sharedData.pullMap(key);
          if (sharedMap == null) {
             if (trace) {
                log.trace("Did not find any shared map for key {}", key);
@@ -42,7 +45,7 @@ public class PullSharedMapStep implements Step, ResourceUtilizer {
          }
       } else {
          Object value = match.getObject(session);
-         sharedMap = session.sharedData().pullMap(key, match, value);
+         sharedMap = sharedData.pullMap(key, match, value);
          if (sharedMap == null) {
             if (trace) {
                log.trace("Did not find any shared map for key {} matching {}={}", key, match, value);
@@ -53,17 +56,18 @@ public class PullSharedMapStep implements Step, ResourceUtilizer {
       for (int i = 0; i < sharedMap.size(); ++i) {
          sharedMap.key(i).setObject(session, sharedMap.value(i));
       }
-      session.sharedData().releaseMap(key, sharedMap);
+      sharedData.releaseMap(key, sharedMap);
       return true;
    }
 
    @Override
    public void reserve(Session session) {
-      session.sharedData().reserveMap(key, match, 0);
+      session.sharedData(scope).reserveMap(key, match, 0);
    }
 
    /**
-    * Move values from a map shared across all sessions using the same executor into session variables.
+    * Move values from a map shared across all sessions using the same executor (or other {@link SharedData.Scope scope})
+    * into session variables.
     * <p>
     * The executor can host multiple shared maps, each holding an entry with several variables.
     * This step moves variables from either a random entry (if no <code>match</code> is set) or with an entry
@@ -75,10 +79,11 @@ public class PullSharedMapStep implements Step, ResourceUtilizer {
    public static class Builder extends BaseStepBuilder<Builder> {
       private String key;
       private String match;
+      private SharedData.Scope scope = SharedData.Scope.EXECUTOR;
 
       @Override
       public List<Step> build() {
-         return Collections.singletonList(new PullSharedMapStep(key, match));
+         return Collections.singletonList(new PullSharedMapStep(key, match, scope));
       }
 
       /**
@@ -102,5 +107,17 @@ public class PullSharedMapStep implements Step, ResourceUtilizer {
          this.match = match;
          return this;
       }
+
+      /**
+       * Scope the map has been pushed to: <code>EXECUTOR</code> (default), <code>AGENT</code> or <code>CLUSTER</code>.
+       * In <code>CLUSTER</code> scope only maps delivered to this agent can be pulled.
+       *
+       * @param scope Scope.
+       * @return Self.
+       */
+      public Builder scope(SharedData.Scope scope) {
+         this.scope = scope;
+         return this;
+      }
    }
 }
@@ -23,15 +23,17 @@ import io.hyperfoil.core.session.SessionFactory;
 public class PushSharedMapStep implements Step, ResourceUtilizer {
    private final String key;
    private final Access[] vars;
+   private final SharedData.Scope scope;
 
-   public PushSharedMapStep(String key, String[] vars) {
+   public PushSharedMapStep(String key, String[] vars, SharedData.Scope scope) {
       this.key = key;
       this.vars = Stream.of(vars).map(SessionFactory::access).toArray(Access[]::new);
+      this.scope = scope;
    }
 
    @Override
    public boolean invoke(Session session) {
-      SharedData sharedData = session.sharedData();
+      SharedData sharedData = session.sharedData(scope);
       SharedData.SharedMap sharedMap = sharedData.newMap(key);
       for (int i = 0; i < vars.length; ++i) {
          sharedMap.put(vars[i], vars[i].getObject(session));
@@ -42,11 +44,12 @@ public class PushSharedMapStep implements Step, ResourceUtilizer {
 
    @Override
    public void reserve(Session session) {
-      session.sharedData().reserveMap(key, null, vars.length);
+      session.sharedData(scope).reserveMap(key, null, vars.length);
    }
 
    /**
-    * Store values from session variables into a map shared across all sessions using the same executor into session variables.
+    * Store values from session variables into a map shared across all sessions using the same executor
+    * (or other {@link SharedData.Scope scope}) into session variables.
     * <p>
     * The executor can host multiple shared maps, each holding an entry with several variables.
     * This step creates one entry in the map, copying values from session variables into the entry.
@@ -56,13 +59,14 @@ public class PushSharedMapStep implements Step, ResourceUtilizer {
    public static class Builder extends BaseStepBuilder<Builder> {
       private String key;
       private Collection<String> vars = new ArrayList<>();
+      private SharedData.Scope scope = SharedData.Scope.EXECUTOR;
 
       @Override
       public List<Step> build() {
          if (vars.isEmpty()) {
             throw new BenchmarkDefinitionException("No variables pushed for key " + key);
          }
-         return Collections.singletonList(new PushSharedMapStep(key, vars.toArray(new String[0])));
+         return Collections.singletonList(new PushSharedMapStep(key, vars.toArray(new String[0]), scope));
       }
 
       /**
@@ -76,6 +80,18 @@ public class PushSharedMapStep implements Step, ResourceUtilizer {
          return this;
       }
 
+      /**
+       * Sessions that can pull the map: <code>EXECUTOR</code> (default), <code>AGENT</code> or <code>CLUSTER</code>.
+       * Pull steps for the same key must use the same scope.
+       *
+       * @param scope Scope.
+       * @return Self.
+       */
+      public Builder scope(SharedData.Scope scope) {
+         this.scope = scope;
+         return this;
+      }
+
       /**
        * List of variable names that should be stored in the entry.
        *
@@ -4,7 +4,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
@@ -18,6 +17,7 @@ import io.hyperfoil.api.config.StepBuilder;
 import io.hyperfoil.api.session.Access;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.TimerWheel;
 import io.hyperfoil.api.config.BaseSequenceBuilder;
 import io.hyperfoil.core.builders.BaseStepBuilder;
 import io.hyperfoil.core.session.SessionFactory;
@@ -60,9 +60,10 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
       long duration = this.duration.applyAsLong(session);
       blockedUntil.timestamp = baseTimestamp + duration;
       long delay = blockedUntil.timestamp - now;
+      session.intendedStart(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay));
       if (delay > 0) {
          log.trace("Scheduling #{} to run in {}", session.uniqueId(), delay);
-         session.executor().schedule((Callable<?>) session, delay, TimeUnit.MILLISECONDS);
+         session.timerWheel().schedule(blockedUntil, delay, TimeUnit.MILLISECONDS);
       } else {
          log.trace("Continuing, duration {} resulted in delay {}", duration, delay);
       }
@@ -72,7 +73,7 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
    @Override
    public void reserve(Session session) {
       key.declareObject(session);
-      key.setObject(session, new Timestamp());
+      key.setObject(session, new Timestamp(session));
    }
 
    public enum Type {
@@ -96,8 +97,18 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
       NEGATIVE_EXPONENTIAL
    }
 
-   static class Timestamp {
+   static class Timestamp extends TimerWheel.Timeout {
+      private final Session session;
       long timestamp = Long.MAX_VALUE;
+
+      Timestamp(Session session) {
+         this.session = session;
+      }
+
+      @Override
+      protected void expire() {
+         session.proceed();
+      }
    }
 
    /**
@@ -2,12 +2,14 @@ package io.hyperfoil.core.steps;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import io.hyperfoil.api.config.ScenarioBuilder;
 import io.hyperfoil.api.config.Step;
 
 public abstract class StatisticsStep implements Step {
    private static final AtomicInteger ID_COUNTER = new AtomicInteger();
 
    private final int id;
+   private final int statisticsSlot = ScenarioBuilder.statisticsSlot();
 
    public static int nextId() {
       return ID_COUNTER.getAndIncrement();
@@ -23,4 +25,11 @@ public abstract class StatisticsStep implements Step {
    public int id() {
       return id;
    }
+
+   /**
+    * @return Index into session's statistics cache, or -1 if the step was not created during scenario build.
+    */
+   public int statisticsSlot() {
+      return statisticsSlot;
+   }
 }
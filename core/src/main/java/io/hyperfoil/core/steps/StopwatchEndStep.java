@@ -19,7 +19,7 @@ public class StopwatchEndStep extends StatisticsStep {
    public boolean invoke(Session session) {
       long now = System.nanoTime();
       StopwatchBeginStep.StartTime startTime = (StopwatchBeginStep.StartTime) key.getObject(session);
-      Statistics statistics = session.statistics(id(), metrics);
+      Statistics statistics = session.statistics(id(), statisticsSlot(), 0, metrics, null);
       statistics.incrementRequests(startTime.timestampMillis);
       statistics.recordResponse(startTime.timestampMillis, 0, now - startTime.timestampNanos);
       // TODO: record any request/response counts?
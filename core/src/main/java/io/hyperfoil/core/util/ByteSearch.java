@@ -0,0 +1,86 @@
+package io.hyperfoil.core.util;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Finds delimiters in buffers eight bytes at a time.
+ * <p>
+ * Each {@link ByteBuf#getLong(int)} loads eight bytes (in big-endian order, therefore the byte with lowest index
+ * is the most significant one) with a single bounds check, and the bytes equal to the delimiter are flagged using
+ * SWAR (SIMD within a register) arithmetic. The flagging is exact: unlike the well-known
+ * <code>(x - 0x01..) &amp; ~x &amp; 0x80..</code> test, borrows never propagate between bytes, so the most
+ * significant flag always marks the first match. Only the unaligned tail is scanned one byte at a time.
+ */
+public final class ByteSearch {
+   private static final long LOW_7_BITS = 0x7F7F7F7F7F7F7F7FL;
+   private static final long REPEAT_BYTE = 0x0101010101010101L;
+
+   private ByteSearch() {}
+
+   /**
+    * @param buf   Searched buffer.
+    * @param start First index to check (inclusive).
+    * @param end   Last index to check (exclusive).
+    * @param value Searched byte.
+    * @return Index of the first occurrence of <code>value</code> or -1 if it does not occur within the range.
+    */
+   public static int indexOf(ByteBuf buf, int start, int end, byte value) {
+      long pattern = pattern(value);
+      int i = start;
+      for (; i <= end - Long.BYTES; i += Long.BYTES) {
+         long matches = matches(buf.getLong(i), pattern);
+         if (matches != 0) {
+            return i + (Long.numberOfLeadingZeros(matches) >>> 3);
+         }
+      }
+      for (; i < end; ++i) {
+         if (buf.getByte(i) == value) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * @param buf    Searched buffer.
+    * @param start  First index to check (inclusive).
+    * @param end    Last index to check (exclusive).
+    * @param value1 One of the searched bytes.
+    * @param value2 The other searched byte.
+    * @return Index of the first occurrence of either <code>value1</code> or <code>value2</code>, or -1 if none of them
+    * occurs within the range.
+    */
+   public static int indexOfAny(ByteBuf buf, int start, int end, byte value1, byte value2) {
+      long pattern1 = pattern(value1);
+      long pattern2 = pattern(value2);
+      int i = start;
+      for (; i <= end - Long.BYTES; i += Long.BYTES) {
+         long word = buf.getLong(i);
+         long matches = matches(word, pattern1) | matches(word, pattern2);
+         if (matches != 0) {
+            return i + (Long.numberOfLeadingZeros(matches) >>> 3);
+         }
+      }
+      for (; i < end; ++i) {
+         byte b = buf.getByte(i);
+         if (b == value1 || b == value2) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   private static long pattern(byte value) {
+      return (value & 0xFFL) * REPEAT_BYTE;
+   }
+
+   /**
+    * @return Word with the highest bit set in each byte of <code>word</code> that is equal to the pattern byte.
+    */
+   private static long matches(long word, long pattern) {
+      long input = word ^ pattern;
+      // the highest bit of a byte is set in tmp iff any of its lower 7 bits is set in input
+      long tmp = (input & LOW_7_BITS) + LOW_7_BITS;
+      return ~(tmp | input | LOW_7_BITS);
+   }
+}
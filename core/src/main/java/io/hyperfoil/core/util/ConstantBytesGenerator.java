@@ -26,6 +26,7 @@ public class ConstantBytesGenerator implements SerializableBiFunction<Session, C
 
    @Override
    public ByteBuf apply(Session session, Connection connection) {
-      return buf;
+      // The connection releases the buffer after writing it
+      return buf.retainedDuplicate();
    }
 }
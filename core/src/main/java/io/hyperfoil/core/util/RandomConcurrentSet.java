@@ -6,6 +6,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Concurrent data structure that returns elements randomly. This is not called 'pool' because we don't
@@ -13,10 +14,15 @@ import java.util.function.Consumer;
  * The structure is mostly non-blocking, with an exception when it needs to be resized (the blocking part
  * is quite short there as well, though).
  * Regular operations (not resizing) should not cause any allocations, too.
+ * <p>
+ * Elements that have been invalidated elsewhere (e.g. consumed through another structure) may be left in the set;
+ * when a {@link #RandomConcurrentSet(int, int, int, Predicate) stale predicate} is provided these are dropped
+ * before the set would grow.
  */
 public class RandomConcurrentSet<T> {
    private final int maxPutLookup;
    private final int fetchAttempts;
+   private final Predicate<T> stale;
    private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
 
    private volatile AtomicReferenceArray<T> fetchArray;
@@ -24,8 +30,19 @@ public class RandomConcurrentSet<T> {
    private volatile int reserved = 0;
 
    public RandomConcurrentSet(int initialCapacity, int maxPutLookup, int fetchAttempts) {
+      this(initialCapacity, maxPutLookup, fetchAttempts, null);
+   }
+
+   /**
+    * @param initialCapacity Initial size of the backing array.
+    * @param maxPutLookup    Number of random slots tried before the set is purged or resized.
+    * @param fetchAttempts   Number of random slots tried before {@link #fetch()} gives up.
+    * @param stale           Elements matching this predicate are removed when the set is full, or <code>null</code>.
+    */
+   public RandomConcurrentSet(int initialCapacity, int maxPutLookup, int fetchAttempts, Predicate<T> stale) {
       this.maxPutLookup = maxPutLookup;
       this.fetchAttempts = fetchAttempts;
+      this.stale = stale;
 
       fetchArray = putArray = new AtomicReferenceArray<>(initialCapacity);
    }
@@ -69,6 +86,37 @@ public class RandomConcurrentSet<T> {
       }
    }
 
+   /**
+    * Like {@link #fetch()} but when the random attempts fail this scans the whole set, so that an element is
+    * returned even if the set is sparse. Returns <code>null</code> if no element was found during the scan.
+    *
+    * @return Random object from the set or null.
+    */
+   public T fetchOrScan() {
+      T element = fetch();
+      if (element != null) {
+         return element;
+      }
+      AtomicReferenceArray<T> fetchArray = this.fetchArray;
+      if ((element = scan(fetchArray)) == null && fetchArray != putArray) {
+         element = scan(putArray);
+      }
+      return element;
+   }
+
+   private T scan(AtomicReferenceArray<T> array) {
+      int length = array.length();
+      int start = ThreadLocalRandom.current().nextInt(length);
+      for (int i = 0; i < length; ++i) {
+         int idx = (start + i) % length;
+         T element = array.get(idx);
+         if (element != null && array.compareAndSet(idx, element, null)) {
+            return element;
+         }
+      }
+      return null;
+   }
+
    /**
     * Insert a new object or an object previously returned by {@link #fetch()} to the set.
     *
@@ -89,6 +137,10 @@ public class RandomConcurrentSet<T> {
                   return;
                }
             }
+            if (stale != null && purge(putArray) > putArray.length() / 4) {
+               // There's enough space now, retry without resizing
+               continue;
+            }
             readLock.unlock();
 
             Lock writeLock = resizeLock.writeLock();
@@ -141,6 +193,27 @@ public class RandomConcurrentSet<T> {
       }
    }
 
+   private int purge(AtomicReferenceArray<T> array) {
+      int purged = 0;
+      for (int i = 0; i < array.length(); ++i) {
+         T element = array.get(i);
+         if (element != null && stale.test(element) && array.compareAndSet(i, element, null)) {
+            ++purged;
+         }
+      }
+      return purged;
+   }
+
+   /**
+    * Visits all elements in the set. This must not run concurrently with {@link #put(Object)};
+    * elements fetched concurrently may or may not be visited.
+    *
+    * @param consumer Element handler.
+    */
+   public void forEach(Consumer<T> consumer) {
+      readAll(consumer);
+   }
+
    // debug only, not thread-safe!
    void readAll(Consumer<T> consumer) {
       for (int i = 0; i < putArray.length(); ++i) {
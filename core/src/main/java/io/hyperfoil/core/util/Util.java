@@ -73,13 +73,17 @@ public class Util {
    }
 
    public static String toString(InputStream inputStream) throws IOException {
+      return new String(toByteArray(inputStream), StandardCharsets.UTF_8);
+   }
+
+   public static byte[] toByteArray(InputStream inputStream) throws IOException {
       ByteArrayOutputStream result = new ByteArrayOutputStream();
-      byte[] buffer = new byte[1024];
+      byte[] buffer = new byte[8192];
       int length;
       while ((length = inputStream.read(buffer)) != -1) {
          result.write(buffer, 0, length);
       }
-      return result.toString(StandardCharsets.UTF_8.name());
+      return result.toByteArray();
    }
 
    public static ByteBuf string2byteBuf(String str, ByteBuf buffer) {
@@ -188,25 +192,91 @@ public class Util {
       private static final int[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
    }
 
-   public static void urlEncode(String string, ByteBuf buf) {
-      // TODO: more efficient implementation without allocation
-      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
-      for (byte b : bytes) {
-         if (b >= 0 && URLEncoding.DONT_NEED_ENCODING.get(b)) {
-            buf.ensureWritable(1);
-            buf.writeByte(b);
-         } else if (b == ' ') {
-            buf.ensureWritable(1);
+   /**
+    * Encodes the string the same way as {@link java.net.URLEncoder} with UTF-8 charset but without intermediate
+    * allocations.
+    *
+    * @param string Input string.
+    * @param buf Target buffer.
+    */
+   public static void urlEncode(CharSequence string, ByteBuf buf) {
+      int length = string.length();
+      buf.ensureWritable(length);
+      for (int i = 0; i < length; ++i) {
+         char c = string.charAt(i);
+         if (c < 0x80 && URLEncoding.DONT_NEED_ENCODING.get(c)) {
+            buf.writeByte(c);
+         } else if (c == ' ') {
             buf.writeByte('+');
+         } else if (c < 0x80) {
+            percentEncode(c, buf);
+         } else if (c < 0x800) {
+            percentEncode(0xC0 | (c >> 6), buf);
+            percentEncode(0x80 | (c & 0x3F), buf);
+         } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, string.charAt(++i));
+            percentEncode(0xF0 | (codePoint >> 18), buf);
+            percentEncode(0x80 | ((codePoint >> 12) & 0x3F), buf);
+            percentEncode(0x80 | ((codePoint >> 6) & 0x3F), buf);
+            percentEncode(0x80 | (codePoint & 0x3F), buf);
+         } else if (Character.isSurrogate(c)) {
+            // Malformed input is replaced with '?' as the JDK encoder does
+            percentEncode('?', buf);
          } else {
-            buf.ensureWritable(3);
-            buf.writeByte('%');
-            buf.writeByte(URLEncoding.HEX[(b >> 4) & 0xF]);
-            buf.writeByte(URLEncoding.HEX[b & 0xF]);
+            percentEncode(0xE0 | (c >> 12), buf);
+            percentEncode(0x80 | ((c >> 6) & 0x3F), buf);
+            percentEncode(0x80 | (c & 0x3F), buf);
          }
       }
    }
 
+   private static void percentEncode(int b, ByteBuf buf) {
+      buf.writeByte('%');
+      buf.writeByte(URLEncoding.HEX[(b >> 4) & 0xF]);
+      buf.writeByte(URLEncoding.HEX[b & 0xF]);
+   }
+
+   /**
+    * Same as {@link #urlEncode(CharSequence, ByteBuf)} but appends the result to a {@link StringBuilder}.
+    *
+    * @param string Input string.
+    * @param sb Target builder.
+    */
+   public static void urlEncode(CharSequence string, StringBuilder sb) {
+      int length = string.length();
+      for (int i = 0; i < length; ++i) {
+         char c = string.charAt(i);
+         if (c < 0x80 && URLEncoding.DONT_NEED_ENCODING.get(c)) {
+            sb.append(c);
+         } else if (c == ' ') {
+            sb.append('+');
+         } else if (c < 0x80) {
+            percentEncode(c, sb);
+         } else if (c < 0x800) {
+            percentEncode(0xC0 | (c >> 6), sb);
+            percentEncode(0x80 | (c & 0x3F), sb);
+         } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, string.charAt(++i));
+            percentEncode(0xF0 | (codePoint >> 18), sb);
+            percentEncode(0x80 | ((codePoint >> 12) & 0x3F), sb);
+            percentEncode(0x80 | ((codePoint >> 6) & 0x3F), sb);
+            percentEncode(0x80 | (codePoint & 0x3F), sb);
+         } else if (Character.isSurrogate(c)) {
+            percentEncode('?', sb);
+         } else {
+            percentEncode(0xE0 | (c >> 12), sb);
+            percentEncode(0x80 | ((c >> 6) & 0x3F), sb);
+            percentEncode(0x80 | (c & 0x3F), sb);
+         }
+      }
+   }
+
+   private static void percentEncode(int b, StringBuilder sb) {
+      sb.append('%');
+      sb.append((char) URLEncoding.HEX[(b >> 4) & 0xF]);
+      sb.append((char) URLEncoding.HEX[b & 0xF]);
+   }
+
    public static String prettyPrintData(double value) {
       double scaled;
       String suffix;
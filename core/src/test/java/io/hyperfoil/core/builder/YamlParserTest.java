@@ -19,6 +19,7 @@
 package io.hyperfoil.core.builder;
 
 import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.HistogramConfig;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.Sequence;
 import io.hyperfoil.api.config.Step;
@@ -43,6 +44,7 @@ import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -146,6 +148,16 @@ public class YamlParserTest {
       assertCondition((RangeStatusValidator) statusHandlers2[0], v -> v.max == 259);
       assertCondition((RangeStatusValidator) statusHandlers2[1], v -> v.min == 200);
       assertCondition((RangeStatusValidator) statusHandlers2[1], v -> v.max == 210);
+
+      assertThat(benchmark.histogram().significantDigits()).isEqualTo(3);
+      assertThat(HttpRequestStepUtil.histogram(request1).significantDigits()).isEqualTo(3);
+      HistogramConfig histogram2 = HttpRequestStepUtil.histogram(request2);
+      assertThat(histogram2.highestTrackableValue()).isEqualTo(TimeUnit.MINUTES.toNanos(5));
+      // not set on the step, inherited from the benchmark
+      assertThat(histogram2.significantDigits()).isEqualTo(3);
+      assertThat(histogram2.autoResize()).isTrue();
+      assertThat(histogram2.correctCoordinatedOmission()).isTrue();
+      assertThat(benchmark.histogram().correctCoordinatedOmission()).isFalse();
    }
 
    @Test
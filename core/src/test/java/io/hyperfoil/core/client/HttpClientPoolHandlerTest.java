@@ -33,6 +33,7 @@ import io.hyperfoil.api.config.HttpBuilder;
 import io.hyperfoil.core.client.netty.HttpClientPoolImpl;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.steps.HttpResponseHandlersImpl;
+import io.netty.util.AsciiString;
 import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpServer;
 import io.vertx.ext.unit.TestContext;
@@ -94,8 +95,8 @@ public class HttpClientPoolHandlerTest {
                   latch.countDown();
                })
                .header((req, header, value) -> {
-                  if ("foo".equals(header)) {
-                     assertThat(value).isEqualTo("bar");
+                  if (AsciiString.contentEquals("foo", header)) {
+                     assertThat(value.toString()).isEqualTo("bar");
                      latch.countDown();
                   }
                })
@@ -0,0 +1,48 @@
+package io.hyperfoil.core.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class RowIndexedFileTest {
+   @Test
+   public void testRows() throws IOException {
+      StringBuilder sb = new StringBuilder("# header\r\n");
+      for (int i = 0; i < 100; ++i) {
+         sb.append("\"user").append(i).append("\",pass").append(i).append(",").append(i * 2).append("\r\n");
+         if (i % 7 == 0) {
+            sb.append("  # comment\n");
+         }
+      }
+      // last line without newline
+      sb.append("last,row");
+      Path file = Files.createTempFile("rows", ".csv");
+      try {
+         Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+         RowIndexedFile rows = new RowIndexedFile(file, true);
+         assertEquals(101, rows.rows());
+         String[] values = new String[3];
+         for (int i = 0; i < 100; ++i) {
+            rows.read(i, new int[]{ 2, 0, 1 }, true, values);
+            assertArrayEquals(new String[]{ String.valueOf(i * 2), "user" + i, "pass" + i }, values);
+         }
+         rows.read(100, new int[]{ 0, 1, 2 }, false, values);
+         assertArrayEquals(new String[]{ "last", "row", null }, values);
+
+         RowIndexedFile withComments = new RowIndexedFile(file, false);
+         assertEquals(101 + 1 + 15, withComments.rows());
+         withComments.read(0, new int[]{ 0 }, false, new String[1]);
+         String[] first = new String[1];
+         withComments.read(1, new int[]{ 0 }, false, first);
+         assertEquals("\"user0\"", first[0]);
+      } finally {
+         Files.delete(file);
+      }
+   }
+}
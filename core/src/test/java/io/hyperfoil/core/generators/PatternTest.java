@@ -41,6 +41,26 @@ public class PatternTest {
       test(pattern, session, "002Abar");
    }
 
+   @Test
+   public void testFormatVariants() {
+      for (int value : new int[]{ 0, 7, -42, 123456, Integer.MIN_VALUE, Integer.MAX_VALUE }) {
+         for (String format : new String[]{ "%d", "%5d", "%05d", "%x", "%08X", "%o", "%,d", "%-6d" }) {
+            Pattern pattern = new Pattern("${" + format + ":var}", false);
+            Session session = setInt("var", value);
+            test(pattern, session, String.format(format, value));
+         }
+      }
+   }
+
+   @Test
+   public void testFormatUrlEncoded() {
+      for (String format : new String[]{ "%5d", "%-6d", "%05d" }) {
+         Pattern pattern = new Pattern("${" + format + ":var}", true);
+         Session session = setInt("var", -42);
+         test(pattern, session, String.format(format, -42).replace(' ', '+'));
+      }
+   }
+
    @Test
    public void testUrlEncode() {
       Pattern pattern = new Pattern("foo${urlencode:var}", false);
@@ -55,6 +75,13 @@ public class PatternTest {
       test(pattern, session, "foo+%40%2B%C4%9B%C5%A1%C4%8D%C5%99+");
    }
 
+   @Test
+   public void testUrlEncodeSurrogates() {
+      Pattern pattern = new Pattern("foo${urlencode:var}", false);
+      Session session = setObject("var", "a\uD83D\uDE00b/\uD83D");
+      test(pattern, session, "fooa%F0%9F%98%80b%2F%3F");
+   }
+
    private Session setObject(String name, String value) {
       Session session = SessionFactory.forTesting();
       Access var = SessionFactory.access(name);
@@ -0,0 +1,161 @@
+package io.hyperfoil.core.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class MultiJsonHandlerTest {
+   private static final byte[] JSON = ("[\n" +
+         "      { \"id\" : 418, \"product\" : \"Teapots\", \"units\" : 123 },\n" +
+         "      { \"id\" : 420, \"product\" : \"Various herbs\", \"units\" : 321  },\n" +
+         "      { \"id\" : 450, \"product\" : \"Magazines\", \"units\": 456 }\n" +
+         "    ]").getBytes(StandardCharsets.UTF_8);
+
+   @Test
+   public void testMerge() {
+      Processor other = (session, data, offset, length, isLastPart) -> {
+      };
+      JsonHandler ids = new JsonHandler(".[].id", false, null, other);
+      JsonHandler units = new JsonHandler(".[].units", false, null, other);
+      JsonHandler products = new JsonHandler(".[].product", false, null, other);
+      Processor[] merged = MultiJsonHandler.merge(new Processor[]{ other, ids, units, other, products });
+      assertThat(merged).hasSize(4);
+      assertThat(merged[0]).isSameAs(other);
+      assertThat(merged[1]).isInstanceOf(MultiJsonHandler.class);
+      assertThat(merged[2]).isSameAs(other);
+      assertThat(merged[3]).isSameAs(products);
+
+      Processor[] single = new Processor[]{ other, ids };
+      assertThat(MultiJsonHandler.merge(single)).isSameAs(single);
+      Processor[] separated = new Processor[]{ ids, other, units };
+      assertThat(MultiJsonHandler.merge(separated)).isSameAs(separated);
+   }
+
+   @Test
+   public void testMergeKeepsOrder() {
+      StringBuilder log = new StringBuilder();
+      Processor[] processors = new Processor[]{
+            new JsonHandler(".[0].id", false, null, new OrderRecorder(log, "id")),
+            new JsonHandler(".[0].units", false, null, new OrderRecorder(log, "units")),
+            new OrderRecorder(log, "body"),
+            new JsonHandler(".[0].product", false, null, new OrderRecorder(log, "product")),
+      };
+      Session session = SessionFactory.forTesting();
+      Processor[] merged = MultiJsonHandler.merge(processors);
+      assertThat(merged).hasSize(3);
+      for (Processor p : merged) {
+         ResourceUtilizer.reserve(session, p);
+      }
+      ByteBuf data = Unpooled.wrappedBuffer(JSON);
+      for (Processor p : merged) {
+         p.before(session);
+         p.process(session, data, data.readerIndex(), data.readableBytes(), true);
+         p.after(session);
+      }
+      assertThat(log.toString()).isEqualTo("id,units,body,product,");
+   }
+
+   @Test
+   public void testSelectMultiple() {
+      Collector ids = new Collector();
+      Collector products = new Collector();
+      Collector second = new Collector();
+      MultiJsonHandler handler = new MultiJsonHandler(new JsonHandler[]{
+            new JsonHandler(".[].id", false, null, new DefragProcessor(ids)),
+            new JsonHandler(".[].product", false, null, new JsonUnquotingTransformer(new DefragProcessor(products))),
+            new JsonHandler(".[1]", false, null, new DefragProcessor(second)),
+      });
+      Session session = SessionFactory.forTesting();
+      handler.reserve(session);
+
+      for (int i = 0; i < JSON.length; ++i) {
+         handleSplit(handler, session, JSON, i);
+
+         assertThat(ids.values).isEqualTo("418,420,450,");
+         assertThat(products.values).isEqualTo("Teapots,Various herbs,Magazines,");
+         JsonObject obj = (JsonObject) Json.decodeValue(second.values.substring(0, second.values.length() - 1));
+         assertThat(obj.getInteger("id")).isEqualTo(420);
+      }
+   }
+
+   @Test
+   public void testDeleteAndSelect() {
+      Collector modified = new Collector();
+      Collector units = new Collector();
+      MultiJsonHandler handler = new MultiJsonHandler(new JsonHandler[]{
+            new JsonHandler(".[].product", true, null, new DefragProcessor(modified)),
+            new JsonHandler(".[].units", false, null, new DefragProcessor(units)),
+      });
+      Session session = SessionFactory.forTesting();
+      handler.reserve(session);
+
+      for (int i = 0; i < JSON.length; ++i) {
+         handleSplit(handler, session, JSON, i);
+
+         assertThat(units.values).isEqualTo("123,321,456,");
+         JsonArray array = (JsonArray) Json.decodeValue(modified.values.substring(0, modified.values.length() - 1));
+         assertThat(array.size()).isEqualTo(3);
+         array.forEach(o -> {
+            JsonObject obj = (JsonObject) o;
+            assertThat(obj.getInteger("id")).isNotNull();
+            assertThat(obj.getString("product")).isNull();
+            assertThat(obj.getInteger("units")).isNotNull();
+         });
+      }
+   }
+
+   private void handleSplit(Processor handler, Session session, byte[] json, int position) {
+      ByteBuf data1 = Unpooled.wrappedBuffer(json, 0, position);
+      ByteBuf data2 = Unpooled.wrappedBuffer(json, position, json.length - position);
+
+      handler.before(session);
+      handler.process(session, data1, data1.readerIndex(), data1.readableBytes(), false);
+      handler.process(session, data2, data2.readerIndex(), data2.readableBytes(), true);
+      handler.after(session);
+   }
+
+   private static class OrderRecorder implements Processor {
+      private final StringBuilder log;
+      private final String name;
+
+      private OrderRecorder(StringBuilder log, String name) {
+         this.log = log;
+         this.name = name;
+      }
+
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         if (isLastPart) {
+            log.append(name).append(',');
+         }
+      }
+   }
+
+   private static class Collector implements Processor {
+      private String values;
+
+      @Override
+      public void before(Session session) {
+         values = "";
+      }
+
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         byte[] bytes = new byte[length];
+         data.getBytes(offset, bytes);
+         values += new String(bytes, StandardCharsets.UTF_8) + ",";
+      }
+   }
+}
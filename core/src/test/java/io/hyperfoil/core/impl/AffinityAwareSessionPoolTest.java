@@ -0,0 +1,72 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+
+public class AffinityAwareSessionPoolTest {
+   private static final Scenario SCENARIO = new Scenario(new Sequence[0], new Sequence[0], new String[0], new String[0], 16, 16);
+
+   private final DefaultEventLoopGroup group = new DefaultEventLoopGroup(2);
+   private final EventExecutor[] executors = { group.next(), group.next() };
+   private final AtomicInteger counter = new AtomicInteger();
+
+   @After
+   public void shutdown() {
+      group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   @Test
+   public void testLocalFirstThenSteal() throws Exception {
+      AffinityAwareSessionPool pool = new AffinityAwareSessionPool(executors,
+            () -> SessionFactory.create(SCENARIO, 0, counter.get() % executors.length, counter.getAndIncrement()), () -> null);
+      pool.reserve(4);
+      assertThat(counter.get()).isEqualTo(4);
+
+      List<Session> sessions = executors[0].submit(() -> {
+         List<Session> list = new ArrayList<>();
+         for (int i = 0; i < 5; ++i) {
+            list.add(pool.acquire());
+         }
+         return list;
+      }).get();
+      assertThat(sessions.subList(0, 2)).allMatch(s -> s.agentThreadId() == 0);
+      assertThat(sessions.subList(2, 4)).allMatch(s -> s.agentThreadId() == 1);
+      assertThat(sessions.get(4)).isNull();
+      assertThat(pool.maxUsed()).isEqualTo(4);
+
+      pool.resetStats();
+      executors[1].submit(() -> pool.release(sessions.get(2))).get();
+      executors[0].submit(() -> pool.release(sessions.get(0))).get();
+      assertThat(pool.minUsed()).isEqualTo(2);
+      assertThat(pool.maxUsed()).isEqualTo(4);
+
+      Session local = executors[1].submit(pool::acquire).get();
+      assertThat(local).isSameAs(sessions.get(2));
+   }
+
+   @Test
+   public void testNonExecutorThreadSpreadsSessions() {
+      AffinityAwareSessionPool pool = new AffinityAwareSessionPool(executors,
+            () -> SessionFactory.create(SCENARIO, 0, counter.get() % executors.length, counter.getAndIncrement()), () -> null);
+      pool.reserve(4);
+      int[] perExecutor = new int[executors.length];
+      for (int i = 0; i < 2; ++i) {
+         perExecutor[pool.acquire().agentThreadId()]++;
+      }
+      assertThat(perExecutor).containsExactly(1, 1);
+   }
+}
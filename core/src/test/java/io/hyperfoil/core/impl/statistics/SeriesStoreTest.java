@@ -0,0 +1,75 @@
+package io.hyperfoil.core.impl.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.statistics.StatisticsSummary;
+
+public class SeriesStoreTest {
+   private static StatisticsSummary summary(long start, int requests) {
+      TreeMap<Double, Long> percentiles = new TreeMap<>();
+      for (double p : StatisticsStore.PERCENTILES) {
+         percentiles.put(p * 100, requests * 1000L + (long) (p * 100));
+      }
+      return new StatisticsSummary(start, start + 1000, 1, 2, 3, 4, percentiles,
+            0, requests, requests, requests, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+   }
+
+   @Test
+   public void testHeap() throws IOException {
+      test(null);
+   }
+
+   @Test
+   public void testSegmentFiles() throws IOException {
+      Path dir = Files.createTempDirectory("series");
+      try {
+         test(dir);
+         // tiny segments force rolling over
+         assertTrue(Files.list(dir).count() > 1);
+      } finally {
+         Files.list(dir).forEach(f -> f.toFile().delete());
+         Files.delete(dir);
+      }
+   }
+
+   private void test(Path dir) throws IOException {
+      try (SeriesStore store = new SeriesStore(dir, 1024, StatisticsStore.PERCENTILES)) {
+         SeriesStore.Series total = new SeriesStore.Series("phase", 1, "metric", null);
+         SeriesStore.Series agent = new SeriesStore.Series("phase", 1, "metric", "agent");
+         SeriesStore.Series empty = new SeriesStore.Series("phase", 2, "metric", null);
+         for (int i = 0; i < 100; ++i) {
+            store.append(total, summary(1_000_000 + i * 1000, i));
+            store.append(agent, summary(1_000_000 + i * 1000, 2 * i));
+            if (i % 10 == 0) {
+               store.flush();
+            }
+         }
+         List<StatisticsSummary> totalSeries = store.read(total).collect(Collectors.toList());
+         List<StatisticsSummary> agentSeries = store.read(agent).collect(Collectors.toList());
+         assertEquals(100, totalSeries.size());
+         assertEquals(100, agentSeries.size());
+         for (int i = 0; i < 100; ++i) {
+            StatisticsSummary expected = summary(1_000_000 + i * 1000, i);
+            StatisticsSummary actual = totalSeries.get(i);
+            assertEquals(expected.startTime, actual.startTime);
+            assertEquals(expected.endTime, actual.endTime);
+            assertEquals(expected.requestCount, actual.requestCount);
+            assertEquals(expected.percentileResponseTime, actual.percentileResponseTime);
+            assertEquals(2 * i, agentSeries.get(i).requestCount);
+         }
+         assertEquals(0, store.read(empty).count());
+         assertNull(store.read(null));
+      }
+   }
+}
@@ -0,0 +1,112 @@
+package io.hyperfoil.core.impl.statistics;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.steps.HttpRequestStep;
+
+public class ThroughputSearchTest {
+   private static final double SUSTAINABLE = 70;
+
+   @Test
+   public void testBinarySearch() {
+      ThroughputSearch search = runSearch(Phase.SearchStrategy.BINARY);
+      assertTrue(search.isDone());
+      assertTrue(search.result() <= SUSTAINABLE);
+      assertTrue(search.result() >= SUSTAINABLE - 10);
+      assertTrue(search.steps().stream().allMatch(step -> step.passed == (step.usersPerSec <= SUSTAINABLE)));
+      // initial 50, then halving the interval until it is narrower than 10
+      assertEquals(4, search.steps().size());
+   }
+
+   @Test
+   public void testStepSearch() {
+      ThroughputSearch search = runSearch(Phase.SearchStrategy.STEP);
+      assertTrue(search.isDone());
+      assertEquals(SUSTAINABLE, search.result(), 0.001);
+      // 10, 20, ... 80
+      assertEquals(8, search.steps().size());
+      assertFalse(search.steps().get(7).passed);
+   }
+
+   @Test
+   public void testThrottledStepFails() {
+      // session pool gets exhausted before the SLA is violated
+      ThroughputSearch search = runSearch(Phase.SearchStrategy.STEP, 40);
+      assertTrue(search.isDone());
+      assertEquals(40, search.result(), 0.001);
+      assertEquals(5, search.steps().size());
+      ThroughputSearch.Step last = search.steps().get(4);
+      assertFalse(last.passed);
+      assertTrue(last.failures.stream().anyMatch(f -> f.contains("session pool is exhausted")));
+   }
+
+   private ThroughputSearch runSearch(Phase.SearchStrategy strategy) {
+      return runSearch(strategy, Double.POSITIVE_INFINITY);
+   }
+
+   private ThroughputSearch runSearch(Phase.SearchStrategy strategy, double throttledAbove) {
+      // @formatter:off
+      Benchmark benchmark = new BenchmarkBuilder("originalSource", BenchmarkData.EMPTY)
+            .name("benchmarkName")
+            .http().host("localhost").endHttp()
+            .addPhase("search").search(100)
+               .precision(10)
+               .stepDuration(1000)
+               .strategy(strategy)
+               .scenario().initialSequence("test")
+                  .step(SC).httpRequest(HttpMethod.GET)
+                     .sla().addItem().meanResponseTime(1, TimeUnit.MILLISECONDS).endSLA().endList()
+                  .endStep()
+               .endSequence().endScenario()
+            .endPhase()
+            .build();
+      // @formatter:on
+      Phase phase = benchmark.phases().iterator().next();
+      HttpRequestStep step = (HttpRequestStep) Stream.of(phase.scenario().sequences())
+            .flatMap(s -> Stream.of(s.steps()))
+            .filter(HttpRequestStep.class::isInstance)
+            .findAny().get();
+
+      StatisticsStore store = new StatisticsStore(benchmark, failure -> {
+      });
+      ThroughputSearch search = store.startSearch((Phase.Search) phase);
+      long time = 0;
+      int sequenceId = 0;
+      do {
+         store.startSearchStep("search", time);
+         // the response time grows sharply beyond the sustainable rate
+         long responseTime = search.usersPerSec() <= SUSTAINABLE ? 100_000 : 10_000_000;
+         StatisticsSnapshot snapshot = new StatisticsSnapshot();
+         snapshot.sequenceId = sequenceId++;
+         snapshot.requestCount = 10;
+         snapshot.histogram.setStartTimeStamp(time);
+         snapshot.histogram.setEndTimeStamp(time + 1000);
+         for (int i = 0; i < 10; ++i) {
+            snapshot.histogram.recordValue(responseTime);
+         }
+         store.record("address", phase.id(), step.id(), "test", snapshot);
+         if (search.usersPerSec() > throttledAbove) {
+            store.recordArrivalStats("address", time, "search", 10, 3, 0);
+         }
+         time += 1000;
+      } while (store.completeSearchStep("search"));
+      // SLAs are not validated over the whole phase
+      store.completePhase("search");
+      assertTrue(store.validateSlas());
+      return search;
+   }
+}
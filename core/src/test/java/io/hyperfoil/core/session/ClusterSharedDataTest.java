@@ -0,0 +1,104 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.SharedData;
+
+public class ClusterSharedDataTest {
+   private static final String FOO = "foo";
+   private static final Access FOOA = SessionFactory.access("foo");
+   private static final Access NUMBERA = SessionFactory.access("number");
+
+   @Test
+   public void testIndexedMapsDeliveredToAllAgents() throws Exception {
+      ClusterSharedData first = new ClusterSharedData(0, 2);
+      ClusterSharedData second = new ClusterSharedData(1, 2);
+      for (ClusterSharedData data : new ClusterSharedData[]{ first, second }) {
+         data.reserveMap(FOO, null, 2);
+         data.reserveMap(FOO, NUMBERA, 0);
+      }
+      for (int i = 0; i < 10; ++i) {
+         first.pushMap(FOO, map(first, i));
+      }
+      assertThat(first.drain(0)).isNull();
+      second.receive(transfer(first.drain(1)));
+      for (ClusterSharedData data : new ClusterSharedData[]{ first, second }) {
+         for (int i = 0; i < 10; ++i) {
+            SharedData.SharedMap map = data.pullMap(FOO, NUMBERA, i);
+            assertThat(map).isNotNull();
+            assertThat(map.find(FOOA)).isEqualTo("bar" + i);
+         }
+      }
+   }
+
+   @Test
+   public void testReceiveBeforeReservation() throws Exception {
+      ClusterSharedData first = new ClusterSharedData(0, 2);
+      ClusterSharedData second = new ClusterSharedData(1, 2);
+      first.reserveMap(FOO, null, 2);
+      first.reserveMap(FOO, NUMBERA, 0);
+      for (int i = 0; i < 10; ++i) {
+         first.pushMap(FOO, map(first, i));
+      }
+      second.receive(transfer(first.drain(1)));
+      // Only the pull is reserved on this agent
+      second.reserveMap(FOO, NUMBERA, 0);
+      for (int i = 0; i < 10; ++i) {
+         SharedData.SharedMap map = second.pullMap(FOO, NUMBERA, i);
+         assertThat(map).isNotNull();
+         assertThat(map.find(FOOA)).isEqualTo("bar" + i);
+      }
+   }
+
+   @Test
+   public void testRandomMapsDeliveredOnce() throws Exception {
+      ClusterSharedData first = new ClusterSharedData(0, 2);
+      ClusterSharedData second = new ClusterSharedData(1, 2);
+      for (ClusterSharedData data : new ClusterSharedData[]{ first, second }) {
+         data.reserveMap(FOO, null, 2);
+      }
+      for (int i = 0; i < 100; ++i) {
+         first.pushMap(FOO, map(first, i));
+      }
+      List<ClusterSharedData.Entry> sent = first.drain(1);
+      if (sent != null) {
+         second.receive(transfer(sent));
+      }
+      int count = 0;
+      for (ClusterSharedData data : new ClusterSharedData[]{ first, second }) {
+         while (data.pullMap(FOO) != null) {
+            ++count;
+         }
+      }
+      assertThat(count).isEqualTo(100);
+   }
+
+   private static SharedData.SharedMap map(SharedData data, int i) {
+      SharedData.SharedMap map = data.newMap(FOO);
+      map.put(FOOA, "bar" + i);
+      map.put(NUMBERA, i);
+      return map;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static List<ClusterSharedData.Entry> transfer(List<ClusterSharedData.Entry> batch) throws IOException, ClassNotFoundException {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+         out.writeObject(new ArrayList<>(batch));
+      }
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+         return (List<ClusterSharedData.Entry>) in.readObject();
+      }
+   }
+}
@@ -0,0 +1,120 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.SharedData;
+
+public class ConcurrentSharedDataTest {
+   private static final String FOO = "foo";
+   private static final Access FOOA = SessionFactory.access("foo");
+   private static final Access NUMBERA = SessionFactory.access("number");
+   private static final int THREADS = 4;
+   private static final int MAPS = 10000;
+
+   @Test
+   public void testIndexedData() {
+      SharedData data = new ConcurrentSharedData();
+      data.reserveMap(FOO, null, 2);
+      data.reserveMap(FOO, NUMBERA, 0);
+      for (int i = 0; i < 10; ++i) {
+         SharedData.SharedMap map = data.newMap(FOO);
+         map.put(FOOA, "bar" + i);
+         map.put(NUMBERA, i % 5);
+         data.pushMap(FOO, map);
+      }
+      for (int i = 0; i < 5; ++i) {
+         SharedData.SharedMap map = data.pullMap(FOO, NUMBERA, 3);
+         if (i < 2) {
+            assertThat(map.find(NUMBERA)).isEqualTo(3);
+            data.releaseMap(FOO, map);
+         } else {
+            assertThat(map).isNull();
+         }
+      }
+      // maps pulled through index must not be pulled randomly again
+      int count = 0;
+      SharedData.SharedMap map;
+      while ((map = data.pullMap(FOO)) != null) {
+         assertThat(map.find(NUMBERA)).isNotEqualTo(3);
+         data.releaseMap(FOO, map);
+         ++count;
+      }
+      assertThat(count).isEqualTo(8);
+      assertThat(data.pullMap(FOO, NUMBERA, 1)).isNull();
+   }
+
+   @Test
+   public void testIndexReservedAfterPush() {
+      SharedData data = new ConcurrentSharedData();
+      data.reserveMap(FOO, null, 2);
+      for (int i = 0; i < 10; ++i) {
+         SharedData.SharedMap map = data.newMap(FOO);
+         map.put(FOOA, "bar" + i);
+         map.put(NUMBERA, i % 5);
+         data.pushMap(FOO, map);
+      }
+      assertThat(data.pullMap(FOO)).isNotNull();
+      // e.g. a session of a later phase; the access is a different instance of the same variable
+      Access number = SessionFactory.access("number");
+      data.reserveMap(FOO, number, 0);
+      int count = 0;
+      for (int i = 0; i < 5; ++i) {
+         SharedData.SharedMap map;
+         while ((map = data.pullMap(FOO, number, i)) != null) {
+            assertThat(map.find(NUMBERA)).isEqualTo(i);
+            ++count;
+         }
+      }
+      assertThat(count).isEqualTo(9);
+      assertThat(data.pullMap(FOO)).isNull();
+   }
+
+   @Test
+   public void testConcurrentPushPull() throws Exception {
+      SharedData data = new ConcurrentSharedData();
+      data.reserveMap(FOO, null, 1);
+      data.reserveMap(FOO, NUMBERA, 0);
+      ExecutorService executor = Executors.newFixedThreadPool(2 * THREADS);
+      AtomicInteger pulled = new AtomicInteger();
+      try {
+         List<Future<?>> futures = new ArrayList<>();
+         for (int t = 0; t < THREADS; ++t) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+               for (int i = 0; i < MAPS; ++i) {
+                  SharedData.SharedMap map = data.newMap(FOO);
+                  map.put(NUMBERA, (thread * MAPS + i) % 100);
+                  data.pushMap(FOO, map);
+               }
+            }));
+            futures.add(executor.submit(() -> {
+               int value = 0;
+               while (pulled.get() < THREADS * MAPS) {
+                  SharedData.SharedMap map = thread % 2 == 0 ? data.pullMap(FOO) : data.pullMap(FOO, NUMBERA, value++ % 100);
+                  if (map != null) {
+                     pulled.incrementAndGet();
+                     data.releaseMap(FOO, map);
+                  }
+               }
+            }));
+         }
+         for (Future<?> future : futures) {
+            future.get();
+         }
+      } finally {
+         executor.shutdown();
+      }
+      assertThat(pulled.get()).isEqualTo(THREADS * MAPS);
+      assertThat(data.pullMap(FOO)).isNull();
+   }
+}
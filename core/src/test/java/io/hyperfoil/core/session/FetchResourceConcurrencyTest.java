@@ -0,0 +1,69 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class FetchResourceConcurrencyTest extends BaseScenarioTest {
+   private static final String INDEX = "<html><head></head><body>" +
+         "<img src=\"/first.png\"><link href=\"/style.css\"><img src=\"/second.png\"><script src=\"/script.js\"></script>" +
+         "</body></html>";
+   // Served with the same ETag on subsequent loads; the resources would differ if the page was parsed again
+   private static final String CHANGED_INDEX = "<html><head></head><body>" +
+         "<img src=\"/third.png\"><link href=\"/other.css\">" +
+         "</body></html>";
+
+   private final List<String> fetched = new CopyOnWriteArrayList<>();
+   private final AtomicInteger inFlight = new AtomicInteger();
+   private final AtomicInteger maxInFlight = new AtomicInteger();
+   private final AtomicInteger indexLoads = new AtomicInteger();
+
+   @Override
+   protected Benchmark benchmark() {
+      return loadScenario("scenarios/FetchResourceConcurrencyTest.hf.yaml");
+   }
+
+   @Override
+   protected void initRouter() {
+      router.route("/index.html").handler(ctx -> ctx.response().putHeader("ETag", "\"v1\"")
+            .end(indexLoads.getAndIncrement() == 0 ? INDEX : CHANGED_INDEX));
+      router.route().handler(ctx -> {
+         fetched.add(ctx.request().path());
+         maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+         // keep the request in flight so that the others are queued
+         vertx.setTimer(10, id -> {
+            inFlight.decrementAndGet();
+            ctx.response().end();
+         });
+      });
+   }
+
+   @Test
+   public void test() {
+      Map<String, List<StatisticsSnapshot>> stats = runScenario();
+      assertThat(stats.get("index").stream().mapToLong(s -> s.status_2xx).sum()).isEqualTo(3);
+      assertThat(stats.get("resources").stream().mapToLong(s -> s.status_2xx).sum()).isEqualTo(12);
+
+      assertThat(maxInFlight.get()).isEqualTo(1);
+      // The first image is fetched right away; the stylesheet and script are queued before the other image.
+      // Second and third page load replay the resources from parse cache in the same order,
+      // the changed body is not parsed.
+      List<String> pageLoad = Arrays.asList("/first.png", "/style.css", "/script.js", "/second.png");
+      assertThat(fetched).containsExactlyElementsOf(
+            Stream.of(pageLoad, pageLoad, pageLoad).flatMap(List::stream).collect(Collectors.toList()));
+   }
+}
@@ -0,0 +1,98 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.impl.LocalBenchmarkData;
+import io.hyperfoil.core.parser.BenchmarkParser;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.core.util.Util;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class FetchResourcePriorityTest extends BaseScenarioTest {
+   private final Fetches local = new Fetches();
+   private final Fetches remote = new Fetches();
+   private HttpServer remoteServer;
+
+   @Override
+   protected Benchmark benchmark() {
+      try (InputStream config = getClass().getClassLoader().getResourceAsStream("scenarios/FetchResourcePriorityTest.hf.yaml")) {
+         String configString = Util.toString(config)
+               .replaceAll("localhost:8080", "localhost:" + server.actualPort())
+               .replaceAll("localhost:8081", "localhost:" + remoteServer.actualPort());
+         return BenchmarkParser.instance().buildBenchmark(configString, new LocalBenchmarkData());
+      } catch (IOException | ParserException e) {
+         throw new AssertionError(e);
+      }
+   }
+
+   @Override
+   protected void initWithServer(TestContext ctx) {
+      super.initWithServer(ctx);
+      remoteServer = vertx.createHttpServer().requestHandler(remote::handle)
+            .listen(0, "localhost", ctx.asyncAssertSuccess());
+   }
+
+   @Override
+   protected void initRouter() {
+      router.route("/index.html").handler(ctx -> {
+         String remoteAuthority = "http://localhost:" + remoteServer.actualPort();
+         ctx.response().end("<html><head></head><body>" +
+               "<img src=\"/a1.png\"><img src=\"/a2.png\"><img src=\"/a3.png\">" +
+               "<img src=\"" + remoteAuthority + "/b1.png\"><link href=\"/style.css\">" +
+               "<img src=\"" + remoteAuthority + "/b2.png\"><img src=\"" + remoteAuthority + "/b3.png\">" +
+               "<script src=\"" + remoteAuthority + "/b.js\"></script><script src=\"/script.js\"></script>" +
+               "</body></html>");
+      });
+      router.route().handler(ctx -> local.handle(ctx.request()));
+   }
+
+   @Test
+   public void test() {
+      Map<String, List<StatisticsSnapshot>> stats = runScenario();
+      assertThat(stats.get("resources").stream().mapToLong(s -> s.status_2xx).sum()).isEqualTo(9);
+
+      // Each authority has its own limit
+      assertThat(local.maxInFlight.get()).isEqualTo(2);
+      assertThat(remote.maxInFlight.get()).isEqualTo(2);
+      // The first two resources start right away; the others wait and stylesheets and scripts go first
+      assertThat(local.paths.subList(0, 2)).containsExactlyInAnyOrder("/a1.png", "/a2.png");
+      assertThat(local.paths.subList(2, 4)).containsExactlyInAnyOrder("/style.css", "/script.js");
+      assertThat(local.paths.subList(4, 5)).containsExactly("/a3.png");
+      assertThat(remote.paths.subList(0, 2)).containsExactlyInAnyOrder("/b1.png", "/b2.png");
+      // b.js is started when b1.png completes, b3.png when b2.png completes
+      assertThat(remote.paths.subList(2, 4)).containsExactly("/b.js", "/b3.png");
+   }
+
+   private class Fetches {
+      final List<String> paths = new CopyOnWriteArrayList<>();
+      final AtomicInteger inFlight = new AtomicInteger();
+      final AtomicInteger maxInFlight = new AtomicInteger();
+
+      void handle(HttpServerRequest request) {
+         paths.add(request.path());
+         maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+         // keep the request in flight so that the others are queued; the second remote image completes later
+         // to make the order of the two remote resources started after that deterministic
+         vertx.setTimer(request.path().equals("/b2.png") ? 150 : 50, id -> {
+            inFlight.decrementAndGet();
+            request.response().end();
+         });
+      }
+   }
+}
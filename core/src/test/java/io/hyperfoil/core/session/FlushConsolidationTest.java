@@ -0,0 +1,45 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.HttpBuilder;
+import io.hyperfoil.api.config.SequenceBuilder;
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class FlushConsolidationTest extends BaseScenarioTest {
+   private static final int REQUESTS_PER_SESSION = 11;
+
+   @Override
+   protected void initRouter() {
+      router.route("/test").handler(ctx -> ctx.response().end());
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      // a low limit makes sure that both deferred and forced flushes are exercised
+      http.pipeliningLimit(10).flushConsolidation(true).flushConsolidationLimit(3);
+   }
+
+   @Test
+   public void testPipelined() {
+      // 64 sessions share the single connection, writing up to 10 pipelined requests at once
+      SequenceBuilder sequence = parallelScenario(64).initialSequence("test");
+      for (int i = 0; i < REQUESTS_PER_SESSION; ++i) {
+         sequence.step(SC).httpRequest(HttpMethod.GET).path("/test").metric("test").endStep();
+      }
+      sequence.endSequence();
+
+      Map<String, List<StatisticsSnapshot>> stats = runScenario();
+      assertThat(stats.get("test").stream().mapToLong(s -> s.status_2xx).sum()).isEqualTo(64 * REQUESTS_PER_SESSION);
+   }
+}
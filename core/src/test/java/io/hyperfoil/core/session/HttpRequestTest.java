@@ -53,6 +53,9 @@ public class HttpRequestTest extends BaseScenarioTest {
          }
          ctx.response().end();
       });
+      router.head("/test").handler(ctx -> ctx.response().putHeader("content-length", "42").end());
+      // Sends status and the first chunk but never completes the response
+      router.get("/incomplete").handler(ctx -> ctx.response().setChunked(true).write("foo"));
    }
 
    private StatusHandler verifyStatus(TestContext ctx) {
@@ -232,4 +235,53 @@ public class HttpRequestTest extends BaseScenarioTest {
       assertThat(assertSingleItem(stats.get("testFromVar")).status_2xx).isEqualTo(1);
       assertThat(assertSingleItem(stats.get("testPattern")).status_2xx).isEqualTo(1);
    }
+
+   @Test
+   public void testConstantHeadersAndRepeatedRequests() {
+      // @formatter:off
+      scenario(3)
+            .initialSequence("post")
+               .step(SC).httpRequest(HttpMethod.POST)
+                  .path("/test?expect=bar")
+                  .body("bar")
+               .endStep()
+            .endSequence()
+            .initialSequence("header")
+               .step(SC).httpRequest(HttpMethod.GET)
+                  .path("/test?expectHeader=x-constant:foo")
+                  .headers().header("x-constant", "foo").endHeaders()
+               .endStep()
+            .endSequence()
+            .initialSequence("head")
+               .step(SC).httpRequest(HttpMethod.HEAD)
+                  .path("/test")
+               .endStep()
+               .step(SC).httpRequest(HttpMethod.GET)
+                  .path("/test?afterHead")
+                  .metric("afterHead")
+               .endStep()
+            .endSequence();
+      // @formatter:on
+      Map<String, List<StatisticsSnapshot>> stats = runScenario();
+      assertThat(stats.get("post").stream().mapToInt(s -> s.status_2xx).sum()).isEqualTo(3);
+      assertThat(stats.get("header").stream().mapToInt(s -> s.status_2xx).sum()).isEqualTo(3);
+      assertThat(stats.get("head").stream().mapToInt(s -> s.status_2xx).sum()).isEqualTo(3);
+      assertThat(stats.get("afterHead").stream().mapToInt(s -> s.status_2xx).sum()).isEqualTo(3);
+   }
+
+   @Test
+   public void testStatusRecordedOnTimeout() {
+      // @formatter:off
+      scenario()
+            .initialSequence("test")
+               .step(SC).httpRequest(HttpMethod.GET)
+                  .path("/incomplete")
+                  .timeout("500ms")
+               .endStep();
+      // @formatter:on
+      Map<String, List<StatisticsSnapshot>> stats = runScenario();
+      StatisticsSnapshot snapshot = assertSingleItem(stats.get("test"));
+      assertThat(snapshot.timeouts).isEqualTo(1);
+      assertThat(snapshot.status_2xx).isEqualTo(1);
+   }
 }
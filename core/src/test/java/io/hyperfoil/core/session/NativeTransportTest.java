@@ -0,0 +1,49 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.HttpBuilder;
+import io.hyperfoil.api.config.Transport;
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.client.netty.NettyTransport;
+import io.netty.channel.epoll.Epoll;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class NativeTransportTest extends BaseScenarioTest {
+   @Override
+   protected void initRouter() {
+      router.route("/test").handler(ctx -> ctx.response().end());
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      benchmarkBuilder.transport(Transport.IO_URING);
+      http.tcpQuickAck(true);
+   }
+
+   @Test
+   public void testFallback() {
+      assertThat(NettyTransport.resolve(Transport.IO_URING)).isEqualTo(Epoll.isAvailable() ? Transport.EPOLL : Transport.NIO);
+      assertThat(NettyTransport.resolve(Transport.NIO)).isEqualTo(Transport.NIO);
+
+      // @formatter:off
+      scenario(10)
+            .initialSequence("test")
+               .step(SC).httpRequest(HttpMethod.GET)
+                  .path("/test")
+                  .metric("test")
+               .endStep();
+      // @formatter:on
+      Map<String, List<StatisticsSnapshot>> stats = runScenario();
+      assertThat(stats.get("test").stream().mapToLong(s -> s.status_2xx).sum()).isEqualTo(10);
+   }
+}
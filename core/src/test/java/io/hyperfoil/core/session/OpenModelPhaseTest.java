@@ -0,0 +1,65 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.core.impl.LocalSimulationRunner;
+import io.hyperfoil.core.impl.SessionStatsConsumer;
+import io.hyperfoil.core.impl.statistics.StatisticsCollector;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class OpenModelPhaseTest extends BaseScenarioTest {
+   @Override
+   protected void initRouter() {
+      router.route("/test").handler(ctx -> ctx.response().end());
+   }
+
+   @Test
+   public void testConstantRate() {
+      // @formatter:off
+      benchmarkBuilder.addPhase("test").constantRate(200)
+            .duration(1000)
+            .maxSessions(200)
+            .scenario()
+               .initialSequence("test")
+                  .step(SC).httpRequest(HttpMethod.GET)
+                     .path("/test")
+                     .metric("test")
+                  .endStep()
+               .endSequence();
+      // @formatter:on
+
+      AtomicLong requests = new AtomicLong();
+      AtomicLong arrivals = new AtomicLong();
+      AtomicLong lag = new AtomicLong();
+      StatisticsCollector.StatisticsConsumer statisticsConsumer = (phase, stepId, metric, snapshot, countDown) -> {
+         // Arrivals must not show up among request statistics
+         assertThat(metric).isEqualTo("test");
+         requests.addAndGet(snapshot.requestCount);
+      };
+      SessionStatsConsumer sessionStatsConsumer = new SessionStatsConsumer() {
+         @Override
+         public void accept(String phase, int minSessions, int maxSessions) {
+         }
+
+         @Override
+         public void acceptArrivals(String phase, long phaseArrivals, long throttled, long lagNanos) {
+            arrivals.addAndGet(phaseArrivals);
+            lag.addAndGet(lagNanos);
+         }
+      };
+      new LocalSimulationRunner(benchmark(), statisticsConsumer, sessionStatsConsumer).run();
+      // The phase is finished by the runner thread so we can't expect exact number of arrivals
+      assertThat(arrivals.get()).isBetween(150L, 250L);
+      assertThat(requests.get()).isEqualTo(arrivals.get());
+      assertThat(lag.get() / arrivals.get()).isLessThan(TimeUnit.MILLISECONDS.toNanos(10));
+   }
+}
@@ -0,0 +1,71 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.config.StepBuilder;
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.core.impl.LocalSimulationRunner;
+import io.hyperfoil.core.steps.AddToIntAction;
+import io.hyperfoil.core.steps.SetIntAction;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class VarSlotsTest extends BaseScenarioTest {
+   @Override
+   protected void initRouter() {
+   }
+
+   @Test
+   public void testSlotsAndLookupByName() {
+      // This access is created outside of the scenario build and therefore uses lookup by name
+      Access counterByName = SessionFactory.access("counter");
+      AtomicInteger checked = new AtomicInteger();
+      scenario(3)
+            .initialSequence("test")
+            .step(SC).action(new SetIntAction.Builder().var("counter").value(40))
+            .step(SC).action(new AddToIntAction.Builder().var("counter").value(1))
+            .stepBuilder(new CheckBuilder("counter", 41, checked))
+            .step(s -> {
+               counterByName.addToInt(s, 1);
+               return true;
+            })
+            .stepBuilder(new CheckBuilder("counter", 42, checked));
+      Benchmark benchmark = benchmark();
+      // All accesses created during the build share the same slot
+      assertThat(benchmark.phases().iterator().next().scenario().varSlots()).isEqualTo(1);
+      new LocalSimulationRunner(benchmark, (phase, stepId, metric, snapshot, countDown) -> { }, null).run();
+      assertThat(checked.get()).isEqualTo(6);
+   }
+
+   private static class CheckBuilder implements StepBuilder<CheckBuilder> {
+      private final String var;
+      private final int expected;
+      private final AtomicInteger checked;
+
+      CheckBuilder(String var, int expected, AtomicInteger checked) {
+         this.var = var;
+         this.expected = expected;
+         this.checked = checked;
+      }
+
+      @Override
+      public List<Step> build() {
+         Access access = SessionFactory.access(var);
+         return Collections.singletonList(s -> {
+            assertThat(access.getInt(s)).isEqualTo(expected);
+            checked.incrementAndGet();
+            return true;
+         });
+      }
+   }
+}
@@ -55,9 +55,35 @@ public class PathMetricsTest extends BaseScenarioTest {
       verifyRequest(stats.get("others"));
    }
 
+   @Test
+   public void testRepeatedMetrics() {
+      AtomicInteger counter = new AtomicInteger(0);
+      PathMetricSelector selector = new PathMetricSelector();
+      selector.nextItem(".*\\.js");
+      selector.nextItem("-> others");
+      scenario(6).initialSequence("test")
+            .step(SC).httpRequest(HttpMethod.GET)
+            .path(s -> counter.getAndIncrement() % 3 == 0 ? "/foo.js" : "/goo.css")
+            .metric(selector)
+            .endStep()
+            .step(SC).httpRequest(HttpMethod.GET)
+            .path("/bar.php")
+            .metric("constant")
+            .endStep();
+
+      Map<String, List<StatisticsSnapshot>> stats = runScenario();
+      verifyRequest(stats.get("/foo.js"), 2);
+      verifyRequest(stats.get("others"), 4);
+      verifyRequest(stats.get("constant"), 6);
+   }
+
    private void verifyRequest(List<StatisticsSnapshot> stats) {
+      verifyRequest(stats, 1);
+   }
+
+   private void verifyRequest(List<StatisticsSnapshot> stats, int requests) {
       assertThat(stats).isNotNull();
       assertThat(stats.size()).isEqualTo(1);
-      assertThat(stats.iterator().next().requestCount).isEqualTo(1);
+      assertThat(stats.iterator().next().requestCount).isEqualTo(requests);
    }
 }
@@ -1,5 +1,6 @@
 package io.hyperfoil.core.steps;
 
+import io.hyperfoil.api.config.HistogramConfig;
 import io.hyperfoil.api.http.HttpResponseHandlers;
 import io.hyperfoil.api.http.StatusHandler;
 
@@ -8,6 +9,10 @@ public final class HttpRequestStepUtil {
       return step.handler;
    }
 
+   public static HistogramConfig histogram(HttpRequestStep step) {
+      return step.histogram;
+   }
+
    public static StatusHandler[] statusHandlers(HttpRequestStep step) {
       return step.handler.statusHandlers.clone();
    }
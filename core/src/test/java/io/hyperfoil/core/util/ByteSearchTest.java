@@ -0,0 +1,67 @@
+package io.hyperfoil.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class ByteSearchTest {
+   private static final byte[] DELIMITERS = "<>\"\\\r\n".getBytes();
+
+   @Test
+   public void testIndexOf() {
+      Random random = new Random(42);
+      for (int iteration = 0; iteration < 10000; ++iteration) {
+         byte[] bytes = randomBytes(random);
+         ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+         int start = random.nextInt(bytes.length + 1);
+         int end = start + random.nextInt(bytes.length - start + 1);
+         byte value = DELIMITERS[random.nextInt(DELIMITERS.length)];
+         assertThat(ByteSearch.indexOf(buf, start, end, value)).isEqualTo(naiveIndexOf(bytes, start, end, value, value));
+      }
+   }
+
+   @Test
+   public void testIndexOfAny() {
+      Random random = new Random(42);
+      for (int iteration = 0; iteration < 10000; ++iteration) {
+         byte[] bytes = randomBytes(random);
+         ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+         int start = random.nextInt(bytes.length + 1);
+         int end = start + random.nextInt(bytes.length - start + 1);
+         byte value1 = DELIMITERS[random.nextInt(DELIMITERS.length)];
+         // include bytes with the highest bit set
+         byte value2 = (byte) random.nextInt(256);
+         assertThat(ByteSearch.indexOfAny(buf, start, end, value1, value2)).isEqualTo(naiveIndexOf(bytes, start, end, value1, value2));
+      }
+   }
+
+   @Test
+   public void testAdjacentMatches() {
+      // 0x01 right after the searched byte used to be a false positive for the simple SWAR zero-byte test
+      ByteBuf buf = Unpooled.wrappedBuffer(new byte[]{ 'x', 'x', 'x', '<' + 1, '<', 'x', 'x', 'x', 'x' });
+      assertThat(ByteSearch.indexOf(buf, 0, buf.writerIndex(), (byte) '<')).isEqualTo(4);
+      assertThat(ByteSearch.indexOf(buf, 5, buf.writerIndex(), (byte) '<')).isEqualTo(-1);
+   }
+
+   private static byte[] randomBytes(Random random) {
+      byte[] bytes = new byte[random.nextInt(64)];
+      for (int i = 0; i < bytes.length; ++i) {
+         bytes[i] = random.nextInt(8) == 0 ? DELIMITERS[random.nextInt(DELIMITERS.length)] : (byte) random.nextInt(256);
+      }
+      return bytes;
+   }
+
+   private static int naiveIndexOf(byte[] bytes, int start, int end, byte value1, byte value2) {
+      for (int i = start; i < end; ++i) {
+         if (bytes[i] == value1 || bytes[i] == value2) {
+            return i;
+         }
+      }
+      return -1;
+   }
+}
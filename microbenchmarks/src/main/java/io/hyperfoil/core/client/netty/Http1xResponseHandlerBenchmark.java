@@ -0,0 +1,189 @@
+package io.hyperfoil.core.client.netty;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLException;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.connection.HttpRequest;
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.api.http.HttpResponseHandlers;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.microbenchmarks.Bodies;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Parses a HTTP 1.1 response read in network-sized buffers, with the parser in an {@link EmbeddedChannel} pipeline.
+ * The benchmark lives in the package of the parser as it is not a public class.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class Http1xResponseHandlerBenchmark {
+   private static final String HEADERS = "HTTP/1.1 200 OK\r\n" +
+         "Date: Sat, 17 Oct 2026 10:00:00 GMT\r\n" +
+         "Server: nginx/1.18.0\r\n" +
+         "Content-Type: application/json; charset=utf-8\r\n" +
+         "Cache-Control: private, max-age=0, must-revalidate\r\n" +
+         "ETag: \"5f3c-1a2b3c4d5e6f\"\r\n" +
+         "Vary: Accept-Encoding\r\n" +
+         "Set-Cookie: session=7c4a8d09ca3762af61e59520943dc26494f8941b; Path=/; HttpOnly\r\n" +
+         "X-Request-Id: 1b4e28ba-2fa1-11d2-883f-0016d3cca427\r\n" +
+         "X-Frame-Options: SAMEORIGIN\r\n";
+
+   @Param({ "1460", "65536" })
+   int chunkSize;
+
+   @Param({ "false", "true" })
+   boolean chunkedEncoding;
+
+   /**
+    * With header handlers all headers are copied to AsciiStrings, otherwise only those used by cookies and cache.
+    */
+   @Param({ "false", "true" })
+   boolean headerHandlers;
+
+   private ByteBuf[] chunks;
+   private EmbeddedChannel channel;
+   private Handlers handlers;
+
+   @Setup
+   public void setup() throws SSLException {
+      chunks = Bodies.split(response(Bodies.load("products.json")), chunkSize);
+      handlers = new Handlers(headerHandlers);
+      HttpRequest request = new HttpRequest(SessionFactory.forTesting());
+      request.method = HttpMethod.GET;
+      request.start(handlers, null, null);
+
+      channel = new EmbeddedChannel();
+      Benchmark benchmark = Benchmark.forTesting();
+      HttpClientPoolImpl client = new HttpClientPoolImpl(benchmark.defaultHttp(), new EventLoop[]{ channel.eventLoop() }, benchmark, 0);
+      // The same request is used for all responses; the connection does not complete it
+      Http1xConnection connection = new Http1xConnection(client, (c, t) -> { }) {
+         @Override
+         public HttpRequest peekRequest(int streamId) {
+            return request;
+         }
+
+         @Override
+         void completeResponse(HttpRequest expected) {
+            ++handlers.responses;
+         }
+      };
+      request.attach(connection);
+      channel.pipeline().addLast(new Http1xResponseHandler(connection, false), connection);
+   }
+
+   private byte[] response(byte[] body) {
+      ByteArrayOutputStream response = new ByteArrayOutputStream();
+      byte[] headers = HEADERS.getBytes(StandardCharsets.US_ASCII);
+      response.write(headers, 0, headers.length);
+      if (chunkedEncoding) {
+         write(response, "Transfer-Encoding: chunked\r\n\r\n");
+         for (int offset = 0; offset < body.length; offset += 8192) {
+            int length = Math.min(8192, body.length - offset);
+            write(response, Integer.toHexString(length) + "\r\n");
+            response.write(body, offset, length);
+            write(response, "\r\n");
+         }
+         write(response, "0\r\n\r\n");
+      } else {
+         write(response, "Content-Length: " + body.length + "\r\n\r\n");
+         response.write(body, 0, body.length);
+      }
+      return response.toByteArray();
+   }
+
+   private static void write(ByteArrayOutputStream stream, String str) {
+      byte[] bytes = str.getBytes(StandardCharsets.US_ASCII);
+      stream.write(bytes, 0, bytes.length);
+   }
+
+   @TearDown
+   public void tearDown() {
+      channel.finishAndReleaseAll();
+      for (ByteBuf chunk : chunks) {
+         chunk.release();
+      }
+   }
+
+   @org.openjdk.jmh.annotations.Benchmark
+   public long parseResponse() {
+      for (ByteBuf chunk : chunks) {
+         // The handler releases the buffer
+         channel.writeInbound(chunk.retainedDuplicate());
+      }
+      return handlers.checksum + handlers.responses;
+   }
+
+   private static class Handlers implements HttpResponseHandlers {
+      private final boolean headerHandlers;
+      long checksum;
+      int responses;
+
+      Handlers(boolean headerHandlers) {
+         this.headerHandlers = headerHandlers;
+      }
+
+      @Override
+      public void handleStatus(HttpRequest request, int status, String reason) {
+         checksum += status;
+      }
+
+      @Override
+      public void handleHeader(HttpRequest request, CharSequence header, CharSequence value) {
+         checksum += header.length() + value.length();
+      }
+
+      @Override
+      public void handleBodyPart(HttpRequest request, ByteBuf data, int offset, int length, boolean isLastPart) {
+         checksum += length;
+      }
+
+      @Override
+      public void handleRawRequest(HttpRequest request, ByteBuf data, int offset, int length) {
+      }
+
+      @Override
+      public void handleRawResponse(HttpRequest request, ByteBuf data, int offset, int length, boolean isLastPart) {
+      }
+
+      @Override
+      public boolean requiresHandlingHeaders(HttpRequest request) {
+         return headerHandlers;
+      }
+
+      @Override
+      public boolean requiresHandlingBody(HttpRequest request) {
+         return true;
+      }
+
+      @Override
+      public void handleThrowable(HttpRequest request, Throwable throwable) {
+         throw new IllegalStateException(throwable);
+      }
+
+      @Override
+      public void handleEnd(HttpRequest request, boolean executed) {
+      }
+   }
+}
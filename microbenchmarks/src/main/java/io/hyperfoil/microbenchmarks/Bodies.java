@@ -0,0 +1,45 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import io.hyperfoil.core.util.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Response bodies used as benchmark input; these resemble responses from a typical e-shop.
+ */
+public final class Bodies {
+   private Bodies() {
+   }
+
+   public static byte[] load(String name) {
+      try (InputStream stream = Bodies.class.getClassLoader().getResourceAsStream("bodies/" + name)) {
+         if (stream == null) {
+            throw new IllegalArgumentException("Missing body " + name);
+         }
+         return Util.toByteArray(stream);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /**
+    * Splits the body into direct buffers as if it was read from the network.
+    *
+    * @param body      Response body.
+    * @param chunkSize Size of a single read.
+    * @return Buffers.
+    */
+   public static ByteBuf[] split(byte[] body, int chunkSize) {
+      ByteBuf[] chunks = new ByteBuf[(body.length + chunkSize - 1) / chunkSize];
+      for (int i = 0; i < chunks.length; ++i) {
+         int offset = i * chunkSize;
+         int length = Math.min(chunkSize, body.length - offset);
+         chunks[i] = Unpooled.directBuffer(length).writeBytes(body, offset, length);
+      }
+      return chunks;
+   }
+}
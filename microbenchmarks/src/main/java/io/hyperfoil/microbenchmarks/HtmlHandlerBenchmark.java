@@ -0,0 +1,72 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.processor.HttpRequestProcessorBuilder;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.HtmlHandler;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Scans a HTML page for embedded resources (images, scripts, stylesheets...).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HtmlHandlerBenchmark {
+   @Param({ "1460", "65536" })
+   int chunkSize;
+
+   private ByteBuf[] chunks;
+   private Session session;
+   private Sink sink;
+   private HtmlHandler handler;
+
+   @Setup
+   public void setup() {
+      chunks = Bodies.split(Bodies.load("products.html"), chunkSize);
+      session = SessionFactory.forTesting();
+      sink = new Sink();
+      HtmlHandler.Builder builder = new HtmlHandler.Builder();
+      // The page uses only absolute paths and URLs; relative ones would need the current request
+      builder.onEmbeddedResource().ignoreExternal(false).processor((HttpRequestProcessorBuilder) fragmented -> sink);
+      builder.prepareBuild();
+      handler = builder.build(false);
+      handler.reserve(session);
+   }
+
+   @TearDown
+   public void tearDown() {
+      for (ByteBuf chunk : chunks) {
+         chunk.release();
+      }
+   }
+
+   @Benchmark
+   public long embeddedResources() {
+      handler.before(session);
+      for (int i = 0; i < chunks.length; ++i) {
+         ByteBuf chunk = chunks[i];
+         handler.process(session, chunk, chunk.readerIndex(), chunk.readableBytes(), i == chunks.length - 1);
+      }
+      handler.after(session);
+      return sink.checksum;
+   }
+}
@@ -0,0 +1,70 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.JsonHandler;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Selects values from a JSON response delivered in network-sized chunks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonParserBenchmark {
+   @Param({ ".products[].id", ".products[].price.amount", ".page.totalPages" })
+   String query;
+
+   @Param({ "1460", "65536" })
+   int chunkSize;
+
+   private ByteBuf[] chunks;
+   private Session session;
+   private Sink sink;
+   private JsonHandler handler;
+
+   @Setup
+   public void setup() {
+      chunks = Bodies.split(Bodies.load("products.json"), chunkSize);
+      session = SessionFactory.forTesting();
+      sink = new Sink();
+      handler = new JsonHandler(query, false, null, sink);
+      handler.reserve(session);
+   }
+
+   @TearDown
+   public void tearDown() {
+      for (ByteBuf chunk : chunks) {
+         chunk.release();
+      }
+   }
+
+   @Benchmark
+   public long select() {
+      handler.before(session);
+      for (int i = 0; i < chunks.length; ++i) {
+         ByteBuf chunk = chunks[i];
+         handler.process(session, chunk, chunk.readerIndex(), chunk.readableBytes(), i == chunks.length - 1);
+      }
+      handler.after(session);
+      return sink.checksum;
+   }
+}
@@ -0,0 +1,55 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.collection.LimitedPool;
+
+/**
+ * Acquires and releases objects the way sessions use their request and sequence pools:
+ * a few objects are in use at any moment while the pool is mostly full.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LimitedPoolBenchmark {
+   private static final int IN_USE = 4;
+
+   @Param({ "16", "256" })
+   int capacity;
+
+   private LimitedPool<Object> pool;
+   private final Object[] acquired = new Object[IN_USE];
+
+   @Setup
+   public void setup() {
+      pool = new LimitedPool<>(capacity, Object::new);
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(IN_USE)
+   public void acquireRelease() {
+      for (int i = 0; i < IN_USE; ++i) {
+         acquired[i] = pool.acquire();
+      }
+      // Release in different order than acquired
+      for (int i = IN_USE - 1; i >= 0; --i) {
+         pool.release(acquired[i]);
+      }
+   }
+}
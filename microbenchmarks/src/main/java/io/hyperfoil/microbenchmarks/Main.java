@@ -0,0 +1,42 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs JMH with the usual command-line options; unless set otherwise the allocation rate is reported
+ * using the GC profiler and the results are written to <code>jmh-result.json</code>
+ * so that these can be compared to the baseline.
+ */
+public final class Main {
+   private Main() {
+   }
+
+   public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+      CommandLineOptions cmdOptions = new CommandLineOptions(args);
+      if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListProfilers()
+            || cmdOptions.shouldListResultFormats() || cmdOptions.shouldListWithParams()) {
+         org.openjdk.jmh.Main.main(args);
+         return;
+      }
+      ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+      if (cmdOptions.getProfilers().isEmpty()) {
+         builder.addProfiler(GCProfiler.class);
+      }
+      if (!cmdOptions.getResultFormat().hasValue()) {
+         builder.resultFormat(ResultFormatType.JSON);
+      }
+      if (!cmdOptions.getResult().hasValue()) {
+         builder.result("jmh-result.json");
+      }
+      new Runner(builder.build()).run();
+   }
+}
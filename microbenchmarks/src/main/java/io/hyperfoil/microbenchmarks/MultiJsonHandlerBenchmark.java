@@ -0,0 +1,90 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.JsonHandler;
+import io.hyperfoil.core.handlers.MultiJsonHandler;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Selects several values from one JSON response either with independent handlers or in a single pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MultiJsonHandlerBenchmark {
+   private static final String[] QUERIES = { ".products[].id", ".products[].price.amount", ".page.totalPages" };
+
+   @Param({ "1460", "65536" })
+   int chunkSize;
+
+   private ByteBuf[] chunks;
+   private Session session;
+   private Sink sink;
+   private Processor[] separate;
+   private Processor merged;
+
+   @Setup
+   public void setup() {
+      chunks = Bodies.split(Bodies.load("products.json"), chunkSize);
+      session = SessionFactory.forTesting();
+      sink = new Sink();
+      JsonHandler[] handlers = new JsonHandler[QUERIES.length];
+      for (int i = 0; i < QUERIES.length; ++i) {
+         handlers[i] = new JsonHandler(QUERIES[i], false, null, sink);
+         handlers[i].reserve(session);
+      }
+      separate = handlers;
+      merged = MultiJsonHandler.merge(handlers)[0];
+      ((MultiJsonHandler) merged).reserve(session);
+   }
+
+   @TearDown
+   public void tearDown() {
+      for (ByteBuf chunk : chunks) {
+         chunk.release();
+      }
+   }
+
+   @Benchmark
+   public long separate() {
+      for (Processor handler : separate) {
+         run(handler);
+      }
+      return sink.checksum;
+   }
+
+   @Benchmark
+   public long merged() {
+      run(merged);
+      return sink.checksum;
+   }
+
+   private void run(Processor handler) {
+      handler.before(session);
+      for (int i = 0; i < chunks.length; ++i) {
+         ByteBuf chunk = chunks[i];
+         handler.process(session, chunk, chunk.readerIndex(), chunk.readableBytes(), i == chunks.length - 1);
+      }
+      handler.after(session);
+   }
+}
@@ -0,0 +1,80 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.generators.Pattern;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Renders a request path from session variables, both to a string and directly to a buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PatternBenchmark {
+   private final Pattern path = new Pattern("/api/products/${productId}/reviews?page=${%d:page}&sort=date", false);
+   private final Pattern query = new Pattern("/search?q=${urlencode:query}&lang=${lang}", false);
+   private Session session;
+   private ByteBuf buffer;
+
+   @Setup
+   public void setup() {
+      session = SessionFactory.forTesting();
+      setObject("productId", "1042");
+      setObject("query", "ceramic teapot & kettle");
+      setObject("lang", "en");
+      Access page = SessionFactory.access("page");
+      page.declareInt(session);
+      page.setInt(session, 17);
+      buffer = ByteBufAllocator.DEFAULT.directBuffer(256);
+   }
+
+   private void setObject(String name, String value) {
+      Access access = SessionFactory.access(name);
+      access.declareObject(session);
+      access.setObject(session, value);
+   }
+
+   @TearDown
+   public void tearDown() {
+      buffer.release();
+   }
+
+   @Benchmark
+   public String pathToString() {
+      return path.apply(session);
+   }
+
+   @Benchmark
+   public int pathToBuffer() {
+      buffer.clear();
+      path.accept(session, buffer);
+      return buffer.writerIndex();
+   }
+
+   @Benchmark
+   public int urlEncodedToBuffer() {
+      buffer.clear();
+      query.accept(session, buffer);
+      return buffer.writerIndex();
+   }
+}
@@ -0,0 +1,92 @@
+package io.hyperfoil.microbenchmarks;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.SharedData;
+import io.hyperfoil.core.client.netty.HttpDestinationTableImpl;
+import io.hyperfoil.core.impl.PhaseInstanceImpl;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+/**
+ * Runs a session from start to completion: instantiating the initial sequences, invoking the steps,
+ * enabling another sequence and resetting the session. No requests are sent, this is the engine overhead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SessionBenchmark {
+   private Session session;
+   private PhaseInstance phaseInstance;
+   private int completed;
+
+   @Setup
+   public void setup() {
+      // @formatter:off
+      Benchmark benchmark = BenchmarkBuilder.builder()
+            .name("microbenchmark")
+            .http().host("localhost").endHttp()
+            .addPhase("run").atOnce(1)
+               .scenario()
+                  .initialSequence("first")
+                     .step(SC).randomInt("a <- 1 .. 100").endStep()
+                     .step(SC).randomInt("b <- 1 .. 100").endStep()
+                     .step(SC).nextSequence("second")
+                  .endSequence()
+                  .sequence("second")
+                     .step(SC).randomInt("c <- 1 .. 100").endStep()
+                  .endSequence()
+               .endScenario()
+            .endPhase()
+            .build();
+      // @formatter:on
+      Phase phase = benchmark.phases().iterator().next();
+      session = SessionFactory.create(phase.scenario(), 0, 0, 0);
+      session.attach(ImmediateEventExecutor.INSTANCE, null, new SharedData[SharedData.Scope.values().length],
+            new HttpDestinationTableImpl(Collections.emptyMap()), null);
+      session.reserve(phase.scenario());
+      phaseInstance = new PhaseInstanceImpl<Phase>(phase, 0) {
+         @Override
+         public void proceed(EventExecutorGroup executorGroup) {
+         }
+
+         @Override
+         public void reserveSessions() {
+         }
+
+         @Override
+         public void notifyFinished(Session session) {
+            ++completed;
+         }
+      };
+   }
+
+   @org.openjdk.jmh.annotations.Benchmark
+   public int runSession() {
+      // The immediate executor runs the session synchronously
+      session.start(phaseInstance);
+      return completed;
+   }
+}
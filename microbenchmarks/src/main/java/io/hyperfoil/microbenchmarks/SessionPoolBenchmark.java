@@ -0,0 +1,55 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.impl.AffinityAwareSessionPool;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+/**
+ * Acquires and releases sessions in the elastic session pool. The benchmark thread acts as the executor
+ * owning the sessions (the immediate executor is always 'in event loop') so this is the local, uncontended path
+ * taken when a session finishes and another user arrives.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SessionPoolBenchmark {
+   private static final Scenario SCENARIO = new Scenario(new Sequence[0], new Sequence[0], new String[0], new String[0], 16, 16);
+   private static final int SESSIONS = 64;
+
+   private AffinityAwareSessionPool pool;
+   private int counter;
+
+   @Setup
+   public void setup() {
+      pool = new AffinityAwareSessionPool(new EventExecutor[]{ ImmediateEventExecutor.INSTANCE },
+            () -> SessionFactory.create(SCENARIO, 0, 0, counter++), () -> null);
+      pool.reserve(SESSIONS);
+   }
+
+   @Benchmark
+   public Session acquireRelease() {
+      Session session = pool.acquire();
+      pool.release(session);
+      return session;
+   }
+}
@@ -0,0 +1,20 @@
+package io.hyperfoil.microbenchmarks;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.Session;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Terminal processor that only touches the data so that the parsers cannot be optimized away.
+ */
+class Sink implements Processor {
+   long checksum;
+
+   @Override
+   public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+      checksum += length;
+      if (length > 0) {
+         checksum += data.getByte(offset);
+      }
+   }
+}
@@ -0,0 +1,60 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.statistics.Statistics;
+
+/**
+ * Records request outcomes into the statistics of a single step; the snapshots are never collected
+ * so this measures only the writer side.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StatisticsBenchmark {
+   private static final int VALUES = 1024;
+
+   private final long[] responseTimes = new long[VALUES];
+   private Statistics statistics;
+   private long timestamp;
+   private int index;
+
+   @Setup
+   public void setup() {
+      timestamp = System.currentTimeMillis();
+      statistics = new Statistics(timestamp);
+      statistics.start(timestamp);
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (int i = 0; i < VALUES; ++i) {
+         // Log-normal-ish distribution around 1 ms
+         responseTimes[i] = (long) (1_000_000 * Math.exp(random.nextGaussian() / 2));
+      }
+   }
+
+   @Benchmark
+   public void recordResponse() {
+      long responseTime = responseTimes[index++ & (VALUES - 1)];
+      statistics.recordResponse(timestamp, 10_000, responseTime, responseTime);
+   }
+
+   @Benchmark
+   public void recordCompleteResponse() {
+      long responseTime = responseTimes[index++ & (VALUES - 1)];
+      statistics.recordResponse(timestamp, 200, 10_000, responseTime, responseTime, false);
+   }
+}